@@ -25,6 +25,9 @@ public class JwtConfig {
     // Token issuer
     private String issuer = "auth-service";
 
+    // Recently verified access tokens kept to skip signature checks; 0 disables the cache
+    private int verifiedCacheSize = 10000;
+
     // Password security limits (CVE-2025-22228 mitigation)
     private int maxPasswordLength = 72; // BCrypt limit
     private int minPasswordLength = 8;
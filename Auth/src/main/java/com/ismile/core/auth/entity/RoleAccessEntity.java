@@ -1,11 +1,13 @@
 package com.ismile.core.auth.entity;
 
+import com.ismile.core.auth.service.RoleAccessChangeListener;
 import jakarta.persistence.*;
 import lombok.Data;
 
 @Entity
 @Data
 @Table(name = "role_access")
+@EntityListeners(RoleAccessChangeListener.class)
 public class RoleAccessEntity {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -2,6 +2,7 @@ package com.ismile.core.auth.repository;
 
 import com.ismile.core.auth.entity.RoleAccessEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 import java.util.List;
 
@@ -14,4 +15,18 @@ public interface RoleAccessRepository extends JpaRepository<RoleAccessEntity, Lo
      * @return True if access is granted, false otherwise.
      */
     boolean existsByRoleCodeInAndOperationCodeAndIsActiveTrue(List<String> roleCodes, String operationCode);
+
+    /**
+     * All active grants as (role code, operation code) pairs, without loading the entities.
+     * Used to build the in-memory permission matrix.
+     */
+    @Query("select ra.role.code as roleCode, ra.operation.code as operationCode "
+            + "from RoleAccessEntity ra where ra.isActive = true")
+    List<RoleOperationView> findActiveGrants();
+
+    interface RoleOperationView {
+        String getRoleCode();
+
+        String getOperationCode();
+    }
 }
@@ -4,7 +4,6 @@ import com.ismile.core.auth.entity.AuditLogEntity;
 import com.ismile.core.auth.repository.AuditLogRepository;
 import com.ismile.core.auth.service.AuthorizationCheckService; // Import the new service
 import io.grpc.*;
-import io.jsonwebtoken.Claims;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
@@ -69,14 +68,11 @@ public class GrpcAuthInterceptor implements ServerInterceptor {
         String token = authHeader.substring(7);
 
         try {
-            // Validate token
-            Claims claims = jwtTokenProvider.validateToken(token);
-
-            // Extract user info from token
-            int userId = Integer.parseInt(claims.getSubject());
-            String username = claims.get("username", String.class);
-            @SuppressWarnings("unchecked")
-            List<String> roles = claims.get("roles", List.class);
+            // Validate token and extract user info from it
+            VerifiedToken verified = jwtTokenProvider.verify(token);
+            int userId = verified.userId();
+            String username = verified.username();
+            List<String> roles = verified.roles();
 
             log.debug("Authenticated user: {} (ID: {}) with roles: {}", username, userId, roles);
 
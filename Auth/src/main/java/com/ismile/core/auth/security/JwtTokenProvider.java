@@ -3,6 +3,7 @@ package com.ismile.core.auth.security;
 import com.ismile.core.auth.config.JwtConfig;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
@@ -22,6 +23,19 @@ import java.util.List;
 public class JwtTokenProvider {
 
     private final JwtConfig jwtConfig;
+    private final VerifiedTokenCache verifiedTokenCache;
+
+    // Derived from the secret once; both are immutable and thread-safe
+    private SecretKey signingKey;
+    private JwtParser parser;
+
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(jwtConfig.getSecret().getBytes(StandardCharsets.UTF_8));
+        parser = Jwts.parser()
+                .verifyWith(signingKey)
+                .build();
+    }
 
     /**
      * Generate access token for user
@@ -62,11 +76,7 @@ public class JwtTokenProvider {
      */
     public Claims validateToken(String token) {
         try {
-            return Jwts.parser()
-                    .verifyWith(getSigningKey())
-                    .build()
-                    .parseSignedClaims(token)
-                    .getPayload();
+            return parser.parseSignedClaims(token).getPayload();
         } catch (ExpiredJwtException e) {
             log.warn("JWT token expired: {}", e.getMessage());
             throw new SecurityException("Token expired");
@@ -82,29 +92,50 @@ public class JwtTokenProvider {
         }
     }
 
+    /**
+     * Validate token and read user ID, username and roles in one pass.
+     * Tokens verified recently are served from the cache until they expire.
+     */
+    public VerifiedToken verify(String token) {
+        VerifiedToken cached = verifiedTokenCache.get(token);
+        if (cached != null) {
+            return cached;
+        }
+
+        Claims claims = validateToken(token);
+        List<?> roles = claims.get("roles", List.class);
+        Date expiration = claims.getExpiration();
+        VerifiedToken verified = new VerifiedToken(
+                Integer.parseInt(claims.getSubject()),
+                claims.get("username", String.class),
+                roles != null ? roles.stream().map(String::valueOf).toList() : List.of(),
+                expiration != null ? expiration.getTime() : Long.MAX_VALUE);
+        if (expiration != null) {
+            // Tokens without an expiration are never cached
+            verifiedTokenCache.put(token, verified);
+        }
+        return verified;
+    }
+
     /**
      * Extract user ID from token
      */
     public int getUserIdFromToken(String token) {
-        Claims claims = validateToken(token);
-        return Integer.parseInt(claims.getSubject());
+        return verify(token).userId();
     }
 
     /**
      * Extract username from token
      */
     public String getUsernameFromToken(String token) {
-        Claims claims = validateToken(token);
-        return claims.get("username", String.class);
+        return verify(token).username();
     }
 
     /**
      * Extract roles from token
      */
-    @SuppressWarnings("unchecked")
     public List<String> getRolesFromToken(String token) {
-        Claims claims = validateToken(token);
-        return claims.get("roles", List.class);
+        return verify(token).roles();
     }
 
     /**
@@ -123,7 +154,6 @@ public class JwtTokenProvider {
      * Get signing key from secret
      */
     private SecretKey getSigningKey() {
-        byte[] keyBytes = jwtConfig.getSecret().getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
+        return signingKey;
     }
 }
\ No newline at end of file
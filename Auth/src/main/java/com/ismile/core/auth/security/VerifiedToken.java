@@ -0,0 +1,18 @@
+package com.ismile.core.auth.security;
+
+import java.util.List;
+
+/**
+ * Claims of a JWT whose signature has been verified, read once from the token.
+ *
+ * @param userId          subject of the token
+ * @param username        "username" claim, null for refresh tokens
+ * @param roles           "roles" claim, empty for refresh tokens
+ * @param expiresAtMillis expiration time, epoch milliseconds
+ */
+public record VerifiedToken(int userId, String username, List<String> roles, long expiresAtMillis) {
+
+    public boolean isExpired(long nowMillis) {
+        return nowMillis >= expiresAtMillis;
+    }
+}
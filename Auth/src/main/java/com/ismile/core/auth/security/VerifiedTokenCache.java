@@ -0,0 +1,75 @@
+package com.ismile.core.auth.security;
+
+import com.ismile.core.auth.config.JwtConfig;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bounded cache of recently verified tokens, so a client sending the same bearer token
+ * on every request only pays for the signature check once.
+ *
+ * Keyed by the SHA-256 digest of the token, so raw tokens are not kept in memory.
+ * An entry is only served until the token's own expiration.
+ */
+@Component
+@Slf4j
+public class VerifiedTokenCache {
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    });
+
+    private final int maxSize;
+    private final Map<ByteBuffer, VerifiedToken> tokens = new ConcurrentHashMap<>();
+
+    public VerifiedTokenCache(JwtConfig jwtConfig) {
+        this.maxSize = jwtConfig.getVerifiedCacheSize();
+    }
+
+    /**
+     * @return the verified claims of {@code token}, or null if not cached or expired
+     */
+    public VerifiedToken get(String token) {
+        if (maxSize <= 0) {
+            return null;
+        }
+        ByteBuffer key = key(token);
+        VerifiedToken verified = tokens.get(key);
+        if (verified != null && verified.isExpired(System.currentTimeMillis())) {
+            tokens.remove(key, verified);
+            return null;
+        }
+        return verified;
+    }
+
+    public void put(String token, VerifiedToken verified) {
+        if (maxSize <= 0) {
+            return;
+        }
+        if (tokens.size() >= maxSize) {
+            long now = System.currentTimeMillis();
+            tokens.values().removeIf(entry -> entry.isExpired(now));
+            if (tokens.size() >= maxSize) {
+                // Still full of live tokens: start over rather than track recency on every hit
+                log.debug("Verified token cache full ({} entries), clearing", tokens.size());
+                tokens.clear();
+            }
+        }
+        tokens.put(key(token), verified);
+    }
+
+    private ByteBuffer key(String token) {
+        return ByteBuffer.wrap(SHA_256.get().digest(token.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -4,7 +4,6 @@ import com.ismile.core.auth.repository.RoleAccessRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
@@ -18,6 +17,7 @@ import java.util.List;
 public class AuthorizationCheckService {
 
     private final RoleAccessRepository roleAccessRepository;
+    private final PermissionMatrix permissionMatrix;
 
     /**
      * Checks permission based on user roles and the requested operation.
@@ -26,14 +26,16 @@ public class AuthorizationCheckService {
      * @param operationCode The unique identifier for the operation (the gRPC full method name).
      * @return true if the user is authorized, false otherwise.
      */
-    @Transactional(readOnly = true)
     public boolean hasPermission(List<String> userRoles, String operationCode) {
         if (userRoles == null || userRoles.isEmpty()) {
             log.warn("Authorization check failed: User has no roles. Operation: {}", operationCode);
             return false;
         }
 
-        boolean hasAccess = roleAccessRepository.existsByRoleCodeInAndOperationCodeAndIsActiveTrue(userRoles, operationCode);
+        // Answered from memory; the database is only asked if the matrix could not be loaded yet
+        boolean hasAccess = permissionMatrix.isLoaded()
+                ? permissionMatrix.hasPermission(userRoles, operationCode)
+                : roleAccessRepository.existsByRoleCodeInAndOperationCodeAndIsActiveTrue(userRoles, operationCode);
 
         if (!hasAccess) {
             log.warn("ACCESS DENIED for roles {} on operation {}", userRoles, operationCode);
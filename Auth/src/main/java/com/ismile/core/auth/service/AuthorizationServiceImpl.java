@@ -3,6 +3,7 @@ package com.ismile.core.auth.service;
 import com.google.rpc.Code;
 import com.google.rpc.Status;
 import com.ismile.core.auth.security.JwtTokenProvider;
+import com.ismile.core.auth.security.VerifiedToken;
 import io.envoyproxy.envoy.service.auth.v3.AuthorizationGrpc;
 import io.envoyproxy.envoy.service.auth.v3.CheckRequest;
 import io.envoyproxy.envoy.service.auth.v3.CheckResponse;
@@ -16,6 +17,7 @@ import io.envoyproxy.envoy.type.v3.HttpStatus;
 import io.envoyproxy.envoy.type.v3.StatusCode;
 
 import java.util.List;
+import java.util.Set;
 
 /**
  * gRPC service that implements Envoy's External Authorization API.
@@ -33,7 +35,7 @@ public class AuthorizationServiceImpl extends AuthorizationGrpc.AuthorizationImp
     // --- NEW: PUBLIC ENDPOINTS WHITELIST ---
     // This list contains all operation codes that should bypass JWT authentication.
     // A user must be able to log in, register, and verify OTP without being already logged in.
-    private static final List<String> PUBLIC_ENDPOINTS = List.of(
+    private static final Set<String> PUBLIC_ENDPOINTS = Set.of(
             "auth.AuthService/Login",
             "auth.AuthService/Register",
             "auth.AuthService/RefreshToken",
@@ -61,9 +63,9 @@ public class AuthorizationServiceImpl extends AuthorizationGrpc.AuthorizationImp
             String authHeader = request.getAttributes().getRequest().getHttp()
                     .getHeadersOrDefault("authorization", "");
 
-            log.debug("=== Envoy Auth Check Initiated ===");
-            log.debug("Operation Code (Path): {}", operationCode);
-            log.debug("Authorization Header: {}", authHeader);
+            // The header carries the bearer token itself, so it is never logged
+            log.debug("Envoy auth check for operation {} (authorization header present: {})",
+                    operationCode, !authHeader.isEmpty());
 
             // --- 0. PUBLIC ENDPOINT CHECK ---
             // First, check if the requested operation is on the public whitelist.
@@ -84,13 +86,14 @@ public class AuthorizationServiceImpl extends AuthorizationGrpc.AuthorizationImp
 
             String token = authHeader.substring(7);
 
-            // Validate the JWT. This will throw an exception if the token is invalid or expired.
-            jwtTokenProvider.validateToken(token);
+            // Validate the JWT and read its claims in one pass; recently verified tokens come from cache.
+            // This will throw an exception if the token is invalid or expired.
+            VerifiedToken verified = jwtTokenProvider.verify(token);
 
             // --- 2. AUTHORIZATION ---
-            // If the token is valid, extract roles to check permissions.
-            List<String> userRoles = jwtTokenProvider.getRolesFromToken(token);
-            String username = jwtTokenProvider.getUsernameFromToken(token);
+            // If the token is valid, use its roles to check permissions.
+            List<String> userRoles = verified.roles();
+            String username = verified.username();
 
             // Use AuthorizationCheckService to check if any of the user's roles have permission for this operation.
             if (!authorizationCheckService.hasPermission(userRoles, operationCode)) {
@@ -0,0 +1,132 @@
+package com.ismile.core.auth.service;
+
+import com.ismile.core.auth.repository.RoleAccessRepository;
+import com.ismile.core.auth.repository.RoleAccessRepository.RoleOperationView;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory role -> operation permission matrix, so authorization checks do not
+ * touch the database.
+ *
+ * Every role code gets a bit index; every operation maps to the set of role bits
+ * granted access. The matrix is loaded at startup, reloaded after role access
+ * changes made through this service commit, and periodically to pick up changes
+ * made directly in the database or by other instances.
+ *
+ * Those outside changes are therefore only seen after up to
+ * {@code auth.permissions.refresh-interval-ms} (30 s by default): until then a
+ * revoked grant is still allowed and a new one still denied. Lower the interval
+ * if that window is too long, at the cost of one grants query per reload.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PermissionMatrix {
+
+    private static final Object PENDING_REFRESH = new Object();
+
+    private final RoleAccessRepository roleAccessRepository;
+
+    // Replaced as a whole on refresh, never modified; null until the first successful load
+    private volatile Snapshot snapshot;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        refresh();
+    }
+
+    /**
+     * Reload the matrix from the database. On failure the previous matrix stays in use.
+     */
+    @Scheduled(fixedDelayString = "${auth.permissions.refresh-interval-ms:30000}",
+            initialDelayString = "${auth.permissions.refresh-interval-ms:30000}")
+    public synchronized void refresh() {
+        try {
+            long started = System.nanoTime();
+            Snapshot loaded = Snapshot.of(roleAccessRepository.findActiveGrants());
+            snapshot = loaded;
+            log.debug("Permission matrix loaded: {} roles, {} operations in {} ms",
+                    loaded.roles().size(), loaded.operations().size(), (System.nanoTime() - started) / 1_000_000);
+        } catch (RuntimeException e) {
+            log.error("Failed to load permission matrix, keeping the previous one: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Reload once the current transaction commits (at most once per transaction),
+     * or right away outside of a transaction.
+     */
+    public void refreshAfterCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            refresh();
+            return;
+        }
+        if (TransactionSynchronizationManager.hasResource(PENDING_REFRESH)) {
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(PENDING_REFRESH, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                refresh();
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(PENDING_REFRESH);
+            }
+        });
+    }
+
+    public boolean isLoaded() {
+        return snapshot != null;
+    }
+
+    /**
+     * @return true if any of {@code roleCodes} has active access to {@code operationCode};
+     * false as well while the matrix is not loaded, see {@link #isLoaded()}
+     */
+    public boolean hasPermission(List<String> roleCodes, String operationCode) {
+        Snapshot current = snapshot;
+        return current != null && current.allows(roleCodes, operationCode);
+    }
+
+    private record Snapshot(Map<String, Integer> roles, Map<String, BitSet> operations) {
+
+        static Snapshot of(List<RoleOperationView> grants) {
+            Map<String, Integer> roles = new HashMap<>();
+            Map<String, BitSet> operations = new HashMap<>();
+            for (RoleOperationView grant : grants) {
+                int role = roles.computeIfAbsent(grant.getRoleCode(), code -> roles.size());
+                operations.computeIfAbsent(grant.getOperationCode(), code -> new BitSet()).set(role);
+            }
+            return new Snapshot(Map.copyOf(roles), Map.copyOf(operations));
+        }
+
+        boolean allows(List<String> roleCodes, String operationCode) {
+            BitSet granted = operations.get(operationCode);
+            if (granted == null) {
+                return false;
+            }
+            for (String roleCode : roleCodes) {
+                Integer role = roles.get(roleCode);
+                if (role != null && granted.get(role)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
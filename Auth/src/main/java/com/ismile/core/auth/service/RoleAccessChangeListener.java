@@ -0,0 +1,29 @@
+package com.ismile.core.auth.service;
+
+import com.ismile.core.auth.entity.RoleAccessEntity;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA listener on {@link RoleAccessEntity} that reloads the {@link PermissionMatrix}
+ * after role access rows are added, changed or removed (including removals cascaded
+ * from roles and operations).
+ */
+@Component
+@RequiredArgsConstructor
+public class RoleAccessChangeListener {
+
+    // Looked up lazily: the listener is created while the EntityManagerFactory is being built
+    private final ObjectProvider<PermissionMatrix> permissionMatrix;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChange(RoleAccessEntity roleAccess) {
+        permissionMatrix.getObject().refreshAfterCommit();
+    }
+}
@@ -0,0 +1,100 @@
+package com.ismile.core.auth.security;
+
+import com.ismile.core.auth.config.JwtConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtTokenProviderTest {
+
+    private static final String SECRET =
+            "TestSecretKeyForJWTWithAtLeast512BitsForTheHS512AlgorithmUsedByTheTokenProvider!";
+
+    private VerifiedTokenCache cache;
+    private JwtTokenProvider provider;
+
+    @BeforeEach
+    void setUp() {
+        JwtConfig jwtConfig = new JwtConfig();
+        jwtConfig.setSecret(SECRET);
+        cache = new VerifiedTokenCache(jwtConfig);
+        provider = new JwtTokenProvider(jwtConfig, cache);
+        provider.init();
+    }
+
+    @Test
+    void verifiedTokenIsCached() {
+        String token = provider.generateToken(7, "alice", List.of("USER", "ADMIN"));
+
+        VerifiedToken first = provider.verify(token);
+
+        assertEquals(7, first.userId());
+        assertEquals("alice", first.username());
+        assertEquals(List.of("USER", "ADMIN"), first.roles());
+        assertSame(first, cache.get(token));
+        assertSame(first, provider.verify(token));
+    }
+
+    @Test
+    void cachedEntryExpiresWithTheToken() {
+        String token = provider.generateToken(7, "alice", List.of("USER"));
+
+        VerifiedToken verified = provider.verify(token);
+
+        // exp has second precision, the cached entry ends exactly there
+        assertEquals(0, verified.expiresAtMillis() % 1000);
+        assertFalse(verified.isExpired(verified.expiresAtMillis() - 1));
+        assertTrue(verified.isExpired(verified.expiresAtMillis()));
+    }
+
+    @Test
+    void tamperedSignatureIsRejectedAfterTheOriginalWasCached() {
+        String token = provider.generateToken(7, "alice", List.of("USER"));
+        provider.verify(token);
+
+        int signature = token.lastIndexOf('.') + 1;
+        char flipped = token.charAt(signature) == 'A' ? 'B' : 'A';
+        String tampered = token.substring(0, signature) + flipped + token.substring(signature + 1);
+
+        assertThrows(RuntimeException.class, () -> provider.verify(tampered));
+        assertNull(cache.get(tampered));
+    }
+
+    @Test
+    void tokenExtendingACachedTokenIsRejected() {
+        String token = provider.generateToken(7, "alice", List.of("USER"));
+        provider.verify(token);
+
+        assertThrows(RuntimeException.class, () -> provider.verify(token + "A"));
+        assertThrows(RuntimeException.class, () -> provider.verify(token.substring(0, token.length() - 1)));
+    }
+
+    @Test
+    void tamperedClaimsAreRejectedAfterTheOriginalWasCached() {
+        String token = provider.generateToken(7, "alice", List.of("USER"));
+        String admin = provider.generateToken(7, "alice", List.of("ADMIN"));
+        provider.verify(token);
+
+        // ADMIN payload with the USER token's signature
+        String[] original = token.split("\\.");
+        String[] forged = admin.split("\\.");
+        String tampered = original[0] + "." + forged[1] + "." + original[2];
+
+        assertThrows(RuntimeException.class, () -> provider.verify(tampered));
+    }
+
+    @Test
+    void tokenFromAnotherSecretIsRejected() {
+        JwtConfig otherConfig = new JwtConfig();
+        otherConfig.setSecret(SECRET.replace('T', 'X'));
+        JwtTokenProvider other = new JwtTokenProvider(otherConfig, new VerifiedTokenCache(otherConfig));
+        other.init();
+
+        String foreign = other.generateToken(7, "alice", List.of("ADMIN"));
+
+        assertThrows(RuntimeException.class, () -> provider.verify(foreign));
+    }
+}
@@ -0,0 +1,92 @@
+package com.ismile.core.auth.security;
+
+import com.ismile.core.auth.config.JwtConfig;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VerifiedTokenCacheTest {
+
+    private static final long LIVE = System.currentTimeMillis() + 60_000;
+
+    @Test
+    void cachedTokenIsServedUntilItExpires() {
+        VerifiedTokenCache cache = cache(10);
+        VerifiedToken verified = token(1, LIVE);
+
+        cache.put("a.b.c", verified);
+
+        assertSame(verified, cache.get("a.b.c"));
+        assertNull(cache.get("a.b.d"));
+    }
+
+    @Test
+    void tokenIsExpiredFromItsExpirationOn() {
+        long exp = 1_700_000_000_000L;
+        VerifiedToken verified = token(1, exp);
+
+        assertFalse(verified.isExpired(exp - 1));
+        assertTrue(verified.isExpired(exp));
+    }
+
+    @Test
+    void entryAtItsExpirationIsNotServed() {
+        VerifiedTokenCache cache = cache(10);
+        cache.put("a.b.c", token(1, System.currentTimeMillis()));
+
+        assertNull(cache.get("a.b.c"));
+    }
+
+    @Test
+    void fullCacheDropsExpiredEntriesFirst() {
+        VerifiedTokenCache cache = cache(2);
+        cache.put("expired", token(1, System.currentTimeMillis() - 1));
+        cache.put("live", token(2, LIVE));
+
+        cache.put("new", token(3, LIVE));
+
+        assertNotNull(cache.get("live"));
+        assertNotNull(cache.get("new"));
+    }
+
+    @Test
+    void cacheFullOfLiveTokensIsCleared() {
+        VerifiedTokenCache cache = cache(2);
+        cache.put("first", token(1, LIVE));
+        cache.put("second", token(2, LIVE));
+
+        cache.put("third", token(3, LIVE));
+
+        assertNull(cache.get("first"));
+        assertNull(cache.get("second"));
+        assertNotNull(cache.get("third"));
+    }
+
+    @Test
+    void tokensDifferingOnlyInNonAsciiCharactersDoNotShareAnEntry() {
+        VerifiedTokenCache cache = cache(10);
+        cache.put("a.b.é", token(1, LIVE));
+
+        assertNull(cache.get("a.b.ü"));
+    }
+
+    @Test
+    void sizeZeroDisablesTheCache() {
+        VerifiedTokenCache cache = cache(0);
+        cache.put("a.b.c", token(1, LIVE));
+
+        assertNull(cache.get("a.b.c"));
+    }
+
+    private static VerifiedTokenCache cache(int size) {
+        JwtConfig jwtConfig = new JwtConfig();
+        jwtConfig.setVerifiedCacheSize(size);
+        return new VerifiedTokenCache(jwtConfig);
+    }
+
+    private static VerifiedToken token(int userId, long expiresAtMillis) {
+        return new VerifiedToken(userId, "user" + userId, List.of("USER"), expiresAtMillis);
+    }
+}
@@ -0,0 +1,59 @@
+package com.ismile.core.auth.service;
+
+import com.ismile.core.auth.repository.RoleAccessRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AuthorizationCheckServiceTest {
+
+    private static final String SAY_HELLO = "auth.AuthService/SayHello";
+
+    private RoleAccessRepository roleAccessRepository;
+    private PermissionMatrix permissionMatrix;
+    private AuthorizationCheckService service;
+
+    @BeforeEach
+    void setUp() {
+        roleAccessRepository = Mockito.mock(RoleAccessRepository.class);
+        permissionMatrix = Mockito.mock(PermissionMatrix.class);
+        service = new AuthorizationCheckService(roleAccessRepository, permissionMatrix);
+    }
+
+    @Test
+    void loadedMatrixAnswersWithoutTheDatabase() {
+        when(permissionMatrix.isLoaded()).thenReturn(true);
+        when(permissionMatrix.hasPermission(List.of("USER"), SAY_HELLO)).thenReturn(true);
+
+        assertTrue(service.hasPermission(List.of("USER"), SAY_HELLO));
+        assertFalse(service.hasPermission(List.of("GUEST"), SAY_HELLO));
+
+        verify(roleAccessRepository, never()).existsByRoleCodeInAndOperationCodeAndIsActiveTrue(anyList(), any());
+    }
+
+    @Test
+    void databaseAnswersUntilTheMatrixIsLoaded() {
+        when(roleAccessRepository.existsByRoleCodeInAndOperationCodeAndIsActiveTrue(List.of("USER"), SAY_HELLO))
+                .thenReturn(true);
+
+        assertTrue(service.hasPermission(List.of("USER"), SAY_HELLO));
+        assertFalse(service.hasPermission(List.of("GUEST"), SAY_HELLO));
+    }
+
+    @Test
+    void userWithoutRolesIsDenied() {
+        assertFalse(service.hasPermission(null, SAY_HELLO));
+        assertFalse(service.hasPermission(List.of(), SAY_HELLO));
+
+        verify(permissionMatrix, never()).hasPermission(anyList(), any());
+    }
+}
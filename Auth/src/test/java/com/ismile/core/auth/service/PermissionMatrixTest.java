@@ -0,0 +1,119 @@
+package com.ismile.core.auth.service;
+
+import com.ismile.core.auth.repository.RoleAccessRepository;
+import com.ismile.core.auth.repository.RoleAccessRepository.RoleOperationView;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+class PermissionMatrixTest {
+
+    private static final String SAY_HELLO = "auth.AuthService/SayHello";
+    private static final String DELETE_USER = "auth.AdminService/DeleteUser";
+
+    private RoleAccessRepository roleAccessRepository;
+    private PermissionMatrix permissionMatrix;
+
+    @BeforeEach
+    void setUp() {
+        roleAccessRepository = Mockito.mock(RoleAccessRepository.class);
+        permissionMatrix = new PermissionMatrix(roleAccessRepository);
+        when(roleAccessRepository.findActiveGrants()).thenReturn(List.of(
+                grant("USER", SAY_HELLO),
+                grant("ADMIN", SAY_HELLO),
+                grant("ADMIN", DELETE_USER)));
+    }
+
+    @Test
+    void grantedRoleIsAllowed() {
+        permissionMatrix.load();
+
+        assertTrue(permissionMatrix.hasPermission(List.of("USER"), SAY_HELLO));
+        assertTrue(permissionMatrix.hasPermission(List.of("USER", "ADMIN"), DELETE_USER));
+    }
+
+    @Test
+    void roleWithoutTheGrantIsDenied() {
+        permissionMatrix.load();
+
+        assertFalse(permissionMatrix.hasPermission(List.of("USER"), DELETE_USER));
+    }
+
+    @Test
+    void unknownRoleOrOperationIsDenied() {
+        permissionMatrix.load();
+
+        assertFalse(permissionMatrix.hasPermission(List.of("GUEST"), SAY_HELLO));
+        assertFalse(permissionMatrix.hasPermission(List.of("ADMIN"), "auth.AdminService/Unknown"));
+        assertFalse(permissionMatrix.hasPermission(List.of(), SAY_HELLO));
+    }
+
+    @Test
+    void newGrantIsAllowedAfterRefresh() {
+        permissionMatrix.load();
+        when(roleAccessRepository.findActiveGrants()).thenReturn(List.of(
+                grant("USER", SAY_HELLO),
+                grant("USER", DELETE_USER)));
+
+        permissionMatrix.refresh();
+
+        assertTrue(permissionMatrix.hasPermission(List.of("USER"), DELETE_USER));
+    }
+
+    @Test
+    void revokedGrantIsDeniedAfterRefresh() {
+        permissionMatrix.load();
+        when(roleAccessRepository.findActiveGrants()).thenReturn(List.of(grant("ADMIN", DELETE_USER)));
+
+        permissionMatrix.refresh();
+
+        assertFalse(permissionMatrix.hasPermission(List.of("USER"), SAY_HELLO));
+        assertFalse(permissionMatrix.hasPermission(List.of("ADMIN"), SAY_HELLO));
+        assertTrue(permissionMatrix.hasPermission(List.of("ADMIN"), DELETE_USER));
+    }
+
+    @Test
+    void refreshOutsideATransactionIsImmediate() {
+        permissionMatrix.load();
+        when(roleAccessRepository.findActiveGrants()).thenReturn(List.of());
+
+        permissionMatrix.refreshAfterCommit();
+
+        assertFalse(permissionMatrix.hasPermission(List.of("ADMIN"), DELETE_USER));
+    }
+
+    @Test
+    void failedRefreshKeepsThePreviousMatrix() {
+        permissionMatrix.load();
+        when(roleAccessRepository.findActiveGrants()).thenThrow(new IllegalStateException("database down"));
+
+        permissionMatrix.refresh();
+
+        assertTrue(permissionMatrix.hasPermission(List.of("USER"), SAY_HELLO));
+    }
+
+    @Test
+    void nothingIsAllowedBeforeTheFirstLoad() {
+        assertFalse(permissionMatrix.isLoaded());
+        assertFalse(permissionMatrix.hasPermission(List.of("ADMIN"), DELETE_USER));
+    }
+
+    private static RoleOperationView grant(String roleCode, String operationCode) {
+        return new RoleOperationView() {
+            @Override
+            public String getRoleCode() {
+                return roleCode;
+            }
+
+            @Override
+            public String getOperationCode() {
+                return operationCode;
+            }
+        };
+    }
+}
@@ -16,13 +16,17 @@ import java.io.File;
 public class AddCommand implements Runnable {
     @CommandLine.Parameters(paramLabel = "path", description = "File or directory to add")
     private String path;
+
+    @CommandLine.Option(names = {"-j", "--jobs"}, description = "Number of threads used to scan and hash files (default: available processors)")
+    private int jobs = Runtime.getRuntime().availableProcessors();
+
     private final AddEngine addEngine;
 
     @Override
     public void run() {
         try {
             File root = new File(System.getProperty("user.dir"));
-            addEngine.add(root, path);
+            addEngine.add(root, path, jobs);
             System.out.println("Added: " + path);
         } catch(Exception e) {
             System.err.println("Add failed: " + e.getMessage());
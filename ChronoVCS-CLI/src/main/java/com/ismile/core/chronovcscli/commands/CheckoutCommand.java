@@ -3,11 +3,12 @@ package com.ismile.core.chronovcscli.commands;
 import com.ismile.core.chronovcscli.auth.CredentialsEntry;
 import com.ismile.core.chronovcscli.auth.CredentialsService;
 import com.ismile.core.chronovcscli.core.checkout.CheckoutService;
+import com.ismile.core.chronovcscli.core.objectsStore.ObjectStore;
 import com.ismile.core.chronovcscli.core.pull.PullService;
 import com.ismile.core.chronovcscli.remote.RemoteCloneService;
 import com.ismile.core.chronovcscli.remote.RemoteConfig;
 import com.ismile.core.chronovcscli.remote.RemoteConfigService;
-import com.ismile.core.chronovcscli.remote.dto.BatchObjectsResponseDto;
+import com.ismile.core.chronovcscli.remote.RemoteObjectFetcher;
 import com.ismile.core.chronovcscli.remote.dto.CommitHistoryResponseDto;
 import com.ismile.core.chronovcscli.remote.dto.CommitSnapshotDto;
 import com.ismile.core.chronovcscli.remote.dto.RefsResponseDto;
@@ -34,8 +35,10 @@ public class CheckoutCommand implements Runnable {
     private final CheckoutService checkoutService;
     private final RemoteConfigService remoteConfigService;
     private final RemoteCloneService remoteCloneService;
+    private final RemoteObjectFetcher remoteObjectFetcher;
     private final CredentialsService credentialsService;
     private final PullService pullService;
+    private final ObjectStore objectStore;
 
     @Parameters(index = "0", arity = "0..1", description = "Branch name or commit hash")
     private String target;
@@ -251,37 +254,14 @@ public class CheckoutCommand implements Runnable {
         // Filter out blobs that already exist locally
         java.util.Set<String> blobsToDownload = new java.util.HashSet<>();
         for (String hash : blobHashes) {
-            File blobFile = getBlobFile(projectRoot, hash);
-            if (!blobFile.exists()) {
+            if (!objectStore.exists(projectRoot, hash)) {
                 blobsToDownload.add(hash);
             }
         }
 
-        // Download blobs in batches
+        // Download blobs, written to local storage as they arrive
         if (!blobsToDownload.isEmpty()) {
-            java.util.List<String> hashList = new java.util.ArrayList<>(blobsToDownload);
-            int batchSize = 50;
-
-            for (int i = 0; i < hashList.size(); i += batchSize) {
-                int end = Math.min(i + batchSize, hashList.size());
-                java.util.List<String> batch = hashList.subList(i, end);
-
-                BatchObjectsResponseDto batchResponse = remoteCloneService.getBatchObjects(
-                        remoteConfig, creds, batch
-                );
-
-                // Write blobs to local storage
-                for (java.util.Map.Entry<String, String> entry : batchResponse.getObjects().entrySet()) {
-                    String hash = entry.getKey();
-                    String base64Content = entry.getValue();
-
-                    byte[] content = java.util.Base64.getDecoder().decode(base64Content);
-
-                    File blobFile = getBlobFile(projectRoot, hash);
-                    blobFile.getParentFile().mkdirs();
-                    Files.write(blobFile.toPath(), content);
-                }
-            }
+            remoteObjectFetcher.fetchMissing(remoteConfig, creds, projectRoot, blobsToDownload);
         }
 
         // Write commits to local storage
@@ -297,9 +277,4 @@ public class CheckoutCommand implements Runnable {
                 history.getCommits().size(), blobsToDownload.size(), branchName);
     }
 
-    private File getBlobFile(File projectRoot, String hash) {
-        String prefix = hash.substring(0, 2);
-        String suffix = hash.substring(2);
-        return new File(projectRoot, ".vcs/objects/" + prefix + "/" + suffix);
-    }
 }
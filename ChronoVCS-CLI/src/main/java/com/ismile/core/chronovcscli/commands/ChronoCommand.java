@@ -27,7 +27,8 @@ import picocli.CommandLine.Command;
                 MergeCommand.class,
                 ResetCommand.class,
                 LogCommand.class,
-                RevertCommand.class
+                RevertCommand.class,
+                GcCommand.class
         }
 )
 public class ChronoCommand {
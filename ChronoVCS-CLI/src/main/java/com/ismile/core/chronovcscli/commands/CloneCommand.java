@@ -3,12 +3,18 @@ package com.ismile.core.chronovcscli.commands;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.ismile.core.chronovcscli.auth.CredentialsEntry;
 import com.ismile.core.chronovcscli.auth.CredentialsService;
+import com.ismile.core.chronovcscli.core.graph.CommitGraph;
+import com.ismile.core.chronovcscli.core.graph.ShallowCommits;
 import com.ismile.core.chronovcscli.core.index.IndexEngine;
+import com.ismile.core.chronovcscli.core.index.IndexEntry;
+import com.ismile.core.chronovcscli.core.objectsStore.ObjectStore;
 import com.ismile.core.chronovcscli.remote.RemoteCloneService;
 import com.ismile.core.chronovcscli.remote.RemoteConfig;
-import com.ismile.core.chronovcscli.remote.dto.BatchObjectsResponseDto;
+import com.ismile.core.chronovcscli.remote.RemoteLazyObjectLoader;
+import com.ismile.core.chronovcscli.remote.RemoteObjectFetcher;
 import com.ismile.core.chronovcscli.remote.dto.CommitHistoryResponseDto;
 import com.ismile.core.chronovcscli.remote.dto.CommitSnapshotDto;
+import com.ismile.core.chronovcscli.remote.dto.ObjectSetResponseDto;
 import com.ismile.core.chronovcscli.remote.dto.RefsResponseDto;
 import com.ismile.core.chronovcscli.remote.dto.ReleaseResponseDto;
 import com.ismile.core.chronovcscli.core.release.ReleaseState;
@@ -33,8 +39,11 @@ import java.util.*;
 public class CloneCommand implements Runnable {
 
     private final RemoteCloneService remoteCloneService;
+    private final RemoteObjectFetcher remoteObjectFetcher;
     private final CredentialsService credentialsService;
     private final IndexEngine indexEngine;
+    private final ObjectStore objectStore;
+    private final CommitGraph commitGraph;
     private final ObjectMapper objectMapper = new ObjectMapper();
 
     @Parameters(index = "0", description = "Remote URL (e.g., http://localhost:8080)")
@@ -49,6 +58,21 @@ public class CloneCommand implements Runnable {
     @Option(names = {"--release"}, description = "Release version to clone (use 'latest')")
     private String releaseVersion;
 
+    @Option(names = {"-j", "--jobs"}, description = "Number of object batches downloaded concurrently (default: 4)")
+    private int jobs = RemoteObjectFetcher.DEFAULT_JOBS;
+
+    @Option(names = {"--depth"}, description = "Only fetch the newest N commits of the default branch")
+    private Integer depth;
+
+    @Option(names = {"--filter"}, description = "Object filter; 'blob:none' only downloads the files of the checked out commit "
+            + "and fetches other blobs from the remote when they are first needed")
+    private String filter;
+
+    private static final String BLOB_NONE_FILTER = "blob:none";
+
+    // Present while objects are downloaded; lets an interrupted clone be resumed by running it again
+    private static final String CLONE_MARKER = ".vcs/clone-in-progress";
+
     @Override
     public void run() {
         try {
@@ -63,6 +87,15 @@ public class CloneCommand implements Runnable {
 
             CredentialsEntry creds = credsOpt.get();
 
+            if (depth != null && depth < 1) {
+                System.out.println("Error: --depth must be at least 1");
+                return;
+            }
+            if (filter != null && !filter.equals(BLOB_NONE_FILTER)) {
+                System.out.println("Error: Unsupported filter '" + filter + "' (supported: " + BLOB_NONE_FILTER + ")");
+                return;
+            }
+
             RemoteConfig config = new RemoteConfig();
             config.setBaseUrl(remoteUrl);
             config.setRepoKey(repoKey);
@@ -73,13 +106,25 @@ public class CloneCommand implements Runnable {
             }
 
             File vcsDir = new File(targetDirectory, ".vcs");
-            if (vcsDir.exists()) {
+            File marker = new File(targetDirectory, CLONE_MARKER);
+            String cloneSource = repoKey + "@" + remoteUrl;
+            if (marker.isFile()) {
+                if (!Files.readString(marker.toPath()).trim().equals(cloneSource)) {
+                    System.out.println("Error: " + targetDir + " contains an interrupted clone of another repository");
+                    return;
+                }
+                System.out.println("Resuming interrupted clone...");
+            } else if (vcsDir.exists()) {
                 System.out.println("Error: .vcs directory already exists in " + targetDir);
                 return;
+            } else {
+                new File(targetDirectory, ".vcs/objects").mkdirs();
+                Files.writeString(marker.toPath(), cloneSource);
             }
 
             if (releaseVersion != null) {
                 cloneRelease(targetDirectory, config, creds);
+                Files.deleteIfExists(marker.toPath());
                 return;
             }
 
@@ -89,6 +134,7 @@ public class CloneCommand implements Runnable {
             if (refs.getBranches().isEmpty()) {
                 System.out.println("Warning: Repository is empty (no branches)");
                 initEmptyRepository(targetDirectory, refs.getDefaultBranch(), config);
+                Files.deleteIfExists(marker.toPath());
                 return;
             }
 
@@ -96,40 +142,37 @@ public class CloneCommand implements Runnable {
             System.out.println("Default branch: " + defaultBranch);
 
             System.out.println("Fetching commit history for branch '" + defaultBranch + "'...");
-            CommitHistoryResponseDto history = remoteCloneService.getCommitHistory(config, creds, defaultBranch, null);
+            CommitHistoryResponseDto history = remoteCloneService.getCommitHistory(config, creds, defaultBranch, depth);
 
             if (history.getCommits().isEmpty()) {
                 System.out.println("Warning: Branch '" + defaultBranch + "' has no commits");
                 initEmptyRepository(targetDirectory, defaultBranch, config);
+                Files.deleteIfExists(marker.toPath());
                 return;
             }
 
             System.out.println("Found " + history.getCommits().size() + " commits");
-
-            Set<String> allBlobHashes = new HashSet<>();
-            for (CommitSnapshotDto commit : history.getCommits()) {
-                if (commit.getFiles() != null) {
-                    allBlobHashes.addAll(commit.getFiles().values());
-                }
+            if (history.isHasMore()) {
+                System.out.println("Shallow clone: history truncated to " + history.getCommits().size() + " commits");
             }
 
-            System.out.println("Downloading " + allBlobHashes.size() + " objects...");
-            Map<String, String> allObjects = new HashMap<>();
-
-            List<String> hashList = new ArrayList<>(allBlobHashes);
-            int batchSize = 50;
-            for (int i = 0; i < hashList.size(); i += batchSize) {
-                int end = Math.min(i + batchSize, hashList.size());
-                List<String> batch = hashList.subList(i, end);
-
-                BatchObjectsResponseDto batchResponse = remoteCloneService.getBatchObjects(config, creds, batch);
-                allObjects.putAll(batchResponse.getObjects());
+            // A partial clone starts with the blobs of the checked out commit only
+            int objectDepth = filter != null ? 1 : history.getCommits().size();
+            Set<String> blobHashes = neededObjects(config, creds, history, objectDepth);
 
-                System.out.println("Downloaded " + allObjects.size() + "/" + allBlobHashes.size() + " objects");
+            downloadObjects(targetDirectory, config, creds, blobHashes);
+            if (filter != null) {
+                Files.writeString(new File(targetDirectory, RemoteLazyObjectLoader.PARTIAL_CLONE_MARKER).toPath(), filter);
             }
 
             System.out.println("Setting up local repository...");
-            setupLocalRepository(targetDirectory, defaultBranch, refs, history, allObjects, config);
+            setupLocalRepository(targetDirectory, defaultBranch, refs, history, config);
+            if (history.isHasMore()) {
+                // The oldest fetched commit has a parent that was not downloaded
+                List<CommitSnapshotDto> commits = history.getCommits();
+                ShallowCommits.add(targetDirectory, List.of(commits.get(commits.size() - 1).getId()));
+            }
+            Files.deleteIfExists(marker.toPath());
 
             System.out.println("Clone completed successfully!");
             System.out.println("Repository cloned to: " + targetDirectory.getAbsolutePath());
@@ -166,32 +209,66 @@ public class CloneCommand implements Runnable {
             allBlobHashes.addAll(snapshot.getFiles().values());
         }
 
-        System.out.println("Downloading " + allBlobHashes.size() + " objects...");
-        Map<String, String> allObjects = new HashMap<>();
-
-        List<String> hashList = new ArrayList<>(allBlobHashes);
-        int batchSize = 50;
-        for (int i = 0; i < hashList.size(); i += batchSize) {
-            int end = Math.min(i + batchSize, hashList.size());
-            List<String> batch = hashList.subList(i, end);
-
-            BatchObjectsResponseDto batchResponse = remoteCloneService.getBatchObjects(config, creds, batch);
-            allObjects.putAll(batchResponse.getObjects());
-
-            System.out.println("Downloaded " + allObjects.size() + "/" + allBlobHashes.size() + " objects");
-        }
+        downloadObjects(targetDirectory, config, creds, allBlobHashes);
 
         RefsResponseDto releaseRefs = new RefsResponseDto();
         releaseRefs.setDefaultBranch(defaultBranch);
         releaseRefs.setBranches(Map.of(defaultBranch, snapshotCommitId));
 
-        setupLocalRepository(targetDirectory, defaultBranch, releaseRefs, history, allObjects, config);
+        setupLocalRepository(targetDirectory, defaultBranch, releaseRefs, history, config);
         ReleaseState.save(targetDirectory, new ReleaseState(release.getVersion(), snapshotCommitId));
 
         System.out.println("Release clone completed successfully!");
         System.out.println("Repository cloned to: " + targetDirectory.getAbsolutePath());
     }
 
+    /**
+     * Blobs of the newest {@code objectDepth} commits in {@code history}. Asks the server,
+     * which can answer without sending snapshots; older servers fall back to the snapshots,
+     * as do commits past the server's depth limit.
+     */
+    Set<String> neededObjects(RemoteConfig config, CredentialsEntry creds,
+                              CommitHistoryResponseDto history, int objectDepth) {
+        String tip = history.getCommits().get(0).getId();
+        ObjectSetResponseDto objectSet = remoteCloneService.getObjectSet(config, creds, tip, objectDepth);
+        Set<String> blobHashes = new HashSet<>();
+        int covered = 0;
+        if (objectSet != null) {
+            System.out.println("Objects to download: " + objectSet.getHashes().size()
+                    + " (" + (objectSet.getTotalSize() / 1024) + " KiB)");
+            blobHashes.addAll(objectSet.getHashes());
+            covered = objectSet.getCommitCount();
+            if (covered >= objectDepth || !objectSet.isHasMore()) {
+                return blobHashes;
+            }
+        }
+
+        for (CommitSnapshotDto commit : history.getCommits().subList(covered, objectDepth)) {
+            if (commit.getFiles() != null) {
+                blobHashes.addAll(commit.getFiles().values());
+            }
+        }
+        return blobHashes;
+    }
+
+    private void downloadObjects(File targetDir, RemoteConfig config, CredentialsEntry creds,
+                                 Set<String> blobHashes) {
+        System.out.println("Downloading " + blobHashes.size() + " objects...");
+        int present = (int) blobHashes.stream().filter(hash -> objectStore.exists(targetDir, hash)).count();
+        if (present > 0) {
+            System.out.println(present + " objects already downloaded");
+        }
+
+        // Objects land in .vcs/objects as they arrive; report roughly every 10%
+        int step = Math.max(1, blobHashes.size() / 10);
+        remoteObjectFetcher.fetchMissing(config, creds, targetDir, blobHashes, jobs, downloaded -> {
+            int total = present + downloaded;
+            if (downloaded % step == 0 || total == blobHashes.size()) {
+                System.out.println("Downloaded " + total + "/" + blobHashes.size() + " objects");
+            }
+        });
+    }
+
     private void initEmptyRepository(File targetDir, String defaultBranch, RemoteConfig config) throws Exception {
         new File(targetDir, ".vcs").mkdir();
         new File(targetDir, ".vcs/objects").mkdirs();
@@ -223,7 +300,6 @@ public class CloneCommand implements Runnable {
                                        String defaultBranch,
                                        RefsResponseDto refs,
                                        CommitHistoryResponseDto history,
-                                       Map<String, String> objects,
                                        RemoteConfig config) throws Exception {
 
         new File(targetDir, ".vcs").mkdir();
@@ -231,24 +307,6 @@ public class CloneCommand implements Runnable {
         new File(targetDir, ".vcs/commits").mkdirs();
         new File(targetDir, ".vcs/refs/heads").mkdirs();
 
-        for (Map.Entry<String, String> entry : objects.entrySet()) {
-            String hash = entry.getKey();
-            String base64Content = entry.getValue();
-
-            byte[] content = Base64.getDecoder().decode(base64Content);
-
-            String prefix = hash.substring(0, 2);
-            String suffix = hash.substring(2);
-
-            File prefixDir = new File(targetDir, ".vcs/objects/" + prefix);
-            if (!prefixDir.exists()) {
-                prefixDir.mkdirs();
-            }
-
-            File blobFile = new File(prefixDir, suffix);
-            Files.write(blobFile.toPath(), content);
-        }
-
         for (CommitSnapshotDto commit : history.getCommits()) {
             String commitHash = commit.getId();
             File commitFile = new File(targetDir, ".vcs/commits/" + commitHash + ".json");
@@ -256,6 +314,7 @@ public class CloneCommand implements Runnable {
             String commitJson = objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(commit);
             Files.writeString(commitFile.toPath(), commitJson);
         }
+        commitGraph.update(targetDir);
 
         for (Map.Entry<String, String> branch : refs.getBranches().entrySet()) {
             String branchName = branch.getKey();
@@ -283,11 +342,11 @@ public class CloneCommand implements Runnable {
 
         if (!history.getCommits().isEmpty()) {
             CommitSnapshotDto latestCommit = history.getCommits().get(0);
-            checkoutCommit(targetDir, latestCommit, objects);
+            checkoutCommit(targetDir, latestCommit);
         }
     }
 
-    private void checkoutCommit(File targetDir, CommitSnapshotDto commit, Map<String, String> objects) throws Exception {
+    private void checkoutCommit(File targetDir, CommitSnapshotDto commit) throws Exception {
         if (commit.getFiles() == null || commit.getFiles().isEmpty()) {
             return;
         }
@@ -299,20 +358,19 @@ public class CloneCommand implements Runnable {
             String filePath = entry.getKey();
             String blobHash = entry.getValue();
 
-            String base64Content = objects.get(blobHash);
-            if (base64Content == null) {
-                log.warn("Missing blob for file: {} (hash: {})", filePath, blobHash);
-                continue;
+            // The fetcher fails on missing objects; a gap here means the object store lost one
+            if (!objectStore.exists(targetDir, blobHash)) {
+                throw new IllegalStateException("Missing blob for file: " + filePath + " (hash: " + blobHash + ")");
             }
 
-            byte[] content = Base64.getDecoder().decode(base64Content);
+            byte[] content = objectStore.readBlob(targetDir, blobHash);
 
             File file = new File(targetDir, filePath);
             file.getParentFile().mkdirs();
             Files.write(file.toPath(), content);
 
             // Add file to index
-            indexEngine.updateFile(filePath, blobHash);
+            indexEngine.updateFile(IndexEntry.of(filePath, blobHash, file.toPath()));
         }
 
         // Save index
@@ -0,0 +1,54 @@
+package com.ismile.core.chronovcscli.commands;
+
+import com.ismile.core.chronovcscli.core.gc.GcEngine;
+import com.ismile.core.chronovcscli.core.gc.GcResult;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import picocli.CommandLine.Command;
+
+import java.io.File;
+
+@Component
+@Command(
+        name = "gc",
+        description = "Pack loose objects to reduce repository size"
+)
+@RequiredArgsConstructor
+public class GcCommand implements Runnable {
+
+    private final GcEngine gcEngine;
+
+    @Override
+    public void run() {
+        try {
+            File projectRoot = new File(System.getProperty("user.dir"));
+            if (!new File(projectRoot, ".vcs").isDirectory()) {
+                System.out.println("Not a ChronoVCS repository (no .vcs directory found).");
+                return;
+            }
+
+            GcResult result = gcEngine.gc(projectRoot);
+            if (result.getObjectsPacked() == 0) {
+                System.out.println("Nothing to pack.");
+                return;
+            }
+
+            System.out.println("Packed " + result.getObjectsPacked() + " objects ("
+                    + result.getDeltas() + " as deltas) into " + result.getPacksWritten() + " pack(s)");
+            System.out.println("Loose objects: " + formatSize(result.getLooseBytes())
+                    + " -> pack: " + formatSize(result.getPackedBytes()));
+        } catch (Exception e) {
+            System.err.println("gc failed: " + e.getMessage());
+        }
+    }
+
+    private String formatSize(long bytes) {
+        if (bytes < 1024) {
+            return bytes + " B";
+        }
+        if (bytes < 1024 * 1024) {
+            return String.format("%.1f KB", bytes / 1024.0);
+        }
+        return String.format("%.1f MB", bytes / (1024.0 * 1024));
+    }
+}
@@ -4,7 +4,6 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.ismile.core.chronovcscli.auth.CredentialsEntry;
 import com.ismile.core.chronovcscli.auth.CredentialsService;
 import com.ismile.core.chronovcscli.core.commit.CommitModel;
-import com.ismile.core.chronovcscli.core.objectsStore.ObjectStore;
 import com.ismile.core.chronovcscli.remote.RemoteConfig;
 import com.ismile.core.chronovcscli.remote.RemoteConfigService;
 import com.ismile.core.chronovcscli.remote.RemoteCloneService;
@@ -19,9 +18,8 @@ import picocli.CommandLine.Command;
 
 import java.io.File;
 import java.nio.file.Files;
-import java.util.Base64;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.LinkedHashSet;
+import java.util.Set;
 
 @Component
 @Command(
@@ -35,7 +33,6 @@ public class PushCommand implements Runnable {
     private final CredentialsService credentialsService;
     private final RemotePushService remotePushService;
     private final RemoteCloneService remoteCloneService;
-    private final ObjectStore objectStore;
 
     private final ObjectMapper objectMapper = new ObjectMapper();
 
@@ -80,17 +77,10 @@ public class PushCommand implements Runnable {
             snapshot.setTimestamp(localCommit.getTimestamp());
             snapshot.setFiles(localCommit.getFiles());
 
-            // 5) Blob-ları topla (hash -> base64(content))
-            Map<String, String> blobMap = new HashMap<>();
+            // 5) Blob hash-lərini topla (eyni hash-i bir dəfə göndər)
+            Set<String> blobHashes = new LinkedHashSet<>();
             if (localCommit.getFiles() != null) {
-                for (String blobHash : localCommit.getFiles().values()) {
-                    if (blobMap.containsKey(blobHash)) {
-                        continue; // eyni hash-i bir dəfə göndər
-                    }
-                    byte[] content = objectStore.readBlob(blobHash);
-                    String base64 = Base64.getEncoder().encodeToString(content);
-                    blobMap.put(blobHash, base64);
-                }
+                blobHashes.addAll(localCommit.getFiles().values());
             }
 
             // 6) Fetch remote HEAD to determine base commit
@@ -101,10 +91,9 @@ public class PushCommand implements Runnable {
             pushRequest.setBranch(headInfo.branch);
             pushRequest.setBaseCommitId(remoteHead); // remote HEAD-i göndəririk
             pushRequest.setNewCommit(snapshot);
-            pushRequest.setBlobs(blobMap);
 
-            // 8) Remote push
-            PushResultDto result = remotePushService.push(remoteConfig, creds, pushRequest);
+            // 8) Remote push (blobs streamed as a binary pack)
+            PushResultDto result = remotePushService.pushPack(remoteConfig, creds, pushRequest, blobHashes);
 
             System.out.println("✅ Push successful!");
             System.out.println("  Server : " + remoteConfig.getBaseUrl());
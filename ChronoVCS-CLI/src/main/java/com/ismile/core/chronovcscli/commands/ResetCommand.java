@@ -4,11 +4,12 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.ismile.core.chronovcscli.auth.CredentialsEntry;
 import com.ismile.core.chronovcscli.auth.CredentialsService;
 import com.ismile.core.chronovcscli.core.checkout.CheckoutService;
+import com.ismile.core.chronovcscli.core.objectsStore.ObjectStore;
 import com.ismile.core.chronovcscli.core.pull.LocalCommitReader;
 import com.ismile.core.chronovcscli.remote.RemoteCloneService;
 import com.ismile.core.chronovcscli.remote.RemoteConfig;
 import com.ismile.core.chronovcscli.remote.RemoteConfigService;
-import com.ismile.core.chronovcscli.remote.dto.BatchObjectsResponseDto;
+import com.ismile.core.chronovcscli.remote.RemoteObjectFetcher;
 import com.ismile.core.chronovcscli.remote.dto.CommitSnapshotDto;
 import com.ismile.core.chronovcscli.remote.dto.RefsResponseDto;
 import lombok.RequiredArgsConstructor;
@@ -34,8 +35,10 @@ public class ResetCommand implements Runnable {
     private final RemoteConfigService remoteConfigService;
     private final CredentialsService credentialsService;
     private final RemoteCloneService remoteCloneService;
+    private final RemoteObjectFetcher remoteObjectFetcher;
     private final LocalCommitReader localCommitReader;
     private final CheckoutService checkoutService;
+    private final ObjectStore objectStore;
     private final ObjectMapper objectMapper = new ObjectMapper();
 
     @Option(names = {"--hard"}, description = "Discard local changes and reset working tree")
@@ -158,8 +161,7 @@ public class ResetCommand implements Runnable {
         List<String> missing = new ArrayList<>();
 
         for (String hash : blobHashes) {
-            File blobFile = getBlobFile(projectRoot, hash);
-            if (!blobFile.exists()) {
+            if (!objectStore.exists(projectRoot, hash)) {
                 missing.add(hash);
             }
         }
@@ -168,32 +170,9 @@ public class ResetCommand implements Runnable {
             return;
         }
 
-        int batchSize = 50;
-        for (int i = 0; i < missing.size(); i += batchSize) {
-            int end = Math.min(i + batchSize, missing.size());
-            List<String> batch = missing.subList(i, end);
-
-            BatchObjectsResponseDto batchResponse = remoteCloneService.getBatchObjects(
-                    remoteConfig, creds, batch
-            );
-
-            for (Map.Entry<String, String> entry : batchResponse.getObjects().entrySet()) {
-                String hash = entry.getKey();
-                String base64Content = entry.getValue();
-                byte[] content = Base64.getDecoder().decode(base64Content);
-
-                File blobFile = getBlobFile(projectRoot, hash);
-                blobFile.getParentFile().mkdirs();
-                Files.write(blobFile.toPath(), content);
-            }
-        }
+        remoteObjectFetcher.fetchMissing(remoteConfig, creds, projectRoot, missing);
     }
 
-    private File getBlobFile(File projectRoot, String hash) {
-        String prefix = hash.substring(0, 2);
-        String suffix = hash.substring(2);
-        return new File(projectRoot, ".vcs/objects/" + prefix + "/" + suffix);
-    }
 
     private String shortHash(String hash) {
         if (hash == null) {
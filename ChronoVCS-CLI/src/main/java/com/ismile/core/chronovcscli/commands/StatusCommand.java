@@ -5,6 +5,7 @@ import com.ismile.core.chronovcscli.core.status.StatusResult;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
 
 import java.io.File;
 import java.nio.file.Files;
@@ -17,6 +18,10 @@ import java.nio.file.Files;
 @RequiredArgsConstructor
 public class StatusCommand implements Runnable{
     private final StatusEngine statusEngine;
+
+    @Option(names = {"-j", "--jobs"}, description = "Number of threads used to scan and hash files (default: available processors)")
+    private int jobs = Runtime.getRuntime().availableProcessors();
+
     @Override
     public void run() {
         try {
@@ -25,7 +30,7 @@ public class StatusCommand implements Runnable{
             // Display current branch
             displayCurrentBranch(root);
 
-            StatusResult result = statusEngine.getStatus(root);
+            StatusResult result = statusEngine.getStatus(root, jobs);
             System.out.println("Untracked:");
             result.getUntracked().forEach(f -> System.out.println("  " + f));
 
@@ -5,4 +5,9 @@ import java.io.IOException;
 
 public interface AddEngine {
     void add(File projectRoot, String path) throws IOException;
+
+    /**
+     * @param jobs number of threads used to walk and hash directories
+     */
+    void add(File projectRoot, String path, int jobs) throws IOException;
 }
@@ -1,17 +1,19 @@
 package com.ismile.core.chronovcscli.core.add.impl;
 
 import com.ismile.core.chronovcscli.core.add.AddEngine;
-import com.ismile.core.chronovcscli.core.hash.HashEngine;
 import com.ismile.core.chronovcscli.core.ignore.IgnoreEngine;
 import com.ismile.core.chronovcscli.core.index.IndexEngine;
+import com.ismile.core.chronovcscli.core.index.IndexEntry;
 import com.ismile.core.chronovcscli.core.objectsStore.ObjectStore;
+import com.ismile.core.chronovcscli.core.scan.WorkingTreeScanner;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
 import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
 
 @Slf4j
 @Component
@@ -19,11 +21,15 @@ import java.nio.file.Files;
 public class AddEngineImpl implements AddEngine {
     private final IndexEngine indexEngine;
     private final IgnoreEngine ignoreEngine;
-    private final HashEngine hashEngine;
     private final ObjectStore objectStore;
 
     @Override
     public void add(File projectRoot, String path) throws IOException {
+        add(projectRoot, path, Runtime.getRuntime().availableProcessors());
+    }
+
+    @Override
+    public void add(File projectRoot, String path, int jobs) throws IOException {
         indexEngine.loadIndex(projectRoot);
         File target = new File(projectRoot, path);
         if(!target.exists()) {
@@ -31,47 +37,55 @@ public class AddEngineImpl implements AddEngine {
         }
 
         if(target.isDirectory()) {
-            addDirectory(projectRoot, target);
+            addDirectory(projectRoot, target, jobs);
         } else {
-            addFile(projectRoot, target);
+            String relative = projectRoot.toPath().relativize(target.toPath()).toString();
+            if(relative.startsWith(".vcs") || ignoreEngine.isIgnored(projectRoot, target))
+                return;
+            stage(hashAndStore(relative, target.toPath()));
         }
 
         indexEngine.saveIndex(projectRoot);
 
     }
 
-    private void addFile(File root, File file) throws IOException {
-        if(ignoreEngine.isIgnored(root, file))
-            return;
-        String relative = root.toPath().relativize(file.toPath()).toString();
+    /**
+     * Hash and store a file unless its stat data says it is already staged.
+     *
+     * @return the entry to stage, or null if the file is up to date
+     */
+    private IndexEntry hashAndStore(String relative, Path file) throws IOException {
+        // unchanged since it was staged -> already hashed and stored
+        IndexEntry stat = IndexEntry.of(relative, null, file);
+        if(indexEngine.isUpToDate(stat))
+            return null;
 
-        if(relative.startsWith(".vcs"))
-            return;
+        // hash and write blob in one pass
+        String hash = objectStore.writeBlob(file.toFile());
+        if(hash == null)
+            return null;
 
-        // calculate hash
-        String hash = hashEngine.hashFile(file);
+        stat.setHash(hash);
+        return stat;
+    }
 
-        // write blob
-        objectStore.writeBlob(file);
+    private void stage(IndexEntry entry) {
+        if(entry == null)
+            return;
 
         // update index
-        indexEngine.updateFile(relative, hash);
+        indexEngine.updateFile(entry);
 
-        log.debug("Added to index: {} ({})", relative, hash);
+        log.debug("Added to index: {} ({})", entry.getPath(), entry.getHash());
     }
 
-    private void addDirectory(File root, File dir) throws IOException {
-        Files.walk(dir.toPath())
-                .filter(Files::isRegularFile)
-                .forEach(p -> {
-                    try {
-                        String relative = root.toPath().relativize(p).toString();
-                        if(relative.startsWith(".vcs"))
-                            return;
-                        addFile(root, p.toFile());
-                    } catch(IOException e) {
-                        throw new RuntimeException(e);
-                    }
-                });
+    private void addDirectory(File root, File dir, int jobs) throws IOException {
+        try(WorkingTreeScanner scanner = new WorkingTreeScanner(root, ignoreEngine, jobs)) {
+            List<Path> files = scanner.walk(dir.toPath().normalize());
+
+            // hashing and blob writes run on the worker pool, index updates stay on this thread
+            List<IndexEntry> entries = scanner.map(files, p -> hashAndStore(scanner.relativize(p), p));
+            entries.forEach(this::stage);
+        }
     }
 }
@@ -1,7 +1,11 @@
 package com.ismile.core.chronovcscli.core.checkout;
 
+import com.ismile.core.chronovcscli.core.ignore.IgnoreEngine;
 import com.ismile.core.chronovcscli.core.index.IndexEngine;
+import com.ismile.core.chronovcscli.core.index.IndexEntry;
+import com.ismile.core.chronovcscli.core.objectsStore.ObjectStore;
 import com.ismile.core.chronovcscli.core.pull.LocalCommitReader;
+import com.ismile.core.chronovcscli.core.scan.WorkingTreeScanner;
 import com.ismile.core.chronovcscli.core.status.StatusEngine;
 import com.ismile.core.chronovcscli.core.status.StatusResult;
 import com.ismile.core.chronovcscli.remote.dto.CommitSnapshotDto;
@@ -10,8 +14,18 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
@@ -21,6 +35,8 @@ public class CheckoutService {
     private final LocalCommitReader localCommitReader;
     private final StatusEngine statusEngine;
     private final IndexEngine indexEngine;
+    private final ObjectStore objectStore;
+    private final IgnoreEngine ignoreEngine;
 
     /**
      * Checkout branch - switch to branch
@@ -55,13 +71,13 @@ public class CheckoutService {
             throw new IllegalStateException("Commit not found: " + branchHead);
         }
 
+        // Checkout commit files; HEAD only moves once they are in place
+        checkoutCommitFiles(projectRoot, commit, force);
+
         // Update HEAD to point to branch
         File headFile = new File(projectRoot, ".vcs/HEAD");
         Files.writeString(headFile.toPath(), "ref: refs/heads/" + branchName);
 
-        // Checkout commit files
-        checkoutCommitFiles(projectRoot, commit, force);
-
         log.info("Switched to branch '{}' at commit {}", branchName, branchHead);
     }
 
@@ -75,13 +91,13 @@ public class CheckoutService {
             throw new IllegalArgumentException("Commit not found: " + commitHash);
         }
 
+        // Checkout commit files; HEAD only moves once they are in place
+        checkoutCommitFiles(projectRoot, commit, false);
+
         // Update HEAD to point directly to commit (detached)
         File headFile = new File(projectRoot, ".vcs/HEAD");
         Files.writeString(headFile.toPath(), commitHash);
 
-        // Checkout commit files
-        checkoutCommitFiles(projectRoot, commit, false);
-
         log.info("HEAD is now at {} (detached)", commitHash);
     }
 
@@ -128,46 +144,120 @@ public class CheckoutService {
             return;
         }
 
-        // Check for uncommitted changes before clearing working directory
+        // Check for uncommitted changes before touching the working directory
         if (!force) {
             checkForUncommittedChanges(projectRoot);
         }
 
-        // Clear working directory (except .vcs)
-        clearWorkingDirectory(projectRoot);
+        List<String> changed = updateWorkingTree(projectRoot, commit, force);
+
+        log.info("Checked out {} files ({} changed) and updated index", commit.getFiles().size(), changed.size());
+    }
+
+    /**
+     * Move the working directory and index from the state recorded in the index to {@code commit},
+     * writing and deleting only the paths whose blob differs. With {@code force}, tracked files with
+     * local modifications are restored as well. Untracked files are left alone.
+     *
+     * If a file cannot be written the checkout is aborted with the index unchanged; files
+     * already written stay in the working directory and show up as modified.
+     *
+     * @return paths written or deleted
+     * @throws IOException if a file could not be written
+     */
+    public List<String> updateWorkingTree(File projectRoot, CommitSnapshotDto commit, boolean force) throws Exception {
+        Map<String, String> target = commit.getFiles() != null ? commit.getFiles() : Map.of();
 
-        // Load and clear the index - we'll rebuild it from the commit
         indexEngine.loadIndex(projectRoot);
+        Map<String, String> current = new HashMap<>(indexEngine.getEntries());
+
+        Set<String> dirty = new HashSet<>();
+        if (force) {
+            StatusResult status = statusEngine.getStatus(projectRoot);
+            dirty.addAll(status.getModified());
+            dirty.addAll(status.getDeleted());
+        }
 
-        // Remove all files from index (we'll add them back from the commit)
-        Map<String, String> currentIndexEntries = indexEngine.getEntries();
-        for (String filePath : new java.util.ArrayList<>(currentIndexEntries.keySet())) {
-            indexEngine.removeFile(filePath);
+        // 1) Diff by blob hash
+        List<String> toWrite = new ArrayList<>();
+        for (Map.Entry<String, String> entry : target.entrySet()) {
+            if (!entry.getValue().equals(current.get(entry.getKey())) || dirty.contains(entry.getKey())) {
+                toWrite.add(entry.getKey());
+            }
+        }
+        List<String> toDelete = new ArrayList<>();
+        for (String path : current.keySet()) {
+            if (!target.containsKey(path)) {
+                toDelete.add(path);
+            }
         }
 
-        // Checkout all files and update index
-        for (Map.Entry<String, String> entry : commit.getFiles().entrySet()) {
-            String filePath = entry.getKey();
-            String blobHash = entry.getValue();
+        // Partial clones fetch missing blobs up front, before the working directory is touched
+        Set<String> hashes = new HashSet<>();
+        for (String path : toWrite) {
+            hashes.add(target.get(path));
+        }
+        objectStore.prefetch(projectRoot, hashes);
 
+        // 2) Deletions first, so a removed file can make room for a directory of the same name
+        for (String path : toDelete) {
+            Path file = projectRoot.toPath().resolve(path);
             try {
-                byte[] content = readBlob(projectRoot, blobHash);
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                log.warn("Failed to delete: {}", path);
+            }
+            deleteEmptyParents(projectRoot.toPath(), file.getParent());
+        }
 
-                File file = new File(projectRoot, filePath);
-                file.getParentFile().mkdirs();
-                Files.write(file.toPath(), content);
+        // 3) Write changed files in parallel, streaming each blob from the object store
+        Map<Path, String> paths = new HashMap<>();
+        List<Path> files = new ArrayList<>(toWrite.size());
+        for (String path : toWrite) {
+            Path file = projectRoot.toPath().resolve(path);
+            paths.put(file, path);
+            files.add(file);
+        }
 
-                // Update index to reflect the checked out file
-                indexEngine.updateFile(filePath, blobHash);
-            } catch (Exception e) {
-                log.error("Failed to checkout file: {}", filePath, e);
-            }
+        List<IndexEntry> written;
+        try (WorkingTreeScanner workers = new WorkingTreeScanner(projectRoot, ignoreEngine,
+                Runtime.getRuntime().availableProcessors())) {
+            written = workers.map(files, file -> writeFile(projectRoot, file, paths.get(file), target));
+        }
+
+        // 4) Stage only after every file was written
+        for (String path : toDelete) {
+            indexEngine.removeFile(path);
+        }
+        List<String> changed = new ArrayList<>(toDelete);
+        for (IndexEntry entry : written) {
+            indexEngine.updateFile(entry);
+            changed.add(entry.getPath());
         }
 
-        // Save updated index
         indexEngine.saveIndex(projectRoot);
+        return changed;
+    }
 
-        log.info("Checked out {} files and updated index", commit.getFiles().size());
+    /**
+     * Write through a temporary file, so a failed write leaves the previous content in place.
+     *
+     * @return the index entry for the written file
+     */
+    private IndexEntry writeFile(File projectRoot, Path file, String path, Map<String, String> target) throws IOException {
+        String blobHash = target.get(path);
+        Files.createDirectories(file.getParent());
+        Path temp = file.resolveSibling(file.getFileName() + ".checkout.tmp");
+        try {
+            try (InputStream content = objectStore.openBlob(projectRoot, blobHash)) {
+                Files.copy(content, temp, StandardCopyOption.REPLACE_EXISTING);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw new IOException("Failed to checkout file " + path + ": " + e.getMessage(), e);
+        }
+        return IndexEntry.of(path, blobHash, file);
     }
 
     /**
@@ -213,57 +303,26 @@ public class CheckoutService {
     }
 
     /**
-     * Read blob from local storage
+     * Read blob from local storage, or from the remote of a partial clone
      */
     private byte[] readBlob(File projectRoot, String hash) throws Exception {
-        String prefix = hash.substring(0, 2);
-        String suffix = hash.substring(2);
-
-        File blobFile = new File(projectRoot, ".vcs/objects/" + prefix + "/" + suffix);
-        if (!blobFile.exists()) {
-            throw new IllegalStateException("Blob not found: " + hash);
+        try {
+            return objectStore.readBlob(projectRoot, hash);
+        } catch (FileNotFoundException e) {
+            throw new IllegalStateException("Blob not found: " + hash, e);
         }
-
-        return Files.readAllBytes(blobFile.toPath());
     }
 
     /**
-     * Clear working directory (except .vcs and .chronoignore)
+     * Remove directories left empty by deleted files, up to (not including) the project root
      */
-    private void clearWorkingDirectory(File projectRoot) {
-        File[] files = projectRoot.listFiles();
-        if (files == null) {
-            return;
-        }
-
-        for (File file : files) {
-            String name = file.getName();
-
-            // Skip .vcs and special files
-            if (name.equals(".vcs") || name.equals(".chronoignore") || name.equals(".gitignore")) {
-                continue;
+    private void deleteEmptyParents(Path root, Path dir) {
+        while (dir != null && !dir.equals(root) && dir.startsWith(root)) {
+            String[] children = dir.toFile().list();
+            if (children == null || children.length > 0 || !dir.toFile().delete()) {
+                return;
             }
-
-            // Delete file or directory
-            deleteRecursively(file);
-        }
-    }
-
-    /**
-     * Delete file or directory recursively
-     */
-    private void deleteRecursively(File file) {
-        if (file.isDirectory()) {
-            File[] children = file.listFiles();
-            if (children != null) {
-                for (File child : children) {
-                    deleteRecursively(child);
-                }
-            }
-        }
-
-        if (!file.delete()) {
-            log.warn("Failed to delete: {}", file.getPath());
+            dir = dir.getParent();
         }
     }
 
@@ -3,6 +3,7 @@ package com.ismile.core.chronovcscli.core.commit.impl;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.ismile.core.chronovcscli.core.commit.CommitEngine;
 import com.ismile.core.chronovcscli.core.commit.CommitModel;
+import com.ismile.core.chronovcscli.core.graph.CommitGraph;
 import com.ismile.core.chronovcscli.core.hash.HashEngine;
 import com.ismile.core.chronovcscli.core.index.IndexEngine;
 import com.ismile.core.chronovcscli.core.objectsStore.ObjectStore;
@@ -12,7 +13,9 @@ import org.springframework.stereotype.Component;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
 import java.time.Instant;
+import java.util.HashMap;
 import java.util.Map;
 
 @Component
@@ -22,6 +25,7 @@ public class CommitEngineImpl implements CommitEngine {
     private final IndexEngine indexEngine;
     private final ObjectStore objectStore;
     private final HashEngine hashEngine;
+    private final CommitGraph commitGraph;
     private final ObjectMapper mapper = new ObjectMapper();
     @Override
     public String commit(File projectRoot, String message) throws IOException {
@@ -34,11 +38,20 @@ public class CommitEngineImpl implements CommitEngine {
             throw new RuntimeException("Empty commit");
         }
 
-        // write snapshot to object store (if blobs exist)
+        // write snapshot to object store; blobs are normally stored by add already,
+        // so only rehash files whose staged blob is missing
         for(Map.Entry<String, String> e : entries.entrySet()) {
+            if(objectStore.exists(projectRoot, e.getValue()))
+                continue;
             File f = new File(projectRoot, e.getKey());
             if(f.exists()) {
-                objectStore.writeBlob(f); // ensure blob exists
+                // store the blob only if the file still has the staged content
+                byte[] content = Files.readAllBytes(f.toPath());
+                if(!hashEngine.hashBytes(content).equals(e.getValue())) {
+                    throw new IllegalStateException("Staged blob of " + e.getKey()
+                            + " is missing and the file has changed since; add it again");
+                }
+                objectStore.writeBlob(projectRoot, e.getValue(), content);
             }
         }
 
@@ -46,7 +59,7 @@ public class CommitEngineImpl implements CommitEngine {
         CommitModel commit = new CommitModel();
         commit.setMessage(message);
         commit.setTimestamp(Instant.now().toString());
-        commit.setFiles(entries);
+        commit.setFiles(new HashMap<>(entries));
 
         // parent commit
         String parent = getCurrentHead(projectRoot);
@@ -61,6 +74,7 @@ public class CommitEngineImpl implements CommitEngine {
         File commitFile = new File(projectRoot, ".vcs/commits/" + commitId + ".json");
         commitFile.getParentFile().mkdirs();
         mapper.writerWithDefaultPrettyPrinter().writeValue(commitFile, commit);
+        commitGraph.update(projectRoot);
 
         // update branch pointer
         updateBranchHead(projectRoot, commitId);
@@ -0,0 +1,16 @@
+package com.ismile.core.chronovcscli.core.gc;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Packs loose objects to save space and inodes.
+ */
+public interface GcEngine {
+
+    /**
+     * Move all loose objects into a new pack under {@code .vcs/objects/pack},
+     * storing similar blobs as deltas, then delete the loose files.
+     */
+    GcResult gc(File projectRoot) throws IOException;
+}
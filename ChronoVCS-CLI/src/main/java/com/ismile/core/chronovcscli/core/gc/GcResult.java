@@ -0,0 +1,18 @@
+package com.ismile.core.chronovcscli.core.gc;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class GcResult {
+    private int objectsPacked;
+    private int deltas;
+    private int packsWritten;
+    private long looseBytes;   // size of the removed loose files on disk
+    private long packedBytes;  // size of the new pack files
+}
@@ -0,0 +1,217 @@
+package com.ismile.core.chronovcscli.core.gc.impl;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ismile.core.chronovcscli.core.commit.CommitModel;
+import com.ismile.core.chronovcscli.core.gc.GcEngine;
+import com.ismile.core.chronovcscli.core.gc.GcResult;
+import com.ismile.core.chronovcscli.core.index.IndexEngine;
+import com.ismile.core.chronovcscli.core.objectsStore.ObjectStore;
+import com.ismile.core.chronovcscli.core.objectsStore.pack.Delta;
+import com.ismile.core.chronovcscli.core.objectsStore.pack.PackWriter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class GcEngineImpl implements GcEngine {
+
+    // Number of preceding objects tried as delta bases
+    private static final int WINDOW = 10;
+    // Deltas are not built on top of objects this deep in a chain, bounding read cost
+    private static final int MAX_DEPTH = 10;
+    // Larger objects are stored whole and streamed instead of loaded for delta search
+    private static final long MAX_DELTA_SIZE = 8L * 1024 * 1024;
+    // Start a new pack rather than let one grow past this size; a larger object gets a pack of its own
+    private static final long MAX_PACK_SIZE = 1L << 30;
+
+    private final ObjectStore objectStore;
+    private final IndexEngine indexEngine;
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    @Override
+    public GcResult gc(File projectRoot) throws IOException {
+        Path objectsDir = projectRoot.toPath().resolve(".vcs/objects");
+        Map<String, Path> loose = listLooseObjects(objectsDir);
+        GcResult result = new GcResult();
+        if(loose.isEmpty()) {
+            return result;
+        }
+
+        // 1) Order objects so versions of the same file sit next to each other, newest (largest) first
+        Map<String, String> names = objectNames(projectRoot);
+        List<Candidate> objects = new ArrayList<>(loose.size());
+        for (String hash : loose.keySet()) {
+            String name = names.getOrDefault(hash, "");
+            objects.add(new Candidate(hash, name.substring(name.lastIndexOf('/') + 1),
+                    objectStore.blobSize(projectRoot, hash)));
+        }
+        objects.sort(Comparator.comparing(Candidate::name)
+                .thenComparing(Comparator.comparingLong(Candidate::size).reversed())
+                .thenComparing(Candidate::hash));
+
+        // 2) Write the pack(s), trying the previous WINDOW objects as delta bases
+        Path packDir = objectsDir.resolve("pack");
+        List<String> packed = new ArrayList<>();
+        PackWriter writer = new PackWriter(packDir);
+        try {
+            Deque<Base> window = new ArrayDeque<>();
+            for (Candidate object : objects) {
+                // object.size() is uncompressed, an upper bound on what the entry adds in practice
+                if(writer.objectCount() > 0 && writer.position() + object.size() > MAX_PACK_SIZE) {
+                    result.setPackedBytes(result.getPackedBytes() + writer.position());
+                    writer.finish();
+                    writer.close();
+                    result.setPacksWritten(result.getPacksWritten() + 1);
+                    writer = new PackWriter(packDir);
+                    window.clear(); // bases must live in the same pack
+                }
+
+                if(object.size() > MAX_DELTA_SIZE) {
+                    try (InputStream content = objectStore.openBlob(projectRoot, object.hash())) {
+                        writer.writeFull(object.hash(), content, object.size());
+                    }
+                    packed.add(object.hash());
+                    continue;
+                }
+
+                byte[] content = objectStore.readBlob(projectRoot, object.hash());
+                Base best = null;
+                byte[] bestDelta = null;
+                for (Base base : window) {
+                    int budget = bestDelta != null ? bestDelta.length : content.length / 2;
+                    byte[] delta = Delta.encode(base.content(), content, budget);
+                    if(delta != null) {
+                        best = base;
+                        bestDelta = delta;
+                    }
+                }
+
+                long offset;
+                int depth;
+                if(best != null) {
+                    offset = writer.writeDelta(object.hash(), content.length, best.offset(), bestDelta);
+                    depth = best.depth() + 1;
+                    result.setDeltas(result.getDeltas() + 1);
+                } else {
+                    offset = writer.writeFull(object.hash(), new ByteArrayInputStream(content), content.length);
+                    depth = 0;
+                }
+                packed.add(object.hash());
+
+                if(depth < MAX_DEPTH) {
+                    window.addFirst(new Base(content, offset, depth));
+                    if(window.size() > WINDOW) {
+                        window.removeLast();
+                    }
+                }
+            }
+            result.setPackedBytes(result.getPackedBytes() + writer.position());
+            writer.finish();
+            result.setPacksWritten(result.getPacksWritten() + 1);
+        } finally {
+            writer.close();
+        }
+
+        // 3) Packs are in place; drop the loose copies
+        for (String hash : packed) {
+            Path file = loose.get(hash);
+            result.setLooseBytes(result.getLooseBytes() + Files.size(file));
+            Files.delete(file);
+        }
+        removeEmptyPrefixDirs(objectsDir);
+
+        result.setObjectsPacked(packed.size());
+        log.info("Packed {} objects ({} deltas) into {} pack(s)",
+                result.getObjectsPacked(), result.getDeltas(), result.getPacksWritten());
+        return result;
+    }
+
+    /**
+     * hash -> loose file, from {@code .vcs/objects/xx/<rest>}
+     */
+    private Map<String, Path> listLooseObjects(Path objectsDir) throws IOException {
+        Map<String, Path> loose = new HashMap<>();
+        if(!Files.isDirectory(objectsDir)) {
+            return loose;
+        }
+        try (DirectoryStream<Path> prefixes = Files.newDirectoryStream(objectsDir, "[0-9a-f][0-9a-f]")) {
+            for (Path prefixDir : prefixes) {
+                if(!Files.isDirectory(prefixDir)) {
+                    continue;
+                }
+                try (DirectoryStream<Path> files = Files.newDirectoryStream(prefixDir)) {
+                    for (Path file : files) {
+                        String hash = prefixDir.getFileName().toString() + file.getFileName();
+                        // skips temp files of in-flight writes
+                        if(hash.length() == 64 && hash.chars().allMatch(c -> Character.digit(c, 16) >= 0)) {
+                            loose.put(hash, file);
+                        }
+                    }
+                }
+            }
+        }
+        return loose;
+    }
+
+    /**
+     * Best-effort hash -> file path from the commits and the index, used only to group similar blobs.
+     */
+    private Map<String, String> objectNames(File projectRoot) throws IOException {
+        Map<String, String> names = new HashMap<>();
+        File[] commits = new File(projectRoot, ".vcs/commits").listFiles((dir, name) -> name.endsWith(".json"));
+        if(commits != null) {
+            for (File commitFile : commits) {
+                try {
+                    CommitModel commit = objectMapper.readValue(commitFile, CommitModel.class);
+                    if(commit.getFiles() != null) {
+                        commit.getFiles().forEach((path, hash) -> names.putIfAbsent(hash, path));
+                    }
+                } catch (IOException e) {
+                    log.warn("Skipping unreadable commit {}: {}", commitFile.getName(), e.getMessage());
+                }
+            }
+        }
+
+        indexEngine.loadIndex(projectRoot);
+        indexEngine.getEntries().forEach((path, hash) -> names.putIfAbsent(hash, path));
+        return names;
+    }
+
+    private void removeEmptyPrefixDirs(Path objectsDir) throws IOException {
+        try (DirectoryStream<Path> prefixes = Files.newDirectoryStream(objectsDir, "[0-9a-f][0-9a-f]")) {
+            for (Path prefixDir : prefixes) {
+                try (DirectoryStream<Path> files = Files.newDirectoryStream(prefixDir)) {
+                    if(files.iterator().hasNext()) {
+                        continue;
+                    }
+                }
+                Files.deleteIfExists(prefixDir);
+            }
+        }
+    }
+
+    private record Candidate(String hash, String name, long size) {
+    }
+
+    private record Base(byte[] content, long offset, int depth) {
+    }
+}
@@ -0,0 +1,31 @@
+package com.ismile.core.chronovcscli.core.graph;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Memory-mapped summary of all local commits ({@code .vcs/commit-graph}), so history
+ * walks do not open and parse one commit file per step.
+ *
+ * Commits written after the last {@link #update} are still found: lookups fall back to
+ * reading the commit file.
+ */
+public interface CommitGraph {
+
+    /**
+     * Add commits from {@code .vcs/commits} that the graph file does not contain yet.
+     */
+    void update(File projectRoot) throws IOException;
+
+    /**
+     * @return the commit, or null if it does not exist locally
+     */
+    CommitNode get(File projectRoot, String commitId);
+
+    /**
+     * Best common ancestor of two commits, following both parents of merge commits.
+     *
+     * @return the ancestor, or null if the histories are unrelated
+     */
+    String findMergeBase(File projectRoot, String commit1Id, String commit2Id);
+}
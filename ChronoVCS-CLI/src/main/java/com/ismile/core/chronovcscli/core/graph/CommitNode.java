@@ -0,0 +1,21 @@
+package com.ismile.core.chronovcscli.core.graph;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Commit metadata kept in the commit graph; everything but the file list.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CommitNode {
+    private String id;
+    private String parent;
+    private String mergeParent;
+    private String message;
+    private String timestamp;
+    // 1 for a root commit, otherwise 1 + the highest parent generation
+    private int generation;
+}
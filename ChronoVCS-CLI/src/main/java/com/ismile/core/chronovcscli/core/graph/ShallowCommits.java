@@ -0,0 +1,61 @@
+package com.ismile.core.chronovcscli.core.graph;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Boundary of a shallow clone ({@code .vcs/shallow}): commits whose parents were not
+ * downloaded. History walks stop at these commits instead of treating them as roots.
+ */
+public final class ShallowCommits {
+
+    public static final String SHALLOW_FILE = ".vcs/shallow";
+
+    private ShallowCommits() {
+    }
+
+    /**
+     * @return the boundary commits, empty if the repository has its full history
+     */
+    public static Set<String> load(File projectRoot) {
+        File shallowFile = new File(projectRoot, SHALLOW_FILE);
+        Set<String> commits = new LinkedHashSet<>();
+        if (!shallowFile.isFile()) {
+            return commits;
+        }
+        try {
+            for (String line : Files.readAllLines(shallowFile.toPath())) {
+                if (!line.isBlank()) {
+                    commits.add(line.trim());
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot read " + SHALLOW_FILE + ": " + e.getMessage(), e);
+        }
+        return commits;
+    }
+
+    public static boolean isShallow(File projectRoot) {
+        return new File(projectRoot, SHALLOW_FILE).isFile();
+    }
+
+    /**
+     * Add commits to the boundary.
+     */
+    public static void add(File projectRoot, Collection<String> commitIds) throws IOException {
+        if (commitIds.isEmpty()) {
+            return;
+        }
+        Set<String> commits = load(projectRoot);
+        if (!commits.addAll(commitIds)) {
+            return;
+        }
+        File shallowFile = new File(projectRoot, SHALLOW_FILE);
+        shallowFile.getParentFile().mkdirs();
+        Files.writeString(shallowFile.toPath(), String.join("\n", commits) + "\n");
+    }
+}
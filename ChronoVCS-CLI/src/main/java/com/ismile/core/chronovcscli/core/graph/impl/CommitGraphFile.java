@@ -0,0 +1,223 @@
+package com.ismile.core.chronovcscli.core.graph.impl;
+
+import com.ismile.core.chronovcscli.core.graph.CommitNode;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Commit graph file ({@code .vcs/commit-graph}), read through a memory mapping.
+ *
+ * Layout (big-endian):
+ * <pre>
+ *   header   magic "CVCG", version, commit count, offset of the string region
+ *   commits  count x 24 bytes, sorted by id:
+ *            id, parent, merge parent, message, timestamp (string offsets, -1 for none),
+ *            generation
+ *   strings  each an int length followed by UTF-8 bytes, deduplicated
+ * </pre>
+ * Fixed-width records allow binary search by id directly on the mapping.
+ */
+final class CommitGraphFile {
+
+    private static final int MAGIC = 0x43564347; // "CVCG"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+    private static final int RECORD_SIZE = 6 * 4;
+
+    static final CommitGraphFile EMPTY = new CommitGraphFile(ByteBuffer.allocate(0), 0, 0);
+
+    private final ByteBuffer buffer;
+    private final int count;
+    private final int stringsOffset;
+
+    private CommitGraphFile(ByteBuffer buffer, int count, int stringsOffset) {
+        this.buffer = buffer;
+        this.count = count;
+        this.stringsOffset = stringsOffset;
+    }
+
+    static CommitGraphFile open(Path file) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a ChronoVCS commit graph: " + file);
+        }
+        int version = buffer.getInt(4);
+        if (version != VERSION) {
+            throw new IOException("Unsupported commit graph version " + version + ": " + file);
+        }
+        int count = buffer.getInt(8);
+        int stringsOffset = buffer.getInt(12);
+        if (count < 0 || stringsOffset != HEADER_SIZE + (long) count * RECORD_SIZE || stringsOffset > buffer.capacity()) {
+            throw new IOException("Corrupt commit graph: " + file);
+        }
+        return new CommitGraphFile(buffer, count, stringsOffset);
+    }
+
+    /**
+     * Write the commits to a lock file next to {@code target} and rename it into place.
+     * Generations must already be set.
+     */
+    static void write(Path target, List<CommitNode> commits) throws IOException {
+        // Sort by the UTF-8 bytes of the id, the order find() searches in
+        byte[][] keys = new byte[commits.size()][];
+        Integer[] order = new Integer[commits.size()];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = utf8(commits.get(i).getId());
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Arrays.compareUnsigned(keys[a], keys[b]));
+        CommitNode[] sorted = new CommitNode[order.length];
+        for (int i = 0; i < sorted.length; i++) {
+            sorted[i] = commits.get(order[i]);
+        }
+
+        StringRegion strings = new StringRegion();
+        Path lock = target.resolveSibling(target.getFileName() + ".lock");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(lock)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(sorted.length);
+            out.writeInt(HEADER_SIZE + sorted.length * RECORD_SIZE);
+
+            for (CommitNode commit : sorted) {
+                out.writeInt(strings.add(commit.getId()));
+                out.writeInt(strings.add(commit.getParent()));
+                out.writeInt(strings.add(commit.getMergeParent()));
+                out.writeInt(strings.add(commit.getMessage()));
+                out.writeInt(strings.add(commit.getTimestamp()));
+                out.writeInt(commit.getGeneration());
+            }
+            strings.writeTo(out);
+        }
+
+        try {
+            Files.move(lock, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(lock, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    int size() {
+        return count;
+    }
+
+    String id(int i) {
+        return string(field(i, 0));
+    }
+
+    int generation(int i) {
+        return field(i, 5);
+    }
+
+    CommitNode node(int i) {
+        return new CommitNode(id(i),
+                string(field(i, 1)),
+                string(field(i, 2)),
+                string(field(i, 3)),
+                string(field(i, 4)),
+                generation(i));
+    }
+
+    /**
+     * Binary search by id.
+     *
+     * @return commit position, or -1 if absent
+     */
+    int find(String id) {
+        byte[] key = utf8(id);
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = compare(field(mid, 0), key);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    private int field(int i, int field) {
+        return buffer.getInt(HEADER_SIZE + i * RECORD_SIZE + field * 4);
+    }
+
+    private String string(int offset) {
+        if (offset < 0) {
+            return null;
+        }
+        int position = stringsOffset + offset;
+        byte[] bytes = new byte[buffer.getInt(position)];
+        buffer.get(position + 4, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Unsigned byte comparison of a stored string with {@code key}, without decoding it.
+     */
+    private int compare(int offset, byte[] key) {
+        int position = stringsOffset + offset;
+        int length = buffer.getInt(position);
+        int common = Math.min(length, key.length);
+        for (int i = 0; i < common; i++) {
+            int cmp = Integer.compare(buffer.get(position + 4 + i) & 0xFF, key[i] & 0xFF);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return Integer.compare(length, key.length);
+    }
+
+    private static byte[] utf8(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static final class StringRegion {
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final DataOutputStream out = new DataOutputStream(bytes);
+        private final Map<String, Integer> offsets = new HashMap<>();
+
+        int add(String value) throws IOException {
+            if (value == null) {
+                return -1;
+            }
+            Integer existing = offsets.get(value);
+            if (existing != null) {
+                return existing;
+            }
+            int offset = out.size();
+            byte[] encoded = utf8(value);
+            out.writeInt(encoded.length);
+            out.write(encoded);
+            offsets.put(value, offset);
+            return offset;
+        }
+
+        void writeTo(DataOutputStream target) throws IOException {
+            bytes.writeTo(target);
+        }
+    }
+}
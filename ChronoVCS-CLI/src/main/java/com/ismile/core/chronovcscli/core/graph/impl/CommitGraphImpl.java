@@ -0,0 +1,244 @@
+package com.ismile.core.chronovcscli.core.graph.impl;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ismile.core.chronovcscli.core.commit.CommitModel;
+import com.ismile.core.chronovcscli.core.graph.CommitGraph;
+import com.ismile.core.chronovcscli.core.graph.CommitNode;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+@Slf4j
+public class CommitGraphImpl implements CommitGraph {
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    // Opened graph per repository; only this class writes the file, so update() is the only invalidation
+    private final Map<Path, CommitGraphFile> graphs = new ConcurrentHashMap<>();
+
+    @Override
+    public synchronized void update(File projectRoot) {
+        File[] commitFiles = new File(projectRoot, ".vcs/commits").listFiles(File::isFile);
+        if(commitFiles == null) {
+            return;
+        }
+
+        try {
+            CommitGraphFile graph = graph(projectRoot);
+            Map<String, CommitNode> commits = new HashMap<>(graph.size() + commitFiles.length);
+            for (int i = 0; i < graph.size(); i++) {
+                CommitNode node = graph.node(i);
+                commits.put(node.getId(), node);
+            }
+
+            // Only commits the graph does not know yet are parsed
+            int added = 0;
+            for (File commitFile : commitFiles) {
+                String id = commitId(commitFile);
+                if(commits.containsKey(id)) {
+                    continue;
+                }
+                CommitNode node = readCommitFile(commitFile, id);
+                if(node != null) {
+                    commits.put(node.getId(), node);
+                    added++;
+                }
+            }
+            if(added == 0) {
+                return;
+            }
+
+            computeGenerations(commits);
+            Path file = graphPath(projectRoot);
+            CommitGraphFile.write(file, new ArrayList<>(commits.values()));
+            graphs.put(key(projectRoot), CommitGraphFile.open(file));
+            log.debug("Commit graph updated: {} commits ({} new)", commits.size(), added);
+        } catch (IOException e) {
+            // the graph is only a cache of .vcs/commits; lookups fall back to the commit files
+            log.warn("Failed to update commit graph: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public CommitNode get(File projectRoot, String commitId) {
+        if(commitId == null || commitId.isEmpty()) {
+            return null;
+        }
+        CommitGraphFile graph = graph(projectRoot);
+        int position = graph.find(commitId);
+        if(position >= 0) {
+            return graph.node(position);
+        }
+
+        // Written after the last update: bring the graph up to date once, then look again
+        File commitFile = commitFile(projectRoot, commitId);
+        if(commitFile == null) {
+            return null;
+        }
+        update(projectRoot);
+        graph = graph(projectRoot);
+        position = graph.find(commitId);
+        return position >= 0 ? graph.node(position) : readCommitFile(commitFile, commitId);
+    }
+
+    @Override
+    public String findMergeBase(File projectRoot, String commit1Id, String commit2Id) {
+        if(commit1Id.equals(commit2Id)) {
+            return commit1Id;
+        }
+
+        // Walk both histories newest generation first, marking which side reached each commit.
+        // Parents always have a lower generation than their children, so a commit is final when
+        // polled, and the first one reached from both sides is a best common ancestor.
+        final int fromFirst = 1;
+        final int fromSecond = 2;
+        Map<String, Integer> reachedFrom = new HashMap<>();
+        Set<String> done = new HashSet<>();
+        PriorityQueue<CommitNode> queue = new PriorityQueue<>(
+                Comparator.comparingInt(CommitNode::getGeneration).reversed());
+
+        enqueue(projectRoot, queue, reachedFrom, commit1Id, fromFirst);
+        enqueue(projectRoot, queue, reachedFrom, commit2Id, fromSecond);
+
+        while(!queue.isEmpty()) {
+            CommitNode commit = queue.poll();
+            if(!done.add(commit.getId())) {
+                continue;
+            }
+            int sides = reachedFrom.get(commit.getId());
+            if(sides == (fromFirst | fromSecond)) {
+                log.info("Found common ancestor: {}", commit.getId());
+                return commit.getId();
+            }
+            enqueue(projectRoot, queue, reachedFrom, commit.getParent(), sides);
+            enqueue(projectRoot, queue, reachedFrom, commit.getMergeParent(), sides);
+        }
+
+        log.warn("No common ancestor found between {} and {}", commit1Id, commit2Id);
+        return null;
+    }
+
+    private void enqueue(File projectRoot, PriorityQueue<CommitNode> queue, Map<String, Integer> reachedFrom,
+                         String commitId, int sides) {
+        if(commitId == null) {
+            return;
+        }
+        int previous = reachedFrom.getOrDefault(commitId, 0);
+        if((previous | sides) == previous) {
+            return;
+        }
+        reachedFrom.put(commitId, previous | sides);
+        CommitNode commit = get(projectRoot, commitId);
+        if(commit != null) {
+            queue.add(commit);
+        }
+    }
+
+    /**
+     * Generation = 1 + highest parent generation, parents missing locally count as 0.
+     * Iterative, since first-parent chains can be far deeper than the call stack.
+     */
+    private void computeGenerations(Map<String, CommitNode> commits) {
+        commits.values().forEach(commit -> commit.setGeneration(0));
+        Deque<CommitNode> stack = new ArrayDeque<>();
+        for (CommitNode start : commits.values()) {
+            if(start.getGeneration() != 0) {
+                continue;
+            }
+            start.setGeneration(-1); // in progress
+            stack.push(start);
+            while(!stack.isEmpty()) {
+                CommitNode commit = stack.peek();
+                CommitNode pending = null;
+                int generation = 0;
+                for (String parentId : new String[]{commit.getParent(), commit.getMergeParent()}) {
+                    CommitNode parent = parentId != null ? commits.get(parentId) : null;
+                    if(parent == null) {
+                        continue;
+                    }
+                    if(parent.getGeneration() == 0) {
+                        pending = parent;
+                        break;
+                    }
+                    generation = Math.max(generation, parent.getGeneration());
+                }
+                if(pending != null) {
+                    pending.setGeneration(-1);
+                    stack.push(pending);
+                    continue;
+                }
+                stack.pop();
+                commit.setGeneration(generation + 1);
+            }
+        }
+    }
+
+    private CommitGraphFile graph(File projectRoot) {
+        return graphs.computeIfAbsent(key(projectRoot), path -> {
+            Path file = graphPath(projectRoot);
+            if(!Files.exists(file)) {
+                return CommitGraphFile.EMPTY;
+            }
+            try {
+                return CommitGraphFile.open(file);
+            } catch (IOException e) {
+                log.warn("Ignoring unreadable commit graph: {}", e.getMessage());
+                return CommitGraphFile.EMPTY;
+            }
+        });
+    }
+
+    private CommitNode readCommitFile(File commitFile, String commitId) {
+        try {
+            CommitModel commit = objectMapper.readValue(commitFile, CommitModel.class);
+            return new CommitNode(commit.getId() != null ? commit.getId() : commitId,
+                    commit.getParent(), commit.getMergeParent(),
+                    commit.getMessage(), commit.getTimestamp(), 0);
+        } catch (IOException e) {
+            log.error("Error loading commit {}", commitId, e);
+            return null;
+        }
+    }
+
+    /**
+     * Commits are stored as {@code <id>.json}, merge commits as plain {@code <id>}.
+     */
+    private File commitFile(File projectRoot, String commitId) {
+        File json = new File(projectRoot, ".vcs/commits/" + commitId + ".json");
+        if(json.isFile()) {
+            return json;
+        }
+        File plain = new File(projectRoot, ".vcs/commits/" + commitId);
+        return plain.isFile() ? plain : null;
+    }
+
+    private String commitId(File commitFile) {
+        String name = commitFile.getName();
+        return name.endsWith(".json") ? name.substring(0, name.length() - ".json".length()) : name;
+    }
+
+    private Path graphPath(File projectRoot) {
+        return projectRoot.toPath().resolve(".vcs/commit-graph");
+    }
+
+    private Path key(File projectRoot) {
+        return projectRoot.toPath().toAbsolutePath().normalize();
+    }
+}
@@ -2,9 +2,15 @@ package com.ismile.core.chronovcscli.core.hash;
 
 import java.io.File;
 import java.io.IOException;
+import java.security.MessageDigest;
 
 public interface HashEngine {
     String hashBytes(byte[] data);
     String hashString(String text);
     String hashFile(File file) throws IOException;
+
+    /**
+     * Fresh digest of the same algorithm, for hashing content while it is streamed elsewhere.
+     */
+    MessageDigest newDigest();
 }
@@ -6,13 +6,21 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
 import java.io.File;
-import java.io.FileInputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 
 @Component
 @Slf4j
 public class Sha256HashEngine implements HashEngine {
     private static final String ALGORITHM = "SHA-256";
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final ThreadLocal<MessageDigest> DIGEST = ThreadLocal.withInitial(Sha256HashEngine::createDigest);
+    private static final ThreadLocal<ByteBuffer> BUFFER = ThreadLocal.withInitial(() -> ByteBuffer.allocateDirect(BUFFER_SIZE));
+
     @Override
     public String hashBytes(byte[] data) {
         try {
@@ -31,16 +39,33 @@ public class Sha256HashEngine implements HashEngine {
 
     @Override
     public String hashFile(File file) {
-        try (FileInputStream fis = new FileInputStream(file)) {
-            MessageDigest digest = MessageDigest.getInstance(ALGORITHM);
-            byte[] buffer = new byte[8192];
-            int read;
-            while((read = fis.read(buffer)) != -1) {
-                digest.update(buffer, 0, read);
+        // Per-thread digest and direct buffer: hashFile runs on the scanner worker pool
+        MessageDigest digest = DIGEST.get();
+        ByteBuffer buffer = BUFFER.get();
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            digest.reset();
+            buffer.clear();
+            while(channel.read(buffer) != -1) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
             }
             return HashUtils.toHex(digest.digest());
         } catch(Exception e) {
             throw new RuntimeException("Failed to hash file", e);
         }
     }
+
+    @Override
+    public MessageDigest newDigest() {
+        return createDigest();
+    }
+
+    private static MessageDigest createDigest() {
+        try {
+            return MessageDigest.getInstance(ALGORITHM);
+        } catch(NoSuchAlgorithmException e) {
+            throw new IllegalStateException(ALGORITHM + " not available", e);
+        }
+    }
 }
@@ -4,4 +4,10 @@ import java.io.File;
 
 public interface IgnoreEngine {
     boolean isIgnored(File projectRoot, File file);
+
+    /**
+     * False if {@code dir} is ignored and no rule can re-include anything below it,
+     * so tree walkers can skip the whole directory.
+     */
+    boolean shouldDescend(File projectRoot, File dir);
 }
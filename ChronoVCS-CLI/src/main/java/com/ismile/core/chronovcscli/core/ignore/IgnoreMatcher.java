@@ -0,0 +1,266 @@
+package com.ismile.core.chronovcscli.core.ignore;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * {@code .chronoignore} rules compiled once for repeated matching.
+ *
+ * Literal rules ({@code build}, {@code node_modules/}, {@code .idea}, {@code config.local})
+ * go into a trie keyed by path segment, so they cost one lookup per segment of the
+ * checked path regardless of how many rules there are. Wildcard rules are compiled
+ * to regular expressions: without a "/" they match the file name (or any parent
+ * directory name) at any depth, otherwise the path from the project root.
+ *
+ * As in git, the last matching rule wins, so {@code !pattern} re-includes paths
+ * ignored by earlier rules.
+ *
+ * Instances are immutable and safe to share between threads.
+ */
+public final class IgnoreMatcher {
+
+    public static final IgnoreMatcher EMPTY = compile(List.of());
+
+    private final Node root = new Node();
+    private final List<GlobRule> globs = new ArrayList<>();
+    private final List<String> negationPrefixes = new ArrayList<>();
+    private final boolean[] negated;
+    // a negated rule without "/" can re-include a file in any directory
+    private boolean floatingNegation;
+
+    private IgnoreMatcher(List<IgnoreRule> rules) {
+        this.negated = new boolean[rules.size()];
+        for (int index = 0; index < rules.size(); index++) {
+            add(index, rules.get(index));
+        }
+    }
+
+    public static IgnoreMatcher compile(List<IgnoreRule> rules) {
+        return new IgnoreMatcher(rules);
+    }
+
+    /**
+     * @param relativePath path from the project root, "/" separated
+     */
+    public boolean isIgnored(String relativePath) {
+        int rule = lastMatch(relativePath);
+        return rule >= 0 && !negated[rule];
+    }
+
+    /**
+     * False if nothing under {@code relativeDir} can be included, so a walker may skip it.
+     */
+    public boolean shouldDescend(String relativeDir) {
+        if (!isIgnored(relativeDir)) {
+            return true;
+        }
+        if (floatingNegation) {
+            return true;
+        }
+        String prefix = relativeDir + "/";
+        for (String negation : negationPrefixes) {
+            if (negation.startsWith(prefix) || prefix.startsWith(negation)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Index of the last rule matching the path, or -1.
+     */
+    private int lastMatch(String path) {
+        int best = -1;
+
+        // 1) Literal rules: one trie step per path segment
+        Node node = root;
+        int start = 0;
+        while (node != null && start <= path.length()) {
+            int end = path.indexOf('/', start);
+            boolean last = end < 0;
+            if (last) {
+                end = path.length();
+            }
+            node = node.children.get(path.substring(start, end));
+            if (node == null) {
+                break;
+            }
+            best = Math.max(best, node.prefixRule);
+            if (last) {
+                best = Math.max(best, node.exactRule);
+                break;
+            }
+            start = end + 1;
+        }
+
+        // 2) Wildcard rules, latest first; anything older than the literal match cannot win
+        for (int i = globs.size() - 1; i >= 0; i--) {
+            GlobRule glob = globs.get(i);
+            if (glob.index() <= best) {
+                break;
+            }
+            if (glob.matches(path)) {
+                return glob.index();
+            }
+        }
+        return best;
+    }
+
+    private void add(int index, IgnoreRule rule) {
+        negated[index] = rule.isNegated();
+
+        String pattern = rule.getPattern();
+        if (rule.isDirectoryRule()) {
+            pattern = pattern.substring(0, pattern.length() - 1);
+        }
+        if (pattern.isEmpty()) {
+            return;
+        }
+
+        if (isGlob(pattern)) {
+            boolean basename = !rule.isAnchored() && !pattern.contains("/");
+            globs.add(GlobRule.of(index, pattern, basename));
+            if (rule.isNegated()) {
+                if (basename) {
+                    floatingNegation = true;
+                } else {
+                    negationPrefixes.add(literalPrefix(pattern));
+                }
+            }
+            return;
+        }
+
+        // Literal rules match from the project root; directory-like names also match everything below
+        boolean prefix = rule.isDirectoryRule()
+                || !pattern.contains(".")
+                || (pattern.startsWith(".") && !pattern.substring(1).contains("."));
+
+        Node node = root;
+        for (String segment : pattern.split("/")) {
+            node = node.children.computeIfAbsent(segment, s -> new Node());
+        }
+        if (prefix) {
+            node.prefixRule = Math.max(node.prefixRule, index);
+        } else {
+            node.exactRule = Math.max(node.exactRule, index);
+        }
+        if (rule.isNegated()) {
+            negationPrefixes.add(pattern);
+        }
+    }
+
+    private static boolean isGlob(String pattern) {
+        return pattern.indexOf('*') >= 0 || pattern.indexOf('?') >= 0 || pattern.indexOf('[') >= 0;
+    }
+
+    private static boolean isCharClass(String glob, int open) {
+        int close = glob.indexOf(']', open + 1);
+        int bodyStart = open + 1 < glob.length() && glob.charAt(open + 1) == '!' ? open + 2 : open + 1;
+        return close > bodyStart;
+    }
+
+    private static String literalPrefix(String pattern) {
+        int i = 0;
+        while (i < pattern.length() && "*?[".indexOf(pattern.charAt(i)) < 0) {
+            i++;
+        }
+        return pattern.substring(0, i);
+    }
+
+    /**
+     * {@code *} and {@code ?} stay within one segment, {@code **} crosses segments,
+     * {@code [...]} is a character class; everything else is literal.
+     */
+    private static String toRegex(String glob) {
+        StringBuilder regex = new StringBuilder();
+        int i = 0;
+        while (i < glob.length()) {
+            char c = glob.charAt(i);
+            if (c == '*') {
+                if (i + 1 < glob.length() && glob.charAt(i + 1) == '*') {
+                    boolean slash = i + 2 < glob.length() && glob.charAt(i + 2) == '/';
+                    regex.append(slash ? "(?:.*/)?" : ".*");
+                    i += slash ? 3 : 2;
+                    continue;
+                }
+                regex.append("[^/]*");
+            } else if (c == '?') {
+                regex.append("[^/]");
+            } else if (c == '[' && isCharClass(glob, i)) {
+                int close = glob.indexOf(']', i + 1);
+                String body = glob.substring(i + 1, close);
+                regex.append('[');
+                if (body.startsWith("!")) {
+                    regex.append('^');
+                    body = body.substring(1);
+                }
+                regex.append(body.replace("\\", "\\\\").replace("[", "\\[")).append(']');
+                i = close + 1;
+                continue;
+            } else {
+                if ("\\.^$|+(){}[]".indexOf(c) >= 0) {
+                    regex.append('\\');
+                }
+                regex.append(c);
+            }
+            i++;
+        }
+        return regex.toString();
+    }
+
+    private static final class Node {
+        final Map<String, Node> children = new HashMap<>();
+        int prefixRule = -1;
+        int exactRule = -1;
+    }
+
+    /**
+     * @param suffix set for the common {@code *literal} form, matched without a regex
+     * @param prefix literal start of a root-relative pattern; other paths are skipped without a regex
+     */
+    private record GlobRule(int index, Pattern pattern, boolean basename, String suffix, String prefix) {
+
+        static GlobRule of(int index, String glob, boolean basename) {
+            String rest = glob.substring(1);
+            String suffix = basename && glob.startsWith("*") && !isGlob(rest) && !rest.contains("/") ? rest : null;
+            return new GlobRule(index, Pattern.compile(toRegex(glob)), basename, suffix,
+                    basename ? "" : literalPrefix(glob));
+        }
+
+        /**
+         * Matches the path itself or one of its parent directories.
+         */
+        boolean matches(String path) {
+            if (!path.startsWith(prefix)) {
+                return false;
+            }
+            Matcher matcher = null;
+            int start = 0;
+            while (true) {
+                int end = path.indexOf('/', start);
+                int segmentEnd = end < 0 ? path.length() : end;
+
+                if (suffix != null) {
+                    int from = segmentEnd - suffix.length();
+                    if (from >= start && path.startsWith(suffix, from)) {
+                        return true;
+                    }
+                } else {
+                    matcher = matcher == null ? pattern.matcher(path) : matcher;
+                    if (matcher.region(basename ? start : 0, segmentEnd).matches()) {
+                        return true;
+                    }
+                }
+
+                if (end < 0) {
+                    return false;
+                }
+                start = end + 1;
+            }
+        }
+    }
+}
@@ -26,8 +26,19 @@ public class IgnoreParser {
                 if(line.isEmpty() || line.startsWith("#")) {
                     continue;
                 }
+                boolean negated = line.startsWith("!");
+                if(negated) {
+                    line = line.substring(1);
+                }
+                boolean anchored = line.startsWith("/");
+                if(anchored) {
+                    line = line.substring(1);
+                }
+                if(line.isEmpty() || line.equals("/")) {
+                    continue;
+                }
                 boolean isDirRule = line.endsWith("/");
-                rules.add(new IgnoreRule(line, isDirRule));
+                rules.add(new IgnoreRule(line, isDirRule, negated, anchored));
             }
             return rules;
         } catch(IOException e) {
@@ -6,6 +6,15 @@ import lombok.Data;
 @Data
 @AllArgsConstructor
 public class IgnoreRule {
+    // without the leading "!" or "/"; directory rules keep their trailing "/"
     private String pattern;
     private boolean isDirectoryRule;
+    // "!pattern": re-include paths matched by earlier rules
+    private boolean negated;
+    // "/pattern": only matched from the project root
+    private boolean anchored;
+
+    public IgnoreRule(String pattern, boolean isDirectoryRule) {
+        this(pattern, isDirectoryRule, false, false);
+    }
 }
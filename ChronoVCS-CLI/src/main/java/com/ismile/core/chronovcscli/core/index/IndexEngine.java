@@ -7,6 +7,18 @@ import java.util.Map;
 public interface IndexEngine {
     void loadIndex(File projectRoot) throws IOException;
     void updateFile(String relativePath, String blobHash);
+
+    /**
+     * Stage a file together with the stat data it was hashed with.
+     */
+    void updateFile(IndexEntry entry);
+
+    /**
+     * True if the staged stat data of {@code current.path} matches {@code current},
+     * so the staged hash can be used without rehashing the file.
+     */
+    boolean isUpToDate(IndexEntry current);
+
     void removeFile(String relativePath);
     Map<String, String> getEntries();
     void saveIndex(File projectRoot) throws IOException;
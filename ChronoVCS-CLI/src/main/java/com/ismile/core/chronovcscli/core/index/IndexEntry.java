@@ -2,10 +2,83 @@ package com.ismile.core.chronovcscli.core.index;
 
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Staged file with the stat data it had when it was hashed.
+ * If size, mtime, ctime and inode still match, the file is assumed unchanged and
+ * {@code hash} is reused instead of reading the file again.
+ */
 @Data
+@NoArgsConstructor
 @AllArgsConstructor
 public class IndexEntry {
     private String path;
     private String hash;
+    private long size;
+    // nanoseconds since epoch
+    private long mtime;
+    private long ctime;
+    // 0 when the file system has no inode numbers
+    private long inode;
+
+    /**
+     * Read the current stat data of a file.
+     */
+    public static IndexEntry of(String path, String hash, Path file) throws IOException {
+        if (UnixStat.SUPPORTED) {
+            Map<String, Object> attrs = Files.readAttributes(file, "unix:size,lastModifiedTime,ctime,ino",
+                    LinkOption.NOFOLLOW_LINKS);
+            return new IndexEntry(path, hash,
+                    (Long) attrs.get("size"),
+                    nanos((FileTime) attrs.get("lastModifiedTime")),
+                    nanos((FileTime) attrs.get("ctime")),
+                    (Long) attrs.get("ino"));
+        }
+
+        BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+        return new IndexEntry(path, hash, attrs.size(), nanos(attrs.lastModifiedTime()), 0, 0);
+    }
+
+    /**
+     * Entry without stat data; it never matches a file, so the file is hashed on next use.
+     */
+    public static IndexEntry withoutStat(String path, String hash) {
+        return new IndexEntry(path, hash, -1, 0, 0, 0);
+    }
+
+    public boolean hasStat() {
+        return size >= 0;
+    }
+
+    /**
+     * True if both entries describe the same file state as far as stat can tell.
+     */
+    public boolean isSameStat(IndexEntry other) {
+        return other != null
+                && hasStat()
+                && size == other.size
+                && mtime == other.mtime
+                && ctime == other.ctime
+                && inode == other.inode;
+    }
+
+    private static long nanos(FileTime time) {
+        return time == null ? 0 : time.to(TimeUnit.NANOSECONDS);
+    }
+
+    private static final class UnixStat {
+        static final boolean SUPPORTED = FileSystems.getDefault()
+                .supportedFileAttributeViews().contains("unix");
+    }
 }
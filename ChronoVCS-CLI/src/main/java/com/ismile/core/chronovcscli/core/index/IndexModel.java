@@ -5,7 +5,12 @@ import lombok.Data;
 import java.util.HashMap;
 import java.util.Map;
 
+/**
+ * Layout of the legacy {@code .vcs/index.json}, only read to migrate it to the binary index.
+ */
 @Data
 public class IndexModel {
     private Map<String, String> files = new HashMap<>();
+    // stat cache, only trusted while the entry hash equals files[path]
+    private Map<String, IndexEntry> stats = new HashMap<>();
 }
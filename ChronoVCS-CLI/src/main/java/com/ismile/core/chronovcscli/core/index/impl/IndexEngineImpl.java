@@ -2,51 +2,278 @@ package com.ismile.core.chronovcscli.core.index.impl;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.ismile.core.chronovcscli.core.index.IndexEngine;
+import com.ismile.core.chronovcscli.core.index.IndexEntry;
 import com.ismile.core.chronovcscli.core.index.IndexModel;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
 import java.io.File;
 import java.io.IOException;
-import java.util.Collections;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Index backed by the binary {@code .vcs/index} file.
+ *
+ * The file is memory-mapped on load and looked up in place; changes are kept in a
+ * sorted overlay and merged with the mapped entries when the index is saved.
+ */
 @Component
 @Slf4j
 public class IndexEngineImpl implements IndexEngine {
+    private static final String INDEX_FILE = ".vcs/index";
+    private static final String LEGACY_INDEX_FILE = ".vcs/index.json";
+
+    // overlay marker for a removed path
+    private static final IndexEntry REMOVED = IndexEntry.withoutStat(null, null);
+
     private final ObjectMapper objectMapper = new ObjectMapper();
-    private IndexModel indexModel = new IndexModel();
+    private final Map<String, String> entries = new EntriesView();
+
+    private IndexFile base = IndexFile.EMPTY;
+    private TreeMap<String, IndexEntry> pending = new TreeMap<>();
+
+    // mtime of the index file when it was read or written; stat entries at or after it are racy
+    private long indexTimestamp = Long.MAX_VALUE;
 
     @Override
     public void loadIndex(File projectRoot) throws IOException {
-        File indexFile = new File(projectRoot, ".vcs/index.json");
+        base.close();
+        base = IndexFile.EMPTY;
+        pending = new TreeMap<>();
+        indexTimestamp = Long.MAX_VALUE;
 
+        File indexFile = new File(projectRoot, INDEX_FILE);
         if(!indexFile.exists()) {
-            log.debug("Index file not found, creating empty index");
-            indexModel = new IndexModel();
+            File legacyFile = new File(projectRoot, LEGACY_INDEX_FILE);
+            if(legacyFile.exists()) {
+                migrateLegacyIndex(projectRoot, legacyFile);
+            } else {
+                log.debug("Index file not found, creating empty index");
+            }
             return;
         }
-        indexModel = objectMapper.readValue(indexFile, IndexModel.class);
+
+        base = IndexFile.open(indexFile.toPath());
+        indexTimestamp = modifiedNanos(indexFile.toPath());
     }
 
     @Override
     public void updateFile(String relativePath, String blobHash) {
-        indexModel.getFiles().put(relativePath, blobHash);
+        pending.put(relativePath, IndexEntry.withoutStat(relativePath, blobHash));
+    }
+
+    @Override
+    public void updateFile(IndexEntry entry) {
+        pending.put(entry.getPath(), entry);
+    }
+
+    @Override
+    public boolean isUpToDate(IndexEntry current) {
+        IndexEntry staged = lookup(current.getPath());
+        if (staged == null || !staged.isSameStat(current)) {
+            return false;
+        }
+        // Racily clean: the file may have changed again within the same timestamp tick
+        return staged.getMtime() < indexTimestamp;
     }
 
     @Override
     public void removeFile(String relativePath) {
-        indexModel.getFiles().remove(relativePath);
+        pending.put(relativePath, REMOVED);
     }
 
     @Override
     public Map<String, String> getEntries() {
-        return Collections.unmodifiableMap(indexModel.getFiles());
+        return entries;
     }
 
     @Override
     public void saveIndex(File projectRoot) throws IOException {
-        File indexFile = new File(projectRoot, ".vcs/index.json");
-        objectMapper.writerWithDefaultPrettyPrinter().writeValue(indexFile, indexModel);
+        Path indexFile = new File(projectRoot, INDEX_FILE).toPath();
+        List<IndexEntry> merged = new ArrayList<>();
+        for (Iterator<IndexEntry> it = mergedIterator(); it.hasNext(); ) {
+            merged.add(it.next());
+        }
+
+        // Everything needed is copied out of the mapping; unmap it so the index can be replaced
+        base.close();
+        base = IndexFile.EMPTY;
+        try {
+            IndexFile.write(indexFile, merged);
+            long written = modifiedNanos(indexFile);
+
+            // Entries modified in the same tick as the index write could change again unnoticed
+            // once a later write moves the index timestamp forward, so drop their stat data now
+            boolean racy = false;
+            for (int i = 0; i < merged.size(); i++) {
+                IndexEntry entry = merged.get(i);
+                if (entry.hasStat() && entry.getMtime() >= written) {
+                    merged.set(i, IndexEntry.withoutStat(entry.getPath(), entry.getHash()));
+                    racy = true;
+                }
+            }
+            if (racy) {
+                IndexFile.write(indexFile, merged);
+            }
+        } catch (IOException e) {
+            // Whichever index is on disk stays the base; the changes are still pending
+            if (Files.exists(indexFile)) {
+                base = IndexFile.open(indexFile);
+            }
+            throw e;
+        }
+
+        base = IndexFile.open(indexFile);
+        pending = new TreeMap<>();
+        indexTimestamp = modifiedNanos(indexFile);
+    }
+
+    private void migrateLegacyIndex(File projectRoot, File legacyFile) throws IOException {
+        IndexModel legacy = objectMapper.readValue(legacyFile, IndexModel.class);
+        for (Map.Entry<String, String> file : legacy.getFiles().entrySet()) {
+            IndexEntry stat = legacy.getStats() == null ? null : legacy.getStats().get(file.getKey());
+            if (stat != null && file.getValue().equals(stat.getHash())) {
+                updateFile(stat);
+            } else {
+                updateFile(file.getKey(), file.getValue());
+            }
+        }
+
+        saveIndex(projectRoot);
+        Files.delete(legacyFile.toPath());
+        log.info("Migrated {} to {} ({} entries)", LEGACY_INDEX_FILE, INDEX_FILE, base.size());
+    }
+
+    private IndexEntry lookup(String path) {
+        IndexEntry changed = pending.get(path);
+        if (changed != null) {
+            return changed == REMOVED ? null : changed;
+        }
+        int position = base.find(path);
+        return position >= 0 ? base.entry(position) : null;
+    }
+
+    /**
+     * Mapped entries merged with the overlay, in path order.
+     */
+    private Iterator<IndexEntry> mergedIterator() {
+        IndexFile file = base;
+        Iterator<Map.Entry<String, IndexEntry>> changes = pending.entrySet().iterator();
+
+        return new Iterator<>() {
+            private int position;
+            private Map.Entry<String, IndexEntry> change = changes.hasNext() ? changes.next() : null;
+            private IndexEntry next = advance();
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public IndexEntry next() {
+                if (next == null) {
+                    throw new NoSuchElementException();
+                }
+                IndexEntry current = next;
+                next = advance();
+                return current;
+            }
+
+            private IndexEntry advance() {
+                while (position < file.size() || change != null) {
+                    int cmp;
+                    if (position >= file.size()) {
+                        cmp = 1;
+                    } else if (change == null) {
+                        cmp = -1;
+                    } else {
+                        cmp = file.path(position).compareTo(change.getKey());
+                    }
+
+                    if (cmp < 0) {
+                        return file.entry(position++);
+                    }
+                    if (cmp == 0) {
+                        position++;
+                    }
+                    IndexEntry changed = change.getValue();
+                    change = changes.hasNext() ? changes.next() : null;
+                    if (changed != REMOVED) {
+                        return changed;
+                    }
+                }
+                return null;
+            }
+        };
+    }
+
+    private long modifiedNanos(Path file) throws IOException {
+        return Files.getLastModifiedTime(file).to(TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Read-only path to hash view of the index.
+     */
+    private final class EntriesView extends AbstractMap<String, String> {
+
+        @Override
+        public String get(Object key) {
+            if (!(key instanceof String path)) {
+                return null;
+            }
+            IndexEntry entry = lookup(path);
+            return entry == null ? null : entry.getHash();
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return get(key) != null;
+        }
+
+        @Override
+        public Set<Entry<String, String>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<String, String>> iterator() {
+                    Iterator<IndexEntry> merged = mergedIterator();
+                    return new Iterator<>() {
+                        @Override
+                        public boolean hasNext() {
+                            return merged.hasNext();
+                        }
+
+                        @Override
+                        public Entry<String, String> next() {
+                            IndexEntry entry = merged.next();
+                            return new SimpleImmutableEntry<>(entry.getPath(), entry.getHash());
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    if (pending.isEmpty()) {
+                        return base.size();
+                    }
+                    int size = 0;
+                    for (Iterator<IndexEntry> it = mergedIterator(); it.hasNext(); it.next()) {
+                        size++;
+                    }
+                    return size;
+                }
+            };
+        }
     }
 }
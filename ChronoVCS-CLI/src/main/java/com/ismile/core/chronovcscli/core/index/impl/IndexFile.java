@@ -0,0 +1,228 @@
+package com.ismile.core.chronovcscli.core.index.impl;
+
+import com.ismile.core.chronovcscli.core.index.IndexEntry;
+import com.ismile.core.chronovcscli.utils.HashUtils;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Binary index file ({@code .vcs/index}), read through a memory mapping.
+ *
+ * Layout (big-endian):
+ * <pre>
+ *   header   magic "CVIX", version, entry count, offset of the path region
+ *   entries  count x 72 bytes, sorted by path:
+ *            path offset, path length, hash (32 raw bytes), size, mtime, ctime, inode
+ *   paths    UTF-8 path bytes
+ * </pre>
+ * Fixed-width entries allow binary search directly on the mapping, so opening
+ * the file costs no per-entry allocation. A size of -1 means no stat data.
+ *
+ * {@link #close()} unmaps the file right away instead of whenever the buffer is
+ * garbage collected, so it can be replaced on platforms that refuse to rename over
+ * a mapped file. Nothing may be read from a closed index.
+ */
+final class IndexFile implements Closeable {
+
+    private static final int MAGIC = 0x43564958; // "CVIX"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+    private static final int HASH_SIZE = 32;
+    private static final int ENTRY_SIZE = 4 + 4 + HASH_SIZE + 8 + 8 + 8 + 8;
+
+    static final IndexFile EMPTY = new IndexFile(ByteBuffer.allocate(0), 0, 0);
+
+    // sun.misc.Unsafe.invokeCleaner, the only way to unmap before the buffer is collected
+    private static final Object UNSAFE;
+    private static final Method INVOKE_CLEANER;
+
+    static {
+        Object unsafe = null;
+        Method invokeCleaner = null;
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            unsafe = theUnsafe.get(null);
+            invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // Mappings are then released by the garbage collector
+        }
+        UNSAFE = unsafe;
+        INVOKE_CLEANER = invokeCleaner;
+    }
+
+    private final ByteBuffer buffer;
+    private final int count;
+    private final int pathsOffset;
+
+    private IndexFile(ByteBuffer buffer, int count, int pathsOffset) {
+        this.buffer = buffer;
+        this.count = count;
+        this.pathsOffset = pathsOffset;
+    }
+
+    static IndexFile open(Path file) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a ChronoVCS index file: " + file);
+        }
+        int version = buffer.getInt(4);
+        if (version != VERSION) {
+            throw new IOException("Unsupported index version " + version + ": " + file);
+        }
+        int count = buffer.getInt(8);
+        int pathsOffset = buffer.getInt(12);
+        if (count < 0 || pathsOffset != HEADER_SIZE + (long) count * ENTRY_SIZE || pathsOffset > buffer.capacity()) {
+            unmap(buffer);
+            throw new IOException("Corrupt index file: " + file);
+        }
+
+        // Check every path reference once here, so lookups can read without bounds checks
+        int pathsLength = buffer.capacity() - pathsOffset;
+        for (int i = 0; i < count; i++) {
+            int entry = HEADER_SIZE + i * ENTRY_SIZE;
+            int offset = buffer.getInt(entry);
+            int length = buffer.getInt(entry + 4);
+            if (offset < 0 || length < 0 || (long) offset + length > pathsLength) {
+                unmap(buffer);
+                throw new IOException("Corrupt index file " + file + ": path of entry " + i
+                        + " (offset " + offset + ", length " + length + ") lies outside the "
+                        + pathsLength + "-byte path region");
+            }
+        }
+        return new IndexFile(buffer, count, pathsOffset);
+    }
+
+    /**
+     * Write entries sorted by path to a lock file next to {@code target} and
+     * rename it into place, so readers never see a partial index.
+     */
+    static void write(Path target, List<IndexEntry> entries) throws IOException {
+        byte[][] paths = new byte[entries.size()][];
+        for (int i = 0; i < paths.length; i++) {
+            paths[i] = entries.get(i).getPath().getBytes(StandardCharsets.UTF_8);
+        }
+
+        Path lock = target.resolveSibling(target.getFileName() + ".lock");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(lock)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(entries.size());
+            out.writeInt(HEADER_SIZE + entries.size() * ENTRY_SIZE);
+
+            int pathOffset = 0;
+            for (int i = 0; i < paths.length; i++) {
+                IndexEntry entry = entries.get(i);
+                out.writeInt(pathOffset);
+                out.writeInt(paths[i].length);
+                out.write(hashBytes(entry));
+                out.writeLong(entry.getSize());
+                out.writeLong(entry.getMtime());
+                out.writeLong(entry.getCtime());
+                out.writeLong(entry.getInode());
+                pathOffset += paths[i].length;
+            }
+            for (byte[] path : paths) {
+                out.write(path);
+            }
+        }
+
+        try {
+            Files.move(lock, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(lock, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    int size() {
+        return count;
+    }
+
+    @Override
+    public void close() {
+        unmap(buffer);
+    }
+
+    String path(int i) {
+        int entry = HEADER_SIZE + i * ENTRY_SIZE;
+        byte[] bytes = new byte[buffer.getInt(entry + 4)];
+        buffer.get(pathsOffset + buffer.getInt(entry), bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    String hash(int i) {
+        byte[] bytes = new byte[HASH_SIZE];
+        buffer.get(HEADER_SIZE + i * ENTRY_SIZE + 8, bytes);
+        return HashUtils.toHex(bytes);
+    }
+
+    IndexEntry entry(int i) {
+        int entry = HEADER_SIZE + i * ENTRY_SIZE + 8 + HASH_SIZE;
+        return new IndexEntry(path(i), hash(i),
+                buffer.getLong(entry),
+                buffer.getLong(entry + 8),
+                buffer.getLong(entry + 16),
+                buffer.getLong(entry + 24));
+    }
+
+    /**
+     * Binary search by path.
+     *
+     * @return entry position, or {@code -(insertion point) - 1} if absent
+     */
+    int find(String path) {
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = path(mid).compareTo(path);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    private static void unmap(ByteBuffer buffer) {
+        if (INVOKE_CLEANER == null || !(buffer instanceof MappedByteBuffer)) {
+            return;
+        }
+        try {
+            INVOKE_CLEANER.invoke(UNSAFE, buffer);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // Left to the garbage collector
+        }
+    }
+
+    private static byte[] hashBytes(IndexEntry entry) {
+        String hash = entry.getHash();
+        if (hash == null || hash.length() != HASH_SIZE * 2) {
+            throw new IllegalArgumentException("Invalid blob hash for " + entry.getPath() + ": " + hash);
+        }
+        return HashUtils.fromHex(hash);
+    }
+}
@@ -53,6 +53,11 @@ public class LogEntry {
      */
     private boolean isHead;
 
+    /**
+     * Whether the parents of this commit were left out by a shallow clone
+     */
+    private boolean grafted;
+
     /**
      * Branch references pointing to this commit
      */
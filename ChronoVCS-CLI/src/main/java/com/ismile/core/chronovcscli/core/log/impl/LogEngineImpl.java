@@ -2,9 +2,13 @@ package com.ismile.core.chronovcscli.core.log.impl;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.ismile.core.chronovcscli.core.commit.CommitModel;
+import com.ismile.core.chronovcscli.core.graph.CommitGraph;
+import com.ismile.core.chronovcscli.core.graph.CommitNode;
+import com.ismile.core.chronovcscli.core.graph.ShallowCommits;
 import com.ismile.core.chronovcscli.core.log.LogEngine;
 import com.ismile.core.chronovcscli.core.log.LogEntry;
 import com.ismile.core.chronovcscli.core.log.LogOptions;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
@@ -20,8 +24,10 @@ import java.util.*;
  */
 @Slf4j
 @Service
+@RequiredArgsConstructor
 public class LogEngineImpl implements LogEngine {
 
+    private final CommitGraph commitGraph;
     private final ObjectMapper objectMapper = new ObjectMapper();
     private static final DateTimeFormatter DISPLAY_FORMATTER =
         DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
@@ -38,6 +44,9 @@ public class LogEngineImpl implements LogEngine {
             // Get branch references for decoration
             Map<String, List<String>> commitToBranches = getCommitToBranchesMap(projectRoot);
 
+            // History ends at the boundary of a shallow clone, even though the parent ids are known
+            Set<String> shallowCommits = ShallowCommits.load(projectRoot);
+
             // Traverse commit history
             List<LogEntry> entries = new ArrayList<>();
             Set<String> visited = new HashSet<>();
@@ -52,16 +61,24 @@ public class LogEngineImpl implements LogEngine {
                 }
                 visited.add(commitId);
 
-                CommitModel commit = loadCommit(projectRoot, commitId);
+                CommitNode commit = commitGraph.get(projectRoot, commitId);
                 if (commit == null) {
                     continue;
                 }
+                boolean grafted = shallowCommits.contains(commitId);
+
+                // File lists are not in the commit graph, read the commit file only when they are needed
+                Map<String, String> files = null;
+                if (options.getFilePath() != null || options.isShowFiles()) {
+                    CommitModel model = loadCommit(projectRoot, commitId);
+                    files = model != null ? model.getFiles() : null;
+                }
 
                 // Filter by file if specified
                 if (options.getFilePath() != null) {
-                    if (commit.getFiles() == null || !commit.getFiles().containsKey(options.getFilePath())) {
+                    if (files == null || !files.containsKey(options.getFilePath())) {
                         // File not in this commit, skip
-                        if (commit.getParent() != null) {
+                        if (!grafted && commit.getParent() != null) {
                             queue.offer(commit.getParent());
                         }
                         continue;
@@ -75,14 +92,18 @@ public class LogEngineImpl implements LogEngine {
                         .mergeParentId(commit.getMergeParent())
                         .message(commit.getMessage())
                         .timestamp(commit.getTimestamp())
-                        .files(commit.getFiles())
+                        .files(files)
                         .isHead(commitId.equals(headCommitId))
+                        .grafted(grafted)
                         .branches(commitToBranches.getOrDefault(commitId, new ArrayList<>()))
                         .build();
 
                 entries.add(entry);
 
                 // Add parents to queue
+                if (grafted) {
+                    continue;
+                }
                 if (commit.getParent() != null) {
                     queue.offer(commit.getParent());
                 }
@@ -138,13 +159,16 @@ public class LogEngineImpl implements LogEngine {
         sb.append("commit ").append(entry.getCommitId());
 
         // Add HEAD and branch decorations
-        if (entry.isHead() || !entry.getBranches().isEmpty()) {
+        if (entry.isHead() || !entry.getBranches().isEmpty() || entry.isGrafted()) {
             sb.append(" (");
             List<String> decorations = new ArrayList<>();
             if (entry.isHead()) {
                 decorations.add("HEAD");
             }
             decorations.addAll(entry.getBranches());
+            if (entry.isGrafted()) {
+                decorations.add("grafted");
+            }
             sb.append(String.join(", ", decorations));
             sb.append(")");
         }
@@ -191,13 +215,16 @@ public class LogEngineImpl implements LogEngine {
         sb.append(entry.getShortCommitId()).append(" ");
 
         // Add decorations
-        if (entry.isHead() || !entry.getBranches().isEmpty()) {
+        if (entry.isHead() || !entry.getBranches().isEmpty() || entry.isGrafted()) {
             sb.append("(");
             List<String> decorations = new ArrayList<>();
             if (entry.isHead()) {
                 decorations.add("HEAD");
             }
             decorations.addAll(entry.getBranches());
+            if (entry.isGrafted()) {
+                decorations.add("grafted");
+            }
             sb.append(String.join(", ", decorations));
             sb.append(") ");
         }
@@ -3,6 +3,8 @@ package com.ismile.core.chronovcscli.core.merge.impl;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.ismile.core.chronovcscli.core.commit.CommitEngine;
 import com.ismile.core.chronovcscli.core.commit.CommitModel;
+import com.ismile.core.chronovcscli.core.graph.CommitGraph;
+import com.ismile.core.chronovcscli.core.index.IndexEngine;
 import com.ismile.core.chronovcscli.core.merge.*;
 import com.ismile.core.chronovcscli.core.objectsStore.ObjectStore;
 import lombok.RequiredArgsConstructor;
@@ -27,6 +29,8 @@ public class MergeEngineImpl implements MergeEngine {
     private final ConflictMarker conflictMarker;
     private final ObjectStore objectStore;
     private final CommitEngine commitEngine;
+    private final CommitGraph commitGraph;
+    private final IndexEngine indexEngine;
     private final ObjectMapper objectMapper = new ObjectMapper();
 
     @Override
@@ -358,6 +362,7 @@ public class MergeEngineImpl implements MergeEngine {
         File commitFile = new File(projectRoot, ".vcs/commits/" + commitId);
         objectMapper.writerWithDefaultPrettyPrinter()
                 .writeValue(commitFile, mergeCommit);
+        commitGraph.update(projectRoot);
 
         // Update branch HEAD
         File branchFile = new File(projectRoot, ".vcs/refs/heads/" + branch);
@@ -384,12 +389,7 @@ public class MergeEngineImpl implements MergeEngine {
     }
 
     private Map<String, String> loadIndexFiles(File projectRoot) throws Exception {
-        File indexFile = new File(projectRoot, ".vcs/index");
-        if (!indexFile.exists()) {
-            return new HashMap<>();
-        }
-        String json = Files.readString(indexFile.toPath());
-        return objectMapper.readValue(json, objectMapper.getTypeFactory()
-                .constructMapType(HashMap.class, String.class, String.class));
+        indexEngine.loadIndex(projectRoot);
+        return new HashMap<>(indexEngine.getEntries());
     }
 }
@@ -0,0 +1,18 @@
+package com.ismile.core.chronovcscli.core.objectsStore;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collection;
+
+/**
+ * Supplies objects a partial clone did not download, when they are first read.
+ */
+public interface LazyObjectLoader {
+
+    /**
+     * Fetch the given objects into the object store of {@code projectRoot}.
+     *
+     * @return false if the repository is not a partial clone and nothing was attempted
+     */
+    boolean fetch(File projectRoot, Collection<String> hashes) throws IOException;
+}
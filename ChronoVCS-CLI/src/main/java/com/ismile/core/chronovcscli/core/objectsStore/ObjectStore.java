@@ -2,9 +2,48 @@ package com.ismile.core.chronovcscli.core.objectsStore;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collection;
 
+/**
+ * Blob storage under {@code .vcs/objects}. Objects are either loose files or part of a pack
+ * in {@code .vcs/objects/pack}; every read method looks in both.
+ *
+ * Methods without a project root resolve objects relative to the working directory.
+ * In a partial clone, reads of objects not stored locally fetch them through {@link LazyObjectLoader};
+ * {@code exists} only reports what is stored locally.
+ */
 public interface ObjectStore {
     String writeBlob(File file) throws IOException;
     byte[] readBlob(String hash) throws IOException;
     boolean exists(String hash);
+
+    /**
+     * Open a stream over the blob content without loading it into memory.
+     */
+    InputStream openBlob(String hash) throws IOException;
+
+    /**
+     * Size of the blob content in bytes.
+     */
+    long blobSize(String hash) throws IOException;
+
+    /**
+     * Store content received for {@code hash}, e.g. downloaded from a remote.
+     */
+    void writeBlob(File projectRoot, String hash, byte[] content) throws IOException;
+
+    byte[] readBlob(File projectRoot, String hash) throws IOException;
+
+    boolean exists(File projectRoot, String hash);
+
+    InputStream openBlob(File projectRoot, String hash) throws IOException;
+
+    long blobSize(File projectRoot, String hash) throws IOException;
+
+    /**
+     * Fetch the objects of a partial clone that are about to be read, in one go rather than one
+     * request per read. Does nothing for complete repositories.
+     */
+    void prefetch(File projectRoot, Collection<String> hashes) throws IOException;
 }
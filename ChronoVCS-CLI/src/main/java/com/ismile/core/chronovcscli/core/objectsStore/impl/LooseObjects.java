@@ -0,0 +1,138 @@
+package com.ismile.core.chronovcscli.core.objectsStore.impl;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Loose object files under {@code .vcs/objects/xx/<rest>}.
+ *
+ * New objects are written deflated behind a small header (magic, then the content size),
+ * so the size is known without inflating. Files without the magic are raw content
+ * written by older versions and are read as they are.
+ */
+final class LooseObjects {
+
+    // 0xCF 'C' 'Z' 0x01 - never the start of a text file and not a common binary signature
+    private static final int MAGIC = 0xCF435A01;
+    private static final int HEADER_SIZE = 12;
+
+    private LooseObjects() {
+    }
+
+    /**
+     * Write {@code content} compressed to {@code target} via a temp file in the same directory,
+     * so readers never see a partial object. An existing object is left untouched.
+     */
+    static void write(Path target, InputStream content) throws IOException {
+        install(writeTemp(target.getParent(), content), target);
+    }
+
+    /**
+     * Write {@code content} compressed to a new temp file in {@code dir}, streaming it
+     * without buffering the whole object.
+     *
+     * @return the temp file, to be passed to {@link #install} or deleted
+     */
+    static Path writeTemp(Path dir, InputStream content) throws IOException {
+        Files.createDirectories(dir);
+        Path temp = Files.createTempFile(dir, "tmp-", ".obj");
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            long size;
+            try (OutputStream file = Files.newOutputStream(temp)) {
+                DataOutputStream header = new DataOutputStream(file);
+                header.writeInt(MAGIC);
+                header.writeLong(0); // content size, patched below once known
+                DeflaterOutputStream out = new DeflaterOutputStream(file, deflater, 64 * 1024);
+                size = content.transferTo(out);
+                out.finish();
+            }
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                channel.write(ByteBuffer.allocate(8).putLong(0, size), 4);
+            }
+            return temp;
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Atomically rename a temp file from {@link #writeTemp} to its object path.
+     */
+    static void install(Path temp, Path target) throws IOException {
+        try {
+            Files.createDirectories(target.getParent());
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target);
+            }
+        } catch (FileAlreadyExistsException e) {
+            // written concurrently by someone else; same hash, same content
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    static InputStream open(Path file) throws IOException {
+        BufferedInputStream in = new BufferedInputStream(Files.newInputStream(file), 64 * 1024);
+        try {
+            in.mark(HEADER_SIZE);
+            if (readHeader(in) >= 0) {
+                return new InflaterInputStream(in);
+            }
+            in.reset();
+            return in;
+        } catch (IOException e) {
+            in.close();
+            throw e;
+        }
+    }
+
+    static byte[] read(Path file) throws IOException {
+        try (InputStream in = open(file)) {
+            return in.readAllBytes();
+        }
+    }
+
+    static long size(Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            long size = readHeader(in);
+            return size >= 0 ? size : Files.size(file);
+        }
+    }
+
+    /**
+     * @return the content size of a compressed object, or -1 for a raw one
+     */
+    private static long readHeader(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        try {
+            if (data.readInt() != MAGIC) {
+                return -1;
+            }
+            return data.readLong();
+        } catch (EOFException e) {
+            return -1;
+        }
+    }
+}
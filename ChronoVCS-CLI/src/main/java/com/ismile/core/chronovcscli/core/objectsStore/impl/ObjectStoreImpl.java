@@ -2,15 +2,31 @@ package com.ismile.core.chronovcscli.core.objectsStore.impl;
 
 import com.ismile.core.chronovcscli.core.hash.HashEngine;
 import com.ismile.core.chronovcscli.core.ignore.IgnoreEngine;
+import com.ismile.core.chronovcscli.core.objectsStore.LazyObjectLoader;
 import com.ismile.core.chronovcscli.core.objectsStore.ObjectStore;
+import com.ismile.core.chronovcscli.core.objectsStore.pack.PackFile;
+import com.ismile.core.chronovcscli.utils.HashUtils;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Component
 @Slf4j
@@ -18,19 +34,31 @@ public class ObjectStoreImpl implements ObjectStore {
     private final HashEngine hashEngine;
     private final IgnoreEngine ignoreEngine;
     private File projectRoot;
+    // Resolved on first use: the remote side depends on this store
+    private final ObjectProvider<LazyObjectLoader> lazyObjectLoader;
+
+    // Opened packs per repository, reloaded when .vcs/objects/pack changes
+    private final Map<Path, Packs> packs = new ConcurrentHashMap<>();
 
     // For testing
     ObjectStoreImpl(HashEngine hashEngine, IgnoreEngine ignoreEngine, File projectRoot) {
         this.hashEngine = hashEngine;
         this.ignoreEngine = ignoreEngine;
         this.projectRoot = projectRoot;
+        this.lazyObjectLoader = null;
     }
 
-    @Autowired
     public ObjectStoreImpl(HashEngine hashEngine, IgnoreEngine ignoreEngine) {
+        this(hashEngine, ignoreEngine, (ObjectProvider<LazyObjectLoader>) null);
+    }
+
+    @Autowired
+    public ObjectStoreImpl(HashEngine hashEngine, IgnoreEngine ignoreEngine,
+                           ObjectProvider<LazyObjectLoader> lazyObjectLoader) {
         this.hashEngine = hashEngine;
         this.ignoreEngine = ignoreEngine;
         this.projectRoot = null;
+        this.lazyObjectLoader = lazyObjectLoader;
     }
 
     @Override
@@ -50,55 +78,211 @@ public class ObjectStoreImpl implements ObjectStore {
             return null;
         }
 
-        // calculate hash
-        String hash = hashEngine.hashFile(file);
-
-        // object paths
-        String prefix = hash.substring(0, 2);
-        String suffix = hash.substring(2);
-
-        File objectsDir = new File(writeProjectRoot, ".vcs/objects");
-        File prefixDir = new File(objectsDir, prefix);
-        File blobFile = new File(prefixDir, suffix);
-
-        // check if already exists
-        if (blobFile.exists()) {
-            return hash;
+        // hash while compressing into a temp file: a single pass over the content
+        Path objectsDir = writeProjectRoot.toPath().resolve(".vcs/objects");
+        MessageDigest digest = hashEngine.newDigest();
+        Path temp;
+        try (InputStream content = new DigestInputStream(Files.newInputStream(file.toPath()), digest)) {
+            temp = LooseObjects.writeTemp(objectsDir, content);
         }
+        String hash = HashUtils.toHex(digest.digest());
 
-        // create directories
-        if (!prefixDir.exists()) {
-            prefixDir.mkdirs();
+        // already stored, loose or packed
+        if (exists(writeProjectRoot, hash)) {
+            Files.delete(temp);
+            return hash;
         }
 
-        // write content
-        byte[] content = Files.readAllBytes(file.toPath());
-        Files.write(blobFile.toPath(), content);
+        LooseObjects.install(temp, looseFile(writeProjectRoot, hash).toPath());
 
         return hash;
     }
 
+    @Override
+    public void writeBlob(File projectRoot, String hash, byte[] content) throws IOException {
+        if (exists(projectRoot, hash)) {
+            return;
+        }
+        LooseObjects.write(looseFile(projectRoot, hash).toPath(), new ByteArrayInputStream(content));
+    }
+
     @Override
     public byte[] readBlob(String hash) throws IOException {
-        String prefix = hash.substring(0, 2);
-        String suffix = hash.substring(2);
+        return readBlob(defaultRoot(), hash);
+    }
+
+    @Override
+    public byte[] readBlob(File projectRoot, String hash) throws IOException {
+        File file = looseFile(projectRoot, hash);
+        if (file.exists()) {
+            return LooseObjects.read(file.toPath());
+        }
+        for (PackFile pack : packs(projectRoot)) {
+            byte[] content = pack.read(hash);
+            if (content != null) {
+                return content;
+            }
+        }
+        if (fetchMissing(projectRoot, hash)) {
+            return LooseObjects.read(file.toPath());
+        }
+        throw new FileNotFoundException("Blob not found for hash: " + hash);
+    }
+
+    @Override
+    public InputStream openBlob(String hash) throws IOException {
+        return openBlob(defaultRoot(), hash);
+    }
+
+    @Override
+    public InputStream openBlob(File root, String hash) throws IOException {
+        File file = looseFile(root, hash);
+        if (file.exists()) {
+            return LooseObjects.open(file.toPath());
+        }
+        for (PackFile pack : packs(root)) {
+            InputStream content = pack.open(hash);
+            if (content != null) {
+                return content;
+            }
+        }
+        if (fetchMissing(root, hash)) {
+            return LooseObjects.open(file.toPath());
+        }
+        throw new FileNotFoundException("Blob not found for hash: " + hash);
+    }
 
-        File file = new File(projectRoot, ".vcs/objects/" + prefix + "/" + suffix);
+    @Override
+    public long blobSize(String hash) throws IOException {
+        return blobSize(defaultRoot(), hash);
+    }
 
-        if (!file.exists()) {
-            throw new FileNotFoundException("Blob not found for hash: " + hash);
+    @Override
+    public long blobSize(File root, String hash) throws IOException {
+        File file = looseFile(root, hash);
+        if (file.exists()) {
+            return LooseObjects.size(file.toPath());
+        }
+        for (PackFile pack : packs(root)) {
+            long size = pack.size(hash);
+            if (size >= 0) {
+                return size;
+            }
+        }
+        if (fetchMissing(root, hash)) {
+            return LooseObjects.size(file.toPath());
         }
-        return Files.readAllBytes(file.toPath());
+        throw new FileNotFoundException("Blob not found for hash: " + hash);
     }
 
     @Override
     public boolean exists(String hash) {
+        return exists(defaultRoot(), hash);
+    }
+
+    @Override
+    public boolean exists(File projectRoot, String hash) {
+        if (looseFile(projectRoot, hash).exists()) {
+            return true;
+        }
+        try {
+            for (PackFile pack : packs(projectRoot)) {
+                if (pack.contains(hash)) {
+                    return true;
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Failed to read packs: {}", e.getMessage());
+        }
+        return false;
+    }
+
+    @Override
+    public void prefetch(File projectRoot, Collection<String> hashes) throws IOException {
+        LazyObjectLoader loader = lazyObjectLoader != null ? lazyObjectLoader.getIfAvailable() : null;
+        if (loader != null) {
+            loader.fetch(projectRoot, hashes);
+        }
+    }
+
+    /**
+     * Fetch a single object missing from a partial clone; fetched objects are stored loose.
+     */
+    private boolean fetchMissing(File root, String hash) throws IOException {
+        LazyObjectLoader loader = lazyObjectLoader != null ? lazyObjectLoader.getIfAvailable() : null;
+        return loader != null && loader.fetch(root, List.of(hash)) && looseFile(root, hash).exists();
+    }
+
+    private File defaultRoot() {
+        return projectRoot != null ? projectRoot : new File(System.getProperty("user.dir"));
+    }
+
+    private File looseFile(File root, String hash) {
         String prefix = hash.substring(0, 2);
         String suffix = hash.substring(2);
+        return new File(root, ".vcs/objects/" + prefix + "/" + suffix);
+    }
 
-        File file = new File(projectRoot, ".vcs/objects/" + prefix + "/" + suffix);
+    private List<PackFile> packs(File root) throws IOException {
+        Path dir = root.toPath().toAbsolutePath().normalize().resolve(".vcs/objects/pack");
+        if (!Files.isDirectory(dir)) {
+            return List.of();
+        }
+        long modified = Files.getLastModifiedTime(dir).toMillis();
+        Packs cached = packs.get(dir);
+        if (cached != null && cached.modified() == modified) {
+            return cached.files();
+        }
+
+        synchronized (packs) {
+            cached = packs.get(dir);
+            if (cached != null && cached.modified() == modified) {
+                return cached.files();
+            }
 
-        return file.exists();
+            // Packs are immutable: keep the ones still there open, close the ones that are gone
+            Map<Path, PackFile> previous = new HashMap<>();
+            if (cached != null) {
+                cached.files().forEach(pack -> previous.put(pack.getIndexPath(), pack));
+            }
+            List<PackFile> files = new ArrayList<>();
+            try (DirectoryStream<Path> entries = Files.newDirectoryStream(dir, "pack-*.idx")) {
+                for (Path index : entries) {
+                    PackFile pack = previous.remove(index);
+                    if (pack == null) {
+                        pack = openPack(index);
+                    }
+                    if (pack != null) {
+                        files.add(pack);
+                    }
+                }
+            }
+            for (PackFile gone : previous.values()) {
+                closePack(gone);
+            }
+            packs.put(dir, new Packs(modified, files));
+            return files;
+        }
+    }
+
+    /**
+     * An unreadable pack is skipped, so loose objects and other packs stay readable.
+     */
+    private PackFile openPack(Path index) {
+        try {
+            return PackFile.open(index);
+        } catch (IOException e) {
+            log.warn("Skipping unreadable pack {}: {}", index.getFileName(), e.getMessage());
+            return null;
+        }
+    }
+
+    private void closePack(PackFile pack) {
+        try {
+            pack.close();
+        } catch (IOException e) {
+            log.debug("Failed to close pack {}: {}", pack.getPackPath(), e.getMessage());
+        }
     }
 
     private File findProjectRoot(File currentDir) {
@@ -111,4 +295,7 @@ public class ObjectStoreImpl implements ObjectStore {
         }
         return findProjectRoot(currentDir.getParentFile());
     }
+
+    private record Packs(long modified, List<PackFile> files) {
+    }
 }
@@ -0,0 +1,195 @@
+package com.ismile.core.chronovcscli.core.objectsStore.pack;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Binary delta between two blobs, as a sequence of copy-from-base and insert-literal ops.
+ *
+ * Format: base length, target length, then ops until the target is complete:
+ * <pre>
+ *   0 len bytes...      insert {@code len} literal bytes
+ *   1 offset len        copy {@code len} bytes from the base at {@code offset}
+ * </pre>
+ * All numbers are unsigned LEB128 varints.
+ *
+ * The encoder indexes the base in 16 byte blocks and slides a rolling hash over
+ * the target, extending every verified block match in both directions.
+ */
+public final class Delta {
+
+    private static final int OP_INSERT = 0;
+    private static final int OP_COPY = 1;
+
+    private static final int BLOCK = 16;
+    private static final int PRIME = 0x01000193;
+    // PRIME^(BLOCK-1), to remove the outgoing byte from the rolling hash
+    private static final int PRIME_POW;
+
+    static {
+        int pow = 1;
+        for (int i = 0; i < BLOCK - 1; i++) {
+            pow *= PRIME;
+        }
+        PRIME_POW = pow;
+    }
+
+    private Delta() {
+    }
+
+    /**
+     * @return the delta, or null if it would not be smaller than {@code maxSize} bytes
+     */
+    public static byte[] encode(byte[] base, byte[] target, int maxSize) {
+        if (base.length < BLOCK || target.length < BLOCK) {
+            return null;
+        }
+
+        // 1) Index base blocks by hash; later blocks overwrite earlier ones on collision
+        int[] table = new int[Integer.highestOneBit(Math.max(base.length / BLOCK, 1) * 2) * 2];
+        int mask = table.length - 1;
+        Arrays.fill(table, -1);
+        for (int offset = 0; offset + BLOCK <= base.length; offset += BLOCK) {
+            table[hash(base, offset) & mask] = offset;
+        }
+
+        DeltaOutput out = new DeltaOutput(maxSize);
+        out.varint(base.length);
+        out.varint(target.length);
+
+        // 2) Slide over the target
+        int insertStart = 0;
+        int position = 0;
+        int rolling = hash(target, 0);
+        while (position + BLOCK <= target.length) {
+            int candidate = table[rolling & mask];
+            if (candidate >= 0 && Arrays.equals(base, candidate, candidate + BLOCK, target, position, position + BLOCK)) {
+                // Extend backwards into pending literals, then forwards
+                int baseStart = candidate;
+                int targetStart = position;
+                while (baseStart > 0 && targetStart > insertStart && base[baseStart - 1] == target[targetStart - 1]) {
+                    baseStart--;
+                    targetStart--;
+                }
+                int length = position + BLOCK - targetStart;
+                while (baseStart + length < base.length && targetStart + length < target.length
+                        && base[baseStart + length] == target[targetStart + length]) {
+                    length++;
+                }
+
+                if (!out.insert(target, insertStart, targetStart) || !out.copy(baseStart, length)) {
+                    return null;
+                }
+                position = targetStart + length;
+                insertStart = position;
+                if (position + BLOCK <= target.length) {
+                    rolling = hash(target, position);
+                }
+                continue;
+            }
+
+            if (position + BLOCK < target.length) {
+                rolling = (rolling - target[position] * PRIME_POW) * PRIME + target[position + BLOCK];
+            }
+            position++;
+        }
+
+        if (!out.insert(target, insertStart, target.length)) {
+            return null;
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Rebuild the target from its base and delta.
+     */
+    public static byte[] apply(byte[] base, byte[] delta) throws IOException {
+        int[] cursor = {0};
+        long baseLength = readVarint(delta, cursor);
+        long targetLength = readVarint(delta, cursor);
+        if (baseLength != base.length || targetLength > Integer.MAX_VALUE) {
+            throw new IOException("Delta does not match its base");
+        }
+
+        byte[] target = new byte[(int) targetLength];
+        int written = 0;
+        try {
+            while (written < target.length) {
+                int op = delta[cursor[0]++];
+                if (op == OP_INSERT) {
+                    int length = (int) readVarint(delta, cursor);
+                    System.arraycopy(delta, cursor[0], target, written, length);
+                    cursor[0] += length;
+                    written += length;
+                } else if (op == OP_COPY) {
+                    int offset = (int) readVarint(delta, cursor);
+                    int length = (int) readVarint(delta, cursor);
+                    System.arraycopy(base, offset, target, written, length);
+                    written += length;
+                } else {
+                    throw new IOException("Unknown delta op " + op);
+                }
+            }
+        } catch (IndexOutOfBoundsException e) {
+            throw new IOException("Corrupt delta", e);
+        }
+        return target;
+    }
+
+    private static int hash(byte[] data, int offset) {
+        int h = 0;
+        for (int i = offset; i < offset + BLOCK; i++) {
+            h = h * PRIME + data[i];
+        }
+        return h;
+    }
+
+    private static long readVarint(byte[] data, int[] cursor) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = data[cursor[0]++];
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    /**
+     * Output that gives up once the delta grows past its size budget.
+     */
+    private static final class DeltaOutput extends ByteArrayOutputStream {
+        private final int maxSize;
+
+        DeltaOutput(int maxSize) {
+            super(Math.min(maxSize, 8192));
+            this.maxSize = maxSize;
+        }
+
+        boolean insert(byte[] data, int from, int to) {
+            if (from < to) {
+                write(OP_INSERT);
+                varint(to - from);
+                write(data, from, to - from);
+            }
+            return count < maxSize;
+        }
+
+        boolean copy(int offset, int length) {
+            write(OP_COPY);
+            varint(offset);
+            varint(length);
+            return count < maxSize;
+        }
+
+        void varint(long value) {
+            while ((value & ~0x7FL) != 0) {
+                write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            write((int) value);
+        }
+    }
+}
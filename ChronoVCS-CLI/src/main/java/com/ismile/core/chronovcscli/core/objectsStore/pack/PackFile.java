@@ -0,0 +1,307 @@
+package com.ismile.core.chronovcscli.core.objectsStore.pack;
+
+import com.ismile.core.chronovcscli.utils.HashUtils;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.InflaterInputStream;
+import java.util.zip.ZipException;
+
+/**
+ * Read side of a pack: {@code pack-<name>.pack} with its {@code pack-<name>.idx}.
+ *
+ * The index is memory-mapped for lookups. Entries are read from the pack with positional
+ * reads at long offsets, so packs are not limited to the 2 GB a single mapping can cover,
+ * and {@link #close()} releases the pack file.
+ *
+ * Pack layout (big-endian):
+ * <pre>
+ *   header  magic "CVPK", version, object count
+ *   entry   type (0 = full, 1 = delta), object size,
+ *           delta only: offset of the base entry, delta size,
+ *           deflated payload (object content or {@link Delta})
+ * </pre>
+ * Index layout:
+ * <pre>
+ *   header  magic "CVPI", version, object count
+ *   fanout  256 ints, number of hashes whose first byte is at most i
+ *   hashes  count x 32 raw bytes, sorted
+ *   offsets count x 8 byte entry offsets, in hash order
+ * </pre>
+ */
+public final class PackFile implements Closeable {
+
+    static final int PACK_MAGIC = 0x4356504B; // "CVPK"
+    static final int INDEX_MAGIC = 0x43565049; // "CVPI"
+    static final int VERSION = 1;
+    static final int PACK_HEADER_SIZE = 12;
+    static final int INDEX_HEADER_SIZE = 12;
+    static final int FANOUT_SIZE = 256 * 4;
+    static final int HASH_SIZE = 32;
+
+    static final byte TYPE_FULL = 0;
+    static final byte TYPE_DELTA = 1;
+
+    // Deltas are only written against bases at most this deep, reading allows some slack
+    private static final int MAX_CHAIN_DEPTH = 64;
+
+    // Entry header: type, object size; delta entries add base offset and delta size
+    private static final int ENTRY_HEADER_SIZE = 1 + 8;
+    private static final int DELTA_HEADER_SIZE = ENTRY_HEADER_SIZE + 8 + 8;
+
+    private final Path indexPath;
+    private final Path packPath;
+    private final ByteBuffer index;
+    private final FileChannel pack;
+    private final long packSize;
+    private final int count;
+
+    private PackFile(Path indexPath, Path packPath, ByteBuffer index, FileChannel pack, long packSize, int count) {
+        this.indexPath = indexPath;
+        this.packPath = packPath;
+        this.index = index;
+        this.pack = pack;
+        this.packSize = packSize;
+        this.count = count;
+    }
+
+    /**
+     * @param indexPath {@code pack-<name>.idx}; the pack is expected next to it
+     */
+    public static PackFile open(Path indexPath) throws IOException {
+        String name = indexPath.getFileName().toString();
+        Path packPath = indexPath.resolveSibling(name.substring(0, name.length() - ".idx".length()) + ".pack");
+
+        ByteBuffer index = mapIndex(indexPath);
+        FileChannel pack = FileChannel.open(packPath, StandardOpenOption.READ);
+        try {
+            long packSize = pack.size();
+            ByteBuffer header = packSize >= PACK_HEADER_SIZE ? readFully(pack, 0, PACK_HEADER_SIZE) : null;
+            if (index.capacity() < INDEX_HEADER_SIZE + FANOUT_SIZE || index.getInt(0) != INDEX_MAGIC
+                    || header == null || header.getInt(0) != PACK_MAGIC) {
+                throw new IOException("Not a ChronoVCS pack: " + packPath);
+            }
+            if (index.getInt(4) != VERSION || header.getInt(4) != VERSION) {
+                throw new IOException("Unsupported pack version: " + packPath);
+            }
+            int count = index.getInt(8);
+            if (count != header.getInt(8)
+                    || index.capacity() != INDEX_HEADER_SIZE + FANOUT_SIZE + (long) count * (HASH_SIZE + 8)) {
+                throw new IOException("Corrupt pack index: " + indexPath);
+            }
+            return new PackFile(indexPath, packPath, index, pack, packSize, count);
+        } catch (IOException | RuntimeException e) {
+            pack.close();
+            throw e;
+        }
+    }
+
+    public Path getIndexPath() {
+        return indexPath;
+    }
+
+    public Path getPackPath() {
+        return packPath;
+    }
+
+    public int getObjectCount() {
+        return count;
+    }
+
+    public boolean contains(String hash) {
+        return find(hash) >= 0;
+    }
+
+    /**
+     * Object size in bytes, or -1 if the pack does not contain the object.
+     */
+    public long size(String hash) throws IOException {
+        long offset = offsetOf(hash);
+        return offset < 0 ? -1 : entryHeader(offset, ENTRY_HEADER_SIZE).getLong(1);
+    }
+
+    /**
+     * Object content, or null if the pack does not contain the object.
+     */
+    public byte[] read(String hash) throws IOException {
+        long offset = offsetOf(hash);
+        return offset < 0 ? null : readAt(offset, 0);
+    }
+
+    /**
+     * Stream over the object content, or null if the pack does not contain the object.
+     * Full entries are inflated on the fly; deltified entries are rebuilt in memory.
+     */
+    public InputStream open(String hash) throws IOException {
+        long offset = offsetOf(hash);
+        if (offset < 0) {
+            return null;
+        }
+        if (entryHeader(offset, ENTRY_HEADER_SIZE).get(0) == TYPE_FULL) {
+            return inflating(offset + ENTRY_HEADER_SIZE, 64 * 1024);
+        }
+        return new ByteArrayInputStream(readAt(offset, 0));
+    }
+
+    @Override
+    public void close() throws IOException {
+        pack.close();
+    }
+
+    private long offsetOf(String hash) {
+        int position = find(hash);
+        if (position < 0) {
+            return -1;
+        }
+        return index.getLong(INDEX_HEADER_SIZE + FANOUT_SIZE + count * HASH_SIZE + position * 8);
+    }
+
+    /**
+     * Binary search within the fanout bucket of the first hash byte.
+     */
+    private int find(String hash) {
+        byte[] key;
+        try {
+            key = HashUtils.fromHex(hash);
+        } catch (IllegalArgumentException e) {
+            return -1;
+        }
+        if (key.length != HASH_SIZE) {
+            return -1;
+        }
+
+        int first = key[0] & 0xFF;
+        int low = first == 0 ? 0 : index.getInt(INDEX_HEADER_SIZE + (first - 1) * 4);
+        int high = index.getInt(INDEX_HEADER_SIZE + first * 4) - 1;
+        int hashes = INDEX_HEADER_SIZE + FANOUT_SIZE;
+
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = compare(hashes + mid * HASH_SIZE, key);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    private int compare(int position, byte[] key) {
+        for (int i = 0; i < HASH_SIZE; i++) {
+            int cmp = Integer.compare(index.get(position + i) & 0xFF, key[i] & 0xFF);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return 0;
+    }
+
+    private byte[] readAt(long position, int depth) throws IOException {
+        if (depth > MAX_CHAIN_DEPTH) {
+            throw new IOException("Delta chain too deep in " + packPath);
+        }
+        ByteBuffer header = entryHeader(position, ENTRY_HEADER_SIZE);
+        byte type = header.get(0);
+        long size = header.getLong(1);
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Object too large to load into memory: " + size + " bytes");
+        }
+
+        if (type == TYPE_FULL) {
+            return inflate(position + ENTRY_HEADER_SIZE, (int) size);
+        }
+        if (type != TYPE_DELTA) {
+            throw new IOException("Unknown pack entry type " + type + " in " + packPath);
+        }
+
+        header = entryHeader(position, DELTA_HEADER_SIZE);
+        long baseOffset = header.getLong(ENTRY_HEADER_SIZE);
+        long deltaSize = header.getLong(ENTRY_HEADER_SIZE + 8);
+        if (deltaSize > Integer.MAX_VALUE) {
+            throw new IOException("Corrupt pack entry in " + packPath);
+        }
+        byte[] base = readAt(baseOffset, depth + 1);
+        return Delta.apply(base, inflate(position + DELTA_HEADER_SIZE, (int) deltaSize));
+    }
+
+    private byte[] inflate(long position, int size) throws IOException {
+        try (InputStream in = inflating(position, Math.min(Math.max(size, 512), 64 * 1024))) {
+            byte[] out = in.readNBytes(size);
+            if (out.length != size) {
+                throw new IOException("Truncated pack entry in " + packPath);
+            }
+            return out;
+        } catch (ZipException e) {
+            throw new IOException("Corrupt pack entry in " + packPath, e);
+        }
+    }
+
+    private InputStream inflating(long position, int bufferSize) {
+        return new InflaterInputStream(new BufferedInputStream(new ChannelInputStream(position), bufferSize));
+    }
+
+    private ByteBuffer entryHeader(long position, int length) throws IOException {
+        if (position < PACK_HEADER_SIZE || position > packSize - length) {
+            throw new IOException("Corrupt pack entry offset " + position + " in " + packPath);
+        }
+        return readFully(pack, position, length);
+    }
+
+    private static ByteBuffer readFully(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of pack file");
+            }
+        }
+        return buffer.flip();
+    }
+
+    private static ByteBuffer mapIndex(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Pack index too large to map: " + path);
+            }
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    /**
+     * Pack content from a position on, read with positional reads; the channel is shared.
+     */
+    private final class ChannelInputStream extends InputStream {
+        private long position;
+
+        ChannelInputStream(long position) {
+            this.position = position;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] one = new byte[1];
+            return read(one, 0, 1) < 0 ? -1 : one[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            int n = pack.read(ByteBuffer.wrap(b, off, len), position);
+            if (n > 0) {
+                position += n;
+            }
+            return n;
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package com.ismile.core.chronovcscli.core.objectsStore.pack;
+
+import com.ismile.core.chronovcscli.utils.HashUtils;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Write side of a pack, see {@link PackFile} for the layout.
+ *
+ * Entries are appended to a temporary file; {@link #finish()} writes the index and
+ * renames both into place, pack first, so a reader never finds an index without its pack.
+ */
+public final class PackWriter implements Closeable {
+
+    private final Path directory;
+    private final Path tempPack;
+    private final CountingOutputStream counter;
+    private final DataOutputStream out;
+    private final List<IndexRecord> records = new ArrayList<>();
+    private final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+    private boolean finished;
+
+    public PackWriter(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        this.directory = directory;
+        this.tempPack = Files.createTempFile(directory, "tmp-pack-", ".pack");
+        this.counter = new CountingOutputStream(new BufferedOutputStream(Files.newOutputStream(tempPack), 64 * 1024));
+        this.out = new DataOutputStream(counter);
+
+        out.writeInt(PackFile.PACK_MAGIC);
+        out.writeInt(PackFile.VERSION);
+        out.writeInt(0); // object count, patched in finish()
+    }
+
+    /**
+     * Bytes written so far; the offset the next entry will get.
+     */
+    public long position() {
+        return counter.count;
+    }
+
+    public int objectCount() {
+        return records.size();
+    }
+
+    /**
+     * Append an object stored as a whole.
+     *
+     * @return offset of the entry
+     */
+    public long writeFull(String hash, InputStream content, long size) throws IOException {
+        long offset = position();
+        out.writeByte(PackFile.TYPE_FULL);
+        out.writeLong(size);
+        deflate(content);
+        records.add(new IndexRecord(HashUtils.fromHex(hash), offset));
+        return offset;
+    }
+
+    /**
+     * Append an object stored as a {@link Delta} against an entry already in this pack.
+     *
+     * @return offset of the entry
+     */
+    public long writeDelta(String hash, long size, long baseOffset, byte[] delta) throws IOException {
+        long offset = position();
+        out.writeByte(PackFile.TYPE_DELTA);
+        out.writeLong(size);
+        out.writeLong(baseOffset);
+        out.writeLong(delta.length);
+        deflate(new ByteArrayInputStream(delta));
+        records.add(new IndexRecord(HashUtils.fromHex(hash), offset));
+        return offset;
+    }
+
+    /**
+     * Complete the pack and move it into place.
+     *
+     * @return path of the new index file
+     */
+    public Path finish() throws IOException {
+        finished = true;
+        out.close();
+        try (FileChannel channel = FileChannel.open(tempPack, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(4).putInt(0, records.size()), 8);
+        }
+
+        records.sort(Comparator.comparing(IndexRecord::hash, PackWriter::compareHashes));
+
+        // Name the pack after its content: SHA-256 over the sorted object hashes
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        for (IndexRecord record : records) {
+            digest.update(record.hash());
+        }
+        String name = "pack-" + HashUtils.toHex(digest.digest());
+
+        Path tempIndex = Files.createTempFile(directory, "tmp-pack-", ".idx");
+        try (DataOutputStream index = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempIndex)))) {
+            index.writeInt(PackFile.INDEX_MAGIC);
+            index.writeInt(PackFile.VERSION);
+            index.writeInt(records.size());
+
+            int[] fanout = new int[256];
+            for (IndexRecord record : records) {
+                fanout[record.hash()[0] & 0xFF]++;
+            }
+            int total = 0;
+            for (int i = 0; i < 256; i++) {
+                total += fanout[i];
+                index.writeInt(total);
+            }
+            for (IndexRecord record : records) {
+                index.write(record.hash());
+            }
+            for (IndexRecord record : records) {
+                index.writeLong(record.offset());
+            }
+        }
+
+        Path indexPath = directory.resolve(name + ".idx");
+        move(tempPack, directory.resolve(name + ".pack"));
+        move(tempIndex, indexPath);
+        return indexPath;
+    }
+
+    @Override
+    public void close() throws IOException {
+        deflater.end();
+        if (!finished) {
+            out.close();
+            Files.deleteIfExists(tempPack);
+        }
+    }
+
+    private void deflate(InputStream content) throws IOException {
+        deflater.reset();
+        // the stream is only finished, not closed, so the pack stays open
+        DeflaterOutputStream deflated = new DeflaterOutputStream(counter, deflater, 64 * 1024);
+        content.transferTo(deflated);
+        deflated.finish();
+    }
+
+    private static void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static int compareHashes(byte[] a, byte[] b) {
+        return Arrays.compareUnsigned(a, b);
+    }
+
+    private record IndexRecord(byte[] hash, long offset) {
+    }
+
+    private static final class CountingOutputStream extends FilterOutputStream {
+        private long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
@@ -48,11 +48,7 @@ public class CommitComparator {
         }
 
         // Build set of local commit hashes
-        Set<String> localCommitHashes = new HashSet<>();
-        List<CommitSnapshotDto> localCommits = localCommitReader.readCommitChain(projectRoot, localHead, 1000);
-        for (CommitSnapshotDto commit : localCommits) {
-            localCommitHashes.add(commit.getId());
-        }
+        Set<String> localCommitHashes = new HashSet<>(localCommitReader.readCommitIds(projectRoot, localHead, 1000));
 
         // Check if remote HEAD exists in local history
         boolean remoteHeadInLocalHistory = localCommitHashes.contains(remoteHead);
@@ -1,7 +1,10 @@
 package com.ismile.core.chronovcscli.core.pull;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ismile.core.chronovcscli.core.graph.CommitGraph;
+import com.ismile.core.chronovcscli.core.graph.CommitNode;
 import com.ismile.core.chronovcscli.remote.dto.CommitSnapshotDto;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
@@ -11,9 +14,11 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Component
+@RequiredArgsConstructor
 @Slf4j
 public class LocalCommitReader {
 
+    private final CommitGraph commitGraph;
     private final ObjectMapper objectMapper = new ObjectMapper();
 
     /**
@@ -102,6 +107,21 @@ public class LocalCommitReader {
         return commits;
     }
 
+    /**
+     * Ids along the first-parent chain starting from given commit, read from the commit graph
+     */
+    public List<String> readCommitIds(File projectRoot, String startCommitHash, int maxCommits) {
+        List<String> ids = new ArrayList<>();
+        CommitNode commit = commitGraph.get(projectRoot, startCommitHash);
+
+        while (commit != null && ids.size() < maxCommits) {
+            ids.add(commit.getId());
+            commit = commitGraph.get(projectRoot, commit.getParent());
+        }
+
+        return ids;
+    }
+
     /**
      * Check if commit exists locally
      */
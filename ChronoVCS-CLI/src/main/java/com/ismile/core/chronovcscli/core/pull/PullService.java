@@ -2,15 +2,17 @@ package com.ismile.core.chronovcscli.core.pull;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.ismile.core.chronovcscli.auth.CredentialsEntry;
-import com.ismile.core.chronovcscli.core.index.IndexEngine;
 import com.ismile.core.chronovcscli.core.checkout.CheckoutService;
+import com.ismile.core.chronovcscli.core.graph.CommitGraph;
+import com.ismile.core.chronovcscli.core.graph.ShallowCommits;
 import com.ismile.core.chronovcscli.core.merge.MergeEngine;
 import com.ismile.core.chronovcscli.core.merge.MergeResult;
 import com.ismile.core.chronovcscli.core.merge.MergeStrategy;
+import com.ismile.core.chronovcscli.core.objectsStore.ObjectStore;
 import com.ismile.core.chronovcscli.core.release.ReleaseState;
 import com.ismile.core.chronovcscli.remote.RemoteCloneService;
 import com.ismile.core.chronovcscli.remote.RemoteConfig;
-import com.ismile.core.chronovcscli.remote.dto.BatchObjectsResponseDto;
+import com.ismile.core.chronovcscli.remote.RemoteObjectFetcher;
 import com.ismile.core.chronovcscli.remote.dto.CommitHistoryResponseDto;
 import com.ismile.core.chronovcscli.remote.dto.CommitSnapshotDto;
 import com.ismile.core.chronovcscli.remote.dto.RefsResponseDto;
@@ -31,11 +33,13 @@ import java.util.*;
 public class PullService {
 
     private final RemoteCloneService remoteCloneService;
+    private final RemoteObjectFetcher remoteObjectFetcher;
     private final LocalCommitReader localCommitReader;
     private final CommitComparator commitComparator;
     private final MergeEngine mergeEngine;
-    private final IndexEngine indexEngine;
     private final CheckoutService checkoutService;
+    private final ObjectStore objectStore;
+    private final CommitGraph commitGraph;
     private final ObjectMapper objectMapper = new ObjectMapper();
 
     /**
@@ -167,40 +171,7 @@ public class PullService {
             }
 
             Set<String> blobHashes = new HashSet<>(snapshot.getFiles().values());
-            Set<String> blobsToDownload = new HashSet<>();
-            for (String hash : blobHashes) {
-                File blobFile = getBlobFile(projectRoot, hash);
-                if (!blobFile.exists()) {
-                    blobsToDownload.add(hash);
-                }
-            }
-
-            Map<String, String> allObjects = new HashMap<>();
-            if (!blobsToDownload.isEmpty()) {
-                List<String> hashList = new ArrayList<>(blobsToDownload);
-                int batchSize = 50;
-
-                for (int i = 0; i < hashList.size(); i += batchSize) {
-                    int end = Math.min(i + batchSize, hashList.size());
-                    List<String> batch = hashList.subList(i, end);
-
-                    BatchObjectsResponseDto batchResponse = remoteCloneService.getBatchObjects(
-                            remoteConfig, credentials, batch
-                    );
-                    allObjects.putAll(batchResponse.getObjects());
-                }
-            }
-
-            for (Map.Entry<String, String> entry : allObjects.entrySet()) {
-                String hash = entry.getKey();
-                String base64Content = entry.getValue();
-
-                byte[] content = Base64.getDecoder().decode(base64Content);
-
-                File blobFile = getBlobFile(projectRoot, hash);
-                blobFile.getParentFile().mkdirs();
-                Files.write(blobFile.toPath(), content);
-            }
+            remoteObjectFetcher.fetchMissing(remoteConfig, credentials, projectRoot, blobHashes);
 
             File commitFile = new File(projectRoot, ".vcs/commits/" + snapshot.getId() + ".json");
             if (!commitFile.exists()) {
@@ -208,6 +179,7 @@ public class PullService {
                         .writeValueAsString(snapshot);
                 Files.writeString(commitFile.toPath(), commitJson);
             }
+            commitGraph.update(projectRoot);
 
             checkoutService.checkoutCommit(projectRoot, snapshotCommitId);
             ReleaseState.save(projectRoot, new ReleaseState(release.getVersion(), snapshotCommitId));
@@ -238,47 +210,9 @@ public class PullService {
             }
         }
 
-        // Filter out blobs that already exist locally
-        Set<String> blobsToDownload = new HashSet<>();
-        for (String hash : newBlobHashes) {
-            File blobFile = getBlobFile(projectRoot, hash);
-            if (!blobFile.exists()) {
-                blobsToDownload.add(hash);
-            }
-        }
-
-        log.info("Downloading {} new objects", blobsToDownload.size());
-
-        // 2. Download new blobs in batches
-        Map<String, String> allObjects = new HashMap<>();
-        if (!blobsToDownload.isEmpty()) {
-            List<String> hashList = new ArrayList<>(blobsToDownload);
-            int batchSize = 50;
-
-            for (int i = 0; i < hashList.size(); i += batchSize) {
-                int end = Math.min(i + batchSize, hashList.size());
-                List<String> batch = hashList.subList(i, end);
-
-                BatchObjectsResponseDto batchResponse = remoteCloneService.getBatchObjects(
-                        remoteConfig, credentials, batch
-                );
-                allObjects.putAll(batchResponse.getObjects());
-
-                log.info("Downloaded {}/{} objects", allObjects.size(), blobsToDownload.size());
-            }
-        }
-
-        // 3. Write new blobs to local storage
-        for (Map.Entry<String, String> entry : allObjects.entrySet()) {
-            String hash = entry.getKey();
-            String base64Content = entry.getValue();
-
-            byte[] content = Base64.getDecoder().decode(base64Content);
-
-            File blobFile = getBlobFile(projectRoot, hash);
-            blobFile.getParentFile().mkdirs();
-            Files.write(blobFile.toPath(), content);
-        }
+        // 2-3. Download the blobs missing locally, written to storage as they arrive
+        int downloaded = remoteObjectFetcher.fetchMissing(remoteConfig, credentials, projectRoot, newBlobHashes);
+        log.info("Downloaded {} new objects", downloaded);
 
         // 4. Write new commits to local storage
         for (CommitSnapshotDto commit : newCommits) {
@@ -287,17 +221,18 @@ public class PullService {
                     .writeValueAsString(commit);
             Files.writeString(commitFile.toPath(), commitJson);
         }
+        commitGraph.update(projectRoot);
+
+        // 5. Checkout latest commit (update working directory); fails without moving the branch
+        CommitSnapshotDto latestCommit = newCommits.get(0);
+        List<String> changedFiles = checkoutCommit(projectRoot, latestCommit);
 
-        // 5. Update branch HEAD
+        // 6. Update branch HEAD
         File branchRefFile = new File(projectRoot, ".vcs/refs/heads/" + branch);
         Files.writeString(branchRefFile.toPath(), remoteHead);
 
         log.info("Updated branch {} to {}", branch, remoteHead);
 
-        // 6. Checkout latest commit (update working directory)
-        CommitSnapshotDto latestCommit = newCommits.get(0);
-        List<String> changedFiles = checkoutCommit(projectRoot, latestCommit, allObjects);
-
         return PullResult.builder()
                 .success(true)
                 .message("Fast-forward: " + analysis.getLocalHead() + ".." + remoteHead)
@@ -306,73 +241,16 @@ public class PullService {
                 .build();
     }
 
-    private File getBlobFile(File projectRoot, String hash) {
-        String prefix = hash.substring(0, 2);
-        String suffix = hash.substring(2);
-        return new File(projectRoot, ".vcs/objects/" + prefix + "/" + suffix);
-    }
 
     private List<String> checkoutCommit(File projectRoot,
-                                         CommitSnapshotDto commit,
-                                         Map<String, String> objects) throws Exception {
-
-        List<String> changedFiles = new ArrayList<>();
+                                         CommitSnapshotDto commit) throws Exception {
 
         if (commit.getFiles() == null || commit.getFiles().isEmpty()) {
-            return changedFiles;
+            return new ArrayList<>();
         }
 
-        // Load and clear the index - we'll rebuild it from the commit
-        indexEngine.loadIndex(projectRoot);
-
-        // Save current index entries before clearing (to detect changes)
-        Map<String, String> previousIndexEntries = new HashMap<>(indexEngine.getEntries());
-
-        // Remove all files from index (we'll add them back from the commit)
-        Map<String, String> currentIndexEntries = indexEngine.getEntries();
-        for (String filePath : new ArrayList<>(currentIndexEntries.keySet())) {
-            indexEngine.removeFile(filePath);
-        }
-
-        for (Map.Entry<String, String> entry : commit.getFiles().entrySet()) {
-            String filePath = entry.getKey();
-            String blobHash = entry.getValue();
-
-            // Check if this file has changed (new file or different hash)
-            String previousHash = previousIndexEntries.get(filePath);
-            boolean fileChanged = previousHash == null || !previousHash.equals(blobHash);
-
-            // Try to get from downloaded objects first
-            String base64Content = objects.get(blobHash);
-            byte[] content;
-
-            if (base64Content != null) {
-                content = Base64.getDecoder().decode(base64Content);
-            } else {
-                // Read from local storage
-                File blobFile = getBlobFile(projectRoot, blobHash);
-                if (!blobFile.exists()) {
-                    log.warn("Missing blob for file: {} (hash: {})", filePath, blobHash);
-                    continue;
-                }
-                content = Files.readAllBytes(blobFile.toPath());
-            }
-
-            File file = new File(projectRoot, filePath);
-            file.getParentFile().mkdirs();
-            Files.write(file.toPath(), content);
-
-            // Update index to reflect the checked out file
-            indexEngine.updateFile(filePath, blobHash);
-
-            // Only add to changedFiles if the file actually changed
-            if (fileChanged) {
-                changedFiles.add(filePath);
-            }
-        }
-
-        // Save updated index
-        indexEngine.saveIndex(projectRoot);
+        // Only paths whose blob changed are rewritten; local edits to tracked files are overwritten as before
+        List<String> changedFiles = checkoutService.updateWorkingTree(projectRoot, commit, true);
 
         log.info("Checked out {} files, {} changed", commit.getFiles().size(), changedFiles.size());
         return changedFiles;
@@ -399,45 +277,9 @@ public class PullService {
             }
         }
 
-        // Filter out blobs that already exist locally
-        Set<String> blobsToDownload = new HashSet<>();
-        for (String hash : remoteBlobHashes) {
-            File blobFile = getBlobFile(projectRoot, hash);
-            if (!blobFile.exists()) {
-                blobsToDownload.add(hash);
-            }
-        }
-
-        log.info("Downloading {} remote objects", blobsToDownload.size());
-
-        // Download new blobs in batches
-        Map<String, String> allObjects = new HashMap<>();
-        if (!blobsToDownload.isEmpty()) {
-            List<String> hashList = new ArrayList<>(blobsToDownload);
-            int batchSize = 50;
-
-            for (int i = 0; i < hashList.size(); i += batchSize) {
-                int end = Math.min(i + batchSize, hashList.size());
-                List<String> batch = hashList.subList(i, end);
-
-                BatchObjectsResponseDto batchResponse = remoteCloneService.getBatchObjects(
-                        remoteConfig, credentials, batch
-                );
-                allObjects.putAll(batchResponse.getObjects());
-            }
-        }
-
-        // Write new blobs to local storage
-        for (Map.Entry<String, String> entry : allObjects.entrySet()) {
-            String hash = entry.getKey();
-            String base64Content = entry.getValue();
-
-            byte[] content = Base64.getDecoder().decode(base64Content);
-
-            File blobFile = getBlobFile(projectRoot, hash);
-            blobFile.getParentFile().mkdirs();
-            Files.write(blobFile.toPath(), content);
-        }
+        // Download the blobs missing locally, written to storage as they arrive
+        int downloaded = remoteObjectFetcher.fetchMissing(remoteConfig, credentials, projectRoot, remoteBlobHashes);
+        log.info("Downloaded {} remote objects", downloaded);
 
         // Write new commits to local storage
         for (CommitSnapshotDto commit : remoteCommits) {
@@ -448,6 +290,17 @@ public class PullService {
                 Files.writeString(commitFile.toPath(), commitJson);
             }
         }
+        commitGraph.update(projectRoot);
+
+        String oldestParent = remoteCommits.isEmpty() ? null : remoteCommits.get(remoteCommits.size() - 1).getParent();
+        if (history.isHasMore() && oldestParent != null && commitGraph.get(projectRoot, oldestParent) == null) {
+            ShallowCommits.add(projectRoot, List.of(remoteCommits.get(remoteCommits.size() - 1).getId()));
+        }
+        if (ShallowCommits.isShallow(projectRoot)
+                && commitGraph.findMergeBase(projectRoot, localHead, remoteHead) == null) {
+            // A missing base is an artifact of the truncated history, not of unrelated histories
+            return PullResult.error("Cannot merge: the common ancestor is older than the history of this shallow clone");
+        }
 
         // 2. Now perform the merge
         MergeResult mergeResult = mergeEngine.merge(projectRoot, localHead, remoteHead, branch, branch);
@@ -0,0 +1,181 @@
+package com.ismile.core.chronovcscli.core.scan;
+
+import com.ismile.core.chronovcscli.core.ignore.IgnoreEngine;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Parallel working tree scanner used by status and add.
+ *
+ * Directories are listed concurrently on a fork-join pool of {@code jobs} threads;
+ * {@code .vcs} and ignored directories are pruned before descending. The same pool
+ * runs per-file work such as hashing, so at most {@code jobs} files are read at once.
+ */
+public class WorkingTreeScanner implements AutoCloseable {
+
+    // Files per leaf task in map(); small enough to balance, large enough to amortise forking
+    private static final int MAP_BATCH_SIZE = 16;
+
+    private final File projectRoot;
+    private final Path rootPath;
+    private final IgnoreEngine ignoreEngine;
+    private final ForkJoinPool pool;
+
+    public WorkingTreeScanner(File projectRoot, IgnoreEngine ignoreEngine, int jobs) {
+        this.projectRoot = projectRoot;
+        this.rootPath = projectRoot.toPath();
+        this.ignoreEngine = ignoreEngine;
+        this.pool = new ForkJoinPool(Math.max(1, jobs));
+    }
+
+    /**
+     * Per-file work item for {@link #map}.
+     */
+    @FunctionalInterface
+    public interface FileTask<T> {
+        T apply(Path file) throws IOException;
+    }
+
+    /**
+     * All regular, non-ignored files under {@code start}, sorted by path.
+     */
+    public List<Path> walk(Path start) throws IOException {
+        List<Path> files;
+        try {
+            files = pool.invoke(new WalkTask(start));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        files.sort(null);
+        return files;
+    }
+
+    /**
+     * Apply {@code task} to every file on the worker pool. Results keep the order of {@code files}.
+     */
+    public <T> List<T> map(List<Path> files, FileTask<T> task) throws IOException {
+        Object[] results = new Object[files.size()];
+        try {
+            pool.invoke(new MapTask<>(files, task, results, 0, files.size()));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        @SuppressWarnings("unchecked")
+        List<T> list = (List<T>) Arrays.asList(results);
+        return list;
+    }
+
+    public String relativize(Path path) {
+        return rootPath.relativize(path).toString();
+    }
+
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    private boolean isExcluded(Path path) {
+        String rel = relativize(path);
+        return rel.startsWith(".vcs") || ignoreEngine.isIgnored(projectRoot, path.toFile());
+    }
+
+    private class WalkTask extends RecursiveTask<List<Path>> {
+        private final Path dir;
+
+        WalkTask(Path dir) {
+            this.dir = dir;
+        }
+
+        @Override
+        protected List<Path> compute() {
+            List<Path> files = new ArrayList<>();
+            List<WalkTask> subdirs = new ArrayList<>();
+
+            try (DirectoryStream<Path> entries = Files.newDirectoryStream(dir)) {
+                for (Path entry : entries) {
+                    BasicFileAttributes attrs = Files.readAttributes(entry, BasicFileAttributes.class,
+                            LinkOption.NOFOLLOW_LINKS);
+                    if (attrs.isDirectory()) {
+                        // prune before descending
+                        if (!relativize(entry).startsWith(".vcs")
+                                && ignoreEngine.shouldDescend(projectRoot, entry.toFile())) {
+                            WalkTask task = new WalkTask(entry);
+                            task.fork();
+                            subdirs.add(task);
+                        }
+                    } else if (isFile(entry, attrs) && !isExcluded(entry)) {
+                        files.add(entry);
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to scan directory: " + dir, e);
+            }
+
+            for (WalkTask task : subdirs) {
+                files.addAll(task.join());
+            }
+            return files;
+        }
+
+        // Links to files are read through like the files they point at; links to
+        // directories are never descended, and dangling links are skipped
+        private boolean isFile(Path entry, BasicFileAttributes attrs) throws IOException {
+            if (!attrs.isSymbolicLink()) {
+                return attrs.isRegularFile();
+            }
+            try {
+                return Files.readAttributes(entry, BasicFileAttributes.class).isRegularFile();
+            } catch (NoSuchFileException e) {
+                return false;
+            }
+        }
+    }
+
+    private static class MapTask<T> extends RecursiveTask<Void> {
+        private final List<Path> files;
+        private final FileTask<T> task;
+        private final Object[] results;
+        private final int from;
+        private final int to;
+
+        MapTask(List<Path> files, FileTask<T> task, Object[] results, int from, int to) {
+            this.files = files;
+            this.task = task;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Void compute() {
+            if (to - from > MAP_BATCH_SIZE) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new MapTask<>(files, task, results, from, mid),
+                        new MapTask<>(files, task, results, mid, to));
+                return null;
+            }
+            for (int i = from; i < to; i++) {
+                Path file = files.get(i);
+                try {
+                    results[i] = task.apply(file);
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Failed to process file: " + file, e);
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -5,4 +5,9 @@ import java.io.IOException;
 
 public interface StatusEngine {
     StatusResult getStatus(File projectRoot) throws IOException;
+
+    /**
+     * @param jobs number of threads used to walk and hash the working tree
+     */
+    StatusResult getStatus(File projectRoot, int jobs) throws IOException;
 }
@@ -3,7 +3,9 @@ package com.ismile.core.chronovcscli.core.status.impl;
 import com.ismile.core.chronovcscli.core.hash.HashEngine;
 import com.ismile.core.chronovcscli.core.ignore.IgnoreEngine;
 import com.ismile.core.chronovcscli.core.index.IndexEngine;
+import com.ismile.core.chronovcscli.core.index.IndexEntry;
 import com.ismile.core.chronovcscli.core.objectsStore.ObjectStore;
+import com.ismile.core.chronovcscli.core.scan.WorkingTreeScanner;
 import com.ismile.core.chronovcscli.core.status.StatusEngine;
 import com.ismile.core.chronovcscli.core.status.StatusResult;
 import lombok.RequiredArgsConstructor;
@@ -11,11 +13,13 @@ import org.springframework.stereotype.Component;
 
 import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Component
 @RequiredArgsConstructor
@@ -27,43 +31,77 @@ public class StatusEngineImpl implements StatusEngine {
 
     @Override
     public StatusResult getStatus(File projectRoot) throws IOException {
+        return getStatus(projectRoot, Runtime.getRuntime().availableProcessors());
+    }
+
+    @Override
+    public StatusResult getStatus(File projectRoot, int jobs) throws IOException {
         indexEngine.loadIndex(projectRoot);
         Map<String, String> indexMap = indexEngine.getEntries();
         List<String> untracked = new ArrayList<>();
         List<String> modified = new ArrayList<>();
         List<String> deleted  = new ArrayList<>();
 
-        Map<String, String> current = new HashMap<>();
-
-        Files.walk(projectRoot.toPath())
-                .filter(Files::isRegularFile)
-                .forEach(path -> {
-                    File file = path.toFile();
-                    String rel = projectRoot.toPath().relativize(path).toString();
-                    if(rel.startsWith(".vcs"))
-                        return;
-                    if(ignoreEngine.isIgnored(projectRoot, file))
-                        return;
-                    try {
-                        String hash = hashEngine.hashFile(file);
-                        current.put(rel, hash);
-
-                        if(!indexMap.containsKey(rel)) {
-                            untracked.add(rel);
-                        } else if(!indexMap.get(rel).equals(hash)) {
-                            modified.add(rel);
-                        }
-                    } catch(IOException e) {
-                        throw new RuntimeException("Failed to get status for file: " + file.getAbsolutePath(), e);
-                    }
-                });
+        Set<String> current = new HashSet<>();
+        boolean refreshed = false;
+
+        try(WorkingTreeScanner scanner = new WorkingTreeScanner(projectRoot, ignoreEngine, jobs)) {
+            List<Path> tracked = new ArrayList<>();
+            for(Path path : scanner.walk(projectRoot.toPath())) {
+                String rel = scanner.relativize(path);
+                current.add(rel);
+                if(indexMap.containsKey(rel)) {
+                    tracked.add(path);
+                } else {
+                    untracked.add(rel);
+                }
+            }
+
+            // stat + hash on the worker pool; the index is only read there
+            List<FileCheck> checks = scanner.map(tracked, path -> check(scanner.relativize(path), path, indexMap));
+
+            for(FileCheck check : checks) {
+                if(check == null)
+                    continue;
+                if(check.modified()) {
+                    modified.add(check.stat().getPath());
+                } else {
+                    // content same, only stat changed (touch, checkout): refresh the stat cache
+                    indexEngine.updateFile(check.stat());
+                    refreshed = true;
+                }
+            }
+        }
 
         for(String path: indexMap.keySet()) {
-            if(!current.containsKey(path)) {
+            if(!current.contains(path)) {
                 deleted.add(path);
             }
         }
 
+        if(refreshed) {
+            indexEngine.saveIndex(projectRoot);
+        }
+
+        Collections.sort(deleted);
         return new StatusResult(untracked, modified, deleted);
     }
+
+    /**
+     * @return null if the stat data is unchanged, otherwise the hashed result
+     */
+    private FileCheck check(String rel, Path path, Map<String, String> indexMap) throws IOException {
+        String staged = indexMap.get(rel);
+
+        // stat data unchanged -> staged hash is still valid
+        IndexEntry stat = IndexEntry.of(rel, staged, path);
+        if(indexEngine.isUpToDate(stat))
+            return null;
+
+        String hash = hashEngine.hashFile(path.toFile());
+        return new FileCheck(stat, !staged.equals(hash));
+    }
+
+    private record FileCheck(IndexEntry stat, boolean modified) {
+    }
 }
@@ -1,5 +1,6 @@
 package com.ismile.core.chronovcscli.remote;
 
+import com.fasterxml.jackson.databind.MappingIterator;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.ismile.core.chronovcscli.auth.CredentialsEntry;
 import com.ismile.core.chronovcscli.remote.dto.*;
@@ -7,13 +8,18 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.URI;
+import java.net.URLEncoder;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
 import java.util.Base64;
 import java.util.List;
+import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
@@ -124,6 +130,50 @@ public class RemoteCloneService {
         }
     }
 
+    /**
+     * Blob hashes referenced by {@code fromCommit} and its first parents, {@code depth} commits
+     * in total, computed by the server.
+     *
+     * @return null if the server does not support object set queries
+     */
+    public ObjectSetResponseDto getObjectSet(RemoteConfig config,
+                                             CredentialsEntry creds,
+                                             String fromCommit,
+                                             int depth) {
+        try {
+            String baseUrl = config.getBaseUrl().replaceAll("/$", "");
+            String url = baseUrl + "/api/repositories/" + config.getRepoKey() + "/objects/needed"
+                    + "?fromCommit=" + URLEncoder.encode(fromCommit, StandardCharsets.UTF_8) + "&depth=" + depth;
+
+            String basicToken = buildBasicAuth(creds);
+
+            HttpRequest request = HttpRequest.newBuilder()
+                    .uri(URI.create(url))
+                    .header("Authorization", "Basic " + basicToken)
+                    .header("Accept", "application/json")
+                    .GET()
+                    .build();
+
+            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+
+            int status = response.statusCode();
+            String body = response.body();
+
+            if (status == 404) {
+                log.debug("Object set endpoint not available");
+                return null;
+            }
+            if (status < 200 || status >= 300) {
+                log.error("Get object set failed. Status: {}, Body: {}", status, body);
+                throw new IllegalStateException("Get object set failed with status " + status + ": " + body);
+            }
+
+            return objectMapper.readValue(body, ObjectSetResponseDto.class);
+        } catch (Exception e) {
+            throw new RuntimeException("Get object set failed: " + e.getMessage(), e);
+        }
+    }
+
     public BatchObjectsResponseDto getBatchObjects(RemoteConfig config,
                                                    CredentialsEntry creds,
                                                    List<String> hashes) {
@@ -160,6 +210,66 @@ public class RemoteCloneService {
         }
     }
 
+    /**
+     * Fetch a batch of objects from the streaming endpoint, handing each object to {@code handler}
+     * as soon as its line is decoded, so memory is bounded by the largest object rather than the batch.
+     * Falls back to {@link #getBatchObjects} for servers without the streaming endpoint.
+     */
+    public void streamBatchObjects(RemoteConfig config,
+                                   CredentialsEntry creds,
+                                   List<String> hashes,
+                                   BatchObjectHandler handler) {
+        try {
+            String baseUrl = config.getBaseUrl().replaceAll("/$", "");
+            String url = baseUrl + "/api/repositories/" + config.getRepoKey() + "/objects/batch/stream";
+
+            String basicToken = buildBasicAuth(creds);
+
+            BatchObjectsRequestDto requestDto = new BatchObjectsRequestDto(hashes);
+            String bodyJson = objectMapper.writeValueAsString(requestDto);
+
+            HttpRequest request = HttpRequest.newBuilder()
+                    .uri(URI.create(url))
+                    .header("Authorization", "Basic " + basicToken)
+                    .header("Accept", "application/x-ndjson")
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(bodyJson))
+                    .build();
+
+            HttpResponse<InputStream> response = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+
+            try (InputStream body = response.body()) {
+                int status = response.statusCode();
+
+                if (status == 404 || status == 405) {
+                    body.transferTo(OutputStream.nullOutputStream());
+                    log.debug("Streaming batch endpoint not available ({}), using plain batch", status);
+                    Map<String, String> objects = getBatchObjects(config, creds, hashes).getObjects();
+                    for (Map.Entry<String, String> entry : objects.entrySet()) {
+                        handler.handle(entry.getKey(), Base64.getDecoder().decode(entry.getValue()));
+                    }
+                    return;
+                }
+
+                if (status < 200 || status >= 300) {
+                    String error = new String(body.readAllBytes(), StandardCharsets.UTF_8);
+                    log.error("Stream batch objects failed. Status: {}, Body: {}", status, error);
+                    throw new IllegalStateException("Stream batch objects failed with status " + status + ": " + error);
+                }
+
+                try (MappingIterator<BatchObjectDto> objects = objectMapper.readerFor(BatchObjectDto.class)
+                        .readValues(body)) {
+                    while (objects.hasNextValue()) {
+                        BatchObjectDto object = objects.nextValue();
+                        handler.handle(object.getHash(), object.getContent());
+                    }
+                }
+            }
+        } catch (Exception e) {
+            throw new RuntimeException("Stream batch objects failed: " + e.getMessage(), e);
+        }
+    }
+
     public RepositoryInfoResponseDto getRepositoryInfo(RemoteConfig config, CredentialsEntry creds) {
         try {
             String baseUrl = config.getBaseUrl().replaceAll("/$", "");
@@ -253,6 +363,11 @@ public class RemoteCloneService {
         }
     }
 
+    @FunctionalInterface
+    public interface BatchObjectHandler {
+        void handle(String hash, byte[] content) throws IOException;
+    }
+
     private String buildBasicAuth(CredentialsEntry entry) {
         String username;
 
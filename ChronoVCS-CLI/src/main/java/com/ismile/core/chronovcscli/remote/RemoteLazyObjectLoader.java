@@ -0,0 +1,47 @@
+package com.ismile.core.chronovcscli.remote;
+
+import com.ismile.core.chronovcscli.auth.CredentialsEntry;
+import com.ismile.core.chronovcscli.auth.CredentialsService;
+import com.ismile.core.chronovcscli.core.objectsStore.LazyObjectLoader;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collection;
+
+/**
+ * Fetches blobs of a partial clone ({@code clone --filter blob:none}) from its remote on demand.
+ * Repositories without {@link #PARTIAL_CLONE_MARKER} are complete and never hit the network.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RemoteLazyObjectLoader implements LazyObjectLoader {
+
+    // Written by clone with the blob filter that was used
+    public static final String PARTIAL_CLONE_MARKER = ".vcs/partial-clone";
+
+    private final RemoteConfigService remoteConfigService;
+    private final CredentialsService credentialsService;
+    private final RemoteObjectFetcher remoteObjectFetcher;
+
+    @Override
+    public boolean fetch(File projectRoot, Collection<String> hashes) throws IOException {
+        if (!new File(projectRoot, PARTIAL_CLONE_MARKER).isFile()) {
+            return false;
+        }
+
+        RemoteConfig config = remoteConfigService.load(projectRoot);
+        CredentialsEntry creds = credentialsService.findForServer(config.getBaseUrl())
+                .orElseThrow(() -> new IllegalStateException(
+                        "No credentials found for " + config.getBaseUrl() + " to fetch missing objects"));
+
+        int downloaded = remoteObjectFetcher.fetchMissing(config, creds, projectRoot, hashes);
+        if (downloaded > 0) {
+            log.info("Fetched {} missing objects from {}", downloaded, config.getBaseUrl());
+        }
+        return true;
+    }
+}
@@ -0,0 +1,123 @@
+package com.ismile.core.chronovcscli.remote;
+
+import com.ismile.core.chronovcscli.auth.CredentialsEntry;
+import com.ismile.core.chronovcscli.core.hash.HashEngine;
+import com.ismile.core.chronovcscli.core.objectsStore.ObjectStore;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+
+/**
+ * Downloads missing objects with several batch requests in flight at once.
+ *
+ * Each batch is streamed and every object is verified and written to the object store as soon
+ * as it is decoded. Objects already present locally are never requested, so rerunning an
+ * interrupted download only fetches what is still missing. The download fails if the remote
+ * leaves out a requested object.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RemoteObjectFetcher {
+
+    private static final int BATCH_SIZE = 50;
+    // Concurrent batch requests, multiplexed over the HTTP/2 connection of RemoteCloneService
+    public static final int DEFAULT_JOBS = 4;
+
+    private final RemoteCloneService remoteCloneService;
+    private final ObjectStore objectStore;
+    private final HashEngine hashEngine;
+
+    public int fetchMissing(RemoteConfig config, CredentialsEntry creds, File projectRoot,
+                            Collection<String> hashes) {
+        return fetchMissing(config, creds, projectRoot, hashes, DEFAULT_JOBS, downloaded -> { });
+    }
+
+    /**
+     * Download every object of {@code hashes} not yet stored under {@code projectRoot}.
+     *
+     * @param progress called with the running count of downloaded objects, from the worker threads
+     * @return number of objects downloaded
+     */
+    public int fetchMissing(RemoteConfig config, CredentialsEntry creds, File projectRoot,
+                            Collection<String> hashes, int jobs, IntConsumer progress) {
+        Set<String> missing = new LinkedHashSet<>();
+        for (String hash : hashes) {
+            if (!objectStore.exists(projectRoot, hash)) {
+                missing.add(hash);
+            }
+        }
+        if (missing.isEmpty()) {
+            return 0;
+        }
+
+        List<String> hashList = new ArrayList<>(missing);
+        List<List<String>> batches = new ArrayList<>();
+        for (int i = 0; i < hashList.size(); i += BATCH_SIZE) {
+            batches.add(hashList.subList(i, Math.min(i + BATCH_SIZE, hashList.size())));
+        }
+
+        log.info("Downloading {} objects in {} batches ({} in flight)",
+                missing.size(), batches.size(), Math.min(jobs, batches.size()));
+
+        // Requested objects not received yet; each may arrive once
+        Set<String> outstanding = ConcurrentHashMap.newKeySet();
+        outstanding.addAll(missing);
+        AtomicInteger downloaded = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(jobs, batches.size())));
+        try {
+            List<Future<?>> futures = new ArrayList<>(batches.size());
+            for (List<String> batch : batches) {
+                futures.add(executor.submit(() -> remoteCloneService.streamBatchObjects(config, creds, batch,
+                        (hash, content) -> {
+                            store(projectRoot, outstanding, hash, content);
+                            progress.accept(downloaded.incrementAndGet());
+                        })));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof RuntimeException runtime ? runtime : new RuntimeException(cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Object download interrupted", e);
+        } finally {
+            // a failed batch cancels the rest; what was written so far is kept for the next run
+            executor.shutdownNow();
+        }
+
+        if (!outstanding.isEmpty()) {
+            throw new IllegalStateException("Remote did not return " + outstanding.size() + " of "
+                    + missing.size() + " requested objects, e.g. " + outstanding.iterator().next());
+        }
+        return downloaded.get();
+    }
+
+    private void store(File projectRoot, Set<String> outstanding, String hash, byte[] content) throws IOException {
+        String actual = hashEngine.hashBytes(content);
+        if (hash != null && !actual.equals(hash)) {
+            throw new IOException("Corrupt object from remote: expected " + hash + " but content hashes to " + actual);
+        }
+        if (hash == null || !outstanding.remove(hash)) {
+            throw new IOException("Remote returned an unrequested or duplicate object: " + hash);
+        }
+        objectStore.writeBlob(projectRoot, hash, content);
+    }
+}
@@ -2,24 +2,39 @@ package com.ismile.core.chronovcscli.remote;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.ismile.core.chronovcscli.auth.CredentialsEntry;
+import com.ismile.core.chronovcscli.core.objectsStore.ObjectStore;
 import com.ismile.core.chronovcscli.remote.dto.PushRequestDto;
 import com.ismile.core.chronovcscli.remote.dto.PushResultDto;
+import com.ismile.core.chronovcscli.remote.pack.PushPackFormat;
+import com.ismile.core.chronovcscli.remote.pack.PushPackWriter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
 import java.util.Base64;
+import java.util.Collection;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class RemotePushService {
 
+    private static final int PACK_PIPE_BUFFER_SIZE = 256 * 1024;
+
+    private final ObjectStore objectStore;
+
     private final ObjectMapper objectMapper = new ObjectMapper();
 
     private final HttpClient httpClient = HttpClient.newBuilder()
@@ -66,6 +81,164 @@ public class RemotePushService {
         }
     }
 
+    /**
+     * Push using the streaming binary pack endpoint. The pack is produced on a
+     * background thread and piped straight into the request body, so blob
+     * content is read from the object store as it is sent.
+     */
+    public PushResultDto pushPack(RemoteConfig config,
+                                  CredentialsEntry creds,
+                                  PushRequestDto header,
+                                  Collection<String> blobHashes) {
+
+        try {
+            String baseUrl = config.getBaseUrl().replaceAll("/$", "");
+            String url = baseUrl + "/api/repositories/" + config.getRepoKey() + "/push/pack";
+
+            String basicToken = buildBasicAuth(creds);
+
+            PipedInputStream pipeIn = new PipedInputStream(PACK_PIPE_BUFFER_SIZE);
+            PipedOutputStream packOut = new PipedOutputStream(pipeIn);
+
+            FutureTask<Void> writerTask = new FutureTask<>(() -> {
+                try (PushPackWriter writer = new PushPackWriter(packOut, objectMapper)) {
+                    writer.writeHeader(header);
+                    for (String blobHash : blobHashes) {
+                        try (InputStream content = objectStore.openBlob(blobHash)) {
+                            writer.writeBlob(blobHash, objectStore.blobSize(blobHash), content);
+                        }
+                    }
+                    writer.finish();
+                }
+                return null;
+            });
+            Thread writerThread = new Thread(writerTask, "chrono-push-pack");
+            writerThread.setDaemon(true);
+            writerThread.start();
+
+            // A writer failure closes the pipe like a finished pack would; surface it to
+            // the request instead of sending a truncated body
+            InputStream packIn = new WriterCheckingInputStream(pipeIn, writerTask);
+
+            HttpRequest request = HttpRequest.newBuilder()
+                    .uri(URI.create(url))
+                    .header("Authorization", "Basic " + basicToken)
+                    .header("Accept", "application/json")
+                    .header("Content-Type", PushPackFormat.MEDIA_TYPE)
+                    .POST(HttpRequest.BodyPublishers.ofInputStream(() -> packIn))
+                    .build();
+
+            HttpResponse<String> response;
+            try {
+                response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            } finally {
+                // Unblocks the writer if the server answered before reading the whole pack
+                closeQuietly(packIn);
+            }
+
+            int status = response.statusCode();
+            String body = response.body();
+
+            if (status < 200 || status >= 300) {
+                log.error("Remote pack push failed. Status: {}, Body: {}", status, body);
+                throw new IllegalStateException(
+                        "Remote push failed with status " + status + ": " + body
+                );
+            }
+
+            awaitWriter(writerTask);
+
+            return objectMapper.readValue(body, PushResultDto.class);
+        } catch (Exception e) {
+            throw new RuntimeException("Remote push failed: " + e.getMessage(), e);
+        }
+    }
+
+    private void awaitWriter(FutureTask<Void> writerTask) throws IOException, InterruptedException {
+        try {
+            writerTask.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException io) {
+                throw io;
+            }
+            throw new IllegalStateException("Failed to write push pack", cause);
+        }
+    }
+
+    /**
+     * Read side of the pack pipe that fails with the writer's exception, both at the
+     * end of the stream and when the pipe breaks because the writer thread died.
+     */
+    private static final class WriterCheckingInputStream extends FilterInputStream {
+
+        private final FutureTask<Void> writerTask;
+
+        private WriterCheckingInputStream(InputStream in, FutureTask<Void> writerTask) {
+            super(in);
+            this.writerTask = writerTask;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b;
+            try {
+                b = super.read();
+            } catch (IOException e) {
+                throw writerFailure(e);
+            }
+            if (b < 0) {
+                checkWriter();
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n;
+            try {
+                n = super.read(b, off, len);
+            } catch (IOException e) {
+                throw writerFailure(e);
+            }
+            if (n < 0) {
+                checkWriter();
+            }
+            return n;
+        }
+
+        private void checkWriter() throws IOException {
+            // The pipe is closed only as the writer finishes, so this does not wait long
+            try {
+                writerTask.get();
+            } catch (ExecutionException e) {
+                throw new IOException("Failed to write push pack: " + e.getCause().getMessage(), e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while writing push pack", e);
+            }
+        }
+
+        private IOException writerFailure(IOException readFailure) {
+            if (writerTask.isDone()) {
+                try {
+                    checkWriter();
+                } catch (IOException e) {
+                    return e;
+                }
+            }
+            return readFailure;
+        }
+    }
+
+    private void closeQuietly(InputStream in) {
+        try {
+            in.close();
+        } catch (IOException e) {
+            log.debug("Failed to close push pack pipe", e);
+        }
+    }
+
     private String buildBasicAuth(CredentialsEntry entry) {
         String username;
 
@@ -0,0 +1,17 @@
+package com.ismile.core.chronovcscli.remote.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Single line of the streamed batch objects response (NDJSON).
+ * {@code content} arrives base64 encoded and is decoded by Jackson.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchObjectDto {
+    private String hash;
+    private byte[] content;
+}
@@ -0,0 +1,13 @@
+package com.ismile.core.chronovcscli.remote.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class ObjectSetResponseDto {
+    private List<String> hashes;
+    private long totalSize;
+    private int commitCount;
+    private boolean hasMore;
+}
@@ -0,0 +1,27 @@
+package com.ismile.core.chronovcscli.remote.pack;
+
+/**
+ * Wire format of the binary push pack, mirrored from the server.
+ *
+ * <pre>
+ * magic    4 bytes  "CVPK"
+ * version  int32
+ * header   int32 length + UTF-8 JSON of PushRequestDto (blobs omitted)
+ * frames   repeated:
+ *            byte FRAME_BLOB, UTF hash, int64 length, raw bytes
+ *          terminated by byte FRAME_END
+ * </pre>
+ */
+public final class PushPackFormat {
+
+    public static final String MEDIA_TYPE = "application/x-chronovcs-pack";
+
+    public static final byte[] MAGIC = {'C', 'V', 'P', 'K'};
+    public static final int VERSION = 1;
+
+    public static final byte FRAME_END = 0;
+    public static final byte FRAME_BLOB = 1;
+
+    private PushPackFormat() {
+    }
+}
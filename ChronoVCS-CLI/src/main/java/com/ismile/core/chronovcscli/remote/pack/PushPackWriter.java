@@ -0,0 +1,64 @@
+package com.ismile.core.chronovcscli.remote.pack;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ismile.core.chronovcscli.remote.dto.PushRequestDto;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Writes a binary push pack (see {@link PushPackFormat}) to an output stream.
+ * Blob content is copied from the supplied streams, never buffered whole.
+ */
+public class PushPackWriter implements Closeable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final DataOutputStream out;
+    private final ObjectMapper objectMapper;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+
+    public PushPackWriter(OutputStream out, ObjectMapper objectMapper) {
+        this.out = new DataOutputStream(new BufferedOutputStream(out, BUFFER_SIZE));
+        this.objectMapper = objectMapper;
+    }
+
+    public void writeHeader(PushRequestDto request) throws IOException {
+        byte[] header = objectMapper.writeValueAsBytes(request);
+
+        out.write(PushPackFormat.MAGIC);
+        out.writeInt(PushPackFormat.VERSION);
+        out.writeInt(header.length);
+        out.write(header);
+    }
+
+    public void writeBlob(String hash, long size, InputStream content) throws IOException {
+        out.writeByte(PushPackFormat.FRAME_BLOB);
+        out.writeUTF(hash);
+        out.writeLong(size);
+
+        long remaining = size;
+        while (remaining > 0) {
+            int read = content.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+            if (read < 0) {
+                throw new IOException("Blob " + hash + " is shorter than expected (" + remaining + " bytes missing)");
+            }
+            out.write(buffer, 0, read);
+            remaining -= read;
+        }
+    }
+
+    public void finish() throws IOException {
+        out.writeByte(PushPackFormat.FRAME_END);
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
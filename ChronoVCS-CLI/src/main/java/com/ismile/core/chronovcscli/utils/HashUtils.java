@@ -14,4 +14,22 @@ public class HashUtils {
 
         return new String(hexChars);
     }
+
+    public static byte[] fromHex(String hex) {
+        if(hex.length() % 2 != 0) {
+            throw new IllegalArgumentException("Invalid hex string: " + hex);
+        }
+        byte[] bytes = new byte[hex.length() / 2];
+
+        for(int i = 0; i < bytes.length; i++) {
+            int high = Character.digit(hex.charAt(i * 2), 16);
+            int low = Character.digit(hex.charAt(i * 2 + 1), 16);
+            if(high < 0 || low < 0) {
+                throw new IllegalArgumentException("Invalid hex string: " + hex);
+            }
+            bytes[i] = (byte) ((high << 4) | low);
+        }
+
+        return bytes;
+    }
 }
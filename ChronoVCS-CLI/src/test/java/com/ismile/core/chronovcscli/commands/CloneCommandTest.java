@@ -0,0 +1,224 @@
+package com.ismile.core.chronovcscli.commands;
+
+import com.ismile.core.chronovcscli.auth.CredentialsEntry;
+import com.ismile.core.chronovcscli.auth.CredentialsService;
+import com.ismile.core.chronovcscli.core.graph.CommitGraph;
+import com.ismile.core.chronovcscli.core.graph.ShallowCommits;
+import com.ismile.core.chronovcscli.core.index.IndexEngine;
+import com.ismile.core.chronovcscli.core.objectsStore.ObjectStore;
+import com.ismile.core.chronovcscli.remote.RemoteCloneService;
+import com.ismile.core.chronovcscli.remote.RemoteLazyObjectLoader;
+import com.ismile.core.chronovcscli.remote.RemoteObjectFetcher;
+import com.ismile.core.chronovcscli.remote.dto.CommitHistoryResponseDto;
+import com.ismile.core.chronovcscli.remote.dto.CommitSnapshotDto;
+import com.ismile.core.chronovcscli.remote.dto.ObjectSetResponseDto;
+import com.ismile.core.chronovcscli.remote.dto.RefsResponseDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CloneCommandTest {
+
+    private static final String REMOTE = "http://localhost:8080";
+
+    @TempDir
+    Path tempDir;
+
+    private File targetDir;
+    private RemoteCloneService remoteCloneService;
+    private RemoteObjectFetcher remoteObjectFetcher;
+    private ObjectStore objectStore;
+    private CloneCommand command;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        targetDir = tempDir.resolve("clone").toFile();
+        remoteCloneService = Mockito.mock(RemoteCloneService.class);
+        remoteObjectFetcher = Mockito.mock(RemoteObjectFetcher.class);
+        CredentialsService credentialsService = Mockito.mock(CredentialsService.class);
+        when(credentialsService.findForServer(REMOTE))
+                .thenReturn(Optional.of(new CredentialsEntry(REMOTE, "uid", "user@example.com", "token")));
+
+        // Every blob is present once fetched
+        objectStore = Mockito.mock(ObjectStore.class);
+        when(objectStore.exists(any(File.class), anyString())).thenReturn(true);
+        when(objectStore.readBlob(any(File.class), anyString())).thenReturn(new byte[0]);
+
+        RefsResponseDto refs = new RefsResponseDto();
+        refs.setDefaultBranch("main");
+        refs.setBranches(Map.of("main", "c3"));
+        when(remoteCloneService.getRefs(any(), any())).thenReturn(refs);
+
+        command = new CloneCommand(remoteCloneService, remoteObjectFetcher, credentialsService,
+                Mockito.mock(IndexEngine.class), objectStore, Mockito.mock(CommitGraph.class));
+        ReflectionTestUtils.setField(command, "remoteUrl", REMOTE);
+        ReflectionTestUtils.setField(command, "repoKey", "repo");
+        ReflectionTestUtils.setField(command, "targetDir", targetDir.getPath());
+    }
+
+    @Test
+    void shallowCloneRecordsTheBoundary() {
+        ReflectionTestUtils.setField(command, "depth", 2);
+        when(remoteCloneService.getCommitHistory(any(), any(), eq("main"), eq(2)))
+                .thenReturn(history(true, commit("c3", "c2", "a3"), commit("c2", "c1", "a2")));
+        when(remoteCloneService.getObjectSet(any(), any(), eq("c3"), eq(2)))
+                .thenReturn(objectSet(2, true, "a3", "a2"));
+
+        command.run();
+
+        assertEquals(Set.of("a3", "a2"), Set.copyOf(fetched()));
+        assertEquals(Set.of("c2"), ShallowCommits.load(targetDir));
+        assertFalse(new File(targetDir, ".vcs/clone-in-progress").exists());
+    }
+
+    @Test
+    void completeHistoryIsNotShallow() {
+        when(remoteCloneService.getCommitHistory(any(), any(), eq("main"), any()))
+                .thenReturn(history(false, commit("c3", "c2", "a3"), commit("c2", null, "a2")));
+        when(remoteCloneService.getObjectSet(any(), any(), eq("c3"), eq(2)))
+                .thenReturn(objectSet(2, false, "a3", "a2"));
+
+        command.run();
+
+        assertFalse(ShallowCommits.isShallow(targetDir));
+        assertTrue(Files.exists(targetDir.toPath().resolve(".vcs/commits/c2.json")));
+    }
+
+    @Test
+    void blobNoneFetchesOnlyTheCheckedOutCommit() throws Exception {
+        ReflectionTestUtils.setField(command, "filter", "blob:none");
+        when(remoteCloneService.getCommitHistory(any(), any(), eq("main"), any()))
+                .thenReturn(history(false, commit("c3", "c2", "a3"), commit("c2", null, "a2")));
+        when(remoteCloneService.getObjectSet(any(), any(), eq("c3"), eq(1)))
+                .thenReturn(objectSet(1, true, "a3"));
+
+        command.run();
+
+        assertEquals(Set.of("a3"), Set.copyOf(fetched()));
+        assertEquals("blob:none",
+                Files.readString(targetDir.toPath().resolve(RemoteLazyObjectLoader.PARTIAL_CLONE_MARKER)));
+        // All commits are there, only their blobs are left out
+        assertFalse(ShallowCommits.isShallow(targetDir));
+    }
+
+    @Test
+    void commitsPastTheServerDepthLimitUseSnapshots() {
+        when(remoteCloneService.getCommitHistory(any(), any(), eq("main"), any()))
+                .thenReturn(history(false,
+                        commit("c3", "c2", "a3"), commit("c2", "c1", "a2"), commit("c1", null, "a1")));
+        // The server stopped after two commits
+        when(remoteCloneService.getObjectSet(any(), any(), eq("c3"), eq(3)))
+                .thenReturn(objectSet(2, true, "a3", "a2"));
+
+        command.run();
+
+        assertEquals(Set.of("a3", "a2", "a1"), Set.copyOf(fetched()));
+    }
+
+    @Test
+    void serversWithoutObjectSetsUseSnapshots() {
+        ReflectionTestUtils.setField(command, "depth", 1);
+        when(remoteCloneService.getCommitHistory(any(), any(), eq("main"), eq(1)))
+                .thenReturn(history(true, commit("c3", "c2", "a3")));
+        when(remoteCloneService.getObjectSet(any(), any(), anyString(), anyInt())).thenReturn(null);
+
+        command.run();
+
+        assertEquals(Set.of("a3"), Set.copyOf(fetched()));
+        assertEquals(Set.of("c3"), ShallowCommits.load(targetDir));
+    }
+
+    @Test
+    void interruptedCloneIsResumed() throws Exception {
+        Files.createDirectories(targetDir.toPath().resolve(".vcs/objects"));
+        Files.writeString(targetDir.toPath().resolve(".vcs/clone-in-progress"), "repo@" + REMOTE);
+        when(remoteCloneService.getCommitHistory(any(), any(), eq("main"), any()))
+                .thenReturn(history(false, commit("c3", null, "a3")));
+        when(remoteCloneService.getObjectSet(any(), any(), eq("c3"), eq(1)))
+                .thenReturn(objectSet(1, false, "a3"));
+
+        command.run();
+
+        assertEquals(Set.of("a3"), Set.copyOf(fetched()));
+        assertFalse(new File(targetDir, ".vcs/clone-in-progress").exists());
+        assertTrue(Files.exists(targetDir.toPath().resolve(".vcs/commits/c3.json")));
+    }
+
+    @Test
+    void interruptedCloneOfAnotherRepositoryIsNotResumed() throws Exception {
+        Files.createDirectories(targetDir.toPath().resolve(".vcs/objects"));
+        Files.writeString(targetDir.toPath().resolve(".vcs/clone-in-progress"), "other@" + REMOTE);
+
+        command.run();
+
+        verify(remoteCloneService, never()).getRefs(any(), any());
+        assertEquals("other@" + REMOTE, Files.readString(targetDir.toPath().resolve(".vcs/clone-in-progress")));
+    }
+
+    @Test
+    void missingBlobFailsTheCloneAndKeepsItResumable() throws Exception {
+        when(objectStore.exists(any(File.class), eq("a3"))).thenReturn(false);
+        when(remoteCloneService.getCommitHistory(any(), any(), eq("main"), any()))
+                .thenReturn(history(false, commit("c3", null, "a3")));
+        when(remoteCloneService.getObjectSet(any(), any(), eq("c3"), eq(1)))
+                .thenReturn(objectSet(1, false, "a3"));
+
+        command.run();
+
+        assertFalse(Files.exists(targetDir.toPath().resolve("a.txt")));
+        assertTrue(new File(targetDir, ".vcs/clone-in-progress").exists());
+    }
+
+    @SuppressWarnings("unchecked")
+    private Collection<String> fetched() {
+        ArgumentCaptor<Collection<String>> hashes = ArgumentCaptor.forClass(Collection.class);
+        verify(remoteObjectFetcher).fetchMissing(any(), any(), eq(targetDir), hashes.capture(), anyInt(), any());
+        return hashes.getValue();
+    }
+
+    private static CommitHistoryResponseDto history(boolean hasMore, CommitSnapshotDto... commits) {
+        CommitHistoryResponseDto history = new CommitHistoryResponseDto();
+        history.setCommits(List.of(commits));
+        history.setHasMore(hasMore);
+        return history;
+    }
+
+    private static CommitSnapshotDto commit(String id, String parent, String blob) {
+        CommitSnapshotDto commit = new CommitSnapshotDto();
+        commit.setId(id);
+        commit.setParent(parent);
+        commit.setBranch("main");
+        commit.setMessage("commit " + id);
+        commit.setFiles(Map.of("a.txt", blob));
+        return commit;
+    }
+
+    private static ObjectSetResponseDto objectSet(int commitCount, boolean hasMore, String... hashes) {
+        ObjectSetResponseDto objectSet = new ObjectSetResponseDto();
+        objectSet.setHashes(List.of(hashes));
+        objectSet.setCommitCount(commitCount);
+        objectSet.setHasMore(hasMore);
+        return objectSet;
+    }
+}
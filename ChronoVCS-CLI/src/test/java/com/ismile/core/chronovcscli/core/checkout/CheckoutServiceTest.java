@@ -0,0 +1,242 @@
+package com.ismile.core.chronovcscli.core.checkout;
+
+import com.ismile.core.chronovcscli.core.ignore.IgnoreEngine;
+import com.ismile.core.chronovcscli.core.index.IndexEntry;
+import com.ismile.core.chronovcscli.core.index.impl.IndexEngineImpl;
+import com.ismile.core.chronovcscli.core.objectsStore.ObjectStore;
+import com.ismile.core.chronovcscli.core.pull.LocalCommitReader;
+import com.ismile.core.chronovcscli.core.status.StatusEngine;
+import com.ismile.core.chronovcscli.core.status.StatusResult;
+import com.ismile.core.chronovcscli.remote.dto.CommitSnapshotDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class CheckoutServiceTest {
+
+    // blob hashes, 64 hex digits as in the index
+    private static final String A1 = "a1".repeat(32);
+    private static final String A2 = "a2".repeat(32);
+    private static final String B1 = "b1".repeat(32);
+    private static final String B2 = "b2".repeat(32);
+    private static final String C1 = "c1".repeat(32);
+    private static final String D1 = "d1".repeat(32);
+
+    private static final FileTime OLD = FileTime.fromMillis(1_600_000_000_000L);
+
+    @TempDir
+    Path tempDir;
+
+    private File projectRoot;
+    private LocalCommitReader localCommitReader;
+    private StatusEngine statusEngine;
+    private IndexEngineImpl indexEngine;
+    private ObjectStore objectStore;
+    private CheckoutService checkoutService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        projectRoot = tempDir.toFile();
+        Files.createDirectories(tempDir.resolve(".vcs"));
+
+        localCommitReader = Mockito.mock(LocalCommitReader.class);
+        statusEngine = Mockito.mock(StatusEngine.class);
+        objectStore = Mockito.mock(ObjectStore.class);
+        indexEngine = new IndexEngineImpl();
+
+        when(objectStore.openBlob(eq(projectRoot), anyString()))
+                .thenAnswer(invocation -> new ByteArrayInputStream(content(invocation.getArgument(1))));
+        when(statusEngine.getStatus(projectRoot)).thenReturn(status(List.of(), List.of(), List.of()));
+
+        checkoutService = new CheckoutService(localCommitReader, statusEngine, indexEngine, objectStore,
+                Mockito.mock(IgnoreEngine.class));
+
+        // Checked out state: a.txt@A1, b.txt@B1, dir/c.txt@C1
+        checkedOut("a.txt", A1);
+        checkedOut("b.txt", B1);
+        checkedOut("dir/c.txt", C1);
+        indexEngine.saveIndex(projectRoot);
+    }
+
+    @Test
+    void testWritesAndDeletesOnlyChangedPaths() throws Exception {
+        List<String> changed = checkoutService.updateWorkingTree(projectRoot,
+                commit(Map.of("a.txt", A1, "b.txt", B2, "new/d.txt", D1)), false);
+
+        assertEquals(Set.of("b.txt", "new/d.txt", "dir/c.txt"), new HashSet<>(changed));
+
+        // unchanged file not rewritten
+        assertEquals(OLD, Files.getLastModifiedTime(tempDir.resolve("a.txt")));
+        verify(objectStore, never()).openBlob(projectRoot, A1);
+        verify(objectStore).prefetch(projectRoot, Set.of(B2, D1));
+
+        assertEquals("content of " + B2, read("b.txt"));
+        assertEquals("content of " + D1, read("new/d.txt"));
+        assertFalse(Files.exists(tempDir.resolve("dir/c.txt")));
+        // directory left empty by the deletion is removed
+        assertFalse(Files.exists(tempDir.resolve("dir")));
+    }
+
+    @Test
+    void testIndexMatchesTargetCommit() throws Exception {
+        Map<String, String> target = Map.of("a.txt", A1, "b.txt", B2, "new/d.txt", D1);
+        checkoutService.updateWorkingTree(projectRoot, commit(target), false);
+
+        IndexEngineImpl reopened = new IndexEngineImpl();
+        reopened.loadIndex(projectRoot);
+        assertEquals(target, reopened.getEntries());
+    }
+
+    @Test
+    void testSameCommitWritesNothing() throws Exception {
+        List<String> changed = checkoutService.updateWorkingTree(projectRoot,
+                commit(Map.of("a.txt", A1, "b.txt", B1, "dir/c.txt", C1)), false);
+
+        assertTrue(changed.isEmpty());
+        verify(objectStore, never()).openBlob(any(File.class), anyString());
+    }
+
+    @Test
+    void testUntrackedFilesAreLeftAlone() throws Exception {
+        write("notes.txt", "my notes");
+        write("dir/scratch.txt", "scratch");
+
+        checkoutService.updateWorkingTree(projectRoot, commit(Map.of("a.txt", A1)), false);
+
+        assertEquals("my notes", read("notes.txt"));
+        // dir/ still holds an untracked file, so only the tracked one goes
+        assertEquals("scratch", read("dir/scratch.txt"));
+        assertFalse(Files.exists(tempDir.resolve("dir/c.txt")));
+        assertFalse(Files.exists(tempDir.resolve("b.txt")));
+    }
+
+    @Test
+    void testWithoutForceModifiedFilesAreNotRestored() throws Exception {
+        write("a.txt", "local edit");
+
+        checkoutService.updateWorkingTree(projectRoot,
+                commit(Map.of("a.txt", A1, "b.txt", B1, "dir/c.txt", C1)), false);
+
+        assertEquals("local edit", read("a.txt"));
+        verify(statusEngine, never()).getStatus(any());
+    }
+
+    @Test
+    void testForceRestoresModifiedAndDeletedTrackedFiles() throws Exception {
+        write("a.txt", "local edit");
+        Files.delete(tempDir.resolve("b.txt"));
+        write("notes.txt", "my notes");
+        when(statusEngine.getStatus(projectRoot))
+                .thenReturn(status(List.of("notes.txt"), List.of("a.txt"), List.of("b.txt")));
+
+        List<String> changed = checkoutService.updateWorkingTree(projectRoot,
+                commit(Map.of("a.txt", A1, "b.txt", B1, "dir/c.txt", C1)), true);
+
+        assertEquals(Set.of("a.txt", "b.txt"), new HashSet<>(changed));
+        assertEquals("content of " + A1, read("a.txt"));
+        assertEquals("content of " + B1, read("b.txt"));
+        // clean tracked and untracked files are not touched
+        assertEquals(OLD, Files.getLastModifiedTime(tempDir.resolve("dir/c.txt")));
+        assertEquals("my notes", read("notes.txt"));
+    }
+
+    @Test
+    void testCheckoutRefusesToOverwriteLocalChanges() throws Exception {
+        write("a.txt", "local edit");
+        when(statusEngine.getStatus(projectRoot))
+                .thenReturn(status(List.of(), List.of("a.txt"), List.of()));
+        when(localCommitReader.readCommit(projectRoot, "c2"))
+                .thenReturn(commit(Map.of("a.txt", A2)));
+
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> checkoutService.checkoutCommit(projectRoot, "c2"));
+
+        assertTrue(e.getMessage().contains("a.txt"));
+        assertEquals("local edit", read("a.txt"));
+        assertTrue(Files.exists(tempDir.resolve("b.txt")));
+        verify(objectStore, never()).openBlob(any(File.class), anyString());
+    }
+
+    @Test
+    void testFailedWriteAbortsWithIndexUnchanged() throws Exception {
+        when(objectStore.openBlob(projectRoot, B2)).thenThrow(new IOException("missing blob"));
+
+        IOException e = assertThrows(IOException.class, () -> checkoutService.updateWorkingTree(projectRoot,
+                commit(Map.of("a.txt", A2, "b.txt", B2)), false));
+
+        assertTrue(e.getMessage().contains("b.txt"));
+        IndexEngineImpl reopened = new IndexEngineImpl();
+        reopened.loadIndex(projectRoot);
+        assertEquals(Map.of("a.txt", A1, "b.txt", B1, "dir/c.txt", C1), reopened.getEntries());
+        // The failed file keeps its content, no temporary file is left behind
+        assertEquals("content of " + B1, read("b.txt"));
+        assertFalse(Files.exists(tempDir.resolve("b.txt.checkout.tmp")));
+    }
+
+    @Test
+    void testFailedCheckoutLeavesHeadUnchanged() throws Exception {
+        Files.writeString(tempDir.resolve(".vcs/HEAD"), "ref: refs/heads/main");
+        when(localCommitReader.readCommit(projectRoot, "c2"))
+                .thenReturn(commit(Map.of("a.txt", A1, "b.txt", B2, "dir/c.txt", C1)));
+        when(objectStore.openBlob(projectRoot, B2)).thenThrow(new IOException("missing blob"));
+
+        assertThrows(IOException.class, () -> checkoutService.checkoutCommit(projectRoot, "c2"));
+
+        assertEquals("ref: refs/heads/main", Files.readString(tempDir.resolve(".vcs/HEAD")));
+    }
+
+    private void checkedOut(String path, String hash) throws IOException {
+        Path file = write(path, "content of " + hash);
+        Files.setLastModifiedTime(file, OLD);
+        indexEngine.updateFile(IndexEntry.of(path, hash, file));
+    }
+
+    private Path write(String path, String content) throws IOException {
+        Path file = tempDir.resolve(path);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, content);
+        return file;
+    }
+
+    private String read(String path) throws IOException {
+        return Files.readString(tempDir.resolve(path));
+    }
+
+    private static byte[] content(String hash) {
+        return ("content of " + hash).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static CommitSnapshotDto commit(Map<String, String> files) {
+        CommitSnapshotDto commit = new CommitSnapshotDto();
+        commit.setFiles(files);
+        return commit;
+    }
+
+    private static StatusResult status(List<String> untracked, List<String> modified, List<String> deleted) {
+        return new StatusResult(untracked, modified, deleted);
+    }
+}
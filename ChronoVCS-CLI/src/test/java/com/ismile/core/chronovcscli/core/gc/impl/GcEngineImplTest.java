@@ -0,0 +1,132 @@
+package com.ismile.core.chronovcscli.core.gc.impl;
+
+import com.ismile.core.chronovcscli.core.gc.GcResult;
+import com.ismile.core.chronovcscli.core.hash.impl.Sha256HashEngine;
+import com.ismile.core.chronovcscli.core.ignore.IgnoreParser;
+import com.ismile.core.chronovcscli.core.ignore.impl.IgnoreEngineImpl;
+import com.ismile.core.chronovcscli.core.index.impl.IndexEngineImpl;
+import com.ismile.core.chronovcscli.core.objectsStore.impl.ObjectStoreImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GcEngineImplTest {
+
+    @TempDir
+    Path tempDir;
+
+    private File projectRoot;
+    private ObjectStoreImpl objectStore;
+    private GcEngineImpl gcEngine;
+
+    @BeforeEach
+    void setUp() {
+        projectRoot = tempDir.toFile();
+        new File(projectRoot, ".vcs").mkdirs();
+
+        objectStore = new ObjectStoreImpl(new Sha256HashEngine(), new IgnoreEngineImpl(new IgnoreParser()));
+        gcEngine = new GcEngineImpl(objectStore, new IndexEngineImpl());
+    }
+
+    @Test
+    void testPackedObjectsAreReadable() throws IOException {
+        List<String> contents = new ArrayList<>();
+        List<String> hashes = new ArrayList<>();
+        for (int version = 0; version < 5; version++) {
+            String content = text(400, version);
+            contents.add(content);
+            hashes.add(write("file.txt", content));
+        }
+
+        GcResult result = gcEngine.gc(projectRoot);
+
+        assertEquals(5, result.getObjectsPacked());
+        assertEquals(1, result.getPacksWritten());
+        assertTrue(result.getDeltas() > 0, "Versions of the same file should be stored as deltas");
+        assertTrue(result.getPackedBytes() < result.getLooseBytes());
+        assertEquals(0, countLooseObjects());
+
+        for (int i = 0; i < hashes.size(); i++) {
+            String hash = hashes.get(i);
+            byte[] expected = contents.get(i).getBytes(StandardCharsets.UTF_8);
+            assertTrue(objectStore.exists(projectRoot, hash));
+            assertArrayEquals(expected, objectStore.readBlob(projectRoot, hash));
+            assertEquals(expected.length, objectStore.blobSize(projectRoot, hash));
+            try (InputStream in = objectStore.openBlob(projectRoot, hash)) {
+                assertArrayEquals(expected, in.readAllBytes());
+            }
+        }
+        assertFalse(objectStore.exists(projectRoot, new Sha256HashEngine().hashString("missing")));
+    }
+
+    @Test
+    void testGcWithoutLooseObjects() throws IOException {
+        GcResult result = gcEngine.gc(projectRoot);
+
+        assertEquals(0, result.getObjectsPacked());
+        assertEquals(0, result.getPacksWritten());
+    }
+
+    @Test
+    void testSecondPackIsPickedUp() throws IOException {
+        String first = write("a.txt", text(100, 1));
+        gcEngine.gc(projectRoot);
+        assertTrue(objectStore.exists(projectRoot, first));
+
+        String second = write("b.txt", text(100, 2));
+        gcEngine.gc(projectRoot);
+
+        try (Stream<Path> packs = Files.list(tempDir.resolve(".vcs/objects/pack"))) {
+            assertEquals(2, packs.filter(p -> p.toString().endsWith(".idx")).count());
+        }
+        assertArrayEquals(text(100, 1).getBytes(StandardCharsets.UTF_8), objectStore.readBlob(projectRoot, first));
+        assertArrayEquals(text(100, 2).getBytes(StandardCharsets.UTF_8), objectStore.readBlob(projectRoot, second));
+    }
+
+    @Test
+    void testObjectWrittenAgainAfterGcIsNotDuplicated() throws IOException {
+        String hash = write("a.txt", text(100, 1));
+        gcEngine.gc(projectRoot);
+
+        assertEquals(hash, write("a.txt", text(100, 1)));
+        assertEquals(0, countLooseObjects());
+    }
+
+    private String write(String name, String content) throws IOException {
+        File file = new File(projectRoot, name);
+        Files.writeString(file.toPath(), content);
+        return objectStore.writeBlob(file);
+    }
+
+    private long countLooseObjects() throws IOException {
+        try (Stream<Path> files = Files.walk(tempDir.resolve(".vcs/objects"))) {
+            return files.filter(Files::isRegularFile)
+                    .filter(p -> !p.getParent().getFileName().toString().equals("pack"))
+                    .count();
+        }
+    }
+
+    private static String text(int lines, int version) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < lines; i++) {
+            sb.append("line ").append(i);
+            if (i % 50 == version) {
+                sb.append(" edited in version ").append(version);
+            }
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+}
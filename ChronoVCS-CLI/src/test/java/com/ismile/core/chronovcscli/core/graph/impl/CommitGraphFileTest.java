@@ -0,0 +1,146 @@
+package com.ismile.core.chronovcscli.core.graph.impl;
+
+import com.ismile.core.chronovcscli.core.graph.CommitNode;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class CommitGraphFileTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testWriteAndOpenRoundTrip() throws IOException {
+        Path file = tempDir.resolve("commit-graph");
+        List<CommitNode> commits = List.of(
+                new CommitNode("c3", "c2", "c1", "merge", "2024-01-03T00:00:00Z", 3),
+                new CommitNode("c1", null, null, "initial", "2024-01-01T00:00:00Z", 1),
+                new CommitNode("c2", "c1", null, "second", "2024-01-02T00:00:00Z", 2));
+
+        CommitGraphFile.write(file, commits);
+        CommitGraphFile graph = CommitGraphFile.open(file);
+
+        assertEquals(3, graph.size());
+        for (CommitNode commit : commits) {
+            int position = graph.find(commit.getId());
+            assertEquals(commit, graph.node(position));
+            assertEquals(commit.getGeneration(), graph.generation(position));
+        }
+        // records are sorted by id
+        assertEquals("c1", graph.id(0));
+        assertEquals("c3", graph.id(2));
+        assertFalse(Files.exists(tempDir.resolve("commit-graph.lock")));
+    }
+
+    @Test
+    void testFindAbsentId() throws IOException {
+        Path file = tempDir.resolve("commit-graph");
+        CommitGraphFile.write(file, List.of(node("b"), node("d"), node("f")));
+        CommitGraphFile graph = CommitGraphFile.open(file);
+
+        assertEquals(-1, graph.find("a"));
+        assertEquals(-1, graph.find("c"));
+        assertEquals(-1, graph.find("g"));
+        assertEquals(-1, graph.find("bb"));
+        assertEquals(-1, CommitGraphFile.EMPTY.find("b"));
+    }
+
+    @Test
+    void testNullFieldsStayNull() throws IOException {
+        Path file = tempDir.resolve("commit-graph");
+        CommitGraphFile.write(file, List.of(new CommitNode("root", null, null, null, null, 1)));
+
+        CommitNode node = CommitGraphFile.open(file).node(0);
+
+        assertNull(node.getParent());
+        assertNull(node.getMergeParent());
+        assertNull(node.getMessage());
+        assertNull(node.getTimestamp());
+    }
+
+    @Test
+    void testNonAsciiIdsAreSearchable() throws IOException {
+        Path file = tempDir.resolve("commit-graph");
+        List<String> ids = List.of("z", "é", "a", "Ω", "ab", "日本");
+        List<CommitNode> commits = new ArrayList<>();
+        ids.forEach(id -> commits.add(node(id)));
+
+        CommitGraphFile.write(file, commits);
+        CommitGraphFile graph = CommitGraphFile.open(file);
+
+        for (String id : ids) {
+            assertEquals(id, graph.id(graph.find(id)));
+        }
+    }
+
+    @Test
+    void testManyCommits() throws IOException {
+        Path file = tempDir.resolve("commit-graph");
+        List<CommitNode> commits = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            String parent = i > 0 ? "commit-" + (i - 1) : null;
+            commits.add(new CommitNode("commit-" + i, parent, null, "message", "t", i + 1));
+        }
+
+        CommitGraphFile.write(file, commits);
+        CommitGraphFile graph = CommitGraphFile.open(file);
+
+        assertEquals(5000, graph.size());
+        assertEquals(commits.get(1234), graph.node(graph.find("commit-1234")));
+    }
+
+    @Test
+    void testRewriteReplacesFile() throws IOException {
+        Path file = tempDir.resolve("commit-graph");
+        CommitGraphFile.write(file, List.of(node("a")));
+        CommitGraphFile.write(file, List.of(node("a"), node("b")));
+
+        assertEquals(2, CommitGraphFile.open(file).size());
+    }
+
+    @Test
+    void testRejectsForeignFile() throws IOException {
+        Path file = tempDir.resolve("commit-graph");
+        Files.writeString(file, "not a commit graph at all");
+
+        assertThrows(IOException.class, () -> CommitGraphFile.open(file));
+    }
+
+    @Test
+    void testRejectsUnknownVersion() throws IOException {
+        Path file = tempDir.resolve("commit-graph");
+        CommitGraphFile.write(file, List.of(node("a")));
+        byte[] bytes = Files.readAllBytes(file);
+        ByteBuffer.wrap(bytes).putInt(4, 99);
+        Files.write(file, bytes);
+
+        assertThrows(IOException.class, () -> CommitGraphFile.open(file));
+    }
+
+    @Test
+    void testRejectsTruncatedFile() throws IOException {
+        Path file = tempDir.resolve("commit-graph");
+        CommitGraphFile.write(file, List.of(node("a"), node("b"), node("c")));
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, 30));
+
+        assertThrows(IOException.class, () -> CommitGraphFile.open(file));
+    }
+
+    private static CommitNode node(String id) {
+        return new CommitNode(id, null, null, "message " + id, "t", 1);
+    }
+}
@@ -0,0 +1,202 @@
+package com.ismile.core.chronovcscli.core.graph.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ismile.core.chronovcscli.core.commit.CommitModel;
+import com.ismile.core.chronovcscli.core.graph.CommitNode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CommitGraphImplTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private File projectRoot;
+    private Path commits;
+    private CommitGraphImpl commitGraph;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        projectRoot = tempDir.toFile();
+        commits = Files.createDirectories(tempDir.resolve(".vcs/commits"));
+        commitGraph = new CommitGraphImpl();
+
+        // A <- B <- M1 <- D        criss-cross: M1 merges C into B,
+        //  \    \  /                            M2 merges B into C
+        //   \    \/
+        //    \   /\
+        //     C <- M2 <- E
+        // gone <- X <- Y           X's parent is not stored locally
+        commit("A", null, null);
+        commit("B", "A", null);
+        commit("C", "A", null);
+        commit("M1", "B", "C");
+        commit("M2", "C", "B");
+        commit("D", "M1", null);
+        commit("E", "M2", null);
+        commit("X", "gone", null);
+        commit("Y", "X", null);
+    }
+
+    @Test
+    void testGenerationNumbers() throws IOException {
+        commitGraph.update(projectRoot);
+
+        assertEquals(1, commitGraph.get(projectRoot, "A").getGeneration());
+        assertEquals(2, commitGraph.get(projectRoot, "B").getGeneration());
+        assertEquals(2, commitGraph.get(projectRoot, "C").getGeneration());
+        assertEquals(3, commitGraph.get(projectRoot, "M1").getGeneration());
+        assertEquals(3, commitGraph.get(projectRoot, "M2").getGeneration());
+        assertEquals(4, commitGraph.get(projectRoot, "E").getGeneration());
+        // a parent missing locally counts as generation 0
+        assertEquals(1, commitGraph.get(projectRoot, "X").getGeneration());
+        assertEquals(2, commitGraph.get(projectRoot, "Y").getGeneration());
+    }
+
+    @Test
+    void testUpdateWritesGraphFile() throws IOException {
+        commitGraph.update(projectRoot);
+
+        assertTrue(Files.exists(tempDir.resolve(".vcs/commit-graph")));
+        CommitNode merge = commitGraph.get(projectRoot, "M1");
+        assertEquals("B", merge.getParent());
+        assertEquals("C", merge.getMergeParent());
+        assertEquals("commit M1", merge.getMessage());
+    }
+
+    @Test
+    void testGraphFileIsUsedWithoutCommitFiles() throws IOException {
+        commitGraph.update(projectRoot);
+        deleteCommitFiles();
+
+        // a fresh instance has to read everything from .vcs/commit-graph
+        CommitGraphImpl reopened = new CommitGraphImpl();
+        assertEquals("M1", reopened.get(projectRoot, "D").getParent());
+        assertEquals("A", reopened.findMergeBase(projectRoot, "B", "C"));
+    }
+
+    @Test
+    void testCommitWrittenAfterUpdateIsFound() throws IOException {
+        commitGraph.update(projectRoot);
+        commit("F", "D", null);
+
+        CommitNode node = commitGraph.get(projectRoot, "F");
+
+        assertNotNull(node);
+        assertEquals(5, node.getGeneration());
+        // the lookup brought the graph file up to date
+        deleteCommitFiles();
+        assertNotNull(new CommitGraphImpl().get(projectRoot, "F"));
+    }
+
+    @Test
+    void testLookupWithoutGraphFile() throws IOException {
+        CommitNode node = commitGraph.get(projectRoot, "M2");
+
+        assertEquals("C", node.getParent());
+        assertEquals("B", node.getMergeParent());
+        assertNull(commitGraph.get(projectRoot, "unknown"));
+        assertNull(commitGraph.get(projectRoot, null));
+        assertNull(commitGraph.get(projectRoot, "gone"));
+    }
+
+    @Test
+    void testMergeCommitStoredWithoutJsonExtension() throws IOException {
+        CommitModel merge = CommitModel.builder().id("M3").parent("D").mergeParent("E").message("merge").build();
+        objectMapper.writeValue(commits.resolve("M3").toFile(), merge);
+
+        commitGraph.update(projectRoot);
+
+        CommitNode node = commitGraph.get(projectRoot, "M3");
+        assertEquals("E", node.getMergeParent());
+        assertEquals(5, node.getGeneration());
+    }
+
+    @Test
+    void testMergeBase() throws IOException {
+        commitGraph.update(projectRoot);
+
+        assertEquals("A", commitGraph.findMergeBase(projectRoot, "B", "C"));
+        assertEquals("C", commitGraph.findMergeBase(projectRoot, "D", "C"));
+        assertEquals("M1", commitGraph.findMergeBase(projectRoot, "D", "M1"));
+        assertEquals("D", commitGraph.findMergeBase(projectRoot, "D", "D"));
+    }
+
+    @Test
+    void testCrissCrossMergeBaseIsABestCommonAncestor() throws IOException {
+        commitGraph.update(projectRoot);
+
+        // B and C are both best common ancestors; A is common but not best
+        assertTrue(Set.of("B", "C").contains(commitGraph.findMergeBase(projectRoot, "D", "E")));
+        assertTrue(Set.of("B", "C").contains(commitGraph.findMergeBase(projectRoot, "M1", "M2")));
+    }
+
+    @Test
+    void testMergeBaseOfUnrelatedHistories() throws IOException {
+        commitGraph.update(projectRoot);
+
+        assertNull(commitGraph.findMergeBase(projectRoot, "D", "Y"));
+        assertEquals("X", commitGraph.findMergeBase(projectRoot, "X", "Y"));
+    }
+
+    @Test
+    void testMergeBaseWithoutGraphFile() {
+        assertEquals("A", commitGraph.findMergeBase(projectRoot, "B", "C"));
+        assertTrue(Set.of("B", "C").contains(commitGraph.findMergeBase(projectRoot, "D", "E")));
+    }
+
+    @Test
+    void testUpdateWithoutNewCommitsKeepsFile() throws IOException {
+        commitGraph.update(projectRoot);
+        Path graphFile = tempDir.resolve(".vcs/commit-graph");
+        FileTime old = FileTime.fromMillis(1_600_000_000_000L);
+        Files.setLastModifiedTime(graphFile, old);
+
+        commitGraph.update(projectRoot);
+
+        assertEquals(old, Files.getLastModifiedTime(graphFile));
+    }
+
+    @Test
+    void testUnreadableGraphFileFallsBackToCommitFiles() throws IOException {
+        Files.writeString(tempDir.resolve(".vcs/commit-graph"), "garbage");
+
+        assertEquals("A", commitGraph.findMergeBase(projectRoot, "B", "C"));
+        assertEquals(4, commitGraph.get(projectRoot, "D").getGeneration());
+    }
+
+    private void commit(String id, String parent, String mergeParent) throws IOException {
+        CommitModel commit = CommitModel.builder()
+                .id(id)
+                .parent(parent)
+                .mergeParent(mergeParent)
+                .message("commit " + id)
+                .timestamp("2024-01-01T00:00:00Z")
+                .files(Map.of())
+                .build();
+        objectMapper.writeValue(commits.resolve(id + ".json").toFile(), commit);
+    }
+
+    private void deleteCommitFiles() throws IOException {
+        try (var files = Files.list(commits)) {
+            for (Path file : files.toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package com.ismile.core.chronovcscli.core.ignore.impl;
+
+import com.ismile.core.chronovcscli.core.ignore.IgnoreParser;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class IgnoreEngineImplTest {
+
+    @TempDir
+    Path tempDir;
+
+    private File projectRoot;
+    private IgnoreEngineImpl ignoreEngine;
+
+    @BeforeEach
+    void setUp() {
+        projectRoot = tempDir.toFile();
+        ignoreEngine = new IgnoreEngineImpl(new IgnoreParser());
+    }
+
+    @Test
+    void testNoIgnoreFileIgnoresNothing() {
+        assertFalse(ignored("a.txt"));
+        assertFalse(ignored("src/Main.java"));
+        assertTrue(ignoreEngine.shouldDescend(projectRoot, file("src")));
+    }
+
+    @Test
+    void testCommentsAndBlankLinesAreSkipped() throws IOException {
+        rules("# *.txt", "", "   ", "*.log");
+
+        assertFalse(ignored("a.txt"));
+        assertTrue(ignored("a.log"));
+    }
+
+    @Test
+    void testDirectoryRuleMatchesEverythingBelow() throws IOException {
+        rules("logs/");
+
+        assertTrue(ignored("logs"));
+        assertTrue(ignored("logs/app.log"));
+        assertTrue(ignored("logs/2024/01/app.log"));
+        assertFalse(ignored("logsfile"));
+        assertFalse(ignored("src/logs.txt"));
+    }
+
+    @Test
+    void testLiteralRulesMatchFromProjectRoot() throws IOException {
+        rules("build", "config.local");
+
+        // directory-like names match as a prefix
+        assertTrue(ignored("build"));
+        assertTrue(ignored("build/classes/Main.class"));
+        assertFalse(ignored("builder.txt"));
+        assertFalse(ignored("src/build/Main.class"));
+
+        // names with an extension match exactly
+        assertTrue(ignored("config.local"));
+        assertFalse(ignored("config.local.bak"));
+        assertFalse(ignored("src/config.local"));
+    }
+
+    @Test
+    void testBasenameGlobMatchesAtAnyDepth() throws IOException {
+        rules("*.log");
+
+        assertTrue(ignored("a.log"));
+        assertTrue(ignored("src/deep/dir/b.log"));
+        // a matching parent directory ignores its contents
+        assertTrue(ignored("old.log/inner.txt"));
+        assertFalse(ignored("a.log.txt"));
+    }
+
+    @Test
+    void testAnchoredGlobMatchesOnlyAtRoot() throws IOException {
+        rules("/*.tmp");
+
+        assertTrue(ignored("a.tmp"));
+        assertFalse(ignored("sub/a.tmp"));
+    }
+
+    @Test
+    void testWildcardsStayWithinOneSegment() throws IOException {
+        rules("src/*.class", "file?.txt", "[ab].bin");
+
+        assertTrue(ignored("src/Main.class"));
+        assertFalse(ignored("src/pkg/Main.class"));
+
+        assertTrue(ignored("file1.txt"));
+        assertFalse(ignored("file12.txt"));
+
+        assertTrue(ignored("a.bin"));
+        assertTrue(ignored("b.bin"));
+        assertFalse(ignored("c.bin"));
+    }
+
+    @Test
+    void testDoubleStarCrossesSegments() throws IOException {
+        rules("docs/**/*.pdf", "**/cache", "out/**");
+
+        assertTrue(ignored("docs/a.pdf"));
+        assertTrue(ignored("docs/x/y/a.pdf"));
+        assertFalse(ignored("other/a.pdf"));
+
+        assertTrue(ignored("cache"));
+        assertTrue(ignored("a/cache"));
+        assertTrue(ignored("a/b/cache/entry.bin"));
+        assertFalse(ignored("a/cachex"));
+
+        assertTrue(ignored("out/a.txt"));
+        assertTrue(ignored("out/x/y/z.txt"));
+        assertFalse(ignored("output/a.txt"));
+    }
+
+    @Test
+    void testNegationReincludesEarlierMatch() throws IOException {
+        rules("*.log", "!keep.log");
+
+        assertTrue(ignored("other.log"));
+        assertFalse(ignored("keep.log"));
+    }
+
+    @Test
+    void testLastMatchingRuleWins() throws IOException {
+        rules("!keep.log", "*.log");
+
+        assertTrue(ignored("keep.log"));
+    }
+
+    @Test
+    void testFloatingNegationReincludesAtAnyDepth() throws IOException {
+        rules("*.log", "!important*.log");
+
+        assertFalse(ignored("important.log"));
+        assertFalse(ignored("a/b/important-1.log"));
+        assertTrue(ignored("a/b/debug.log"));
+    }
+
+    @Test
+    void testNegationInsideIgnoredDirectory() throws IOException {
+        rules("build/", "!build/keep.txt");
+
+        assertTrue(ignored("build/other.txt"));
+        assertFalse(ignored("build/keep.txt"));
+        // the walker must still enter build/ to find keep.txt
+        assertTrue(ignoreEngine.shouldDescend(projectRoot, file("build")));
+    }
+
+    @Test
+    void testShouldDescendPrunesIgnoredDirectories() throws IOException {
+        rules("node_modules/", "*.log");
+
+        assertFalse(ignoreEngine.shouldDescend(projectRoot, file("node_modules")));
+        assertFalse(ignoreEngine.shouldDescend(projectRoot, file("old.log")));
+        assertTrue(ignoreEngine.shouldDescend(projectRoot, file("src")));
+    }
+
+    @Test
+    void testFloatingNegationKeepsDescending() throws IOException {
+        rules("node_modules/", "!*.md");
+
+        assertTrue(ignoreEngine.shouldDescend(projectRoot, file("node_modules")));
+        assertFalse(ignored("node_modules/pkg/README.md"));
+        assertTrue(ignored("node_modules/pkg/index.js"));
+    }
+
+    @Test
+    void testRulesArePerProjectRoot() throws IOException {
+        rules("*.log");
+        File otherRoot = Files.createDirectory(tempDir.resolve("other")).toFile();
+        Files.writeString(new File(otherRoot, ".chronoignore").toPath(), "*.txt\n");
+
+        assertTrue(ignoreEngine.isIgnored(projectRoot, file("a.log")));
+        assertFalse(ignoreEngine.isIgnored(otherRoot, new File(otherRoot, "a.log")));
+        assertTrue(ignoreEngine.isIgnored(otherRoot, new File(otherRoot, "a.txt")));
+        assertTrue(ignoreEngine.isIgnored(projectRoot, file("a.log")));
+    }
+
+    private void rules(String... lines) throws IOException {
+        Files.writeString(tempDir.resolve(".chronoignore"), String.join("\n", lines) + "\n");
+    }
+
+    private boolean ignored(String relativePath) {
+        return ignoreEngine.isIgnored(projectRoot, file(relativePath));
+    }
+
+    private File file(String relativePath) {
+        return new File(projectRoot, relativePath);
+    }
+}
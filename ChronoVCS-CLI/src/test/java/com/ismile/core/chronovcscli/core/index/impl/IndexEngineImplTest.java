@@ -0,0 +1,310 @@
+package com.ismile.core.chronovcscli.core.index.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ismile.core.chronovcscli.core.hash.impl.Sha256HashEngine;
+import com.ismile.core.chronovcscli.core.index.IndexEntry;
+import com.ismile.core.chronovcscli.core.index.IndexModel;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IndexEngineImplTest {
+
+    @TempDir
+    Path tempDir;
+
+    private File projectRoot;
+    private IndexEngineImpl indexEngine;
+    private final Sha256HashEngine hashEngine = new Sha256HashEngine();
+
+    @BeforeEach
+    void setUp() {
+        projectRoot = tempDir.toFile();
+        new File(projectRoot, ".vcs").mkdirs();
+        indexEngine = new IndexEngineImpl();
+    }
+
+    @Test
+    void testMissingIndexLoadsEmpty() throws IOException {
+        indexEngine.loadIndex(projectRoot);
+
+        assertTrue(indexEngine.getEntries().isEmpty());
+        assertFalse(Files.exists(tempDir.resolve(".vcs/index")));
+    }
+
+    @Test
+    void testWriteAndReopen() throws IOException {
+        indexEngine.loadIndex(projectRoot);
+        indexEngine.updateFile("src/Main.java", hash("main"));
+        indexEngine.updateFile("README.md", hash("readme"));
+        indexEngine.updateFile("docs/guide ü.md", hash("guide"));
+        indexEngine.saveIndex(projectRoot);
+
+        IndexEngineImpl reopened = new IndexEngineImpl();
+        reopened.loadIndex(projectRoot);
+        Map<String, String> entries = reopened.getEntries();
+
+        assertEquals(3, entries.size());
+        assertEquals(hash("main"), entries.get("src/Main.java"));
+        assertEquals(hash("readme"), entries.get("README.md"));
+        assertEquals(hash("guide"), entries.get("docs/guide ü.md"));
+        assertNull(entries.get("missing.txt"));
+        assertFalse(entries.containsKey("missing.txt"));
+        assertEquals(List.of("README.md", "docs/guide ü.md", "src/Main.java"), new ArrayList<>(entries.keySet()));
+    }
+
+    @Test
+    void testOverlayMergeWithRemovals() throws IOException {
+        indexEngine.loadIndex(projectRoot);
+        indexEngine.updateFile("a.txt", hash("a"));
+        indexEngine.updateFile("b.txt", hash("b"));
+        indexEngine.updateFile("c.txt", hash("c"));
+        indexEngine.saveIndex(projectRoot);
+
+        indexEngine.loadIndex(projectRoot);
+        indexEngine.removeFile("b.txt");
+        indexEngine.updateFile("a.txt", hash("a2"));
+        indexEngine.updateFile("d.txt", hash("d"));
+        indexEngine.updateFile("0.txt", hash("0"));
+        indexEngine.removeFile("0.txt");
+        indexEngine.removeFile("never-staged.txt");
+
+        // The overlay is visible before saving
+        Map<String, String> entries = indexEngine.getEntries();
+        assertEquals(List.of("a.txt", "c.txt", "d.txt"), new ArrayList<>(entries.keySet()));
+        assertEquals(3, entries.size());
+        assertEquals(hash("a2"), entries.get("a.txt"));
+        assertNull(entries.get("b.txt"));
+        assertNull(entries.get("0.txt"));
+
+        indexEngine.saveIndex(projectRoot);
+        IndexEngineImpl reopened = new IndexEngineImpl();
+        reopened.loadIndex(projectRoot);
+
+        assertEquals(Map.of("a.txt", hash("a2"), "c.txt", hash("c"), "d.txt", hash("d")),
+                Map.copyOf(reopened.getEntries()));
+        assertEquals(List.of("a.txt", "c.txt", "d.txt"), new ArrayList<>(reopened.getEntries().keySet()));
+    }
+
+    @Test
+    void testRemoveEverything() throws IOException {
+        indexEngine.loadIndex(projectRoot);
+        indexEngine.updateFile("a.txt", hash("a"));
+        indexEngine.saveIndex(projectRoot);
+
+        indexEngine.removeFile("a.txt");
+        indexEngine.saveIndex(projectRoot);
+
+        IndexEngineImpl reopened = new IndexEngineImpl();
+        reopened.loadIndex(projectRoot);
+        assertTrue(reopened.getEntries().isEmpty());
+    }
+
+    @Test
+    void testLoadDiscardsUnsavedChanges() throws IOException {
+        indexEngine.loadIndex(projectRoot);
+        indexEngine.updateFile("a.txt", hash("a"));
+        indexEngine.saveIndex(projectRoot);
+
+        indexEngine.updateFile("b.txt", hash("b"));
+        indexEngine.loadIndex(projectRoot);
+
+        assertEquals(List.of("a.txt"), new ArrayList<>(indexEngine.getEntries().keySet()));
+    }
+
+    @Test
+    void testMigratesLegacyJsonIndex() throws IOException {
+        Path tracked = tempDir.resolve("tracked.txt");
+        Files.writeString(tracked, "tracked");
+        setModified(tracked, Instant.now().minus(1, ChronoUnit.HOURS));
+        IndexEntry stat = IndexEntry.of("tracked.txt", hash("tracked"), tracked);
+
+        IndexModel legacy = new IndexModel();
+        legacy.getFiles().put("tracked.txt", hash("tracked"));
+        legacy.getFiles().put("other.txt", hash("other"));
+        legacy.getStats().put("tracked.txt", stat);
+        // stat data for an outdated hash is not trusted
+        legacy.getStats().put("other.txt", IndexEntry.of("other.txt", hash("older"), tracked));
+        Path legacyFile = tempDir.resolve(".vcs/index.json");
+        new ObjectMapper().writeValue(legacyFile.toFile(), legacy);
+
+        indexEngine.loadIndex(projectRoot);
+
+        assertFalse(Files.exists(legacyFile), "index.json should be removed after migration");
+        assertTrue(Files.exists(tempDir.resolve(".vcs/index")));
+        assertEquals(Map.of("tracked.txt", hash("tracked"), "other.txt", hash("other")),
+                Map.copyOf(indexEngine.getEntries()));
+
+        IndexEngineImpl reopened = new IndexEngineImpl();
+        reopened.loadIndex(projectRoot);
+        assertEquals(2, reopened.getEntries().size());
+        assertTrue(reopened.isUpToDate(IndexEntry.of("tracked.txt", hash("tracked"), tracked)));
+        assertFalse(reopened.isUpToDate(IndexEntry.of("other.txt", hash("other"), tracked)));
+    }
+
+    @Test
+    void testMigratesLegacyJsonIndexWithoutStats() throws IOException {
+        Path legacyFile = tempDir.resolve(".vcs/index.json");
+        Files.writeString(legacyFile, "{\"files\":{\"a.txt\":\"" + hash("a") + "\"}}");
+
+        indexEngine.loadIndex(projectRoot);
+
+        assertEquals(Map.of("a.txt", hash("a")), Map.copyOf(indexEngine.getEntries()));
+        assertFalse(Files.exists(legacyFile));
+    }
+
+    @Test
+    void testUnchangedFileIsUpToDate() throws IOException {
+        Path file = tempDir.resolve("file.txt");
+        Files.writeString(file, "content");
+        setModified(file, Instant.now().minus(1, ChronoUnit.HOURS));
+
+        indexEngine.loadIndex(projectRoot);
+        indexEngine.updateFile(IndexEntry.of("file.txt", hash("content"), file));
+        indexEngine.saveIndex(projectRoot);
+
+        IndexEngineImpl reopened = new IndexEngineImpl();
+        reopened.loadIndex(projectRoot);
+        assertTrue(reopened.isUpToDate(IndexEntry.of("file.txt", hash("content"), file)));
+
+        Files.writeString(file, "changed content");
+        setModified(file, Instant.now().minus(1, ChronoUnit.HOURS));
+        assertFalse(reopened.isUpToDate(IndexEntry.of("file.txt", hash("content"), file)));
+    }
+
+    @Test
+    void testEntryWithoutStatIsNeverUpToDate() throws IOException {
+        Path file = tempDir.resolve("file.txt");
+        Files.writeString(file, "content");
+        setModified(file, Instant.now().minus(1, ChronoUnit.HOURS));
+
+        indexEngine.loadIndex(projectRoot);
+        indexEngine.updateFile("file.txt", hash("content"));
+        indexEngine.saveIndex(projectRoot);
+
+        assertFalse(indexEngine.isUpToDate(IndexEntry.of("file.txt", hash("content"), file)));
+        assertFalse(indexEngine.isUpToDate(IndexEntry.of("unknown.txt", null, file)));
+    }
+
+    @Test
+    void testEntryModifiedAfterIndexIsRacy() throws IOException {
+        Path file = tempDir.resolve("file.txt");
+        Files.writeString(file, "content");
+        setModified(file, Instant.now().minus(1, ChronoUnit.HOURS));
+
+        indexEngine.loadIndex(projectRoot);
+        indexEngine.updateFile(IndexEntry.of("file.txt", hash("content"), file));
+        indexEngine.saveIndex(projectRoot);
+
+        // Index written before the file's mtime: the file may have changed since it was hashed
+        setModified(tempDir.resolve(".vcs/index"), Instant.now().minus(2, ChronoUnit.HOURS));
+
+        IndexEngineImpl reopened = new IndexEngineImpl();
+        reopened.loadIndex(projectRoot);
+        assertFalse(reopened.isUpToDate(IndexEntry.of("file.txt", hash("content"), file)));
+    }
+
+    @Test
+    void testEntryAsNewAsTheIndexIsRacy() throws IOException {
+        Path file = tempDir.resolve("file.txt");
+        Files.writeString(file, "content");
+        setModified(file, Instant.now().minus(1, ChronoUnit.HOURS));
+        IndexEntry stat = IndexEntry.of("file.txt", hash("content"), file);
+
+        indexEngine.loadIndex(projectRoot);
+        indexEngine.updateFile(stat);
+        indexEngine.saveIndex(projectRoot);
+
+        // Same timestamp tick as the index: a later change could keep size and mtime
+        Files.setLastModifiedTime(tempDir.resolve(".vcs/index"), Files.getLastModifiedTime(file));
+
+        IndexEngineImpl reopened = new IndexEngineImpl();
+        reopened.loadIndex(projectRoot);
+        IndexEntry current = IndexEntry.of("file.txt", hash("content"), file);
+        assertTrue(stat.isSameStat(current));
+        assertFalse(reopened.isUpToDate(current));
+    }
+
+    @Test
+    void testSaveDropsStatOfRacyEntries() throws IOException {
+        // An entry modified in the same tick as (or after) the index write loses its stat data
+        Path file = tempDir.resolve("file.txt");
+        Files.writeString(file, "content");
+        setModified(file, Instant.now().plus(1, ChronoUnit.HOURS));
+        IndexEntry future = IndexEntry.of("file.txt", hash("content"), file);
+
+        indexEngine.loadIndex(projectRoot);
+        indexEngine.updateFile(future);
+        indexEngine.saveIndex(projectRoot);
+
+        // Even once the index is newer than the file, the stat data is gone
+        setModified(tempDir.resolve(".vcs/index"), Instant.now().plus(2, ChronoUnit.HOURS));
+        IndexEngineImpl reopened = new IndexEngineImpl();
+        reopened.loadIndex(projectRoot);
+
+        assertEquals(hash("content"), reopened.getEntries().get("file.txt"));
+        assertFalse(reopened.isUpToDate(IndexEntry.of("file.txt", hash("content"), file)));
+    }
+
+    @Test
+    void testCorruptIndexIsRejected() throws IOException {
+        Files.writeString(tempDir.resolve(".vcs/index"), "not an index");
+
+        assertThrows(IOException.class, () -> indexEngine.loadIndex(projectRoot));
+    }
+
+    @Test
+    void testPathOutsideThePathRegionIsRejected() throws IOException {
+        indexEngine.loadIndex(projectRoot);
+        indexEngine.updateFile("a.txt", hash("a"));
+        indexEngine.updateFile("b.txt", hash("b"));
+        indexEngine.saveIndex(projectRoot);
+
+        // Point the second entry's path past the end of the file
+        Path indexFile = tempDir.resolve(".vcs/index");
+        byte[] bytes = Files.readAllBytes(indexFile);
+        int pathsOffset = ByteBuffer.wrap(bytes).getInt(12);
+        int secondEntry = 16 + (pathsOffset - 16) / 2;
+        ByteBuffer.wrap(bytes).putInt(secondEntry, bytes.length);
+        Files.write(indexFile, bytes);
+
+        IOException e = assertThrows(IOException.class, () -> new IndexEngineImpl().loadIndex(projectRoot));
+        assertTrue(e.getMessage().contains("entry 1"), e.getMessage());
+    }
+
+    @Test
+    void testSaveReplacesALoadedIndex() throws IOException {
+        indexEngine.loadIndex(projectRoot);
+        indexEngine.updateFile("a.txt", hash("a"));
+        indexEngine.saveIndex(projectRoot);
+
+        // The mapped index is released before the new file is moved over it
+        indexEngine.updateFile("b.txt", hash("b"));
+        indexEngine.saveIndex(projectRoot);
+        indexEngine.loadIndex(projectRoot);
+
+        assertEquals(Map.of("a.txt", hash("a"), "b.txt", hash("b")), indexEngine.getEntries());
+    }
+
+    private String hash(String content) {
+        return hashEngine.hashString(content);
+    }
+
+    private static void setModified(Path file, Instant time) throws IOException {
+        Files.setLastModifiedTime(file, FileTime.from(time));
+    }
+}
@@ -12,6 +12,8 @@ import org.junit.jupiter.api.io.TempDir;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 
@@ -120,4 +122,76 @@ public class ObjectStoreImplTest {
         assertEquals(hash1, hash2);
         assertEquals(lastModified, blobFile.lastModified(), "Blob file should not have been modified.");
     }
+
+    @Test
+    void testLooseObjectIsStoredCompressed() throws IOException {
+        File testFile = new File(projectRoot, "large.txt");
+        String content = "the same line again and again\n".repeat(4096);
+        Files.writeString(testFile.toPath(), content);
+
+        String hash = objectStore.writeBlob(testFile);
+
+        File blobFile = new File(projectRoot, ".vcs/objects/" + hash.substring(0, 2) + "/" + hash.substring(2));
+        assertTrue(blobFile.length() < content.length() / 10, "Loose object should be deflated");
+        assertEquals(content, new String(objectStore.readBlob(hash), StandardCharsets.UTF_8));
+        assertEquals(content.length(), objectStore.blobSize(hash));
+        try (InputStream in = objectStore.openBlob(hash)) {
+            assertEquals(content, new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void testLegacyRawLooseObjectIsReadable() throws IOException {
+        // Objects written before compression are the raw file content
+        String content = "raw content from an older version";
+        String hash = hashEngine.hashString(content);
+        Path blobFile = tempDir.resolve(".vcs/objects/" + hash.substring(0, 2) + "/" + hash.substring(2));
+        Files.createDirectories(blobFile.getParent());
+        Files.writeString(blobFile, content);
+
+        assertTrue(objectStore.exists(hash));
+        assertEquals(content, new String(objectStore.readBlob(hash), StandardCharsets.UTF_8));
+        assertEquals(content.length(), objectStore.blobSize(hash));
+        try (InputStream in = objectStore.openBlob(hash)) {
+            assertEquals(content, new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void testEmptyLegacyLooseObjectIsReadable() throws IOException {
+        String hash = hashEngine.hashString("");
+        Path blobFile = tempDir.resolve(".vcs/objects/" + hash.substring(0, 2) + "/" + hash.substring(2));
+        Files.createDirectories(blobFile.getParent());
+        Files.write(blobFile, new byte[0]);
+
+        assertArrayEquals(new byte[0], objectStore.readBlob(hash));
+        assertEquals(0, objectStore.blobSize(hash));
+    }
+
+    @Test
+    void testWriteBlobWithContentRoundTrip() throws IOException {
+        byte[] content = "fetched from the server".getBytes(StandardCharsets.UTF_8);
+        String hash = hashEngine.hashBytes(content);
+
+        objectStore.writeBlob(projectRoot, hash, content);
+
+        assertArrayEquals(content, objectStore.readBlob(projectRoot, hash));
+        assertEquals(content.length, objectStore.blobSize(projectRoot, hash));
+    }
+
+    @Test
+    void testUnreadablePackIsSkipped() throws IOException {
+        File testFile = new File(projectRoot, "test.txt");
+        Files.writeString(testFile.toPath(), "hello world");
+        String hash = objectStore.writeBlob(testFile);
+
+        Path packDir = tempDir.resolve(".vcs/objects/pack");
+        Files.createDirectories(packDir);
+        Files.writeString(packDir.resolve("pack-broken.idx"), "garbage");
+        Files.writeString(packDir.resolve("pack-broken.pack"), "garbage");
+
+        assertTrue(objectStore.exists(hash));
+        assertEquals("hello world", new String(objectStore.readBlob(hash), StandardCharsets.UTF_8));
+        assertFalse(objectStore.exists(hashEngine.hashString("missing")));
+    }
 }
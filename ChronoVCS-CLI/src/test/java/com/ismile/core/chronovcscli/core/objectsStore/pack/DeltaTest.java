@@ -0,0 +1,98 @@
+package com.ismile.core.chronovcscli.core.objectsStore.pack;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DeltaTest {
+
+    @Test
+    void testRoundTripWithEditsInTheMiddle() throws IOException {
+        byte[] base = lines(0, 200);
+        String target = new String(base, StandardCharsets.UTF_8)
+                .replace("line 50\n", "line fifty, changed\n")
+                .replace("line 120\n", "");
+        byte[] targetBytes = target.getBytes(StandardCharsets.UTF_8);
+
+        byte[] delta = Delta.encode(base, targetBytes, targetBytes.length);
+
+        assertNotNull(delta);
+        assertTrue(delta.length < targetBytes.length / 4, "Mostly copies, delta should be small");
+        assertArrayEquals(targetBytes, Delta.apply(base, delta));
+    }
+
+    @Test
+    void testRoundTripWithPrefixAndSuffixAdded() throws IOException {
+        byte[] base = lines(0, 100);
+        byte[] target = concat("header\n".getBytes(StandardCharsets.UTF_8), base,
+                "footer\n".getBytes(StandardCharsets.UTF_8));
+
+        byte[] delta = Delta.encode(base, target, target.length);
+
+        assertNotNull(delta);
+        assertArrayEquals(target, Delta.apply(base, delta));
+    }
+
+    @Test
+    void testRoundTripWithIdenticalContent() throws IOException {
+        byte[] base = lines(0, 100);
+
+        byte[] delta = Delta.encode(base, base.clone(), base.length);
+
+        assertNotNull(delta);
+        assertArrayEquals(base, Delta.apply(base, delta));
+    }
+
+    @Test
+    void testUnrelatedContentExceedsBudget() {
+        Random random = new Random(7);
+        byte[] base = new byte[4096];
+        byte[] target = new byte[4096];
+        random.nextBytes(base);
+        random.nextBytes(target);
+
+        assertNull(Delta.encode(base, target, target.length / 2));
+    }
+
+    @Test
+    void testInputsShorterThanABlockAreNotEncoded() {
+        assertNull(Delta.encode("short".getBytes(StandardCharsets.UTF_8), lines(0, 10), 1024));
+        assertNull(Delta.encode(lines(0, 10), "short".getBytes(StandardCharsets.UTF_8), 1024));
+    }
+
+    @Test
+    void testApplyRejectsWrongBase() throws IOException {
+        byte[] base = lines(0, 100);
+        byte[] target = lines(0, 101);
+        byte[] delta = Delta.encode(base, target, target.length);
+        assertNotNull(delta);
+
+        assertThrows(IOException.class, () -> Delta.apply(lines(0, 50), delta));
+    }
+
+    private static byte[] lines(int from, int to) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = from; i < to; i++) {
+            sb.append("line ").append(i).append('\n');
+        }
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] concat(byte[]... parts) {
+        int length = 0;
+        for (byte[] part : parts) {
+            length += part.length;
+        }
+        byte[] out = new byte[length];
+        int position = 0;
+        for (byte[] part : parts) {
+            System.arraycopy(part, 0, out, position, part.length);
+            position += part.length;
+        }
+        return out;
+    }
+}
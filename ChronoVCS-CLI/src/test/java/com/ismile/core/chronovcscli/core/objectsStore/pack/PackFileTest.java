@@ -0,0 +1,200 @@
+package com.ismile.core.chronovcscli.core.objectsStore.pack;
+
+import com.ismile.core.chronovcscli.core.hash.impl.Sha256HashEngine;
+import com.ismile.core.chronovcscli.utils.HashUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.DeflaterOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+public class PackFileTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final Sha256HashEngine hashEngine = new Sha256HashEngine();
+
+    @Test
+    void testFullAndDeltaEntriesRoundTrip() throws IOException {
+        byte[] base = text(300, "");
+        byte[] target = text(300, "line 150 changed\n");
+        byte[] small = "tiny".getBytes(StandardCharsets.UTF_8);
+        String baseHash = hashEngine.hashBytes(base);
+        String targetHash = hashEngine.hashBytes(target);
+        String smallHash = hashEngine.hashBytes(small);
+
+        Path index;
+        try (PackWriter writer = new PackWriter(tempDir)) {
+            long baseOffset = writer.writeFull(baseHash, new ByteArrayInputStream(base), base.length);
+            byte[] delta = Delta.encode(base, target, target.length);
+            assertNotNull(delta);
+            writer.writeDelta(targetHash, target.length, baseOffset, delta);
+            writer.writeFull(smallHash, new ByteArrayInputStream(small), small.length);
+            index = writer.finish();
+        }
+
+        try (PackFile pack = PackFile.open(index)) {
+            assertEquals(3, pack.getObjectCount());
+            assertTrue(Files.exists(pack.getPackPath()));
+
+            assertArrayEquals(base, pack.read(baseHash));
+            assertArrayEquals(target, pack.read(targetHash));
+            assertArrayEquals(small, pack.read(smallHash));
+
+            assertEquals(base.length, pack.size(baseHash));
+            assertEquals(target.length, pack.size(targetHash));
+
+            try (InputStream in = pack.open(baseHash)) {
+                assertArrayEquals(base, in.readAllBytes());
+            }
+            try (InputStream in = pack.open(targetHash)) {
+                assertArrayEquals(target, in.readAllBytes());
+            }
+        }
+    }
+
+    @Test
+    void testMissingObject() throws IOException {
+        byte[] content = text(10, "");
+        Path index;
+        try (PackWriter writer = new PackWriter(tempDir)) {
+            writer.writeFull(hashEngine.hashBytes(content), new ByteArrayInputStream(content), content.length);
+            index = writer.finish();
+        }
+
+        String missing = hashEngine.hashString("missing");
+        try (PackFile pack = PackFile.open(index)) {
+            assertFalse(pack.contains(missing));
+            assertEquals(-1, pack.size(missing));
+            assertNull(pack.read(missing));
+            assertNull(pack.open(missing));
+            assertFalse(pack.contains("not-a-hash"));
+        }
+    }
+
+    @Test
+    void testEmptyObject() throws IOException {
+        String hash = hashEngine.hashBytes(new byte[0]);
+        Path index;
+        try (PackWriter writer = new PackWriter(tempDir)) {
+            writer.writeFull(hash, new ByteArrayInputStream(new byte[0]), 0);
+            index = writer.finish();
+        }
+
+        try (PackFile pack = PackFile.open(index)) {
+            assertArrayEquals(new byte[0], pack.read(hash));
+            assertEquals(0, pack.size(hash));
+        }
+    }
+
+    @Test
+    void testReadAfterCloseFails() throws IOException {
+        byte[] content = text(10, "");
+        String hash = hashEngine.hashBytes(content);
+        Path index;
+        try (PackWriter writer = new PackWriter(tempDir)) {
+            writer.writeFull(hash, new ByteArrayInputStream(content), content.length);
+            index = writer.finish();
+        }
+
+        PackFile pack = PackFile.open(index);
+        pack.close();
+
+        assertTrue(pack.contains(hash));
+        assertThrows(IOException.class, () -> pack.read(hash));
+    }
+
+    @Test
+    void testUnfinishedWriterLeavesNoFiles() throws IOException {
+        byte[] content = text(10, "");
+        try (PackWriter writer = new PackWriter(tempDir)) {
+            writer.writeFull(hashEngine.hashBytes(content), new ByteArrayInputStream(content), content.length);
+        }
+
+        try (var files = Files.list(tempDir)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    void testEntryBeyondTwoGigabytes() throws IOException {
+        // Relies on sparse files to avoid writing 3 GB
+        assumeTrue(FileSystems.getDefault().supportedFileAttributeViews().contains("unix"));
+
+        byte[] content = text(50, "");
+        byte[] hash = HashUtils.fromHex(hashEngine.hashBytes(content));
+        long offset = 3L << 30;
+
+        ByteArrayOutputStream entry = new ByteArrayOutputStream();
+        DataOutputStream entryOut = new DataOutputStream(entry);
+        entryOut.writeByte(PackFile.TYPE_FULL);
+        entryOut.writeLong(content.length);
+        try (DeflaterOutputStream deflated = new DeflaterOutputStream(entryOut)) {
+            deflated.write(content);
+        }
+
+        Path packPath = tempDir.resolve("pack-large.pack");
+        try (FileChannel channel = FileChannel.open(packPath, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(PackFile.PACK_HEADER_SIZE)
+                    .putInt(PackFile.PACK_MAGIC).putInt(PackFile.VERSION).putInt(1).flip(), 0);
+            channel.write(ByteBuffer.wrap(entry.toByteArray()), offset);
+        }
+
+        ByteArrayOutputStream index = new ByteArrayOutputStream();
+        DataOutputStream indexOut = new DataOutputStream(index);
+        indexOut.writeInt(PackFile.INDEX_MAGIC);
+        indexOut.writeInt(PackFile.VERSION);
+        indexOut.writeInt(1);
+        for (int i = 0; i < 256; i++) {
+            indexOut.writeInt(i >= (hash[0] & 0xFF) ? 1 : 0);
+        }
+        indexOut.write(hash);
+        indexOut.writeLong(offset);
+        Path indexPath = tempDir.resolve("pack-large.idx");
+        Files.write(indexPath, index.toByteArray());
+
+        try (PackFile pack = PackFile.open(indexPath)) {
+            String hex = HashUtils.toHex(hash);
+            assertEquals(content.length, pack.size(hex));
+            assertArrayEquals(content, pack.read(hex));
+            try (InputStream in = pack.open(hex)) {
+                assertArrayEquals(content, in.readAllBytes());
+            }
+        }
+    }
+
+    @Test
+    void testOpenRejectsGarbage() throws IOException {
+        Path index = tempDir.resolve("pack-bad.idx");
+        Files.writeString(index, "not an index");
+        Files.writeString(tempDir.resolve("pack-bad.pack"), "not a pack");
+
+        assertThrows(IOException.class, () -> PackFile.open(index));
+    }
+
+    private static byte[] text(int lines, String extra) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < lines; i++) {
+            sb.append("line ").append(i).append('\n');
+            if (i == lines / 2) {
+                sb.append(extra);
+            }
+        }
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,175 @@
+package com.ismile.core.chronovcscli.core.scan;
+
+import com.ismile.core.chronovcscli.core.ignore.IgnoreEngine;
+import com.ismile.core.chronovcscli.core.ignore.IgnoreParser;
+import com.ismile.core.chronovcscli.core.ignore.impl.IgnoreEngineImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+public class WorkingTreeScannerTest {
+
+    @TempDir
+    Path tempDir;
+
+    private File projectRoot;
+
+    @BeforeEach
+    void setUp() {
+        projectRoot = tempDir.toFile();
+    }
+
+    @Test
+    void testWalkReturnsSortedRegularFiles() throws IOException {
+        write("b.txt");
+        write("a.txt");
+        write("src/main/Main.java");
+        write("src/Util.java");
+        write("z/y/x/deep.txt");
+        Files.createDirectories(tempDir.resolve("empty/dir"));
+
+        try (WorkingTreeScanner scanner = new WorkingTreeScanner(projectRoot, ignoring(), 4)) {
+            assertEquals(List.of("a.txt", "b.txt", "src/Util.java", "src/main/Main.java", "z/y/x/deep.txt"),
+                    relative(scanner, scanner.walk(tempDir)));
+        }
+    }
+
+    @Test
+    void testWalkSkipsVcsDirectory() throws IOException {
+        write("a.txt");
+        write(".vcs/HEAD");
+        write(".vcs/objects/ab/cdef");
+
+        try (WorkingTreeScanner scanner = new WorkingTreeScanner(projectRoot, ignoring(), 2)) {
+            assertEquals(List.of("a.txt"), relative(scanner, scanner.walk(tempDir)));
+        }
+    }
+
+    @Test
+    void testWalkSkipsIgnoredFilesAndPrunesIgnoredDirectories() throws IOException {
+        Files.writeString(tempDir.resolve(".chronoignore"), "node_modules/\n*.log\n");
+        write("app.js");
+        write("debug.log");
+        write("src/trace.log");
+        write("src/index.js");
+        write("node_modules/pkg/index.js");
+
+        IgnoreEngine ignoreEngine = Mockito.spy(new IgnoreEngineImpl(new IgnoreParser()));
+        try (WorkingTreeScanner scanner = new WorkingTreeScanner(projectRoot, ignoreEngine, 4)) {
+            assertEquals(List.of(".chronoignore", "app.js", "src/index.js"),
+                    relative(scanner, scanner.walk(tempDir)));
+        }
+
+        // nothing below a pruned directory is looked at
+        verify(ignoreEngine).shouldDescend(projectRoot, tempDir.resolve("node_modules").toFile());
+        verify(ignoreEngine, never()).shouldDescend(eq(projectRoot), eq(tempDir.resolve("node_modules/pkg").toFile()));
+        verify(ignoreEngine, never()).isIgnored(eq(projectRoot), eq(tempDir.resolve("node_modules/pkg/index.js").toFile()));
+    }
+
+    @Test
+    void testWalkFromSubdirectory() throws IOException {
+        write("a.txt");
+        write("src/b.txt");
+        write("src/c/d.txt");
+
+        try (WorkingTreeScanner scanner = new WorkingTreeScanner(projectRoot, ignoring(), 2)) {
+            assertEquals(List.of("src/b.txt", "src/c/d.txt"), relative(scanner, scanner.walk(tempDir.resolve("src"))));
+        }
+    }
+
+    @Test
+    void testWalkFollowsFileLinksButNotDirectoryLinks() throws IOException {
+        write("a.txt");
+        write("dir/b.txt");
+        Files.createSymbolicLink(tempDir.resolve("link.txt"), tempDir.resolve("a.txt"));
+        Files.createSymbolicLink(tempDir.resolve("linkdir"), tempDir.resolve("dir"));
+        Files.createSymbolicLink(tempDir.resolve("dangling.txt"), tempDir.resolve("missing.txt"));
+
+        try (WorkingTreeScanner scanner = new WorkingTreeScanner(projectRoot, ignoring(), 2)) {
+            assertEquals(List.of("a.txt", "dir/b.txt", "link.txt"), relative(scanner, scanner.walk(tempDir)));
+        }
+    }
+
+    @Test
+    void testMapKeepsInputOrder() throws IOException {
+        List<Path> files = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            files.add(tempDir.resolve("f" + i));
+        }
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+
+        List<String> results;
+        try (WorkingTreeScanner scanner = new WorkingTreeScanner(projectRoot, ignoring(), 4)) {
+            results = scanner.map(files, file -> {
+                threads.add(Thread.currentThread().getName());
+                return file.getFileName().toString();
+            });
+        }
+
+        assertEquals(200, results.size());
+        for (int i = 0; i < 200; i++) {
+            assertEquals("f" + i, results.get(i));
+        }
+        assertTrue(threads.stream().allMatch(name -> name.contains("ForkJoinPool")));
+    }
+
+    @Test
+    void testMapOfNoFiles() throws IOException {
+        try (WorkingTreeScanner scanner = new WorkingTreeScanner(projectRoot, ignoring(), 4)) {
+            assertEquals(List.of(), scanner.map(List.of(), file -> file));
+        }
+    }
+
+    @Test
+    void testMapRethrowsTaskFailure() throws IOException {
+        write("a.txt");
+        List<Path> files = List.of(tempDir.resolve("a.txt"), tempDir.resolve("missing.txt"));
+
+        try (WorkingTreeScanner scanner = new WorkingTreeScanner(projectRoot, ignoring(), 2)) {
+            assertThrows(NoSuchFileException.class, () -> scanner.map(files, Files::readAllBytes));
+        }
+    }
+
+    @Test
+    void testWalkOfMissingDirectoryThrows() {
+        try (WorkingTreeScanner scanner = new WorkingTreeScanner(projectRoot, ignoring(), 2)) {
+            assertThrows(NoSuchFileException.class, () -> scanner.walk(tempDir.resolve("missing")));
+        }
+    }
+
+    private IgnoreEngine ignoring() {
+        IgnoreEngine ignoreEngine = Mockito.mock(IgnoreEngine.class);
+        Mockito.when(ignoreEngine.isIgnored(any(File.class), any(File.class))).thenReturn(false);
+        Mockito.when(ignoreEngine.shouldDescend(any(File.class), any(File.class))).thenReturn(true);
+        return ignoreEngine;
+    }
+
+    private void write(String relativePath) throws IOException {
+        Path file = tempDir.resolve(relativePath);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, relativePath);
+    }
+
+    private List<String> relative(WorkingTreeScanner scanner, List<Path> files) {
+        return files.stream().map(scanner::relativize).toList();
+    }
+}
@@ -3,6 +3,8 @@ package com.ismile.core.chronovcscli.core.status.impl;
 import com.ismile.core.chronovcscli.core.hash.HashEngine;
 import com.ismile.core.chronovcscli.core.ignore.IgnoreEngine;
 import com.ismile.core.chronovcscli.core.index.IndexEngine;
+import com.ismile.core.chronovcscli.core.index.IndexEntry;
+import com.ismile.core.chronovcscli.core.index.impl.IndexEngineImpl;
 import com.ismile.core.chronovcscli.core.objectsStore.ObjectStore;
 import com.ismile.core.chronovcscli.core.status.StatusResult;
 import org.junit.jupiter.api.BeforeEach;
@@ -14,13 +16,19 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class StatusEngineImplTest {
@@ -207,4 +215,84 @@ public class StatusEngineImplTest {
         assertTrue(result.getModified().isEmpty());
         assertTrue(result.getDeleted().isEmpty());
     }
+
+    @Test
+    void testGetStatus_statCacheHitSkipsHashing() throws IOException {
+        Path trackedFilePath = tempDir.resolve("tracked.txt");
+        Files.writeString(trackedFilePath, "tracked content");
+
+        when(indexEngine.getEntries()).thenReturn(Map.of("tracked.txt", "tracked_hash"));
+        when(indexEngine.isUpToDate(any(IndexEntry.class))).thenReturn(true);
+
+        StatusResult result = statusEngine.getStatus(projectRoot);
+
+        assertTrue(result.getModified().isEmpty());
+        verify(hashEngine, never()).hashFile(any(File.class));
+        verify(indexEngine, never()).saveIndex(any(File.class));
+    }
+
+    @Test
+    void testGetStatus_touchedFileRefreshesStatCache() throws IOException {
+        // stat changed but content did not: the new stat data is saved
+        Path trackedFilePath = tempDir.resolve("tracked.txt");
+        Files.writeString(trackedFilePath, "tracked content");
+
+        when(indexEngine.getEntries()).thenReturn(Map.of("tracked.txt", "tracked_hash"));
+        when(indexEngine.isUpToDate(any(IndexEntry.class))).thenReturn(false);
+        when(hashEngine.hashFile(trackedFilePath.toFile())).thenReturn("tracked_hash");
+
+        StatusResult result = statusEngine.getStatus(projectRoot);
+
+        assertTrue(result.getModified().isEmpty());
+        verify(indexEngine).updateFile(Mockito.<IndexEntry>argThat(entry ->
+                entry.getPath().equals("tracked.txt") && entry.getHash().equals("tracked_hash") && entry.hasStat()));
+        verify(indexEngine).saveIndex(projectRoot);
+    }
+
+    @Test
+    void testGetStatus_modifiedFileKeepsStatCache() throws IOException {
+        Path modifiedFilePath = tempDir.resolve("modified.txt");
+        Files.writeString(modifiedFilePath, "new content");
+
+        when(indexEngine.getEntries()).thenReturn(Map.of("modified.txt", "original_hash"));
+        when(hashEngine.hashFile(modifiedFilePath.toFile())).thenReturn("new_hash");
+
+        StatusResult result = statusEngine.getStatus(projectRoot);
+
+        assertEquals(1, result.getModified().size());
+        verify(indexEngine, never()).updateFile(any(IndexEntry.class));
+        verify(indexEngine, never()).saveIndex(any(File.class));
+    }
+
+    @Test
+    void testGetStatus_realIndexOnlyHashesChangedFiles() throws IOException {
+        Files.createDirectories(tempDir.resolve(".vcs"));
+        Instant past = Instant.now().minus(1, ChronoUnit.HOURS);
+        Path unchanged = tempDir.resolve("unchanged.txt");
+        Path changed = tempDir.resolve("changed.txt");
+        Files.writeString(unchanged, "unchanged");
+        Files.writeString(changed, "original");
+        Files.setLastModifiedTime(unchanged, FileTime.from(past));
+        Files.setLastModifiedTime(changed, FileTime.from(past));
+
+        IndexEngineImpl realIndex = new IndexEngineImpl();
+        realIndex.loadIndex(projectRoot);
+        realIndex.updateFile(IndexEntry.of("unchanged.txt", hash('a'), unchanged));
+        realIndex.updateFile(IndexEntry.of("changed.txt", hash('b'), changed));
+        realIndex.saveIndex(projectRoot);
+
+        Files.writeString(changed, "modified content");
+        when(hashEngine.hashFile(changed.toFile())).thenReturn(hash('c'));
+
+        StatusEngineImpl engine = new StatusEngineImpl(ignoreEngine, hashEngine, objectStore, realIndex);
+        StatusResult result = engine.getStatus(projectRoot);
+
+        assertEquals(List.of("changed.txt"), result.getModified());
+        verify(hashEngine, never()).hashFile(unchanged.toFile());
+        verify(hashEngine).hashFile(changed.toFile());
+    }
+
+    private static String hash(char c) {
+        return String.valueOf(c).repeat(64);
+    }
 }
@@ -0,0 +1,94 @@
+package com.ismile.core.chronovcscli.remote;
+
+import com.ismile.core.chronovcscli.auth.CredentialsEntry;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RemoteCloneServiceTest {
+
+    private HttpServer server;
+    private RemoteConfig config;
+    private final CredentialsEntry creds = new CredentialsEntry(null, "uid", "user@example.com", "token");
+    private final RemoteCloneService remoteCloneService = new RemoteCloneService();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.start();
+        config = new RemoteConfig();
+        config.setBaseUrl("http://localhost:" + server.getAddress().getPort());
+        config.setRepoKey("repo");
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void streamFallsBackToPlainBatchOnOlderServers() {
+        server.createContext("/api/repositories/repo/objects/batch/stream", exchange -> respond(exchange, 404, ""));
+        server.createContext("/api/repositories/repo/objects/batch", exchange -> respond(exchange, 200,
+                "{\"objects\":{\"h1\":\"" + base64("one") + "\",\"h2\":\"" + base64("two") + "\"}}"));
+
+        Map<String, String> received = new HashMap<>();
+        remoteCloneService.streamBatchObjects(config, creds, List.of("h1", "h2"),
+                (hash, content) -> received.put(hash, new String(content, StandardCharsets.UTF_8)));
+
+        assertEquals(Map.of("h1", "one", "h2", "two"), received);
+    }
+
+    @Test
+    void streamDecodesNdjson() {
+        server.createContext("/api/repositories/repo/objects/batch/stream", exchange -> respond(exchange, 200,
+                "{\"hash\":\"h1\",\"content\":\"" + base64("one") + "\"}\n"
+                        + "{\"hash\":\"h2\",\"content\":\"" + base64("two") + "\"}\n"));
+
+        Map<String, String> received = new HashMap<>();
+        remoteCloneService.streamBatchObjects(config, creds, List.of("h1", "h2"),
+                (hash, content) -> received.put(hash, new String(content, StandardCharsets.UTF_8)));
+
+        assertEquals(Map.of("h1", "one", "h2", "two"), received);
+    }
+
+    @Test
+    void handlerFailureFailsTheStream() {
+        server.createContext("/api/repositories/repo/objects/batch/stream", exchange -> respond(exchange, 200,
+                "{\"hash\":\"h1\",\"content\":\"" + base64("one") + "\"}\n"));
+
+        RuntimeException e = assertThrows(RuntimeException.class,
+                () -> remoteCloneService.streamBatchObjects(config, creds, List.of("h1"), (hash, content) -> {
+                    throw new IOException("Corrupt object from remote");
+                }));
+
+        assertTrue(e.getMessage().contains("Corrupt object"));
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        exchange.getRequestBody().readAllBytes();
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(status, bytes.length == 0 ? -1 : bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static String base64(String content) {
+        return Base64.getEncoder().encodeToString(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
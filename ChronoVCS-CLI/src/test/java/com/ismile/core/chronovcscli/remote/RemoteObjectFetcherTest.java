@@ -0,0 +1,138 @@
+package com.ismile.core.chronovcscli.remote;
+
+import com.ismile.core.chronovcscli.auth.CredentialsEntry;
+import com.ismile.core.chronovcscli.core.hash.HashEngine;
+import com.ismile.core.chronovcscli.core.hash.impl.Sha256HashEngine;
+import com.ismile.core.chronovcscli.core.objectsStore.ObjectStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RemoteObjectFetcherTest {
+
+    private final HashEngine hashEngine = new Sha256HashEngine();
+    private final RemoteConfig config = new RemoteConfig();
+    private final CredentialsEntry creds = new CredentialsEntry("http://localhost:8080", "uid", "user@example.com", "token");
+
+    @TempDir
+    Path tempDir;
+
+    private File projectRoot;
+    private RemoteCloneService remoteCloneService;
+    private ObjectStore objectStore;
+    private RemoteObjectFetcher fetcher;
+
+    private final String a = "a";
+    private final String b = "b";
+    private String hashA;
+    private String hashB;
+
+    @BeforeEach
+    void setUp() {
+        projectRoot = tempDir.toFile();
+        remoteCloneService = Mockito.mock(RemoteCloneService.class);
+        objectStore = Mockito.mock(ObjectStore.class);
+        fetcher = new RemoteObjectFetcher(remoteCloneService, objectStore, hashEngine);
+        hashA = hash(a);
+        hashB = hash(b);
+    }
+
+    @Test
+    void storesVerifiedObjects() throws Exception {
+        remoteReturns(Map.of(hashA, a, hashB, b));
+
+        assertEquals(2, fetcher.fetchMissing(config, creds, projectRoot, List.of(hashA, hashB)));
+
+        verify(objectStore).writeBlob(projectRoot, hashA, bytes(a));
+        verify(objectStore).writeBlob(projectRoot, hashB, bytes(b));
+    }
+
+    @Test
+    void objectsAlreadyStoredAreNotRequested() throws Exception {
+        when(objectStore.exists(projectRoot, hashA)).thenReturn(true);
+        remoteReturns(Map.of(hashB, b));
+
+        assertEquals(1, fetcher.fetchMissing(config, creds, projectRoot, List.of(hashA, hashB)));
+
+        verify(remoteCloneService).streamBatchObjects(any(), any(), eq(List.of(hashB)), any());
+        verify(objectStore, never()).writeBlob(any(File.class), eq(hashA), any());
+    }
+
+    @Test
+    void missingObjectsFailTheDownload() throws Exception {
+        remoteReturns(Map.of(hashA, a));
+
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> fetcher.fetchMissing(config, creds, projectRoot, List.of(hashA, hashB)));
+
+        assertTrue(e.getMessage().contains("1 of 2"));
+        assertTrue(e.getMessage().contains(hashB));
+        // What arrived is kept for the next run
+        verify(objectStore).writeBlob(projectRoot, hashA, bytes(a));
+    }
+
+    @Test
+    void corruptObjectIsRejected() throws Exception {
+        remoteReturns(Map.of(hashA, "not a"));
+
+        RuntimeException e = assertThrows(RuntimeException.class,
+                () -> fetcher.fetchMissing(config, creds, projectRoot, List.of(hashA)));
+
+        assertTrue(e.getMessage().contains("Corrupt object"));
+        verify(objectStore, never()).writeBlob(any(File.class), anyString(), any());
+    }
+
+    @Test
+    void unrequestedObjectIsRejected() throws Exception {
+        remoteReturns(Map.of(hashA, a, hashB, b));
+
+        RuntimeException e = assertThrows(RuntimeException.class,
+                () -> fetcher.fetchMissing(config, creds, projectRoot, List.of(hashA)));
+
+        assertTrue(e.getMessage().contains("unrequested"));
+        verify(objectStore, never()).writeBlob(any(File.class), eq(hashB), any());
+    }
+
+    /**
+     * Stream {@code objects} (hash -> content) for every batch, like the remote would,
+     * surfacing handler failures the way {@link RemoteCloneService#streamBatchObjects} does.
+     */
+    private void remoteReturns(Map<String, String> objects) {
+        doAnswer(invocation -> {
+            RemoteCloneService.BatchObjectHandler handler = invocation.getArgument(3);
+            try {
+                for (Map.Entry<String, String> object : objects.entrySet()) {
+                    handler.handle(object.getKey(), bytes(object.getValue()));
+                }
+            } catch (Exception e) {
+                throw new RuntimeException("Stream batch objects failed: " + e.getMessage(), e);
+            }
+            return null;
+        }).when(remoteCloneService).streamBatchObjects(any(), any(), anyList(), any());
+    }
+
+    private String hash(String content) {
+        return hashEngine.hashBytes(bytes(content));
+    }
+
+    private static byte[] bytes(String content) {
+        return content.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,129 @@
+package com.ismile.core.chronovcscli.remote;
+
+import com.ismile.core.chronovcscli.auth.CredentialsEntry;
+import com.ismile.core.chronovcscli.core.objectsStore.ObjectStore;
+import com.ismile.core.chronovcscli.remote.dto.PushRequestDto;
+import com.ismile.core.chronovcscli.remote.dto.PushResultDto;
+import com.ismile.core.chronovcscli.remote.pack.PushPackFormat;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+class RemotePushServiceTest {
+
+    private HttpServer server;
+    private RemoteConfig config;
+    private ObjectStore objectStore;
+    private RemotePushService remotePushService;
+    private final CredentialsEntry creds = new CredentialsEntry(null, "uid", "user@example.com", "token");
+    private final PushRequestDto header = new PushRequestDto();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.start();
+        config = new RemoteConfig();
+        config.setBaseUrl("http://localhost:" + server.getAddress().getPort());
+        config.setRepoKey("repo");
+
+        objectStore = Mockito.mock(ObjectStore.class);
+        remotePushService = new RemotePushService(objectStore);
+        header.setBranch("main");
+
+        blob("h1", "hello");
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void pushPackStreamsBlobsAsOnePack() throws IOException {
+        blob("h2", "world");
+        AtomicReference<byte[]> received = new AtomicReference<>();
+        server.createContext("/api/repositories/repo/push/pack", exchange -> {
+            received.set(exchange.getRequestBody().readAllBytes());
+            respond(exchange, 200, "{\"branch\":\"main\",\"newHeadCommitId\":\"c1\",\"fastForward\":true}");
+        });
+
+        PushResultDto result = remotePushService.pushPack(config, creds, header, List.of("h1", "h2"));
+
+        assertEquals("c1", result.getNewHeadCommitId());
+        assertTrue(result.isFastForward());
+
+        byte[] pack = received.get();
+        assertArrayEquals(PushPackFormat.MAGIC, Arrays.copyOf(pack, PushPackFormat.MAGIC.length));
+        assertEquals(PushPackFormat.FRAME_END, pack[pack.length - 1]);
+        String text = new String(pack, StandardCharsets.ISO_8859_1);
+        assertTrue(text.indexOf("hello") < text.indexOf("world"));
+    }
+
+    @Test
+    void writerFailureFailsThePushInsteadOfSendingATruncatedPack() throws IOException {
+        when(objectStore.blobSize("h2")).thenReturn(5L);
+        when(objectStore.openBlob("h2")).thenThrow(new IOException("Object h2 is unreadable"));
+        AtomicReference<byte[]> received = new AtomicReference<>();
+        server.createContext("/api/repositories/repo/push/pack", exchange -> {
+            // A completed body here would be the truncated pack
+            received.set(exchange.getRequestBody().readAllBytes());
+            respond(exchange, 200, "{\"branch\":\"main\",\"newHeadCommitId\":\"c1\",\"fastForward\":true}");
+        });
+
+        RuntimeException e = assertThrows(RuntimeException.class,
+                () -> remotePushService.pushPack(config, creds, header, List.of("h1", "h2")));
+
+        assertTrue(causeMentions(e, "Object h2 is unreadable"), e::toString);
+        assertNull(received.get());
+    }
+
+    @Test
+    void serverRejectionIsReported() {
+        server.createContext("/api/repositories/repo/push/pack", exchange -> respond(exchange, 409, "branch moved"));
+
+        RuntimeException e = assertThrows(RuntimeException.class,
+                () -> remotePushService.pushPack(config, creds, header, List.of("h1")));
+
+        assertTrue(e.getMessage().contains("409"));
+    }
+
+    private void blob(String hash, String content) throws IOException {
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        when(objectStore.blobSize(hash)).thenReturn((long) bytes.length);
+        when(objectStore.openBlob(hash)).thenAnswer(invocation -> new ByteArrayInputStream(bytes));
+    }
+
+    private static boolean causeMentions(Throwable e, String message) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t.getMessage() != null && t.getMessage().contains(message)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        exchange.getRequestBody().readAllBytes();
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(status, bytes.length == 0 ? -1 : bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
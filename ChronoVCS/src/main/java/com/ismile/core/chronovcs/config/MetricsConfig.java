@@ -0,0 +1,22 @@
+package com.ismile.core.chronovcs.config;
+
+import com.ismile.core.chronovcs.metrics.QueryCountInspector;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Metrics Configuration
+ *
+ * Hooks the SQL statement counter into Hibernate; the counts are recorded
+ * per request by {@link com.ismile.core.chronovcs.metrics.QueryMetricsInterceptor}.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer queryCountCustomizer(QueryCountInspector queryCountInspector) {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, queryCountInspector);
+    }
+}
@@ -0,0 +1,17 @@
+package com.ismile.core.chronovcs.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables @Scheduled jobs
+ *
+ * Used for:
+ * - API abuse detector cleanup
+ * - PAT last-used flush
+ * - File change backfill
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
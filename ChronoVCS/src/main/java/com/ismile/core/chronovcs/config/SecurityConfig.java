@@ -3,6 +3,8 @@ package com.ismile.core.chronovcs.config;
 import com.ismile.core.chronovcs.config.security.ChronoAuthFilter;
 import com.ismile.core.chronovcs.security.PatAuthenticationProvider;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -14,6 +16,8 @@ import org.springframework.security.config.annotation.web.configurers.AbstractHt
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.util.matcher.AndRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
 import org.springframework.web.cors.CorsConfigurationSource;
 
 import java.util.Collections;
@@ -28,6 +32,12 @@ public class SecurityConfig {
     private final ChronoAuthEntryPoint authEntryPoint;
     private final CorsConfigurationSource corsConfigurationSource;
 
+    @Value("${server.port:8080}")
+    private int serverPort;
+
+    @Value("${management.server.port:-1}")
+    private int managementPort;
+
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
         http
@@ -49,6 +59,10 @@ public class SecurityConfig {
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers(HttpMethod.POST, "/api/auth/login", "/api/auth/register", "/api/auth/refresh").permitAll()
                         .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll() // Allow CORS preflight
+                        // Actuator only answers on the internal management port, without a token there
+                        .requestMatchers(new AndRequestMatcher(
+                                EndpointRequest.toAnyEndpoint(), onManagementPort(serverPort, managementPort))).permitAll()
+                        .requestMatchers(EndpointRequest.toAnyEndpoint()).denyAll()
                         .anyRequest().authenticated()
                 )
 
@@ -59,6 +73,16 @@ public class SecurityConfig {
         return http.build();
     }
 
+    /**
+     * Requests received on a separate management port. Never matches when actuator
+     * shares the main port, so it then stays denied.
+     */
+    static RequestMatcher onManagementPort(int serverPort, int managementPort) {
+        return request -> managementPort > 0
+                && managementPort != serverPort
+                && request.getLocalPort() == managementPort;
+    }
+
     @Bean
     public AuthenticationManager authenticationManager() {
         return new ProviderManager(Collections.singletonList(patAuthenticationProvider));
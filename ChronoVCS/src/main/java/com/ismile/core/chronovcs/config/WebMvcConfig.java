@@ -1,5 +1,6 @@
 package com.ismile.core.chronovcs.config;
 
+import com.ismile.core.chronovcs.metrics.QueryMetricsInterceptor;
 import com.ismile.core.chronovcs.security.RateLimitInterceptor;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Configuration;
@@ -11,14 +12,15 @@ import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
  *
  * Registers interceptors for:
  * - Rate limiting
+ * - SQL statement counts per request
  * - Request logging (future)
- * - Performance monitoring (future)
  */
 @Configuration
 @RequiredArgsConstructor
 public class WebMvcConfig implements WebMvcConfigurer {
 
     private final RateLimitInterceptor rateLimitInterceptor;
+    private final QueryMetricsInterceptor queryMetricsInterceptor;
 
     @Override
     public void addInterceptors(InterceptorRegistry registry) {
@@ -29,5 +31,8 @@ public class WebMvcConfig implements WebMvcConfigurer {
                         "/api/auth/register",
                         "/api/auth/refresh"
                 );
+
+        registry.addInterceptor(queryMetricsInterceptor)
+                .addPathPatterns("/api/**");
     }
 }
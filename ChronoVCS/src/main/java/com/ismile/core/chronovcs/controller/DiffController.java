@@ -1,5 +1,6 @@
 package com.ismile.core.chronovcs.controller;
 
+import com.ismile.core.chronovcs.dto.diff.DiffAlgorithm;
 import com.ismile.core.chronovcs.dto.diff.DiffResponse;
 import com.ismile.core.chronovcs.service.auth.AuthenticatedUser;
 import com.ismile.core.chronovcs.service.diff.DiffService;
@@ -38,15 +39,17 @@ public class DiffController {
             @PathVariable String base,
             @PathVariable String head,
             @RequestParam(required = false, defaultValue = "false") boolean patch,
-            @RequestParam(required = false, defaultValue = "false") boolean ignoreWhitespace
+            @RequestParam(required = false, defaultValue = "false") boolean ignoreWhitespace,
+            @RequestParam(required = false) String algorithm
     ) {
-        log.info("Comparing {}...{} in repository {} (patch={}, ignoreWhitespace={})",
-                base, head, repoKey, patch, ignoreWhitespace);
+        DiffAlgorithm diffAlgorithm = DiffAlgorithm.fromValue(algorithm);
+        log.info("Comparing {}...{} in repository {} (patch={}, ignoreWhitespace={}, algorithm={})",
+                base, head, repoKey, patch, ignoreWhitespace, diffAlgorithm);
 
         // Check permissions
         permissionService.assertCanRead(user, repoKey);
 
-        DiffResponse response = diffService.compare(repoKey, base, head, patch, ignoreWhitespace);
+        DiffResponse response = diffService.compare(repoKey, base, head, patch, ignoreWhitespace, diffAlgorithm);
         return ResponseEntity.ok(response);
     }
 
@@ -60,21 +63,23 @@ public class DiffController {
             @PathVariable @Pattern(regexp = "^[a-zA-Z0-9_-]+$", message = "Invalid repository key") String repoKey,
             @PathVariable String commitId,
             @RequestParam(required = false, defaultValue = "false") boolean patch,
-            @RequestParam(required = false, defaultValue = "false") boolean ignoreWhitespace
+            @RequestParam(required = false, defaultValue = "false") boolean ignoreWhitespace,
+            @RequestParam(required = false) String algorithm
     ) {
-        log.info("Getting diff for commit {} in repository {} (patch={}, ignoreWhitespace={})",
-                commitId, repoKey, patch, ignoreWhitespace);
+        DiffAlgorithm diffAlgorithm = DiffAlgorithm.fromValue(algorithm);
+        log.info("Getting diff for commit {} in repository {} (patch={}, ignoreWhitespace={}, algorithm={})",
+                commitId, repoKey, patch, ignoreWhitespace, diffAlgorithm);
 
         // Check permissions
         permissionService.assertCanRead(user, repoKey);
 
-        DiffResponse response = diffService.getCommitDiff(repoKey, commitId, patch, ignoreWhitespace);
+        DiffResponse response = diffService.getCommitDiff(repoKey, commitId, patch, ignoreWhitespace, diffAlgorithm);
         return ResponseEntity.ok(response);
     }
 
     /**
      * Alternative endpoint for compare using query parameters.
-     * GET /api/repositories/{repoKey}/compare?base=main&head=feature&patch=true
+     * GET /api/repositories/{repoKey}/compare?base=main&head=feature&patch=true&algorithm=histogram
      */
     @GetMapping("/compare")
     public ResponseEntity<DiffResponse> compareWithParams(
@@ -83,15 +88,17 @@ public class DiffController {
             @RequestParam String base,
             @RequestParam String head,
             @RequestParam(required = false, defaultValue = "false") boolean patch,
-            @RequestParam(required = false, defaultValue = "false") boolean ignoreWhitespace
+            @RequestParam(required = false, defaultValue = "false") boolean ignoreWhitespace,
+            @RequestParam(required = false) String algorithm
     ) {
-        log.info("Comparing base={} head={} in repository {} (patch={}, ignoreWhitespace={})",
-                base, head, repoKey, patch, ignoreWhitespace);
+        DiffAlgorithm diffAlgorithm = DiffAlgorithm.fromValue(algorithm);
+        log.info("Comparing base={} head={} in repository {} (patch={}, ignoreWhitespace={}, algorithm={})",
+                base, head, repoKey, patch, ignoreWhitespace, diffAlgorithm);
 
         // Check permissions
         permissionService.assertCanRead(user, repoKey);
 
-        DiffResponse response = diffService.compare(repoKey, base, head, patch, ignoreWhitespace);
+        DiffResponse response = diffService.compare(repoKey, base, head, patch, ignoreWhitespace, diffAlgorithm);
         return ResponseEntity.ok(response);
     }
 }
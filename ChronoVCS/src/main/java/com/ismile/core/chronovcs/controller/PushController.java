@@ -4,11 +4,14 @@ import com.ismile.core.chronovcs.dto.push.PushRequestDto;
 import com.ismile.core.chronovcs.dto.push.PushResultDto;
 import com.ismile.core.chronovcs.service.auth.AuthenticatedUser;
 import com.ismile.core.chronovcs.service.versioning.PushService;
+import com.ismile.core.chronovcs.service.versioning.pack.PushPackFormat;
 import com.ismile.core.chronovcs.web.CurrentUser;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.InputStream;
+
 @RestController
 @RequestMapping("/api/repositories")
 @RequiredArgsConstructor
@@ -25,4 +28,17 @@ public class PushController {
         PushResultDto result = pushService.push(user, repoKey, request);
         return ResponseEntity.ok(result);
     }
-}
\ No newline at end of file
+
+    /**
+     * Streaming push: body is a binary pack (see {@link PushPackFormat}).
+     */
+    @PostMapping(value = "/{repoKey}/push/pack", consumes = PushPackFormat.MEDIA_TYPE)
+    public ResponseEntity<PushResultDto> pushPack(
+            @CurrentUser AuthenticatedUser user,
+            @PathVariable String repoKey,
+            InputStream body
+    ) {
+        PushResultDto result = pushService.pushPack(user, repoKey, body);
+        return ResponseEntity.ok(result);
+    }
+}
@@ -3,6 +3,7 @@ package com.ismile.core.chronovcs.controller;
 import com.ismile.core.chronovcs.dto.clone.BatchObjectsRequestDto;
 import com.ismile.core.chronovcs.dto.clone.BatchObjectsResponseDto;
 import com.ismile.core.chronovcs.dto.clone.CommitHistoryResponseDto;
+import com.ismile.core.chronovcs.dto.clone.ObjectSetResponseDto;
 import com.ismile.core.chronovcs.dto.clone.RefsResponseDto;
 import com.ismile.core.chronovcs.dto.handshake.HandshakeResponse;
 import com.ismile.core.chronovcs.dto.push.CommitSnapshotDto;
@@ -22,7 +23,6 @@ import com.ismile.core.chronovcs.dto.permission.RepoPermissionResponseDto;
 import com.ismile.core.chronovcs.dto.permission.RepoPermissionUpdateRequestDto;
 import com.ismile.core.chronovcs.entity.BlobEntity;
 import com.ismile.core.chronovcs.entity.RepoPermissionEntity;
-import com.ismile.core.chronovcs.entity.RepositoryEntity;
 import com.ismile.core.chronovcs.entity.UserEntity;
 import com.ismile.core.chronovcs.service.auth.AuthenticatedUser;
 import com.ismile.core.chronovcs.service.auth.TokenService;
@@ -32,7 +32,6 @@ import com.ismile.core.chronovcs.service.permission.RepoPermissionService;
 import com.ismile.core.chronovcs.service.repository.RepositoryService;
 import com.ismile.core.chronovcs.service.repository.RepositorySettingsService;
 import com.ismile.core.chronovcs.service.repository.RepositoryDeleteService;
-import com.ismile.core.chronovcs.service.storage.BlobStorageService;
 import com.ismile.core.chronovcs.web.CurrentUser;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Pattern;
@@ -43,6 +42,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.ismile.core.chronovcs.repository.UserRepository;
 
@@ -59,7 +59,6 @@ public class RepositoryController {
     private final CloneService cloneService;
     private final RepositorySettingsService repositorySettingsService;
     private final RepositoryDeleteService repositoryDeleteService;
-    private final BlobStorageService blobStorageService;
     private final TokenService tokenService;
     private final UserRepository userRepository;
     private final RepoPermissionService repoPermissionService;
@@ -188,6 +187,19 @@ public class RepositoryController {
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping("/{repoKey}/objects/needed")
+    public ResponseEntity<ObjectSetResponseDto> getObjectSet(
+            @CurrentUser AuthenticatedUser user,
+            @PathVariable String repoKey,
+            @RequestParam(required = false, defaultValue = "main") String branch,
+            @RequestParam(required = false) Integer depth,
+            @RequestParam(required = false) String fromCommit
+    ) {
+        permissionService.assertCanRead(user, repoKey);
+        ObjectSetResponseDto response = cloneService.getObjectSet(repoKey, branch, depth, fromCommit);
+        return ResponseEntity.ok(response);
+    }
+
     @PostMapping("/{repoKey}/objects/batch")
     public ResponseEntity<BatchObjectsResponseDto> getBatchObjects(
             @CurrentUser AuthenticatedUser user,
@@ -199,6 +211,20 @@ public class RepositoryController {
         return ResponseEntity.ok(response);
     }
 
+    @PostMapping(value = "/{repoKey}/objects/batch/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamBatchObjects(
+            @CurrentUser AuthenticatedUser user,
+            @PathVariable String repoKey,
+            @RequestBody BatchObjectsRequestDto request
+    ) {
+        permissionService.assertCanRead(user, repoKey);
+        List<BlobEntity> blobs = cloneService.findBlobs(repoKey, request.getHashes());
+        StreamingResponseBody body = out -> cloneService.writeBatchObjects(repoKey, blobs, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
     @PostMapping("/{repoKey}/tokens/cli")
     public ResponseEntity<CliTokenResponseDto> createCliToken(
             @CurrentUser AuthenticatedUser user,
@@ -313,18 +339,16 @@ public class RepositoryController {
     }
 
     @GetMapping("/{repoKey}/blobs/{hash}")
-    public ResponseEntity<byte[]> getBlob(
+    public ResponseEntity<StreamingResponseBody> getBlob(
             @CurrentUser AuthenticatedUser user,
             @PathVariable String repoKey,
             @PathVariable String hash
     ) {
         permissionService.assertCanRead(user, repoKey);
 
-        RepositoryEntity repository = repositoryService.getByKeyOrThrow(repoKey);
-        BlobEntity blob = blobStorageService.findByHash(repository, hash)
+        BlobEntity blob = cloneService.findBlob(repoKey, hash)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Blob not found"));
 
-        byte[] content = blobStorageService.loadContent(blob);
         MediaType mediaType = MediaType.APPLICATION_OCTET_STREAM;
         if (blob.getContentType() != null && !blob.getContentType().isBlank()) {
             try {
@@ -338,6 +362,7 @@ public class RepositoryController {
         if (blob.getContentSize() != null) {
             builder.contentLength(blob.getContentSize());
         }
-        return builder.body(content);
+        StreamingResponseBody body = out -> cloneService.writeBlob(blob, out);
+        return builder.body(body);
     }
 }
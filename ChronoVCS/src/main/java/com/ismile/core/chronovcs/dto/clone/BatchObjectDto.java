@@ -0,0 +1,19 @@
+package com.ismile.core.chronovcs.dto.clone;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Single line of the streamed batch objects response (NDJSON).
+ * {@code content} is serialized as base64 by Jackson.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchObjectDto {
+    private String hash;
+    private byte[] content;
+}
@@ -0,0 +1,34 @@
+package com.ismile.core.chronovcs.dto.clone;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ObjectSetResponseDto {
+    /**
+     * Distinct blob hashes referenced by the selected commits
+     */
+    private List<String> hashes;
+
+    /**
+     * Sum of the blob sizes in bytes
+     */
+    private long totalSize;
+
+    /**
+     * Number of commits the set was computed from
+     */
+    private int commitCount;
+
+    /**
+     * Whether the history continues past the selected commits
+     */
+    private boolean hasMore;
+}
@@ -28,6 +28,13 @@ public class CompareRequest {
     @Builder.Default
     private boolean includePatch = false;
 
+    /**
+     * Line diff algorithm used for patches.
+     * Default: MYERS
+     */
+    @Builder.Default
+    private DiffAlgorithm algorithm = DiffAlgorithm.MYERS;
+
     /**
      * Maximum number of files to return.
      * Default: 300
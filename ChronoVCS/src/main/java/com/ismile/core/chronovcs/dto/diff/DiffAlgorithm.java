@@ -0,0 +1,32 @@
+package com.ismile.core.chronovcs.dto.diff;
+
+/**
+ * Line diff algorithm used for patches and line statistics.
+ */
+public enum DiffAlgorithm {
+    /**
+     * Minimal edit script (Myers).
+     */
+    MYERS,
+
+    /**
+     * Anchors on the least frequent common lines first (like git --histogram).
+     * Produces more readable hunks on code with many repeated lines.
+     */
+    HISTOGRAM;
+
+    /**
+     * Case-insensitive lookup; null or blank means {@link #MYERS}.
+     */
+    public static DiffAlgorithm fromValue(String value) {
+        if (value == null || value.isBlank()) {
+            return MYERS;
+        }
+        for (DiffAlgorithm algorithm : values()) {
+            if (algorithm.name().equalsIgnoreCase(value.trim())) {
+                return algorithm;
+            }
+        }
+        throw new IllegalArgumentException("Unknown diff algorithm: " + value);
+    }
+}
@@ -66,12 +66,27 @@ public class CommitEntity {
     private String timestamp;
 
     /**
-     * Snapshot of files: JSON serialized map (filename -> blobHash).
+     * Root tree of the snapshot (see {@link TreeEntity}). Null for commits stored
+     * before trees existed, which only have {@link #filesJson}.
+     */
+    @Column(name = "root_tree_hash", length = 64)
+    private String rootTreeHash;
+
+    /**
+     * Legacy snapshot of files: JSON serialized map (filename -> blobHash).
+     * Not written for commits that have a root tree.
      */
     @Lob
-    @Column(name = "files_json", nullable = false)
+    @Column(name = "files_json")
     private String filesJson;
 
+    /**
+     * Whether the file changes of this commit are recorded (see {@link FileChangeEntity}).
+     * Null for commits stored before changes were recorded.
+     */
+    @Column(name = "changes_indexed")
+    private Boolean changesIndexed;
+
     @Column(name = "created_at", nullable = false)
     private LocalDateTime createdAt;
 
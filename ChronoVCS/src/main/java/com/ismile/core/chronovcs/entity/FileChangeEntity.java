@@ -0,0 +1,73 @@
+package com.ismile.core.chronovcs.entity;
+
+import com.ismile.core.chronovcs.dto.diff.ChangeType;
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * One file changed by a commit relative to its parent, with exact line counts.
+ * Written when the commit is stored so file history is a single lookup by path.
+ */
+@Entity
+@Table(
+        name = "chronovcs_file_changes",
+        indexes = {
+                @Index(name = "idx_file_change_repo_path", columnList = "repository_id, path"),
+                @Index(name = "idx_file_change_commit", columnList = "commit_id")
+        },
+        uniqueConstraints = {
+                @UniqueConstraint(name = "uk_file_change_commit_path", columnNames = {"commit_id", "path"})
+        }
+)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FileChangeEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(
+            name = "repository_id",
+            nullable = false,
+            foreignKey = @ForeignKey(name = "fk_file_change_repository")
+    )
+    private RepositoryEntity repository;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(
+            name = "commit_id",
+            nullable = false,
+            foreignKey = @ForeignKey(name = "fk_file_change_commit")
+    )
+    private CommitEntity commit;
+
+    @Column(name = "path", nullable = false, length = 1024)
+    private String path;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "change_type", nullable = false, length = 32)
+    private ChangeType changeType;
+
+    @Column(name = "old_blob_hash", length = 128)
+    private String oldBlobHash;
+
+    @Column(name = "new_blob_hash", length = 128)
+    private String newBlobHash;
+
+    /**
+     * Added lines; null for binary files.
+     */
+    @Column(name = "lines_added")
+    private Integer linesAdded;
+
+    /**
+     * Deleted lines; null for binary files.
+     */
+    @Column(name = "lines_deleted")
+    private Integer linesDeleted;
+}
@@ -0,0 +1,66 @@
+package com.ismile.core.chronovcs.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(
+        name = "chronovcs_trees",
+        indexes = {
+                @Index(name = "idx_tree_repo_hash", columnList = "repository_id, hash")
+        },
+        uniqueConstraints = {
+                @UniqueConstraint(
+                        name = "uk_tree_repo_hash",
+                        columnNames = {"repository_id", "hash"}
+                )
+        }
+)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TreeEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * Repository that owns this tree.
+     */
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(
+            name = "repository_id",
+            nullable = false,
+            foreignKey = @ForeignKey(name = "fk_tree_repository")
+    )
+    private RepositoryEntity repository;
+
+    /**
+     * SHA-256 of the canonical entries JSON, in hex form.
+     */
+    @Column(name = "hash", nullable = false, length = 64)
+    private String hash;
+
+    /**
+     * Direct children of one directory: JSON array of [type, hash, name],
+     * sorted by name. Type is "F" (blob) or "D" (subtree).
+     */
+    @Lob
+    @Column(name = "entries_json", nullable = false)
+    private String entriesJson;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    public void prePersist() {
+        if (createdAt == null) {
+            createdAt = LocalDateTime.now();
+        }
+    }
+}
@@ -1,12 +1,14 @@
 package com.ismile.core.chronovcs.entity;
 
 import jakarta.persistence.*;
+import com.ismile.core.chronovcs.security.PatCacheEvictionListener;
 import lombok.*;
 
 import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
+@EntityListeners(PatCacheEvictionListener.class)
 @Table(
         name = "chronovcs_users", indexes = {
             @Index(name = "idx_user_email", columnList = "email", unique = true),
@@ -1,14 +1,17 @@
 package com.ismile.core.chronovcs.entity;
 
 import jakarta.persistence.*;
+import com.ismile.core.chronovcs.security.PatCacheEvictionListener;
 import lombok.*;
 import org.hibernate.annotations.CreationTimestamp;
 
 import java.time.LocalDateTime;
 
 @Entity
+@EntityListeners(PatCacheEvictionListener.class)
 @Table(name = "chronovcs_user_tokens", indexes = {
-        @Index(name = "idx_token_prefix", columnList = "token_prefix")
+        @Index(name = "idx_token_prefix", columnList = "token_prefix"),
+        @Index(name = "idx_token_digest", columnList = "token_digest", unique = true)
 })
 @Getter
 @Setter
@@ -38,6 +41,14 @@ public class UserTokenEntity {
     @Column(name = "token_prefix", nullable = false, length = 50)
     private String tokenPrefix;
 
+    // Keyed SHA-256 digest of the token for direct lookup; null for tokens not used since it was added
+    @Column(name = "token_digest", length = 64)
+    private String tokenDigest;
+
+    // Fingerprint of the key tokenDigest was made with; a different one means the key was rotated
+    @Column(name = "token_digest_key_id", length = 16)
+    private String tokenDigestKeyId;
+
     // Optional expiration date
     @Column(name = "expires_at")
     private LocalDateTime expiresAt;
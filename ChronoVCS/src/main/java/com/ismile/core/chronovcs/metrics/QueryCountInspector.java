@@ -0,0 +1,41 @@
+package com.ismile.core.chronovcs.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.stereotype.Component;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread while a count is
+ * active. The SQL itself is passed through untouched.
+ */
+@Component
+public class QueryCountInspector implements StatementInspector {
+
+    private static final ThreadLocal<int[]> COUNT = new ThreadLocal<>();
+
+    @Override
+    public String inspect(String sql) {
+        int[] count = COUNT.get();
+        if (count != null) {
+            count[0]++;
+        }
+        return sql;
+    }
+
+    /**
+     * Start counting on the current thread.
+     */
+    public void start() {
+        COUNT.set(new int[1]);
+    }
+
+    /**
+     * Stop counting on the current thread.
+     *
+     * @return statements prepared since {@link #start()}, or -1 if no count was active
+     */
+    public int stop() {
+        int[] count = COUNT.get();
+        COUNT.remove();
+        return count != null ? count[0] : -1;
+    }
+}
@@ -0,0 +1,93 @@
+package com.ismile.core.chronovcs.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Timers and byte counters for the push, clone, diff and storage paths.
+ *
+ * Every meter carries a {@code repository} tag. It holds {@code *} unless
+ * {@code chronovcs.metrics.repository-tag=true}, since the real value exposes every
+ * repository key (private ones included) to whoever can scrape the metrics.
+ */
+@Component
+public class VcsMetrics {
+
+    public static final String PUSH = "chronovcs.push";
+    public static final String PUSH_BYTES = "chronovcs.push.bytes";
+    public static final String CLONE_BATCH = "chronovcs.clone.batch";
+    public static final String CLONE_OBJECTS = "chronovcs.clone.objects";
+    public static final String CLONE_BYTES = "chronovcs.clone.bytes";
+    public static final String DIFF_COMPARE = "chronovcs.diff.compare";
+    public static final String STORAGE = "chronovcs.storage";
+    public static final String STORAGE_BYTES = "chronovcs.storage.bytes";
+
+    private static final String ALL_REPOSITORIES = "*";
+
+    private final MeterRegistry registry;
+    private final boolean repositoryTag;
+
+    // Builders resolved once per name; only the tag lookup happens per call
+    private final Map<String, Meter.MeterProvider<Timer>> timers = new ConcurrentHashMap<>();
+    private final Map<String, Meter.MeterProvider<Counter>> counters = new ConcurrentHashMap<>();
+
+    public VcsMetrics(MeterRegistry registry,
+                      @Value("${chronovcs.metrics.repository-tag:false}") boolean repositoryTag) {
+        this.registry = registry;
+        this.repositoryTag = repositoryTag;
+    }
+
+    @FunctionalInterface
+    public interface Operation<T, E extends Exception> {
+        T run() throws E;
+    }
+
+    /**
+     * Run {@code operation} and record its duration under {@code name},
+     * tagged with the repository, {@code outcome} (success or error) and {@code tags}.
+     */
+    public <T, E extends Exception> T time(String name, String repoKey, Operation<T, E> operation,
+                                           String... tags) throws E {
+        Timer.Sample sample = Timer.start(registry);
+        String outcome = "error";
+        try {
+            T result = operation.run();
+            outcome = "success";
+            return result;
+        } finally {
+            sample.stop(timer(name).withTags(tags(repoKey, tags).and("outcome", outcome)));
+        }
+    }
+
+    /**
+     * Add {@code amount} to the counter {@code name}; no-op for zero.
+     */
+    public void count(String name, String repoKey, long amount, String... tags) {
+        if (amount > 0) {
+            counter(name).withTags(tags(repoKey, tags)).increment(amount);
+        }
+    }
+
+    private Meter.MeterProvider<Timer> timer(String name) {
+        return timers.computeIfAbsent(name, n -> Timer.builder(n).withRegistry(registry));
+    }
+
+    private Meter.MeterProvider<Counter> counter(String name) {
+        return counters.computeIfAbsent(name, n -> Counter.builder(n)
+                .baseUnit(n.endsWith(".bytes") ? "bytes" : null)
+                .withRegistry(registry));
+    }
+
+    private Tags tags(String repoKey, String... tags) {
+        String repository = repositoryTag && repoKey != null ? repoKey : ALL_REPOSITORIES;
+        return Tags.of(tags).and("repository", repository);
+    }
+}
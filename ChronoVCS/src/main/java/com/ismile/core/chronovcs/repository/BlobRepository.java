@@ -4,11 +4,15 @@ import com.ismile.core.chronovcs.entity.BlobEntity;
 import com.ismile.core.chronovcs.entity.RepositoryEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface BlobRepository extends JpaRepository<BlobEntity, Long> {
 
     Optional<BlobEntity> findByRepositoryAndHash(RepositoryEntity repository, String hash);
 
+    List<BlobEntity> findByRepositoryAndHashIn(RepositoryEntity repository, Collection<String> hashes);
+
     void deleteAllByRepository(RepositoryEntity repository);
 }
@@ -2,10 +2,13 @@ package com.ismile.core.chronovcs.repository;
 
 import com.ismile.core.chronovcs.entity.CommitEntity;
 import com.ismile.core.chronovcs.entity.RepositoryEntity;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -13,6 +16,8 @@ public interface CommitRepository extends JpaRepository<CommitEntity, Long> {
 
     Optional<CommitEntity> findByRepositoryAndCommitId(RepositoryEntity repository, String commitId);
 
+    List<CommitEntity> findByRepositoryAndCommitIdIn(RepositoryEntity repository, Collection<String> commitIds);
+
     /**
      * Find all commits with a specific parent commit ID.
      */
@@ -33,5 +38,40 @@ public interface CommitRepository extends JpaRepository<CommitEntity, Long> {
      */
     long countByRepositoryAndBranch(RepositoryEntity repository, String branch);
 
+    /**
+     * Lightweight (commitId, parentCommitId) rows used to build the in-memory commit graph.
+     */
+    @Query("select c.commitId as commitId, c.parentCommitId as parentCommitId "
+            + "from CommitEntity c where c.repository = :repository")
+    List<CommitParentView> findParentLinksByRepository(@Param("repository") RepositoryEntity repository);
+
+    /**
+     * Commit with its repository loaded, for callers outside a persistence context.
+     */
+    @Query("select c from CommitEntity c join fetch c.repository where c.id = :id")
+    Optional<CommitEntity> findWithRepositoryById(@Param("id") Long id);
+
+    /**
+     * Ids of commits whose file changes have not been recorded yet, after {@code afterId}.
+     */
+    @Query("select c.id from CommitEntity c where c.id > :afterId "
+            + "and (c.changesIndexed is null or c.changesIndexed = false) order by c.id")
+    List<Long> findUnindexedIds(@Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * Mark a commit's file changes as recorded unless that already happened.
+     * Returns 0 if another transaction recorded (or is recording) the commit.
+     */
+    @Modifying
+    @Query("update CommitEntity c set c.changesIndexed = true where c.id = :id "
+            + "and (c.changesIndexed is null or c.changesIndexed = false)")
+    int claimForIndexing(@Param("id") Long id);
+
     void deleteAllByRepository(RepositoryEntity repository);
+
+    interface CommitParentView {
+        String getCommitId();
+
+        String getParentCommitId();
+    }
 }
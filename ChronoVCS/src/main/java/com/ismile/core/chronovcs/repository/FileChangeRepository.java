@@ -0,0 +1,22 @@
+package com.ismile.core.chronovcs.repository;
+
+import com.ismile.core.chronovcs.entity.FileChangeEntity;
+import com.ismile.core.chronovcs.entity.RepositoryEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface FileChangeRepository extends JpaRepository<FileChangeEntity, Long> {
+
+    /**
+     * Every recorded change of one path, with its commit.
+     */
+    @Query("select fc from FileChangeEntity fc join fetch fc.commit "
+            + "where fc.repository = :repository and fc.path = :path")
+    List<FileChangeEntity> findByRepositoryAndPath(@Param("repository") RepositoryEntity repository,
+                                                   @Param("path") String path);
+
+    void deleteAllByRepository(RepositoryEntity repository);
+}
@@ -0,0 +1,21 @@
+package com.ismile.core.chronovcs.repository;
+
+import com.ismile.core.chronovcs.entity.RepositoryEntity;
+import com.ismile.core.chronovcs.entity.TreeEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface TreeRepository extends JpaRepository<TreeEntity, Long> {
+
+    List<TreeEntity> findByRepositoryAndHashIn(RepositoryEntity repository, Collection<String> hashes);
+
+    @Query("select t.hash from TreeEntity t where t.repository = :repository and t.hash in :hashes")
+    List<String> findExistingHashes(@Param("repository") RepositoryEntity repository,
+                                    @Param("hashes") Collection<String> hashes);
+
+    void deleteAllByRepository(RepositoryEntity repository);
+}
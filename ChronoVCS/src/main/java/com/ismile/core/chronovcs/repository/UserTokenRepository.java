@@ -2,13 +2,39 @@ package com.ismile.core.chronovcs.repository;
 
 import com.ismile.core.chronovcs.entity.UserTokenEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface UserTokenRepository extends JpaRepository<UserTokenEntity, Long> {
     // Finds all tokens matching a prefix that are not revoked
     List<UserTokenEntity> findByTokenPrefixAndRevokedFalse(String tokenPrefix);
+
+    /**
+     * Non-revoked tokens with this prefix whose digest is missing or was made with another key
+     */
+    @Query("SELECT t FROM UserTokenEntity t WHERE t.tokenPrefix = :prefix AND t.revoked = false "
+            + "AND (t.tokenDigest IS NULL OR t.tokenDigestKeyId IS NULL OR t.tokenDigestKeyId <> :keyId)")
+    List<UserTokenEntity> findStaleDigestCandidates(@Param("prefix") String tokenPrefix,
+                                                    @Param("keyId") String digestKeyId);
     List<UserTokenEntity> findAllByUserIdOrderByCreatedAtDesc(Long userId);
+
+    // Direct lookup by the token's keyed digest (unique)
+    Optional<UserTokenEntity> findByTokenDigestAndRevokedFalse(String tokenDigest);
+
+    /**
+     * Set last-used time for a batch of tokens (coalesced usage flush)
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE UserTokenEntity t SET t.lastUsedAt = :usedAt WHERE t.id IN :ids")
+    int updateLastUsedAt(@Param("ids") Collection<Long> ids, @Param("usedAt") LocalDateTime usedAt);
 }
@@ -16,7 +16,6 @@ import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
 
-import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
 
@@ -28,6 +27,8 @@ public class PatAuthenticationProvider implements AuthenticationProvider {
     private final UserTokenRepository userTokenRepository;
     private final PasswordEncoder passwordEncoder;
     private final PatTokenProvider patTokenProvider;
+    private final PatVerificationCache verificationCache;
+    private final PatUsageRecorder usageRecorder;
 
     @Override
     public Authentication authenticate(Authentication authentication) throws AuthenticationException {
@@ -39,32 +40,62 @@ public class PatAuthenticationProvider implements AuthenticationProvider {
             return null;
         }
 
-        // 2. Find the user by email
+        // 2. Recently verified? No DB access at all
+        String digest = patTokenProvider.digest(rawToken);
+        AuthenticatedUser cached = verificationCache.get(digest, email);
+        if (cached != null) {
+            usageRecorder.record(cached.getTokenId());
+            return authenticated(cached);
+        }
+
+        // 3. Find the user by email
         UserEntity user = userRepository.findByEmailAndActiveTrue(email)
                 .orElseThrow(() -> new BadCredentialsException("User not found or inactive"));
 
-        // 3. Find candidate tokens using the prefix
-        String prefix = patTokenProvider.extractPrefix(rawToken);
-        List<UserTokenEntity> candidates = userTokenRepository.findByTokenPrefixAndRevokedFalse(prefix);
-
-        // 4. Verify the hash
-        UserTokenEntity matchedToken = candidates.stream()
+        // 4. Find the token by its digest, falling back to BCrypt for tokens without a current one
+        UserTokenEntity matchedToken = userTokenRepository.findByTokenDigestAndRevokedFalse(digest)
                 .filter(t -> t.getUser().getId().equals(user.getId()))
                 .filter(UserTokenEntity::isValid)
-                .filter(t -> passwordEncoder.matches(rawToken, t.getTokenHash()))
-                .findFirst()
-                .orElseThrow(() -> new BadCredentialsException("Invalid Personal Access Token"));
+                .orElseGet(() -> matchLegacy(rawToken, digest, user));
 
-        // 5. Update usage stats
-        matchedToken.setLastUsedAt(LocalDateTime.now());
-        userTokenRepository.save(matchedToken);
+        // 5. Update usage stats (flushed in batches)
+        usageRecorder.record(matchedToken.getId());
 
         // 6. Return successful authentication
         // --- DÜZƏLİŞ BURADADIR ---
         // UserEntity-ni AuthenticatedUser DTO-ya çeviririk
         AuthenticatedUser authUser = AuthenticatedUser.fromEntity(user);
         authUser.setTokenId(matchedToken.getId());
+        verificationCache.put(digest, authUser, matchedToken.getExpiresAt());
+
+        return authenticated(authUser);
+    }
+
+    /**
+     * Prefix scan with BCrypt matching, for tokens without a digest of the current key:
+     * created before digests were stored, or digested with a key that has since been
+     * rotated. Tokens already digested with the current key are not candidates, and only
+     * the user's own candidates are BCrypt-checked; a match gets the current digest
+     * stored, so this runs once per token and key.
+     */
+    private UserTokenEntity matchLegacy(String rawToken, String digest, UserEntity user) {
+        String prefix = patTokenProvider.extractPrefix(rawToken);
+        List<UserTokenEntity> candidates =
+                userTokenRepository.findStaleDigestCandidates(prefix, patTokenProvider.digestKeyId());
+
+        UserTokenEntity matchedToken = candidates.stream()
+                .filter(t -> t.getUser().getId().equals(user.getId()))
+                .filter(UserTokenEntity::isValid)
+                .filter(t -> passwordEncoder.matches(rawToken, t.getTokenHash()))
+                .findFirst()
+                .orElseThrow(() -> new BadCredentialsException("Invalid Personal Access Token"));
+
+        matchedToken.setTokenDigest(digest);
+        matchedToken.setTokenDigestKeyId(patTokenProvider.digestKeyId());
+        return userTokenRepository.save(matchedToken);
+    }
 
+    private Authentication authenticated(AuthenticatedUser authUser) {
         return new UsernamePasswordAuthenticationToken(
                 new ChronoUserPrincipal(authUser), // İndi düzgün tipi qəbul edir
                 null,
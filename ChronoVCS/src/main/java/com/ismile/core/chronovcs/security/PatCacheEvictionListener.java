@@ -0,0 +1,40 @@
+package com.ismile.core.chronovcs.security;
+
+import com.ismile.core.chronovcs.entity.UserEntity;
+import com.ismile.core.chronovcs.entity.UserTokenEntity;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA listener on {@link UserEntity} and {@link UserTokenEntity} that evicts cached PAT
+ * verifications when a token is revoked or removed, or its user deactivated or removed,
+ * whichever code path made the change.
+ */
+@Component
+@RequiredArgsConstructor
+public class PatCacheEvictionListener {
+
+    // Looked up lazily: the listener is created while the EntityManagerFactory is being built
+    private final ObjectProvider<PatVerificationCache> verificationCache;
+
+    @PostUpdate
+    public void onUpdate(Object entity) {
+        if (entity instanceof UserEntity user && !user.isActive()) {
+            verificationCache.getObject().invalidateUserAfterCommit(user.getId());
+        } else if (entity instanceof UserTokenEntity token && token.isRevoked()) {
+            verificationCache.getObject().invalidateAfterCommit(token.getId());
+        }
+    }
+
+    @PostRemove
+    public void onRemove(Object entity) {
+        if (entity instanceof UserEntity user) {
+            verificationCache.getObject().invalidateUserAfterCommit(user.getId());
+        } else if (entity instanceof UserTokenEntity token) {
+            verificationCache.getObject().invalidateAfterCommit(token.getId());
+        }
+    }
+}
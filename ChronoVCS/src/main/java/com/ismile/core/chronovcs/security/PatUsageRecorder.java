@@ -0,0 +1,71 @@
+package com.ismile.core.chronovcs.security;
+
+import com.ismile.core.chronovcs.repository.UserTokenRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Coalesces PAT last-used updates
+ *
+ * Authentication only records the use in memory; a scheduled flush writes all tokens
+ * used since the last flush in a few bulk updates instead of one write per request.
+ * Last-used times are stored to the minute.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PatUsageRecorder {
+
+    private final UserTokenRepository userTokenRepository;
+
+    // tokenId -> last use since the previous flush
+    private final Map<Long, LocalDateTime> pending = new ConcurrentHashMap<>();
+
+    public void record(Long tokenId) {
+        pending.put(tokenId, LocalDateTime.now());
+    }
+
+    @Scheduled(fixedDelayString = "${chronovcs.security.pat.last-used-flush-ms:60000}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        // One update per distinct minute, usually one or two per flush
+        Map<LocalDateTime, List<Long>> byMinute = new TreeMap<>();
+        for (Long tokenId : List.copyOf(pending.keySet())) {
+            LocalDateTime usedAt = pending.remove(tokenId);
+            if (usedAt != null) {
+                byMinute.computeIfAbsent(usedAt.truncatedTo(ChronoUnit.MINUTES), m -> new ArrayList<>()).add(tokenId);
+            }
+        }
+
+        int updated = 0;
+        for (Map.Entry<LocalDateTime, List<Long>> batch : byMinute.entrySet()) {
+            try {
+                updated += userTokenRepository.updateLastUsedAt(batch.getValue(), batch.getKey());
+            } catch (RuntimeException e) {
+                // Usage stats are best effort; a newer use recorded meanwhile wins
+                batch.getValue().forEach(id -> pending.putIfAbsent(id, batch.getKey()));
+                log.warn("Failed to flush PAT last-used times: {}", e.getMessage());
+            }
+        }
+        log.debug("Flushed last-used time of {} PATs", updated);
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+}
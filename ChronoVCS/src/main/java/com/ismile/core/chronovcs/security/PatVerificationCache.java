@@ -0,0 +1,126 @@
+package com.ismile.core.chronovcs.security;
+
+import com.ismile.core.chronovcs.service.auth.AuthenticatedUser;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Short-lived cache of verified Personal Access Tokens
+ *
+ * Keyed by the token digest, so repeated requests with the same PAT (e.g. a clone
+ * fetching many batches) skip the token and user lookups.
+ * - Entries live at most ttl-seconds and never past the token's own expiry
+ * - Revoking a token or deactivating its user on this instance evicts immediately
+ *   (see {@link PatCacheEvictionListener}); other instances catch up within the TTL
+ * - Bounded: when full, stale entries are dropped, then everything
+ */
+@Component
+@Slf4j
+public class PatVerificationCache {
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final long ttlMillis;
+    private final int maxEntries;
+
+    public PatVerificationCache(@Value("${chronovcs.security.pat.cache-ttl-seconds:60}") long ttlSeconds,
+                                @Value("${chronovcs.security.pat.cache-max-entries:10000}") int maxEntries) {
+        this.ttlMillis = ttlSeconds * 1000;
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * @return the verified user for this digest and email, or null on a miss
+     */
+    public AuthenticatedUser get(String digest, String email) {
+        if (ttlMillis <= 0) {
+            return null;
+        }
+        Entry entry = entries.get(digest);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.validUntil() <= System.currentTimeMillis()) {
+            entries.remove(digest, entry);
+            return null;
+        }
+        if (!entry.user().getEmail().equals(email)) {
+            return null;
+        }
+        // AuthenticatedUser is mutable; hand out a copy
+        return AuthenticatedUser.builder()
+                .userId(entry.user().getUserId())
+                .userUid(entry.user().getUserUid())
+                .email(entry.user().getEmail())
+                .tokenId(entry.user().getTokenId())
+                .build();
+    }
+
+    public void put(String digest, AuthenticatedUser user, LocalDateTime tokenExpiresAt) {
+        if (ttlMillis <= 0) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        long validUntil = now + ttlMillis;
+        if (tokenExpiresAt != null) {
+            validUntil = Math.min(validUntil,
+                    tokenExpiresAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+        }
+        if (validUntil <= now) {
+            return;
+        }
+        if (entries.size() >= maxEntries) {
+            entries.values().removeIf(e -> e.validUntil() <= now);
+            if (entries.size() >= maxEntries) {
+                log.debug("PAT verification cache full ({} entries), clearing", entries.size());
+                entries.clear();
+            }
+        }
+        entries.put(digest, new Entry(user, validUntil));
+    }
+
+    /**
+     * Evict a token once the surrounding transaction commits, so a concurrent request
+     * cannot re-cache it from the not yet updated row.
+     */
+    public void invalidateAfterCommit(Long tokenId) {
+        afterCommit(() -> invalidate(tokenId));
+    }
+
+    /**
+     * Evict every token of a user once the surrounding transaction commits.
+     */
+    public void invalidateUserAfterCommit(Long userId) {
+        afterCommit(() -> invalidateUser(userId));
+    }
+
+    public void invalidate(Long tokenId) {
+        entries.values().removeIf(e -> tokenId.equals(e.user().getTokenId()));
+    }
+
+    public void invalidateUser(Long userId) {
+        entries.values().removeIf(e -> userId.equals(e.user().getUserId()));
+    }
+
+    private static void afterCommit(Runnable eviction) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    eviction.run();
+                }
+            });
+        }
+        eviction.run();
+    }
+
+    private record Entry(AuthenticatedUser user, long validUntil) {
+    }
+}
@@ -1,16 +1,65 @@
 package com.ismile.core.chronovcs.security.provider;
 
 import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
 import java.security.SecureRandom;
 import java.util.Base64;
+import java.util.HexFormat;
 
 @Component
+@Slf4j
 public class PatTokenProvider {
 
     private static final String PREFIX = "cvcs_";
     private static final SecureRandom RANDOM = new SecureRandom();
+    private static final String DIGEST_ALGORITHM = "HmacSHA256";
+    // Label for deriving the digest key from the JWT secret when no digest key is configured
+    private static final String DIGEST_KEY_LABEL = "chronovcs-pat-digest";
+
+    // Label of the digest key fingerprint stored next to each digest
+    private static final String KEY_ID_LABEL = "chronovcs-pat-digest-key-id";
+
+    private final SecretKeySpec digestKey;
+    // Mac instances are not thread-safe
+    private final ThreadLocal<Mac> mac;
+    private final String digestKeyId;
+
+    public PatTokenProvider(@Value("${chronovcs.security.pat.digest-key:}") String digestKey,
+                            @Value("${chronovcs.security.jwt.secret:}") String jwtSecret) {
+        this.digestKey = initializeKey(digestKey, jwtSecret);
+        this.mac = ThreadLocal.withInitial(this::newMac);
+        this.digestKeyId = digest(KEY_ID_LABEL).substring(0, 16);
+    }
+
+    /**
+     * The configured digest key, or else a key derived from the JWT secret, so the digests
+     * are never keyed with a value that ships with the code.
+     */
+    private static SecretKeySpec initializeKey(String digestKey, String jwtSecret) {
+        if (digestKey != null && !digestKey.isBlank()) {
+            return new SecretKeySpec(digestKey.getBytes(StandardCharsets.UTF_8), DIGEST_ALGORITHM);
+        }
+        if (jwtSecret == null || jwtSecret.isBlank()) {
+            throw new IllegalStateException(
+                    "No PAT digest key configured: set chronovcs.security.pat.digest-key (CHRONOVCS_PAT_DIGEST_KEY)");
+        }
+        log.info("No PAT digest key configured (chronovcs.security.pat.digest-key), deriving it from the JWT secret");
+        try {
+            Mac derive = Mac.getInstance(DIGEST_ALGORITHM);
+            derive.init(new SecretKeySpec(jwtSecret.getBytes(StandardCharsets.UTF_8), DIGEST_ALGORITHM));
+            byte[] key = derive.doFinal(DIGEST_KEY_LABEL.getBytes(StandardCharsets.UTF_8));
+            return new SecretKeySpec(key, DIGEST_ALGORITHM);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 not available", e);
+        }
+    }
 
     /**
      * Generates a random PAT.
@@ -52,4 +101,30 @@ public class PatTokenProvider {
         if (token.length() < 10) return token;
         return token.substring(0, 10);
     }
+
+    /**
+     * Keyed HMAC-SHA256 of the full token, hex encoded.
+     * Unique per token, so it is looked up directly instead of BCrypt-matching prefix candidates.
+     */
+    public String digest(String token) {
+        return HexFormat.of().formatHex(mac.get().doFinal(token.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Fingerprint of the digest key, stored with each digest so tokens digested with an
+     * earlier key can be told apart without revealing the key.
+     */
+    public String digestKeyId() {
+        return digestKeyId;
+    }
+
+    private Mac newMac() {
+        try {
+            Mac instance = Mac.getInstance(DIGEST_ALGORITHM);
+            instance.init(digestKey);
+            return instance;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 not available", e);
+        }
+    }
 }
\ No newline at end of file
@@ -6,6 +6,7 @@ import com.ismile.core.chronovcs.dto.token.TokenSummaryDto;
 import com.ismile.core.chronovcs.entity.UserEntity;
 import com.ismile.core.chronovcs.entity.UserTokenEntity;
 import com.ismile.core.chronovcs.repository.UserTokenRepository;
+import com.ismile.core.chronovcs.security.PatVerificationCache;
 import com.ismile.core.chronovcs.security.provider.PatTokenProvider;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -23,6 +24,7 @@ public class TokenService {
     private final UserTokenRepository userTokenRepository;
     private final PatTokenProvider patTokenProvider;
     private final PasswordEncoder passwordEncoder;
+    private final PatVerificationCache verificationCache;
 
     @Transactional
     public TokenResponse createToken(UserEntity user, CreateTokenRequest request) {
@@ -39,6 +41,8 @@ public class TokenService {
                 .tokenName(request.getTokenName()) // <--- DÜZƏLİŞ: .tokenName() istifadə olunur
                 .tokenHash(hashedToken)
                 .tokenPrefix(tokenPair.getPrefix())
+                .tokenDigest(patTokenProvider.digest(tokenPair.getFullToken()))
+                .tokenDigestKeyId(patTokenProvider.digestKeyId())
                 .revoked(false)
                 .build();
 
@@ -86,6 +90,7 @@ public class TokenService {
         if (!token.isRevoked()) {
             token.setRevoked(true);
             userTokenRepository.save(token);
+            verificationCache.invalidateAfterCommit(tokenId);
         }
     }
 }
@@ -1,6 +1,5 @@
 package com.ismile.core.chronovcs.service.branch;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.ismile.core.chronovcs.dto.branch.*;
 import com.ismile.core.chronovcs.entity.BranchHeadEntity;
 import com.ismile.core.chronovcs.entity.CommitEntity;
@@ -12,9 +11,13 @@ import com.ismile.core.chronovcs.exception.PermissionDeniedException;
 import com.ismile.core.chronovcs.repository.BranchHeadRepository;
 import com.ismile.core.chronovcs.repository.CommitRepository;
 import com.ismile.core.chronovcs.service.auth.AuthenticatedUser;
+import com.ismile.core.chronovcs.service.graph.CommitGraphIndex;
 import com.ismile.core.chronovcs.service.graph.CommitGraphService;
+import com.ismile.core.chronovcs.service.history.FileChangeService;
 import com.ismile.core.chronovcs.service.permission.PermissionService;
 import com.ismile.core.chronovcs.service.repository.RepositoryService;
+import com.ismile.core.chronovcs.service.tree.CommitSnapshotService;
+import com.ismile.core.chronovcs.service.tree.TreeService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -36,7 +39,10 @@ public class BranchService {
     private final RepositoryService repositoryService;
     private final PermissionService permissionService;
     private final CommitGraphService commitGraphService;
-    private final ObjectMapper objectMapper;
+    private final CommitGraphIndex commitGraphIndex;
+    private final CommitSnapshotService commitSnapshotService;
+    private final TreeService treeService;
+    private final FileChangeService fileChangeService;
 
     /**
      * Create a new branch in the repository.
@@ -411,10 +417,10 @@ public class BranchService {
         Map<String, String> mergedFiles;
         try {
             Map<String, String> baseFiles = baseCommit != null
-                    ? objectMapper.readValue(baseCommit.getFilesJson(), Map.class)
+                    ? commitSnapshotService.getFiles(repository, baseCommit)
                     : Map.of();
-            Map<String, String> targetFiles = objectMapper.readValue(targetCommit.getFilesJson(), Map.class);
-            Map<String, String> sourceFiles = objectMapper.readValue(sourceCommit.getFilesJson(), Map.class);
+            Map<String, String> targetFiles = commitSnapshotService.getFiles(repository, targetCommit);
+            Map<String, String> sourceFiles = commitSnapshotService.getFiles(repository, sourceCommit);
 
             mergedFiles = commitGraphService.createMergedSnapshot(baseFiles, targetFiles, sourceFiles);
         } catch (Exception e) {
@@ -435,10 +441,12 @@ public class BranchService {
                     .branch(targetBranchName)
                     .message(mergeMessage)
                     .timestamp(LocalDateTime.now().toString())
-                    .filesJson(objectMapper.writeValueAsString(mergedFiles))
+                    .rootTreeHash(treeService.writeTree(repository, mergedFiles))
                     .build();
 
             commitRepository.save(mergeCommit);
+            commitGraphIndex.recordCommit(repository, mergeCommitId, targetCommitId);
+            fileChangeService.recordChanges(repository, mergeCommit);
 
             // Update target branch HEAD
             targetBranch.setHeadCommitId(mergeCommitId);
@@ -1,9 +1,11 @@
 package com.ismile.core.chronovcs.service.clone;
 
-import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.ismile.core.chronovcs.dto.clone.BatchObjectDto;
 import com.ismile.core.chronovcs.dto.clone.BatchObjectsResponseDto;
 import com.ismile.core.chronovcs.dto.clone.CommitHistoryResponseDto;
+import com.ismile.core.chronovcs.dto.clone.ObjectSetResponseDto;
 import com.ismile.core.chronovcs.dto.clone.RefsResponseDto;
 import com.ismile.core.chronovcs.dto.push.CommitFileEntryDto;
 import com.ismile.core.chronovcs.dto.push.CommitSnapshotDto;
@@ -13,29 +15,62 @@ import com.ismile.core.chronovcs.entity.BlobEntity;
 import com.ismile.core.chronovcs.entity.BranchHeadEntity;
 import com.ismile.core.chronovcs.entity.CommitEntity;
 import com.ismile.core.chronovcs.entity.RepositoryEntity;
+import com.ismile.core.chronovcs.metrics.VcsMetrics;
 import com.ismile.core.chronovcs.repository.BlobRepository;
 import com.ismile.core.chronovcs.repository.BranchHeadRepository;
 import com.ismile.core.chronovcs.repository.CommitRepository;
 import com.ismile.core.chronovcs.repository.RepositoryRepository;
 import com.ismile.core.chronovcs.service.storage.BlobStorageService;
+import com.ismile.core.chronovcs.service.tree.CommitSnapshotService;
+import com.ismile.core.chronovcs.service.tree.TreeEntry;
+import com.ismile.core.chronovcs.service.tree.TreeService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.*;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class CloneService {
 
+    /**
+     * Keeps IN (...) lists well below database parameter limits.
+     */
+    private static final int BLOB_LOOKUP_CHUNK_SIZE = 1000;
+
     private final RepositoryRepository repositoryRepository;
     private final BranchHeadRepository branchHeadRepository;
     private final CommitRepository commitRepository;
     private final BlobRepository blobRepository;
     private final BlobStorageService blobStorageService;
     private final ObjectMapper objectMapper;
+    private final CommitSnapshotService commitSnapshotService;
+    private final TreeService treeService;
+    private final VcsMetrics metrics;
+
+    /**
+     * Maximum number of blobs read from storage concurrently (and held in memory)
+     * while serving batch object requests.
+     */
+    @Value("${chronovcs.clone.read-concurrency:16}")
+    private int readConcurrency;
+
+    /**
+     * Most commits one object set request walks; also used when no depth is given.
+     */
+    @Value("${chronovcs.clone.max-depth:1000}")
+    private int maxDepth;
 
     @Transactional(readOnly = true)
     public RefsResponseDto getRefs(String repoKey) {
@@ -65,7 +100,7 @@ public class CloneService {
         CommitEntity commit = commitRepository.findByRepositoryAndCommitId(repo, commitHash)
                 .orElseThrow(() -> new IllegalArgumentException("Commit not found: " + commitHash));
 
-        return mapToDto(commit, repo.getRepoKey(), true);
+        return mapToDto(commit, repo, true);
     }
 
     @Transactional(readOnly = true)
@@ -73,6 +108,63 @@ public class CloneService {
         RepositoryEntity repo = repositoryRepository.findByRepoKey(repoKey)
                 .orElseThrow(() -> new IllegalArgumentException("Repository not found: " + repoKey));
 
+        int maxLimit = limit != null ? limit : 100;
+        CommitChain chain = firstParentChain(repo, branch, fromCommit, maxLimit);
+
+        List<CommitSnapshotDto> commits = new ArrayList<>(chain.commits().size());
+        for (CommitEntity commit : chain.commits()) {
+            commits.add(mapToDto(commit, repo, false));
+        }
+
+        return CommitHistoryResponseDto.builder()
+                .commits(commits)
+                .hasMore(chain.hasMore())
+                .build();
+    }
+
+    /**
+     * Blobs needed to materialize the newest {@code depth} commits of a branch, computed
+     * here so shallow and partial clones can fetch them without first downloading every
+     * commit snapshot. {@code depth} is capped at {@code chronovcs.clone.max-depth}, which
+     * is also used when it is null; {@code hasMore} tells whether older commits were left out.
+     */
+    @Transactional(readOnly = true)
+    public ObjectSetResponseDto getObjectSet(String repoKey, String branch, Integer depth, String fromCommit) {
+        if (depth != null && depth < 1) {
+            throw new IllegalArgumentException("depth must be at least 1");
+        }
+        RepositoryEntity repo = repositoryRepository.findByRepoKey(repoKey)
+                .orElseThrow(() -> new IllegalArgumentException("Repository not found: " + repoKey));
+
+        int limit = depth != null ? Math.min(depth, maxDepth) : maxDepth;
+        CommitChain chain = firstParentChain(repo, branch, fromCommit, limit);
+
+        Set<String> hashes = new LinkedHashSet<>();
+        for (CommitEntity commit : chain.commits()) {
+            hashes.addAll(commitSnapshotService.getFiles(repo, commit).values());
+        }
+
+        List<BlobEntity> blobs = findBlobs(repoKey, hashes);
+        List<String> found = new ArrayList<>(blobs.size());
+        long totalSize = 0;
+        for (BlobEntity blob : blobs) {
+            found.add(blob.getHash());
+            totalSize += blob.getContentSize() != null ? blob.getContentSize() : 0;
+        }
+
+        return ObjectSetResponseDto.builder()
+                .hashes(found)
+                .totalSize(totalSize)
+                .commitCount(chain.commits().size())
+                .hasMore(chain.hasMore())
+                .build();
+    }
+
+    /**
+     * Up to {@code limit} commits following first parents, starting at {@code fromCommit}
+     * or the head of {@code branch}. Stops early at a missing commit or a cycle.
+     */
+    private CommitChain firstParentChain(RepositoryEntity repo, String branch, String fromCommit, int limit) {
         String startCommitId;
         if (fromCommit != null) {
             startCommitId = fromCommit;
@@ -80,25 +172,17 @@ public class CloneService {
             BranchHeadEntity branchHead = branchHeadRepository.findByRepositoryAndBranch(repo, branch)
                     .orElseThrow(() -> new IllegalArgumentException("Branch not found: " + branch));
             startCommitId = branchHead.getHeadCommitId();
-            if (startCommitId == null) {
-                return CommitHistoryResponseDto.builder()
-                        .commits(Collections.emptyList())
-                        .hasMore(false)
-                        .build();
-            }
         }
 
-        int maxLimit = limit != null ? limit : 100;
-        List<CommitSnapshotDto> commits = new ArrayList<>();
+        List<CommitEntity> chain = new ArrayList<>();
         Set<String> visited = new HashSet<>();
         String currentCommitId = startCommitId;
 
-        while (currentCommitId != null && commits.size() < maxLimit) {
-            if (visited.contains(currentCommitId)) {
+        while (currentCommitId != null && chain.size() < limit) {
+            if (!visited.add(currentCommitId)) {
                 log.warn("Circular commit reference detected at: {}", currentCommitId);
                 break;
             }
-            visited.add(currentCommitId);
 
             Optional<CommitEntity> commitOpt = commitRepository.findByRepositoryAndCommitId(repo, currentCommitId);
             if (commitOpt.isEmpty()) {
@@ -107,45 +191,112 @@ public class CloneService {
             }
 
             CommitEntity commit = commitOpt.get();
-            commits.add(mapToDto(commit, repo.getRepoKey(), false));
-
+            chain.add(commit);
             currentCommitId = commit.getParentCommitId();
         }
+        return new CommitChain(chain, currentCommitId != null);
+    }
 
-        boolean hasMore = currentCommitId != null;
-
-        return CommitHistoryResponseDto.builder()
-                .commits(commits)
-                .hasMore(hasMore)
-                .build();
+    /**
+     * @param hasMore the walk stopped before reaching a root commit
+     */
+    private record CommitChain(List<CommitEntity> commits, boolean hasMore) {
     }
 
     @Transactional(readOnly = true)
     public BatchObjectsResponseDto getBatchObjects(String repoKey, List<String> hashes) {
+        return metrics.time(VcsMetrics.CLONE_BATCH, repoKey, () -> {
+            List<BlobEntity> blobs = findBlobs(repoKey, hashes);
+
+            Map<String, String> objects = new HashMap<>();
+            long[] bytes = new long[1];
+            try {
+                loadBlobs(blobs, (blob, content) -> {
+                    objects.put(blob.getHash(), Base64.getEncoder().encodeToString(content));
+                    bytes[0] += content.length;
+                });
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to load batch objects", e);
+            }
+            recordBatch(repoKey, "json", objects.size(), bytes[0]);
+
+            return BatchObjectsResponseDto.builder()
+                    .objects(objects)
+                    .build();
+        }, "format", "json");
+    }
+
+    /**
+     * Resolve blob metadata for the given hashes with chunked IN queries
+     * instead of one query per hash. Unknown hashes are skipped.
+     */
+    @Transactional(readOnly = true)
+    public List<BlobEntity> findBlobs(String repoKey, Collection<String> hashes) {
         RepositoryEntity repo = repositoryRepository.findByRepoKey(repoKey)
                 .orElseThrow(() -> new IllegalArgumentException("Repository not found: " + repoKey));
 
-        Map<String, String> objects = new HashMap<>();
-
-        for (String hash : hashes) {
-            Optional<BlobEntity> blobOpt = blobRepository.findByRepositoryAndHash(repo, hash);
-            if (blobOpt.isPresent()) {
-                BlobEntity blob = blobOpt.get();
-                try {
-                    byte[] content = blobStorageService.loadContent(blob);
-                    String base64Content = Base64.getEncoder().encodeToString(content);
-                    objects.put(hash, base64Content);
-                } catch (Exception e) {
-                    log.error("Failed to load blob content for hash: {}", hash, e);
-                }
-            } else {
-                log.warn("Blob not found: {}", hash);
-            }
+        if (hashes == null || hashes.isEmpty()) {
+            return Collections.emptyList();
         }
 
-        return BatchObjectsResponseDto.builder()
-                .objects(objects)
-                .build();
+        List<String> distinct = new ArrayList<>(new LinkedHashSet<>(hashes));
+        List<BlobEntity> blobs = new ArrayList<>(distinct.size());
+        for (int i = 0; i < distinct.size(); i += BLOB_LOOKUP_CHUNK_SIZE) {
+            List<String> chunk = distinct.subList(i, Math.min(i + BLOB_LOOKUP_CHUNK_SIZE, distinct.size()));
+            blobs.addAll(blobRepository.findByRepositoryAndHashIn(repo, chunk));
+        }
+
+        if (blobs.size() < distinct.size()) {
+            log.warn("{} of {} requested blobs not found in repository {}",
+                    distinct.size() - blobs.size(), distinct.size(), repoKey);
+        }
+        return blobs;
+    }
+
+    /**
+     * Stream blobs as newline-delimited JSON ({@link BatchObjectDto} per line) in the
+     * order they finish loading. Runs outside of the request transaction, so only the
+     * already loaded storage metadata of {@code blobs} is used.
+     */
+    public void writeBatchObjects(String repoKey, List<BlobEntity> blobs, OutputStream out) throws IOException {
+        metrics.time(VcsMetrics.CLONE_BATCH, repoKey, () -> {
+            SequenceWriter writer = objectMapper.writer()
+                    .withRootValueSeparator("\n")
+                    .writeValues(out);
+
+            long[] written = new long[2];
+            loadBlobs(blobs, (blob, content) -> {
+                writer.write(new BatchObjectDto(blob.getHash(), content));
+                written[0]++;
+                written[1] += content.length;
+            });
+
+            writer.flush();
+            recordBatch(repoKey, "stream", written[0], written[1]);
+            return null;
+        }, "format", "stream");
+    }
+
+    private void recordBatch(String repoKey, String format, long objects, long bytes) {
+        metrics.count(VcsMetrics.CLONE_OBJECTS, repoKey, objects, "format", format);
+        metrics.count(VcsMetrics.CLONE_BYTES, repoKey, bytes, "format", format);
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<BlobEntity> findBlob(String repoKey, String hash) {
+        RepositoryEntity repo = repositoryRepository.findByRepoKey(repoKey)
+                .orElseThrow(() -> new IllegalArgumentException("Repository not found: " + repoKey));
+
+        return blobRepository.findByRepositoryAndHash(repo, hash);
+    }
+
+    /**
+     * Stream blob content straight from storage to the response body.
+     * Runs outside of the request transaction, so only the already loaded
+     * storage metadata of {@code blob} is used.
+     */
+    public long writeBlob(BlobEntity blob, OutputStream out) throws IOException {
+        return blobStorageService.transferContent(blob, out);
     }
 
     @Transactional(readOnly = true)
@@ -163,12 +314,84 @@ public class CloneService {
         CommitEntity commit = commitRepository.findByRepositoryAndCommitId(repo, commitId)
                 .orElseThrow(() -> new IllegalArgumentException("Commit not found: " + commitId));
 
-        Map<String, String> files = parseFilesJson(commit);
-        List<TreeEntryDto> entries = buildTreeEntries(repoKey, files, normalizePath(path));
+        List<TreeEntryDto> entries;
+        if (commit.getRootTreeHash() != null) {
+            entries = buildTreeEntries(repo, commit.getRootTreeHash(), normalizePath(path));
+        } else {
+            Map<String, String> files = commitSnapshotService.getFiles(repo, commit);
+            entries = buildTreeEntries(repoKey, files, normalizePath(path));
+        }
 
         return new TreeResponseDto(repoKey, resolvedRef, commitId, normalizePath(path), entries);
     }
 
+    /**
+     * Read blob contents on virtual threads, keeping at most {@link #readConcurrency}
+     * reads in flight, and hand each result to {@code consumer} on the calling thread
+     * as soon as it is available. Blobs that fail to load are logged and skipped.
+     */
+    private void loadBlobs(List<BlobEntity> blobs, BlobContentConsumer consumer) throws IOException {
+        if (blobs.isEmpty()) {
+            return;
+        }
+
+        int window = Math.max(1, readConcurrency);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            CompletionService<LoadedBlob> completion = new ExecutorCompletionService<>(executor);
+            Iterator<BlobEntity> pending = blobs.iterator();
+            int inFlight = 0;
+
+            while (inFlight < window && pending.hasNext()) {
+                submitLoad(completion, pending.next());
+                inFlight++;
+            }
+
+            while (inFlight > 0) {
+                LoadedBlob loaded = takeLoaded(completion);
+                inFlight--;
+
+                if (pending.hasNext()) {
+                    submitLoad(completion, pending.next());
+                    inFlight++;
+                }
+
+                if (loaded.content() != null) {
+                    consumer.accept(loaded.blob(), loaded.content());
+                }
+            }
+        }
+    }
+
+    private void submitLoad(CompletionService<LoadedBlob> completion, BlobEntity blob) {
+        completion.submit(() -> {
+            try {
+                return new LoadedBlob(blob, blobStorageService.loadContent(blob));
+            } catch (Exception e) {
+                log.error("Failed to load blob content for hash: {}", blob.getHash(), e);
+                return new LoadedBlob(blob, null);
+            }
+        });
+    }
+
+    private LoadedBlob takeLoaded(CompletionService<LoadedBlob> completion) throws IOException {
+        try {
+            return completion.take().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while loading blobs", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Blob load failed", e.getCause());
+        }
+    }
+
+    private record LoadedBlob(BlobEntity blob, byte[] content) {
+    }
+
+    @FunctionalInterface
+    private interface BlobContentConsumer {
+        void accept(BlobEntity blob, byte[] content) throws IOException;
+    }
+
     private String resolveCommitId(RepositoryEntity repo, String ref) {
         if (ref == null || ref.isBlank()) {
             return null;
@@ -187,6 +410,40 @@ public class CloneService {
         throw new IllegalArgumentException("Ref not found: " + ref);
     }
 
+    /**
+     * Entries of one directory, read from the stored trees along the path only.
+     */
+    private List<TreeEntryDto> buildTreeEntries(RepositoryEntity repo, String rootTreeHash, String normalizedPath) {
+        String repoKey = repo.getRepoKey();
+        String prefix = normalizedPath.isEmpty() ? "" : normalizedPath + "/";
+
+        Optional<List<TreeEntry>> directory = treeService.findDirectory(repo, rootTreeHash, normalizedPath);
+        if (directory.isEmpty()) {
+            return treeService.findFile(repo, rootTreeHash, normalizedPath)
+                    .map(file -> List.of(new TreeEntryDto(
+                            file.getName(),
+                            normalizedPath,
+                            "FILE",
+                            file.getHash(),
+                            "/api/repositories/" + repoKey + "/blobs/" + file.getHash()
+                    )))
+                    .orElse(Collections.emptyList());
+        }
+
+        List<TreeEntryDto> result = new ArrayList<>();
+        for (TreeEntry entry : directory.get()) {
+            String entryPath = prefix + entry.getName();
+            if (entry.isTree()) {
+                result.add(new TreeEntryDto(entry.getName(), entryPath, "DIR", null, null));
+            } else {
+                String url = "/api/repositories/" + repoKey + "/blobs/" + entry.getHash();
+                result.add(new TreeEntryDto(entry.getName(), entryPath, "FILE", entry.getHash(), url));
+            }
+        }
+        sortTreeEntries(result);
+        return result;
+    }
+
     private List<TreeEntryDto> buildTreeEntries(String repoKey,
                                                  Map<String, String> files,
                                                  String normalizedPath) {
@@ -240,13 +497,17 @@ public class CloneService {
         }
 
         List<TreeEntryDto> result = new ArrayList<>(entries.values());
-        result.sort((a, b) -> {
+        sortTreeEntries(result);
+        return result;
+    }
+
+    private void sortTreeEntries(List<TreeEntryDto> entries) {
+        entries.sort((a, b) -> {
             if (!a.getType().equals(b.getType())) {
                 return a.getType().equals("DIR") ? -1 : 1;
             }
             return a.getName().compareToIgnoreCase(b.getName());
         });
-        return result;
     }
 
     private String normalizePath(String path) {
@@ -266,19 +527,9 @@ public class CloneService {
         return normalized;
     }
 
-    private Map<String, String> parseFilesJson(CommitEntity entity) {
-        Map<String, String> files;
-        try {
-            files = objectMapper.readValue(entity.getFilesJson(), new TypeReference<Map<String, String>>() {});
-        } catch (Exception e) {
-            log.error("Failed to parse files JSON for commit: {}", entity.getCommitId(), e);
-            files = Collections.emptyMap();
-        }
-        return files;
-    }
-
-    private CommitSnapshotDto mapToDto(CommitEntity entity, String repoKey, boolean includeFileEntries) {
-        Map<String, String> files = parseFilesJson(entity);
+    private CommitSnapshotDto mapToDto(CommitEntity entity, RepositoryEntity repo, boolean includeFileEntries) {
+        String repoKey = repo.getRepoKey();
+        Map<String, String> files = commitSnapshotService.getFiles(repo, entity);
 
         CommitSnapshotDto dto = new CommitSnapshotDto();
         dto.setId(entity.getCommitId());
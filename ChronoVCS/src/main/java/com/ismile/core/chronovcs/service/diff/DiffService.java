@@ -1,7 +1,5 @@
 package com.ismile.core.chronovcs.service.diff;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.ismile.core.chronovcs.dto.diff.*;
 import com.ismile.core.chronovcs.entity.BlobEntity;
 import com.ismile.core.chronovcs.entity.BranchHeadEntity;
@@ -9,12 +7,16 @@ import com.ismile.core.chronovcs.entity.CommitEntity;
 import com.ismile.core.chronovcs.entity.RepositoryEntity;
 import com.ismile.core.chronovcs.exception.BranchNotFoundException;
 import com.ismile.core.chronovcs.exception.BranchOperationException;
+import com.ismile.core.chronovcs.metrics.VcsMetrics;
 import com.ismile.core.chronovcs.repository.BranchHeadRepository;
 import com.ismile.core.chronovcs.repository.CommitRepository;
 import com.ismile.core.chronovcs.service.repository.RepositoryService;
 import com.ismile.core.chronovcs.service.storage.BlobStorageService;
+import com.ismile.core.chronovcs.service.tree.CommitSnapshotService;
+import com.ismile.core.chronovcs.service.tree.TreeChange;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -69,7 +71,27 @@ public class DiffService {
     private final BranchHeadRepository branchHeadRepository;
     private final RepositoryService repositoryService;
     private final BlobStorageService blobStorageService;
-    private final ObjectMapper objectMapper;
+    private final CommitSnapshotService commitSnapshotService;
+    private final VcsMetrics metrics;
+
+    /**
+     * Edit cost after which the line diff stops searching for a minimal script and
+     * splits heuristically. 0 disables the cutoff.
+     */
+    @Value("${chronovcs.diff.max-edit-cost:1024}")
+    private int maxEditCost;
+
+    /**
+     * Override the configured edit cost cutoff, e.g. for an instance created outside Spring.
+     */
+    public void setMaxEditCost(int maxEditCost) {
+        this.maxEditCost = maxEditCost;
+    }
+
+    /**
+     * Appended to a last line that has no newline; cannot occur inside a line.
+     */
+    private static final String NO_NEWLINE_MARKER = "\n\\ No newline at end of file";
 
     /**
      * Compare two references (commits, branches, or tags).
@@ -80,6 +102,30 @@ public class DiffService {
                                 String head,
                                 boolean includePatch,
                                 boolean ignoreWhitespace) {
+        return compare(repoKey, base, head, includePatch, ignoreWhitespace, DiffAlgorithm.MYERS);
+    }
+
+    /**
+     * Compare two references using the given line diff algorithm for patches.
+     */
+    @Transactional(readOnly = true)
+    public DiffResponse compare(String repoKey,
+                                String base,
+                                String head,
+                                boolean includePatch,
+                                boolean ignoreWhitespace,
+                                DiffAlgorithm algorithm) {
+        return metrics.time(VcsMetrics.DIFF_COMPARE, repoKey,
+                () -> doCompare(repoKey, base, head, includePatch, ignoreWhitespace, algorithm),
+                "algorithm", algorithm.name(), "patch", String.valueOf(includePatch));
+    }
+
+    private DiffResponse doCompare(String repoKey,
+                                   String base,
+                                   String head,
+                                   boolean includePatch,
+                                   boolean ignoreWhitespace,
+                                   DiffAlgorithm algorithm) {
         log.info("Comparing {} ... {} in repository {}", base, head, repoKey);
 
         RepositoryEntity repository = repositoryService.getByKeyOrThrow(repoKey);
@@ -98,17 +144,16 @@ public class DiffService {
         CommitEntity headCommit = commitRepository.findByRepositoryAndCommitId(repository, headCommitId)
                 .orElseThrow(() -> new BranchOperationException("Head commit not found: " + headCommitId));
 
-        // Parse file snapshots
-        Map<String, String> baseFiles = parseFilesJson(baseCommit.getFilesJson());
-        Map<String, String> headFiles = parseFilesJson(headCommit.getFilesJson());
+        // Changed files, unchanged subtrees are skipped by hash
+        List<TreeChange> changes = commitSnapshotService.diff(repository, baseCommit, headCommit);
 
         // Calculate diff
         List<FileDiff> fileDiffs = calculateFileDiffs(
                 repository,
-                baseFiles,
-                headFiles,
+                changes,
                 includePatch,
-                ignoreWhitespace
+                ignoreWhitespace,
+                algorithm
         );
 
         // Calculate statistics
@@ -136,6 +181,18 @@ public class DiffService {
                                       String commitId,
                                       boolean includePatch,
                                       boolean ignoreWhitespace) {
+        return getCommitDiff(repoKey, commitId, includePatch, ignoreWhitespace, DiffAlgorithm.MYERS);
+    }
+
+    /**
+     * Get diff for a single commit using the given line diff algorithm for patches.
+     */
+    @Transactional(readOnly = true)
+    public DiffResponse getCommitDiff(String repoKey,
+                                      String commitId,
+                                      boolean includePatch,
+                                      boolean ignoreWhitespace,
+                                      DiffAlgorithm algorithm) {
         log.info("Getting diff for commit {} in repository {}", commitId, repoKey);
 
         RepositoryEntity repository = repositoryService.getByKeyOrThrow(repoKey);
@@ -147,15 +204,14 @@ public class DiffService {
 
         if (parentCommitId == null) {
             // First commit - compare with empty state
-            Map<String, String> emptyFiles = new HashMap<>();
-            Map<String, String> commitFiles = parseFilesJson(commit.getFilesJson());
+            List<TreeChange> changes = commitSnapshotService.diff(repository, null, commit);
 
             List<FileDiff> fileDiffs = calculateFileDiffs(
                     repository,
-                    emptyFiles,
-                    commitFiles,
+                    changes,
                     includePatch,
-                    ignoreWhitespace
+                    ignoreWhitespace,
+                    algorithm
             );
             DiffStats stats = calculateStats(fileDiffs);
 
@@ -171,7 +227,7 @@ public class DiffService {
         }
 
         // Compare with parent
-        return compare(repoKey, parentCommitId, commitId, includePatch, ignoreWhitespace);
+        return compare(repoKey, parentCommitId, commitId, includePatch, ignoreWhitespace, algorithm);
     }
 
     /**
@@ -229,25 +285,21 @@ public class DiffService {
     }
 
     /**
-     * Calculate file differences between two snapshots.
+     * Calculate file differences for the changed files of two snapshots.
      */
     private List<FileDiff> calculateFileDiffs(
             RepositoryEntity repository,
-            Map<String, String> baseFiles,
-            Map<String, String> headFiles,
+            List<TreeChange> changes,
             boolean includePatch,
-            boolean ignoreWhitespace) {
+            boolean ignoreWhitespace,
+            DiffAlgorithm algorithm) {
 
         List<FileDiff> diffs = new ArrayList<>();
 
-        // Get all unique file paths
-        Set<String> allPaths = new HashSet<>();
-        allPaths.addAll(baseFiles.keySet());
-        allPaths.addAll(headFiles.keySet());
-
-        for (String path : allPaths) {
-            String baseHash = baseFiles.get(path);
-            String headHash = headFiles.get(path);
+        for (TreeChange change : changes) {
+            String path = change.getPath();
+            String baseHash = change.getOldHash();
+            String headHash = change.getNewHash();
 
             FileDiff.FileDiffBuilder diffBuilder = FileDiff.builder();
 
@@ -285,7 +337,7 @@ public class DiffService {
             // Load content and generate patch if requested
             if (includePatch) {
                 try {
-                    String[] patchData = generatePatch(repository, baseHash, headHash, path, ignoreWhitespace);
+                    String[] patchData = generatePatch(repository, baseHash, headHash, path, ignoreWhitespace, algorithm);
                     if (patchData != null) {
                         diffBuilder.patch(patchData[0]);
                         diffBuilder.linesAdded(Integer.parseInt(patchData[1]));
@@ -354,7 +406,8 @@ public class DiffService {
                                    String oldHash,
                                    String newHash,
                                    String path,
-                                   boolean ignoreWhitespace) {
+                                   boolean ignoreWhitespace,
+                                   DiffAlgorithm algorithm) {
         try {
             BlobEntity oldBlob = oldHash != null ? blobStorageService.findByHash(repository, oldHash).orElse(null) : null;
             BlobEntity newBlob = newHash != null ? blobStorageService.findByHash(repository, newHash).orElse(null) : null;
@@ -388,7 +441,7 @@ public class DiffService {
             LineInfo[] oldInfos = toLineInfos(oldLines, ignoreWhitespace);
             LineInfo[] newInfos = toLineInfos(newLines, ignoreWhitespace);
 
-            List<DiffOp> ops = diffLines(oldInfos, newInfos);
+            List<DiffOp> ops = diffLines(oldInfos, newInfos, algorithm);
 
             StringBuilder patch = new StringBuilder();
             int linesAdded = 0;
@@ -480,18 +533,6 @@ public class DiffService {
         return null;
     }
 
-    /**
-     * Parse filesJson to map.
-     */
-    private Map<String, String> parseFilesJson(String filesJson) {
-        try {
-            return objectMapper.readValue(filesJson, new TypeReference<Map<String, String>>() {});
-        } catch (Exception e) {
-            log.error("Failed to parse filesJson: {}", e.getMessage());
-            return new HashMap<>();
-        }
-    }
-
     /**
      * Check if content type indicates a text file.
      */
@@ -554,98 +595,147 @@ public class DiffService {
         return !hasOverlapConflicts(targetHunks, sourceHunks);
     }
 
-    private List<DiffOp> diffLines(LineInfo[] oldLines, LineInfo[] newLines) {
-        int n = oldLines.length;
-        int m = newLines.length;
-        int max = n + m;
-        int offset = max;
-
-        int[] v = new int[2 * max + 3];
-        Arrays.fill(v, -1);
-        v[offset + 1] = 0;
-
-        List<int[]> trace = new ArrayList<>();
-
-        for (int d = 0; d <= max; d++) {
-            int[] vSnapshot = v.clone();
-            for (int k = -d; k <= d; k += 2) {
-                int kIndex = offset + k;
-                int x;
-                if (k == -d || (k != d && v[kIndex - 1] < v[kIndex + 1])) {
-                    x = v[kIndex + 1];
-                } else {
-                    x = v[kIndex - 1] + 1;
-                }
+    /**
+     * Exact numstat of one file change: {@code [linesAdded, linesDeleted]}, or null if
+     * either side is binary or its blob is missing. A null hash is an empty side.
+     * Lines are counted as git counts them, and the edit-cost cutoff is not applied.
+     */
+    public int[] numstat(RepositoryEntity repository, String path, String oldHash, String newHash) {
+        String[] oldLines = loadTextLines(repository, path, oldHash);
+        String[] newLines = loadTextLines(repository, path, newHash);
+        if (oldLines == null || newLines == null) {
+            return null;
+        }
 
-                int y = x - k;
-                while (x < n && y < m && Objects.equals(oldLines[x].key, newLines[y].key)) {
-                    x++;
-                    y++;
-                }
+        Map<String, Integer> ids = new HashMap<>();
+        int[] oldIds = internLines(oldLines, ids);
+        int[] newIds = internLines(newLines, ids);
+        LineChanges changes = diffIds(oldIds, newIds, ids.size(), DiffAlgorithm.MYERS, 0);
 
-                vSnapshot[kIndex] = x;
+        return new int[]{count(changes.inserted), count(changes.deleted)};
+    }
 
-                if (x >= n && y >= m) {
-                    trace.add(vSnapshot);
-                    return buildDiffFromTrace(trace, oldLines, newLines, offset);
-                }
+    private static int count(boolean[] flags) {
+        int count = 0;
+        for (boolean flag : flags) {
+            if (flag) {
+                count++;
             }
-            trace.add(vSnapshot);
-            v = vSnapshot;
         }
-
-        return Collections.emptyList();
+        return count;
     }
 
-    private List<DiffOp> buildDiffFromTrace(List<int[]> trace,
-                                            LineInfo[] oldLines,
-                                            LineInfo[] newLines,
-                                            int offset) {
-        List<DiffOp> ops = new ArrayList<>();
-        int x = oldLines.length;
-        int y = newLines.length;
+    private String[] loadTextLines(RepositoryEntity repository, String path, String hash) {
+        if (hash == null) {
+            return new String[0];
+        }
+        BlobEntity blob = blobStorageService.findByHash(repository, hash).orElse(null);
+        if (blob == null || !(isTextFile(blob.getContentType()) || isTextExtension(path))) {
+            return null;
+        }
+        String text = normalizeLineEndings(new String(blobStorageService.loadContent(blob), StandardCharsets.UTF_8));
+        if (text.isEmpty()) {
+            return new String[0];
+        }
 
-        for (int d = trace.size() - 1; d >= 0; d--) {
-            int[] v = trace.get(d);
-            int k = x - y;
-            int kIndex = offset + k;
-            int prevK;
+        // A trailing newline ends the last line rather than starting an empty one
+        boolean terminated = text.endsWith("\n");
+        String[] lines = (terminated ? text.substring(0, text.length() - 1) : text).split("\n", -1);
+        if (!terminated) {
+            // As in git, the same line with and without its newline differs
+            lines[lines.length - 1] += NO_NEWLINE_MARKER;
+        }
+        return lines;
+    }
 
-            if (k == -d || (k != d && v[kIndex - 1] < v[kIndex + 1])) {
-                prevK = k + 1;
-            } else {
-                prevK = k - 1;
+    /**
+     * Line correspondence between two versions of a file: for every new line the
+     * index of the old line it was kept from, or -1 if it was inserted.
+     */
+    public int[] matchLines(String[] oldLines, String[] newLines, DiffAlgorithm algorithm) {
+        Map<String, Integer> ids = new HashMap<>();
+        int[] oldIds = internLines(oldLines, ids);
+        int[] newIds = internLines(newLines, ids);
+        LineChanges changes = diffIds(oldIds, newIds, ids.size(), algorithm);
+
+        int[] match = new int[newLines.length];
+        int x = 0;
+        for (int y = 0; y < newLines.length; y++) {
+            if (changes.inserted[y]) {
+                match[y] = -1;
+                continue;
             }
-
-            int prevX = v[offset + prevK];
-            int prevY = prevX - prevK;
-
-            while (x > prevX && y > prevY) {
-                ops.add(new DiffOp(DiffOpType.EQUAL, newLines[y - 1].original));
-                x--;
-                y--;
+            while (changes.deleted[x]) {
+                x++;
             }
+            match[y] = x++;
+        }
+        return match;
+    }
 
-            if (d == 0) {
-                break;
-            }
+    private LineChanges diffIds(int[] oldIds, int[] newIds, int idCount, DiffAlgorithm algorithm) {
+        return diffIds(oldIds, newIds, idCount, algorithm, maxEditCost);
+    }
+
+    private LineChanges diffIds(int[] oldIds, int[] newIds, int idCount, DiffAlgorithm algorithm, int editCost) {
+        return algorithm == DiffAlgorithm.HISTOGRAM
+                ? HistogramDiff.diff(oldIds, newIds, idCount, editCost)
+                : MyersDiff.diff(oldIds, newIds, editCost);
+    }
 
-            if (x == prevX) {
-                ops.add(new DiffOp(DiffOpType.INSERT, newLines[prevY].original));
+    private List<DiffOp> diffLines(LineInfo[] oldLines, LineInfo[] newLines, DiffAlgorithm algorithm) {
+        // Intern compare keys to dense ids so the diff loops compare ints
+        Map<String, Integer> ids = new HashMap<>();
+        int[] oldIds = internLines(oldLines, ids);
+        int[] newIds = internLines(newLines, ids);
+
+        LineChanges changes = diffIds(oldIds, newIds, ids.size(), algorithm);
+
+        // Walk both sides in order; within a hunk deletions come before insertions
+        List<DiffOp> ops = new ArrayList<>(Math.max(oldLines.length, newLines.length));
+        int x = 0;
+        int y = 0;
+        while (x < oldLines.length || y < newLines.length) {
+            if (x < oldLines.length && changes.deleted[x]) {
+                ops.add(new DiffOp(DiffOpType.DELETE, oldLines[x++].original));
+            } else if (y < newLines.length && changes.inserted[y]) {
+                ops.add(new DiffOp(DiffOpType.INSERT, newLines[y++].original));
             } else {
-                ops.add(new DiffOp(DiffOpType.DELETE, oldLines[prevX].original));
+                ops.add(new DiffOp(DiffOpType.EQUAL, newLines[y].original));
+                x++;
+                y++;
             }
+        }
+        return ops;
+    }
 
-            x = prevX;
-            y = prevY;
+    private int[] internLines(LineInfo[] lines, Map<String, Integer> ids) {
+        int[] result = new int[lines.length];
+        for (int i = 0; i < lines.length; i++) {
+            result[i] = intern(lines[i].key, ids);
         }
+        return result;
+    }
 
-        Collections.reverse(ops);
-        return ops;
+    private int[] internLines(String[] lines, Map<String, Integer> ids) {
+        int[] result = new int[lines.length];
+        for (int i = 0; i < lines.length; i++) {
+            result[i] = intern(lines[i], ids);
+        }
+        return result;
+    }
+
+    private int intern(String key, Map<String, Integer> ids) {
+        Integer id = ids.get(key);
+        if (id == null) {
+            id = ids.size();
+            ids.put(key, id);
+        }
+        return id;
     }
 
     private List<DiffHunk> buildHunks(LineInfo[] baseLines, LineInfo[] otherLines) {
-        List<DiffOp> ops = diffLines(baseLines, otherLines);
+        List<DiffOp> ops = diffLines(baseLines, otherLines, DiffAlgorithm.MYERS);
         List<DiffHunk> hunks = new ArrayList<>();
 
         int baseIndex = 0;
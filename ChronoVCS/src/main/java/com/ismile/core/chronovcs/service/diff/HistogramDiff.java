@@ -0,0 +1,175 @@
+package com.ismile.core.chronovcs.service.diff;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+
+/**
+ * Histogram diff over interned line ids, in the spirit of git's {@code --histogram}.
+ *
+ * Each region is split around the longest common run that contains the least
+ * frequent lines of the old side, so unique lines (signatures, names) anchor the
+ * diff instead of braces and blank lines. Regions without a usable anchor fall
+ * back to {@link MyersDiff}.
+ */
+final class HistogramDiff {
+
+    /**
+     * Lines occurring more often than this in a region are not used as anchors.
+     */
+    private static final int MAX_CHAIN_LENGTH = 64;
+
+    private final int[] oldIds;
+    private final int[] newIds;
+    private final int maxCost;
+    private final LineChanges changes;
+
+    // Per-region index, indexed by line id / old line; reset after every region
+    private final int[] counts;
+    private final int[] heads;
+    private final int[] next;
+
+    private MyersDiff fallback;
+
+    private HistogramDiff(int[] oldIds, int[] newIds, int idCount, int maxCost) {
+        this.oldIds = oldIds;
+        this.newIds = newIds;
+        this.maxCost = maxCost;
+        this.changes = new LineChanges(oldIds.length, newIds.length);
+        this.counts = new int[idCount];
+        this.heads = new int[idCount];
+        this.next = new int[oldIds.length];
+        Arrays.fill(heads, -1);
+    }
+
+    /**
+     * @param idCount number of distinct line ids; every id must be in {@code [0, idCount)}
+     * @param maxCost edit cost cutoff for the Myers fallback
+     */
+    static LineChanges diff(int[] oldIds, int[] newIds, int idCount, int maxCost) {
+        HistogramDiff diff = new HistogramDiff(oldIds, newIds, idCount, maxCost);
+        diff.compare();
+        return diff.changes;
+    }
+
+    private void compare() {
+        Deque<int[]> pending = new ArrayDeque<>();
+        pending.push(new int[]{0, oldIds.length, 0, newIds.length});
+
+        while (!pending.isEmpty()) {
+            int[] range = pending.pop();
+            int x0 = range[0];
+            int x1 = range[1];
+            int y0 = range[2];
+            int y1 = range[3];
+
+            // 1) Trim common prefix and suffix
+            while (x0 < x1 && y0 < y1 && oldIds[x0] == newIds[y0]) {
+                x0++;
+                y0++;
+            }
+            while (x0 < x1 && y0 < y1 && oldIds[x1 - 1] == newIds[y1 - 1]) {
+                x1--;
+                y1--;
+            }
+
+            // 2) Pure insertion or deletion
+            if (x0 == x1) {
+                changes.markInserted(y0, y1);
+                continue;
+            }
+            if (y0 == y1) {
+                changes.markDeleted(x0, x1);
+                continue;
+            }
+
+            // 3) Anchor on the rarest common run, or fall back to Myers
+            int[] anchor = findAnchor(x0, x1, y0, y1);
+            if (anchor == null) {
+                myers().compare(x0, x1, y0, y1);
+                continue;
+            }
+
+            pending.push(new int[]{anchor[1], x1, anchor[3], y1});
+            pending.push(new int[]{x0, anchor[0], y0, anchor[2]});
+        }
+    }
+
+    /**
+     * @return {@code [oldStart, oldEnd, newStart, newEnd]} of the best common run, or null
+     */
+    private int[] findAnchor(int x0, int x1, int y0, int y1) {
+        // Index the old region; walking backwards keeps every chain in ascending order
+        for (int i = x1 - 1; i >= x0; i--) {
+            int id = oldIds[i];
+            counts[id]++;
+            next[i] = heads[id];
+            heads[id] = i;
+        }
+
+        int[] best = null;
+        int bestCount = MAX_CHAIN_LENGTH + 1;
+        int bestLength = 0;
+
+        int y = y0;
+        while (y < y1) {
+            int id = newIds[y];
+            int nextY = y + 1;
+
+            if (counts[id] == 0 || counts[id] > MAX_CHAIN_LENGTH) {
+                y = nextY;
+                continue;
+            }
+
+            for (int x = heads[id]; x != -1; x = next[x]) {
+                int oldStart = x;
+                int newStart = y;
+                int oldEnd = x + 1;
+                int newEnd = y + 1;
+                int runCount = counts[id];
+
+                while (oldStart > x0 && newStart > y0 && oldIds[oldStart - 1] == newIds[newStart - 1]) {
+                    oldStart--;
+                    newStart--;
+                    runCount = Math.min(runCount, counts[oldIds[oldStart]]);
+                }
+                while (oldEnd < x1 && newEnd < y1 && oldIds[oldEnd] == newIds[newEnd]) {
+                    runCount = Math.min(runCount, counts[oldIds[oldEnd]]);
+                    oldEnd++;
+                    newEnd++;
+                }
+
+                int length = oldEnd - oldStart;
+                if (runCount < bestCount || (runCount == bestCount && length > bestLength)) {
+                    best = new int[]{oldStart, oldEnd, newStart, newEnd};
+                    bestCount = runCount;
+                    bestLength = length;
+                }
+
+                nextY = Math.max(nextY, newEnd);
+
+                // Occurrences inside this run would only rediscover it
+                while (next[x] != -1 && next[x] < oldEnd) {
+                    x = next[x];
+                }
+            }
+            y = nextY;
+        }
+
+        // Reset the region index
+        for (int i = x0; i < x1; i++) {
+            int id = oldIds[i];
+            counts[id] = 0;
+            heads[id] = -1;
+        }
+
+        return best;
+    }
+
+    private MyersDiff myers() {
+        if (fallback == null) {
+            fallback = new MyersDiff(oldIds, newIds, maxCost, changes);
+        }
+        return fallback;
+    }
+}
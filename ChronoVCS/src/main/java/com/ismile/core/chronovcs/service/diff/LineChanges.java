@@ -0,0 +1,28 @@
+package com.ismile.core.chronovcs.service.diff;
+
+/**
+ * Result of a line diff: which lines are deleted from the old side and inserted
+ * on the new side. Every other line is part of the common subsequence.
+ */
+final class LineChanges {
+
+    final boolean[] deleted;
+    final boolean[] inserted;
+
+    LineChanges(int oldSize, int newSize) {
+        this.deleted = new boolean[oldSize];
+        this.inserted = new boolean[newSize];
+    }
+
+    void markDeleted(int from, int to) {
+        for (int i = from; i < to; i++) {
+            deleted[i] = true;
+        }
+    }
+
+    void markInserted(int from, int to) {
+        for (int i = from; i < to; i++) {
+            inserted[i] = true;
+        }
+    }
+}
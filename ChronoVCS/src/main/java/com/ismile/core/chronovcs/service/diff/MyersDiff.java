@@ -0,0 +1,223 @@
+package com.ismile.core.chronovcs.service.diff;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Linear-space Myers diff (divide and conquer on the middle snake) over interned line ids.
+ *
+ * Memory is O(N + M): two diagonal vectors plus one changed-flag per line.
+ * Common prefixes and suffixes are trimmed before every split. Once the edit cost
+ * of a sub-problem exceeds {@code maxCost} the best partial paths are used as the
+ * split point instead, which keeps the running time bounded on very different
+ * inputs at the price of a possibly non-minimal script.
+ */
+final class MyersDiff {
+
+    private final int[] oldIds;
+    private final int[] newIds;
+    private final int maxCost;
+    private final int[] forward;
+    private final int[] backward;
+    private final int offset;
+    private final LineChanges changes;
+
+    /**
+     * @param maxCost edit cost after which a sub-problem is split heuristically; {@code <= 0} disables the cutoff
+     */
+    MyersDiff(int[] oldIds, int[] newIds, int maxCost, LineChanges changes) {
+        this.oldIds = oldIds;
+        this.newIds = newIds;
+        this.maxCost = maxCost > 0 ? maxCost : Integer.MAX_VALUE;
+        int diagonals = oldIds.length + newIds.length + 3;
+        this.forward = new int[diagonals];
+        this.backward = new int[diagonals];
+        this.offset = newIds.length + 1;
+        this.changes = changes;
+    }
+
+    static LineChanges diff(int[] oldIds, int[] newIds, int maxCost) {
+        LineChanges changes = new LineChanges(oldIds.length, newIds.length);
+        new MyersDiff(oldIds, newIds, maxCost, changes).compare(0, oldIds.length, 0, newIds.length);
+        return changes;
+    }
+
+    /**
+     * Diff {@code old[xOff, xLim)} against {@code new[yOff, yLim)} into the shared changes.
+     */
+    void compare(int xOff, int xLim, int yOff, int yLim) {
+        // Explicit stack instead of recursion: heuristic splits can be unbalanced
+        Deque<int[]> pending = new ArrayDeque<>();
+        pending.push(new int[]{xOff, xLim, yOff, yLim});
+
+        while (!pending.isEmpty()) {
+            int[] range = pending.pop();
+            int x0 = range[0];
+            int x1 = range[1];
+            int y0 = range[2];
+            int y1 = range[3];
+
+            // 1) Trim common prefix and suffix
+            while (x0 < x1 && y0 < y1 && oldIds[x0] == newIds[y0]) {
+                x0++;
+                y0++;
+            }
+            while (x0 < x1 && y0 < y1 && oldIds[x1 - 1] == newIds[y1 - 1]) {
+                x1--;
+                y1--;
+            }
+
+            // 2) Pure insertion or deletion
+            if (x0 == x1) {
+                changes.markInserted(y0, y1);
+                continue;
+            }
+            if (y0 == y1) {
+                changes.markDeleted(x0, x1);
+                continue;
+            }
+
+            // 3) Split at the middle snake
+            long split = middleSnake(x0, x1, y0, y1);
+            int xMid = (int) (split >>> 32);
+            int yMid = (int) split;
+
+            boolean atStart = xMid == x0 && yMid == y0;
+            boolean atEnd = xMid == x1 && yMid == y1;
+            if (atStart || atEnd) {
+                // No progress possible, replace the whole range
+                changes.markDeleted(x0, x1);
+                changes.markInserted(y0, y1);
+                continue;
+            }
+
+            pending.push(new int[]{xMid, x1, yMid, y1});
+            pending.push(new int[]{x0, xMid, y0, yMid});
+        }
+    }
+
+    /**
+     * Find the midpoint of a shortest edit path between the two ranges, searching
+     * forward from the top-left and backward from the bottom-right corner.
+     *
+     * @return x in the high and y in the low 32 bits
+     */
+    private long middleSnake(int xOff, int xLim, int yOff, int yLim) {
+        int dMin = xOff - yLim;
+        int dMax = xLim - yOff;
+        int fMid = xOff - yOff;
+        int bMid = xLim - yLim;
+        int fMin = fMid;
+        int fMax = fMid;
+        int bMin = bMid;
+        int bMax = bMid;
+        boolean odd = ((fMid - bMid) & 1) != 0;
+
+        forward[offset + fMid] = xOff;
+        backward[offset + bMid] = xLim;
+
+        for (int cost = 1; ; cost++) {
+            // Extend the forward search by one edit
+            if (fMin > dMin) {
+                forward[offset + --fMin - 1] = -1;
+            } else {
+                ++fMin;
+            }
+            if (fMax < dMax) {
+                forward[offset + ++fMax + 1] = -1;
+            } else {
+                --fMax;
+            }
+            for (int d = fMax; d >= fMin; d -= 2) {
+                int low = forward[offset + d - 1];
+                int high = forward[offset + d + 1];
+                int x = low >= high ? low + 1 : high;
+                int y = x - d;
+                while (x < xLim && y < yLim && oldIds[x] == newIds[y]) {
+                    x++;
+                    y++;
+                }
+                forward[offset + d] = x;
+                if (odd && bMin <= d && d <= bMax && backward[offset + d] <= x) {
+                    return pack(x, y);
+                }
+            }
+
+            // Extend the backward search by one edit
+            if (bMin > dMin) {
+                backward[offset + --bMin - 1] = Integer.MAX_VALUE;
+            } else {
+                ++bMin;
+            }
+            if (bMax < dMax) {
+                backward[offset + ++bMax + 1] = Integer.MAX_VALUE;
+            } else {
+                --bMax;
+            }
+            for (int d = bMax; d >= bMin; d -= 2) {
+                int low = backward[offset + d - 1];
+                int high = backward[offset + d + 1];
+                int x = low < high ? low : high - 1;
+                int y = x - d;
+                while (x > xOff && y > yOff && oldIds[x - 1] == newIds[y - 1]) {
+                    x--;
+                    y--;
+                }
+                backward[offset + d] = x;
+                if (!odd && fMin <= d && d <= fMax && x <= forward[offset + d]) {
+                    return pack(x, y);
+                }
+            }
+
+            if (cost >= maxCost) {
+                return heuristicSplit(xOff, xLim, yOff, yLim, fMin, fMax, bMin, bMax);
+            }
+        }
+    }
+
+    /**
+     * Too expensive: split at whichever partial path (forward or backward) got
+     * furthest from its starting corner.
+     */
+    private long heuristicSplit(int xOff, int xLim, int yOff, int yLim,
+                                int fMin, int fMax, int bMin, int bMax) {
+        int forwardBest = -1;
+        int forwardX = xOff;
+        for (int d = fMax; d >= fMin; d -= 2) {
+            int x = Math.min(forward[offset + d], xLim);
+            int y = x - d;
+            if (yLim < y) {
+                x = yLim + d;
+                y = yLim;
+            }
+            if (forwardBest < x + y) {
+                forwardBest = x + y;
+                forwardX = x;
+            }
+        }
+
+        int backwardBest = Integer.MAX_VALUE;
+        int backwardX = xLim;
+        for (int d = bMax; d >= bMin; d -= 2) {
+            int x = Math.max(xOff, backward[offset + d]);
+            int y = x - d;
+            if (y < yOff) {
+                x = yOff + d;
+                y = yOff;
+            }
+            if (x + y < backwardBest) {
+                backwardBest = x + y;
+                backwardX = x;
+            }
+        }
+
+        if ((xLim + yLim) - backwardBest < forwardBest - (xOff + yOff)) {
+            return pack(forwardX, forwardBest - forwardX);
+        }
+        return pack(backwardX, backwardBest - backwardX);
+    }
+
+    private static long pack(int x, int y) {
+        return ((long) x << 32) | (y & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,476 @@
+package com.ismile.core.chronovcs.service.graph;
+
+import com.ismile.core.chronovcs.repository.CommitRepository.CommitParentView;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory commit graph of a single repository.
+ *
+ * Every commit id is mapped to a dense int node. Parents are kept as int arrays and
+ * each node has a generation number (1 for roots, otherwise 1 + max parent generation),
+ * so ancestry walks can visit nodes in generation order and stop early.
+ *
+ * The graph is append-only. If a commit arrives whose id was already referenced as
+ * a missing parent, generation numbers can no longer be patched in place and the
+ * graph marks itself stale so the owner rebuilds it.
+ */
+final class CommitGraph {
+
+    private static final int[] NO_PARENTS = new int[0];
+    private static final int INITIAL_CAPACITY = 64;
+
+    private static final byte FLAG_SOURCE = 1;
+    private static final byte FLAG_TARGET = 2;
+    private static final byte FLAG_BOTH = FLAG_SOURCE | FLAG_TARGET;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Integer> nodes;
+    private final Set<String> danglingParents = new HashSet<>();
+
+    private String[] commitIds;
+    private int[][] parents;
+    private int[] generations;
+    private int size;
+    private boolean stale;
+
+    private CommitGraph(int capacity) {
+        int initial = Math.max(INITIAL_CAPACITY, capacity);
+        this.nodes = new HashMap<>(initial * 2);
+        this.commitIds = new String[initial];
+        this.parents = new int[initial][];
+        this.generations = new int[initial];
+    }
+
+    /**
+     * Build a graph from (commitId, parentCommitId) rows in any order.
+     */
+    static CommitGraph build(List<CommitParentView> rows) {
+        CommitGraph graph = new CommitGraph(rows.size());
+
+        // 1) Assign nodes
+        String[] parentIds = new String[rows.size()];
+        for (CommitParentView row : rows) {
+            if (row.getCommitId() == null || graph.nodes.containsKey(row.getCommitId())) {
+                continue;
+            }
+            int node = graph.newNode(row.getCommitId());
+            parentIds[node] = row.getParentCommitId();
+        }
+
+        // 2) Resolve parent edges
+        for (int node = 0; node < graph.size; node++) {
+            graph.parents[node] = graph.resolveParents(parentIds[node]);
+        }
+
+        // 3) Generation numbers
+        graph.computeGenerations();
+        return graph;
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    boolean isStale() {
+        lock.readLock().lock();
+        try {
+            return stale;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    boolean contains(String commitId) {
+        lock.readLock().lock();
+        try {
+            return commitId != null && nodes.containsKey(commitId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Generation number of a commit, or 0 if it is unknown.
+     */
+    int generation(String commitId) {
+        lock.readLock().lock();
+        try {
+            Integer node = commitId != null ? nodes.get(commitId) : null;
+            return node != null ? generations[node] : 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Append a commit. Returns false if the graph became stale and must be rebuilt.
+     */
+    boolean add(String commitId, String parentCommitId) {
+        lock.writeLock().lock();
+        try {
+            if (stale) {
+                return false;
+            }
+            if (commitId == null || nodes.containsKey(commitId)) {
+                return true;
+            }
+            if (danglingParents.contains(commitId)) {
+                // Existing nodes point at this commit, their generations are now wrong
+                stale = true;
+                return false;
+            }
+
+            int node = newNode(commitId);
+            int[] nodeParents = resolveParents(parentCommitId);
+            parents[node] = nodeParents;
+            generations[node] = generationOf(nodeParents);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Common ancestor with the highest generation, or null if the histories are unrelated
+     * or either commit is unknown.
+     */
+    String mergeBase(String commit1Id, String commit2Id) {
+        lock.readLock().lock();
+        try {
+            Integer first = nodes.get(commit1Id);
+            Integer second = nodes.get(commit2Id);
+            if (first == null || second == null) {
+                return null;
+            }
+            if (first.intValue() == second.intValue()) {
+                return commitIds[first];
+            }
+
+            byte[] flags = new byte[size];
+            PriorityQueue<Integer> queue = newGenerationQueue();
+            flags[first] = FLAG_TARGET;
+            flags[second] = FLAG_SOURCE;
+            queue.add(first);
+            queue.add(second);
+
+            while (!queue.isEmpty()) {
+                int node = queue.poll();
+                byte nodeFlags = flags[node];
+
+                // Highest generation node reachable from both sides
+                if (nodeFlags == FLAG_BOTH) {
+                    return commitIds[node];
+                }
+
+                for (int parent : parents[node]) {
+                    if ((flags[parent] | nodeFlags) != flags[parent]) {
+                        boolean queued = flags[parent] != 0;
+                        flags[parent] |= nodeFlags;
+                        if (!queued) {
+                            queue.add(parent);
+                        }
+                    }
+                }
+            }
+            return null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * True if {@code ancestorId} is a proper ancestor of {@code descendantId}.
+     */
+    boolean isAncestor(String ancestorId, String descendantId) {
+        lock.readLock().lock();
+        try {
+            Integer ancestor = nodes.get(ancestorId);
+            Integer descendant = nodes.get(descendantId);
+            if (ancestor == null || descendant == null || ancestor.intValue() == descendant.intValue()) {
+                return false;
+            }
+
+            int ancestorGeneration = generations[ancestor];
+            if (generations[descendant] <= ancestorGeneration) {
+                return false;
+            }
+
+            BitSet visited = new BitSet(size);
+            ArrayDeque<Integer> stack = new ArrayDeque<>();
+            stack.push(descendant);
+            visited.set(descendant);
+
+            while (!stack.isEmpty()) {
+                int node = stack.pop();
+                for (int parent : parents[node]) {
+                    if (parent == ancestor) {
+                        return true;
+                    }
+                    // Nothing at or below the ancestor's generation can lead to it
+                    if (!visited.get(parent) && generations[parent] > ancestorGeneration) {
+                        visited.set(parent);
+                        stack.push(parent);
+                    }
+                }
+            }
+            return false;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Count commits reachable only from source (ahead) and only from target (behind).
+     * Stops as soon as every remaining queued commit is reachable from both sides.
+     *
+     * @return {@code [ahead, behind]}, or null if either commit is unknown
+     */
+    int[] aheadBehind(String targetCommitId, String sourceCommitId) {
+        lock.readLock().lock();
+        try {
+            Integer target = nodes.get(targetCommitId);
+            Integer source = nodes.get(sourceCommitId);
+            if (target == null || source == null) {
+                return null;
+            }
+            if (target.intValue() == source.intValue()) {
+                return new int[]{0, 0};
+            }
+
+            byte[] flags = new byte[size];
+            PriorityQueue<Integer> queue = newGenerationQueue();
+            flags[target] = FLAG_TARGET;
+            flags[source] = FLAG_SOURCE;
+            queue.add(target);
+            queue.add(source);
+
+            int ahead = 0;
+            int behind = 0;
+            int interesting = 2;
+
+            while (interesting > 0 && !queue.isEmpty()) {
+                int node = queue.poll();
+                byte nodeFlags = flags[node];
+
+                if (nodeFlags == FLAG_SOURCE) {
+                    ahead++;
+                    interesting--;
+                } else if (nodeFlags == FLAG_TARGET) {
+                    behind++;
+                    interesting--;
+                }
+
+                for (int parent : parents[node]) {
+                    byte before = flags[parent];
+                    byte after = (byte) (before | nodeFlags);
+                    if (before == after) {
+                        continue;
+                    }
+                    flags[parent] = after;
+                    if (before == 0) {
+                        queue.add(parent);
+                        if (after != FLAG_BOTH) {
+                            interesting++;
+                        }
+                    } else if (after == FLAG_BOTH) {
+                        interesting--;
+                    }
+                }
+            }
+            return new int[]{ahead, behind};
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * All proper ancestors of a commit.
+     */
+    Set<String> ancestors(String commitId) {
+        lock.readLock().lock();
+        try {
+            Set<String> result = new HashSet<>();
+            Integer start = nodes.get(commitId);
+            if (start == null) {
+                return result;
+            }
+
+            BitSet visited = new BitSet(size);
+            ArrayDeque<Integer> stack = new ArrayDeque<>();
+            stack.push(start);
+            visited.set(start);
+
+            while (!stack.isEmpty()) {
+                int node = stack.pop();
+                for (int parent : parents[node]) {
+                    if (!visited.get(parent)) {
+                        visited.set(parent);
+                        result.add(commitIds[parent]);
+                        stack.push(parent);
+                    }
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * The commit followed by its first-parent ancestors, at most {@code limit} ids.
+     * Empty if the commit is unknown.
+     */
+    List<String> firstParentChain(String commitId, int limit) {
+        lock.readLock().lock();
+        try {
+            List<String> chain = new ArrayList<>();
+            Integer node = nodes.get(commitId);
+            while (node != null && chain.size() < limit) {
+                chain.add(commitIds[node]);
+                node = parents[node].length > 0 ? parents[node][0] : null;
+            }
+            return chain;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * The commits of {@code candidates} on the first-parent chain of {@code commitId},
+     * newest first, at most {@code limit} ids. The walk stops at the limit or once it
+     * is below the generation of the oldest candidate, so it only covers the part of
+     * the chain the candidates can be on.
+     */
+    List<String> firstParentMatches(String commitId, Set<String> candidates, int limit) {
+        lock.readLock().lock();
+        try {
+            List<String> matches = new ArrayList<>();
+            int minGeneration = Integer.MAX_VALUE;
+            for (String candidate : candidates) {
+                Integer node = nodes.get(candidate);
+                if (node != null) {
+                    minGeneration = Math.min(minGeneration, generations[node]);
+                }
+            }
+
+            Integer node = nodes.get(commitId);
+            while (node != null && matches.size() < limit && generations[node] >= minGeneration) {
+                if (candidates.contains(commitIds[node])) {
+                    matches.add(commitIds[node]);
+                }
+                node = parents[node].length > 0 ? parents[node][0] : null;
+            }
+            return matches;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private PriorityQueue<Integer> newGenerationQueue() {
+        return new PriorityQueue<>((a, b) -> Integer.compare(generations[b], generations[a]));
+    }
+
+    private int newNode(String commitId) {
+        if (size == commitIds.length) {
+            int capacity = commitIds.length * 2;
+            commitIds = Arrays.copyOf(commitIds, capacity);
+            parents = Arrays.copyOf(parents, capacity);
+            generations = Arrays.copyOf(generations, capacity);
+        }
+        int node = size++;
+        commitIds[node] = commitId;
+        parents[node] = NO_PARENTS;
+        nodes.put(commitId, node);
+        return node;
+    }
+
+    private int[] resolveParents(String parentCommitId) {
+        if (parentCommitId == null || parentCommitId.isBlank()) {
+            return NO_PARENTS;
+        }
+        Integer parent = nodes.get(parentCommitId);
+        if (parent == null) {
+            danglingParents.add(parentCommitId);
+            return NO_PARENTS;
+        }
+        return new int[]{parent};
+    }
+
+    private int generationOf(int[] nodeParents) {
+        int max = 0;
+        for (int parent : nodeParents) {
+            max = Math.max(max, generations[parent]);
+        }
+        return max + 1;
+    }
+
+    /**
+     * Iterative post-order walk so long histories do not overflow the stack.
+     * Edges that close a cycle are dropped to keep generations well-defined.
+     */
+    private void computeGenerations() {
+        byte[] state = new byte[size]; // 0 = new, 1 = on stack, 2 = done
+        int[] stack = new int[Math.max(size, 1)];
+
+        for (int root = 0; root < size; root++) {
+            if (state[root] != 0) {
+                continue;
+            }
+            int top = 0;
+            stack[top++] = root;
+            state[root] = 1;
+
+            while (top > 0) {
+                int node = stack[top - 1];
+                boolean pushed = false;
+
+                for (int i = 0; i < parents[node].length; i++) {
+                    int parent = parents[node][i];
+                    if (state[parent] == 0) {
+                        state[parent] = 1;
+                        stack[top++] = parent;
+                        pushed = true;
+                        break;
+                    }
+                    if (state[parent] == 1) {
+                        parents[node] = removeParent(parents[node], i);
+                        i--;
+                    }
+                }
+
+                if (!pushed) {
+                    generations[node] = generationOf(parents[node]);
+                    state[node] = 2;
+                    top--;
+                }
+            }
+        }
+    }
+
+    private int[] removeParent(int[] nodeParents, int index) {
+        if (nodeParents.length == 1) {
+            return NO_PARENTS;
+        }
+        int[] result = new int[nodeParents.length - 1];
+        System.arraycopy(nodeParents, 0, result, 0, index);
+        System.arraycopy(nodeParents, index + 1, result, index, nodeParents.length - index - 1);
+        return result;
+    }
+}
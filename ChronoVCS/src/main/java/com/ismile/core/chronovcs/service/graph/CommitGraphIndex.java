@@ -0,0 +1,100 @@
+package com.ismile.core.chronovcs.service.graph;
+
+import com.ismile.core.chronovcs.entity.RepositoryEntity;
+import com.ismile.core.chronovcs.repository.CommitRepository;
+import com.ismile.core.chronovcs.repository.CommitRepository.CommitParentView;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-repository in-memory commit graphs.
+ *
+ * A graph is loaded lazily on first use with a single (commitId, parentCommitId)
+ * query and then kept up to date as commits are saved. Commits saved inside a
+ * transaction are only added after it commits.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CommitGraphIndex {
+
+    private final CommitRepository commitRepository;
+
+    private final Map<Long, CommitGraph> graphs = new ConcurrentHashMap<>();
+
+    /**
+     * Record a newly saved commit in the loaded graph, if any.
+     */
+    public void recordCommit(RepositoryEntity repository, String commitId, String parentCommitId) {
+        Long repositoryId = repository.getId();
+        Runnable apply = () -> {
+            CommitGraph graph = graphs.get(repositoryId);
+            if (graph != null && !graph.add(commitId, parentCommitId)) {
+                graphs.remove(repositoryId, graph);
+                log.debug("Commit graph for repository {} is stale, will reload", repositoryId);
+            }
+        };
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply.run();
+                }
+            });
+        } else {
+            apply.run();
+        }
+    }
+
+    /**
+     * Drop the cached graph of a repository.
+     */
+    public void evict(RepositoryEntity repository) {
+        graphs.remove(repository.getId());
+    }
+
+    /**
+     * Graph of the repository that contains every given commit known to the database.
+     * A commit missing from the cached graph (e.g. saved by another instance) triggers
+     * one reload.
+     */
+    CommitGraph getGraph(RepositoryEntity repository, String... requiredCommitIds) {
+        Long repositoryId = repository.getId();
+        CommitGraph graph = graphs.computeIfAbsent(repositoryId, id -> load(repository));
+
+        boolean reload = graph.isStale();
+        for (String commitId : requiredCommitIds) {
+            if (reload) {
+                break;
+            }
+            if (commitId != null
+                    && !graph.contains(commitId)
+                    && commitRepository.existsByRepositoryAndCommitId(repository, commitId)) {
+                reload = true;
+            }
+        }
+
+        if (reload) {
+            graph = load(repository);
+            graphs.put(repositoryId, graph);
+        }
+        return graph;
+    }
+
+    private CommitGraph load(RepositoryEntity repository) {
+        long started = System.nanoTime();
+        List<CommitParentView> rows = commitRepository.findParentLinksByRepository(repository);
+        CommitGraph graph = CommitGraph.build(rows);
+        log.info("Loaded commit graph for repository {} ({} commits in {} ms)",
+                repository.getRepoKey(), graph.size(), (System.nanoTime() - started) / 1_000_000);
+        return graph;
+    }
+}
@@ -1,7 +1,5 @@
 package com.ismile.core.chronovcs.service.graph;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.ismile.core.chronovcs.dto.branch.CommitDistance;
 import com.ismile.core.chronovcs.dto.branch.MergeAnalysisResponse;
 import com.ismile.core.chronovcs.dto.branch.MergeConflict;
@@ -12,6 +10,8 @@ import com.ismile.core.chronovcs.exception.BranchOperationException;
 import com.ismile.core.chronovcs.repository.CommitRepository;
 import com.ismile.core.chronovcs.service.diff.DiffService;
 import com.ismile.core.chronovcs.service.storage.BlobStorageService;
+import com.ismile.core.chronovcs.service.tree.CommitSnapshotService;
+import com.ismile.core.chronovcs.service.tree.TreeChange;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -25,12 +25,13 @@ import java.util.*;
 public class CommitGraphService {
 
     private final CommitRepository commitRepository;
+    private final CommitGraphIndex commitGraphIndex;
     private final BlobStorageService blobStorageService;
     private final DiffService diffService;
-    private final ObjectMapper objectMapper;
+    private final CommitSnapshotService commitSnapshotService;
 
     /**
-     * Find the common ancestor (merge base) of two commits using BFS.
+     * Find the common ancestor (merge base) of two commits.
      */
     public String findCommonAncestor(RepositoryEntity repository, String commit1Id, String commit2Id) {
         log.info("Finding common ancestor of {} and {}", commit1Id, commit2Id);
@@ -43,67 +44,38 @@ public class CommitGraphService {
             return commit1Id;
         }
 
-        // Get all ancestors of commit1
-        Set<String> ancestors1 = getAllAncestors(repository, commit1Id);
-        ancestors1.add(commit1Id);
+        CommitGraph graph = commitGraphIndex.getGraph(repository, commit1Id, commit2Id);
+        String mergeBase = graph.mergeBase(commit1Id, commit2Id);
 
-        // Traverse commit2's ancestors until we find one in ancestors1
-        Queue<String> queue = new LinkedList<>();
-        Set<String> visited = new HashSet<>();
-        queue.add(commit2Id);
-        visited.add(commit2Id);
-
-        while (!queue.isEmpty()) {
-            String currentCommitId = queue.poll();
-
-            // If this commit is in commit1's ancestors, it's the common ancestor
-            if (ancestors1.contains(currentCommitId)) {
-                log.info("Found common ancestor: {}", currentCommitId);
-                return currentCommitId;
-            }
-
-            // Get parent and continue traversal
-            CommitEntity commit = commitRepository
-                    .findByRepositoryAndCommitId(repository, currentCommitId)
-                    .orElse(null);
-
-            if (commit != null && commit.getParentCommitId() != null) {
-                if (!visited.contains(commit.getParentCommitId())) {
-                    queue.add(commit.getParentCommitId());
-                    visited.add(commit.getParentCommitId());
-                }
-            }
+        if (mergeBase != null) {
+            log.info("Found common ancestor: {}", mergeBase);
+        } else {
+            log.warn("No common ancestor found between {} and {}", commit1Id, commit2Id);
         }
-
-        log.warn("No common ancestor found between {} and {}", commit1Id, commit2Id);
-        return null;
+        return mergeBase;
     }
 
     /**
      * Get all ancestors of a commit (traversing parent chain).
      */
     public Set<String> getAllAncestors(RepositoryEntity repository, String commitId) {
-        Set<String> ancestors = new HashSet<>();
-        Queue<String> queue = new LinkedList<>();
-        queue.add(commitId);
-
-        while (!queue.isEmpty()) {
-            String currentCommitId = queue.poll();
-
-            CommitEntity commit = commitRepository
-                    .findByRepositoryAndCommitId(repository, currentCommitId)
-                    .orElse(null);
-
-            if (commit != null && commit.getParentCommitId() != null) {
-                String parentId = commit.getParentCommitId();
-                if (!ancestors.contains(parentId)) {
-                    ancestors.add(parentId);
-                    queue.add(parentId);
-                }
-            }
-        }
+        return commitGraphIndex.getGraph(repository, commitId).ancestors(commitId);
+    }
+
+    /**
+     * A commit followed by its first-parent ancestors, newest first, at most {@code limit} ids.
+     */
+    public List<String> getFirstParentChain(RepositoryEntity repository, String commitId, int limit) {
+        return commitGraphIndex.getGraph(repository, commitId).firstParentChain(commitId, limit);
+    }
 
-        return ancestors;
+    /**
+     * The commits of {@code candidates} on the first-parent history of a commit, newest
+     * first, at most {@code limit} ids. Only walks as far back as the oldest candidate.
+     */
+    public List<String> filterFirstParentChain(RepositoryEntity repository, String commitId,
+                                               Set<String> candidates, int limit) {
+        return commitGraphIndex.getGraph(repository, commitId).firstParentMatches(commitId, candidates, limit);
     }
 
     /**
@@ -113,7 +85,13 @@ public class CommitGraphService {
         log.info("Calculating distance between target={} and source={}", targetCommitId, sourceCommitId);
 
         String mergeBase = findCommonAncestor(repository, targetCommitId, sourceCommitId);
+        return calculateDistance(repository, targetCommitId, sourceCommitId, mergeBase);
+    }
 
+    private CommitDistance calculateDistance(RepositoryEntity repository,
+                                             String targetCommitId,
+                                             String sourceCommitId,
+                                             String mergeBase) {
         if (mergeBase == null) {
             log.warn("No common ancestor, commits are in separate histories");
             return CommitDistance.builder()
@@ -123,8 +101,10 @@ public class CommitGraphService {
                     .build();
         }
 
-        int ahead = countCommitsBetween(repository, mergeBase, sourceCommitId);
-        int behind = countCommitsBetween(repository, mergeBase, targetCommitId);
+        int[] aheadBehind = commitGraphIndex.getGraph(repository, targetCommitId, sourceCommitId)
+                .aheadBehind(targetCommitId, sourceCommitId);
+        int ahead = aheadBehind != null ? aheadBehind[0] : 0;
+        int behind = aheadBehind != null ? aheadBehind[1] : 0;
 
         log.info("Distance: {} ahead, {} behind (merge base: {})", ahead, behind, mergeBase);
 
@@ -147,29 +127,9 @@ public class CommitGraphService {
             return 0;
         }
 
-        int count = 0;
-        String currentCommitId = descendantId;
-
-        while (currentCommitId != null && !currentCommitId.equals(ancestorId)) {
-            CommitEntity commit = commitRepository
-                    .findByRepositoryAndCommitId(repository, currentCommitId)
-                    .orElse(null);
-
-            if (commit == null) {
-                break;
-            }
-
-            count++;
-            currentCommitId = commit.getParentCommitId();
-
-            // Safety check to prevent infinite loops
-            if (count > 10000) {
-                log.warn("Commit chain too long, stopping at 10000");
-                break;
-            }
-        }
-
-        return count;
+        int[] aheadBehind = commitGraphIndex.getGraph(repository, ancestorId, descendantId)
+                .aheadBehind(ancestorId, descendantId);
+        return aheadBehind != null ? aheadBehind[0] : 0;
     }
 
     /**
@@ -181,8 +141,8 @@ public class CommitGraphService {
         }
 
         // Fast-forward is possible if target is an ancestor of source
-        Set<String> sourceAncestors = getAllAncestors(repository, sourceCommitId);
-        return sourceAncestors.contains(targetCommitId);
+        return commitGraphIndex.getGraph(repository, targetCommitId, sourceCommitId)
+                .isAncestor(targetCommitId, sourceCommitId);
     }
 
     /**
@@ -203,7 +163,7 @@ public class CommitGraphService {
         }
 
         // Calculate distance
-        CommitDistance distance = calculateDistance(repository, targetCommitId, sourceCommitId);
+        CommitDistance distance = calculateDistance(repository, targetCommitId, sourceCommitId, mergeBase);
 
         // Check fast-forward
         boolean canFastForward = canFastForward(repository, targetCommitId, sourceCommitId);
@@ -219,19 +179,16 @@ public class CommitGraphService {
             throw new BranchOperationException("Cannot analyze merge: commits not found");
         }
 
-        // Parse file snapshots
-        Map<String, String> baseFiles = baseCommit != null
-                ? parseFilesJson(baseCommit.getFilesJson())
-                : new HashMap<>();
-        Map<String, String> targetFiles = parseFilesJson(targetCommit.getFilesJson());
-        Map<String, String> sourceFiles = parseFilesJson(sourceCommit.getFilesJson());
+        // Changes on each side since the merge base
+        List<TreeChange> targetChanges = commitSnapshotService.diff(repository, baseCommit, targetCommit);
+        List<TreeChange> sourceChanges = commitSnapshotService.diff(repository, baseCommit, sourceCommit);
 
         // Detect conflicts
-        List<MergeConflict> conflicts = detectConflicts(repository, baseFiles, targetFiles, sourceFiles);
+        List<MergeConflict> conflicts = detectConflicts(repository, targetChanges, sourceChanges);
 
         // Calculate file changes
-        int filesChangedInTarget = countChangedFiles(baseFiles, targetFiles);
-        int filesChangedInSource = countChangedFiles(baseFiles, sourceFiles);
+        int filesChangedInTarget = targetChanges.size();
+        int filesChangedInSource = sourceChanges.size();
 
         // Build summary
         String summary = buildMergeSummary(distance, conflicts, canFastForward);
@@ -250,26 +207,34 @@ public class CommitGraphService {
     }
 
     /**
-     * Detect conflicts between three file snapshots (3-way merge).
+     * Detect conflicts (3-way merge) from the changes each side made since the merge
+     * base. Files changed on neither side cannot conflict and are never looked at.
      */
     private List<MergeConflict> detectConflicts(
             RepositoryEntity repository,
-            Map<String, String> baseFiles,
-            Map<String, String> targetFiles,
-            Map<String, String> sourceFiles) {
+            List<TreeChange> targetChanges,
+            List<TreeChange> sourceChanges) {
 
         List<MergeConflict> conflicts = new ArrayList<>();
 
-        // Get all unique file paths
+        Map<String, TreeChange> targetByPath = new HashMap<>();
+        targetChanges.forEach(change -> targetByPath.put(change.getPath(), change));
+        Map<String, TreeChange> sourceByPath = new HashMap<>();
+        sourceChanges.forEach(change -> sourceByPath.put(change.getPath(), change));
+
+        // Get all changed file paths
         Set<String> allFiles = new HashSet<>();
-        allFiles.addAll(baseFiles.keySet());
-        allFiles.addAll(targetFiles.keySet());
-        allFiles.addAll(sourceFiles.keySet());
+        allFiles.addAll(targetByPath.keySet());
+        allFiles.addAll(sourceByPath.keySet());
 
         for (String filePath : allFiles) {
-            String baseBlob = baseFiles.get(filePath);
-            String targetBlob = targetFiles.get(filePath);
-            String sourceBlob = sourceFiles.get(filePath);
+            TreeChange targetChange = targetByPath.get(filePath);
+            TreeChange sourceChange = sourceByPath.get(filePath);
+
+            // A side without a change still has the base blob
+            String baseBlob = targetChange != null ? targetChange.getOldHash() : sourceChange.getOldHash();
+            String targetBlob = targetChange != null ? targetChange.getNewHash() : baseBlob;
+            String sourceBlob = sourceChange != null ? sourceChange.getNewHash() : baseBlob;
 
             // Determine conflict type
             MergeConflict.ConflictType conflictType = null;
@@ -321,40 +286,6 @@ public class CommitGraphService {
         return conflicts;
     }
 
-    /**
-     * Count number of files changed between two snapshots.
-     */
-    private int countChangedFiles(Map<String, String> baseFiles, Map<String, String> changedFiles) {
-        int count = 0;
-
-        Set<String> allFiles = new HashSet<>();
-        allFiles.addAll(baseFiles.keySet());
-        allFiles.addAll(changedFiles.keySet());
-
-        for (String filePath : allFiles) {
-            String baseBlob = baseFiles.get(filePath);
-            String changedBlob = changedFiles.get(filePath);
-
-            if (!Objects.equals(baseBlob, changedBlob)) {
-                count++;
-            }
-        }
-
-        return count;
-    }
-
-    /**
-     * Parse filesJson from commit.
-     */
-    private Map<String, String> parseFilesJson(String filesJson) {
-        try {
-            return objectMapper.readValue(filesJson, new TypeReference<Map<String, String>>() {});
-        } catch (Exception e) {
-            log.error("Failed to parse filesJson: {}", e.getMessage());
-            return new HashMap<>();
-        }
-    }
-
     /**
      * Build human-readable merge summary.
      */
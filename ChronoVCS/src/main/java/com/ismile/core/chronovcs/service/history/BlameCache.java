@@ -0,0 +1,111 @@
+package com.ismile.core.chronovcs.service.history;
+
+import com.ismile.core.chronovcs.entity.RepositoryEntity;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Caches behind blame: line matches between two blob versions and finished blame
+ * results per (commit, path). Both are immutable once computed, so entries are only
+ * dropped by LRU eviction, bounded by the total number of lines held, or when the
+ * repository is deleted.
+ */
+@Component
+public class BlameCache {
+
+    record MatchKey(Long repositoryId, String oldBlobHash, String newBlobHash) {
+    }
+
+    record ResultKey(Long repositoryId, String commitId, String path) {
+    }
+
+    /**
+     * Origin of every line of one file version: introducing commit and its distance
+     * in first-parent steps.
+     */
+    record Origins(String[] commitIds, int[] ages) {
+    }
+
+    /**
+     * Maximum number of lines held by each of the two caches.
+     */
+    @Value("${chronovcs.blame.cache-max-lines:1000000}")
+    private long maxLines;
+
+    private final Lru<MatchKey, int[]> matches = new Lru<>();
+    private final Lru<ResultKey, Origins> results = new Lru<>();
+
+    int[] getMatch(RepositoryEntity repository, String oldBlobHash, String newBlobHash) {
+        return matches.get(new MatchKey(repository.getId(), oldBlobHash, newBlobHash));
+    }
+
+    void putMatch(RepositoryEntity repository, String oldBlobHash, String newBlobHash, int[] match) {
+        matches.put(new MatchKey(repository.getId(), oldBlobHash, newBlobHash), match, match.length, maxLines);
+    }
+
+    Origins getResult(RepositoryEntity repository, String commitId, String path) {
+        return results.get(new ResultKey(repository.getId(), commitId, path));
+    }
+
+    void putResult(RepositoryEntity repository, String commitId, String path, Origins origins) {
+        results.put(new ResultKey(repository.getId(), commitId, path), origins, origins.ages().length, maxLines);
+    }
+
+    /**
+     * Drop everything cached for a repository.
+     */
+    public void evict(RepositoryEntity repository) {
+        Long repositoryId = repository.getId();
+        matches.removeIf(key -> key.repositoryId().equals(repositoryId));
+        results.removeIf(key -> key.repositoryId().equals(repositoryId));
+    }
+
+    private static final class Lru<K, V> {
+
+        private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>(256, 0.75f, true);
+        private long weight;
+
+        private record Entry<V>(V value, long weight) {
+        }
+
+        synchronized V get(K key) {
+            Entry<V> entry = entries.get(key);
+            return entry != null ? entry.value() : null;
+        }
+
+        synchronized void put(K key, V value, long valueWeight, long maxWeight) {
+            long entryWeight = Math.max(1, valueWeight);
+            if (entryWeight > maxWeight) {
+                return;
+            }
+
+            Entry<V> previous = entries.put(key, new Entry<>(value, entryWeight));
+            if (previous != null) {
+                weight -= previous.weight();
+            }
+            weight += entryWeight;
+
+            Iterator<Entry<V>> it = entries.values().iterator();
+            while (weight > maxWeight && it.hasNext()) {
+                weight -= it.next().weight();
+                it.remove();
+            }
+        }
+
+        synchronized void removeIf(Predicate<K> predicate) {
+            Iterator<Map.Entry<K, Entry<V>>> it = entries.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<K, Entry<V>> entry = it.next();
+                if (predicate.test(entry.getKey())) {
+                    weight -= entry.getValue().weight();
+                    it.remove();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.ismile.core.chronovcs.service.history;
+
+import com.ismile.core.chronovcs.repository.CommitRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Records file changes of commits stored before change recording existed, and of
+ * pushed commits whose recording after the push failed
+ *
+ * Runs in the background shortly after startup and then periodically, one short
+ * transaction per commit, so no request pays for the backfill. Once the old commits
+ * are done a pass is a single query that finds nothing.
+ */
+@Component
+@Slf4j
+public class FileChangeBackfillJob {
+
+    private final CommitRepository commitRepository;
+    private final FileChangeService fileChangeService;
+    private final int batchSize;
+
+    public FileChangeBackfillJob(CommitRepository commitRepository,
+                                 FileChangeService fileChangeService,
+                                 @Value("${chronovcs.history.backfill-batch-size:200}") int batchSize) {
+        this.commitRepository = commitRepository;
+        this.fileChangeService = fileChangeService;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(initialDelayString = "${chronovcs.history.backfill-initial-delay-ms:30000}",
+            fixedDelayString = "${chronovcs.history.backfill-delay-ms:600000}")
+    public void run() {
+        int recorded = 0;
+        int failed = 0;
+        long afterId = 0;
+        List<Long> ids;
+        do {
+            ids = commitRepository.findUnindexedIds(afterId, PageRequest.of(0, batchSize));
+            for (Long id : ids) {
+                try {
+                    if (fileChangeService.backfill(id)) {
+                        recorded++;
+                    }
+                } catch (RuntimeException e) {
+                    // Left unrecorded; retried on the next run
+                    failed++;
+                    log.warn("Failed to record file changes of commit {}: {}", id, e.getMessage());
+                }
+                afterId = id;
+            }
+        } while (ids.size() == batchSize);
+
+        if (recorded > 0 || failed > 0) {
+            log.info("Recorded file changes of {} earlier commits, {} failed", recorded, failed);
+        }
+    }
+}
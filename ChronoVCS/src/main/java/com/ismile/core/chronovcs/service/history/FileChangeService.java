@@ -0,0 +1,160 @@
+package com.ismile.core.chronovcs.service.history;
+
+import com.ismile.core.chronovcs.dto.diff.ChangeType;
+import com.ismile.core.chronovcs.entity.CommitEntity;
+import com.ismile.core.chronovcs.entity.FileChangeEntity;
+import com.ismile.core.chronovcs.entity.RepositoryEntity;
+import com.ismile.core.chronovcs.repository.CommitRepository;
+import com.ismile.core.chronovcs.repository.FileChangeRepository;
+import com.ismile.core.chronovcs.service.diff.DiffService;
+import com.ismile.core.chronovcs.service.tree.CommitSnapshotService;
+import com.ismile.core.chronovcs.service.tree.TreeChange;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records which files every commit changed relative to its parent, with exact
+ * numstat line counts, so file history does not have to diff blobs at read time.
+ *
+ * Pushed commits are recorded after the push transaction commits, so reading and
+ * diffing blobs never holds that transaction open. A commit whose recording fails
+ * stays unrecorded and is picked up by {@link FileChangeBackfillJob}.
+ */
+@Service
+@Slf4j
+public class FileChangeService {
+
+    private final CommitRepository commitRepository;
+    private final FileChangeRepository fileChangeRepository;
+    private final CommitSnapshotService commitSnapshotService;
+    private final DiffService diffService;
+    private final TransactionTemplate transactionTemplate;
+
+    public FileChangeService(CommitRepository commitRepository,
+                             FileChangeRepository fileChangeRepository,
+                             CommitSnapshotService commitSnapshotService,
+                             DiffService diffService,
+                             PlatformTransactionManager transactionManager) {
+        this.commitRepository = commitRepository;
+        this.fileChangeRepository = fileChangeRepository;
+        this.commitSnapshotService = commitSnapshotService;
+        this.diffService = diffService;
+        // Also used from after-commit callbacks, where the finished transaction is still bound
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Record the file changes of a commit once the current transaction commits, or
+     * right away if none is active. Failures are logged and left to the backfill job.
+     */
+    public void recordAfterCommit(RepositoryEntity repository, String commitId) {
+        Runnable recording = () -> {
+            try {
+                record(repository, commitId);
+            } catch (RuntimeException e) {
+                log.warn("Failed to record file changes of commit {}: {}", commitId, e.getMessage());
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    recording.run();
+                }
+            });
+            return;
+        }
+        recording.run();
+    }
+
+    /**
+     * Record the file changes of a commit within the caller's transaction. A parent
+     * that is not stored is treated as an empty snapshot.
+     */
+    public void recordChanges(RepositoryEntity repository, CommitEntity commit) {
+        fileChangeRepository.saveAll(computeChanges(repository, commit));
+        commit.setChangesIndexed(true);
+        commitRepository.save(commit);
+    }
+
+    /**
+     * Record the changes of a stored commit that are not recorded yet. They are
+     * computed outside any transaction; the commit is then claimed and the rows saved
+     * in one short transaction, so concurrent recorders (other instances included)
+     * store them once.
+     *
+     * @return false if the commit is gone or was already recorded elsewhere
+     */
+    public boolean record(RepositoryEntity repository, String commitId) {
+        CommitEntity commit = commitRepository.findByRepositoryAndCommitId(repository, commitId).orElse(null);
+        if (commit == null || Boolean.TRUE.equals(commit.getChangesIndexed())) {
+            return false;
+        }
+        return store(commit, computeChanges(repository, commit));
+    }
+
+    /**
+     * Same as {@link #record(RepositoryEntity, String)}, for the backfill job which
+     * only knows commit ids.
+     */
+    public boolean backfill(Long commitId) {
+        CommitEntity commit = commitRepository.findWithRepositoryById(commitId).orElse(null);
+        if (commit == null || Boolean.TRUE.equals(commit.getChangesIndexed())) {
+            return false;
+        }
+        return store(commit, computeChanges(commit.getRepository(), commit));
+    }
+
+    private boolean store(CommitEntity commit, List<FileChangeEntity> rows) {
+        Boolean stored = transactionTemplate.execute(status -> {
+            if (commitRepository.claimForIndexing(commit.getId()) == 0) {
+                return false;
+            }
+            fileChangeRepository.saveAll(rows);
+            return true;
+        });
+        return Boolean.TRUE.equals(stored);
+    }
+
+    private List<FileChangeEntity> computeChanges(RepositoryEntity repository, CommitEntity commit) {
+        CommitEntity parent = commit.getParentCommitId() != null
+                ? commitRepository.findByRepositoryAndCommitId(repository, commit.getParentCommitId()).orElse(null)
+                : null;
+
+        List<FileChangeEntity> rows = new ArrayList<>();
+        for (TreeChange change : commitSnapshotService.diff(repository, parent, commit)) {
+            ChangeType changeType = change.getOldHash() == null ? ChangeType.ADDED
+                    : change.getNewHash() == null ? ChangeType.DELETED
+                    : ChangeType.MODIFIED;
+
+            int[] stat = null;
+            try {
+                stat = diffService.numstat(repository, change.getPath(), change.getOldHash(), change.getNewHash());
+            } catch (Exception e) {
+                log.warn("Failed to count line changes for {}: {}", change.getPath(), e.getMessage());
+            }
+
+            rows.add(FileChangeEntity.builder()
+                    .repository(repository)
+                    .commit(commit)
+                    .path(change.getPath())
+                    .changeType(changeType)
+                    .oldBlobHash(change.getOldHash())
+                    .newBlobHash(change.getNewHash())
+                    .linesAdded(stat != null ? stat[0] : null)
+                    .linesDeleted(stat != null ? stat[1] : null)
+                    .build());
+        }
+
+        return rows;
+    }
+}
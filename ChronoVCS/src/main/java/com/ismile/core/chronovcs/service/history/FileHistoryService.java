@@ -1,19 +1,23 @@
 package com.ismile.core.chronovcs.service.history;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.ismile.core.chronovcs.dto.diff.ChangeType;
+import com.ismile.core.chronovcs.dto.diff.DiffAlgorithm;
 import com.ismile.core.chronovcs.dto.history.*;
 import com.ismile.core.chronovcs.entity.BlobEntity;
 import com.ismile.core.chronovcs.entity.BranchHeadEntity;
 import com.ismile.core.chronovcs.entity.CommitEntity;
+import com.ismile.core.chronovcs.entity.FileChangeEntity;
 import com.ismile.core.chronovcs.entity.RepositoryEntity;
 import com.ismile.core.chronovcs.exception.BranchNotFoundException;
 import com.ismile.core.chronovcs.exception.BranchOperationException;
 import com.ismile.core.chronovcs.repository.BranchHeadRepository;
 import com.ismile.core.chronovcs.repository.CommitRepository;
+import com.ismile.core.chronovcs.repository.FileChangeRepository;
+import com.ismile.core.chronovcs.service.diff.DiffService;
+import com.ismile.core.chronovcs.service.graph.CommitGraphService;
 import com.ismile.core.chronovcs.service.repository.RepositoryService;
 import com.ismile.core.chronovcs.service.storage.BlobStorageService;
+import com.ismile.core.chronovcs.service.tree.CommitSnapshotService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -28,14 +32,25 @@ import java.util.stream.Collectors;
 @Slf4j
 public class FileHistoryService {
 
+    /**
+     * Ancestors loaded per query while walking history for blame.
+     */
+    private static final int BLAME_BATCH_SIZE = 256;
+
     private final CommitRepository commitRepository;
     private final BranchHeadRepository branchHeadRepository;
     private final RepositoryService repositoryService;
     private final BlobStorageService blobStorageService;
-    private final ObjectMapper objectMapper;
+    private final CommitSnapshotService commitSnapshotService;
+    private final CommitGraphService commitGraphService;
+    private final DiffService diffService;
+    private final BlameCache blameCache;
+    private final FileChangeRepository fileChangeRepository;
 
     /**
-     * Get file history for a specific file path.
+     * Get file history for a specific file path: the commits on the first-parent
+     * history of the branch that changed it, newest first. Commits stored before
+     * changes were recorded show up once {@link FileChangeBackfillJob} reaches them.
      */
     @Transactional(readOnly = true)
     public FileHistoryResponse getFileHistory(String repoKey, String filePath, String branch, Integer limit) {
@@ -54,97 +69,34 @@ public class FileHistoryService {
             throw new BranchOperationException("Branch has no commits: " + branchName);
         }
 
-        // Traverse commit history and find commits that modified this file
-        List<FileHistoryEntry> history = new ArrayList<>();
-        Set<String> visitedCommits = new HashSet<>();
-        Queue<String> queue = new LinkedList<>();
-        queue.add(headCommitId);
-        visitedCommits.add(headCommitId);
+        // Recorded changes of this path, then the ones on the branch history in order
+        Map<String, FileChangeEntity> changesByCommit = new HashMap<>();
+        for (FileChangeEntity change : fileChangeRepository.findByRepositoryAndPath(repository, filePath)) {
+            changesByCommit.put(change.getCommit().getCommitId(), change);
+        }
 
-        Map<String, String> previousFiles = null;
-        int count = 0;
         int maxLimit = limit != null ? limit : 100;
+        List<String> commitIds = commitGraphService.filterFirstParentChain(
+                repository, headCommitId, changesByCommit.keySet(), maxLimit);
 
-        while (!queue.isEmpty() && count < maxLimit) {
-            String commitId = queue.poll();
-
-            CommitEntity commit = commitRepository
-                    .findByRepositoryAndCommitId(repository, commitId)
-                    .orElse(null);
-
-            if (commit == null) {
-                continue;
-            }
-
-            // Parse files snapshot
-            Map<String, String> currentFiles = parseFilesJson(commit.getFilesJson());
-
-            // Check if this file exists in current commit
-            String currentBlobHash = currentFiles.get(filePath);
-
-            // Determine change type
-            ChangeType changeType = null;
-            String oldPath = filePath;
-            Integer linesAdded = null;
-            Integer linesDeleted = null;
-
-            if (previousFiles != null) {
-                String previousBlobHash = previousFiles.get(filePath);
-
-                if (previousBlobHash == null && currentBlobHash != null) {
-                    // File was deleted in later commit, exists here
-                    changeType = ChangeType.DELETED;
-                } else if (previousBlobHash != null && currentBlobHash == null) {
-                    // File was added in later commit, doesn't exist here
-                    changeType = ChangeType.ADDED;
-                } else if (previousBlobHash != null && currentBlobHash != null
-                        && !previousBlobHash.equals(currentBlobHash)) {
-                    // File was modified
-                    changeType = ChangeType.MODIFIED;
-
-                    // Try to calculate line changes
-                    try {
-                        int[] changes = calculateLineChanges(repository, currentBlobHash, previousBlobHash);
-                        linesAdded = changes[0];
-                        linesDeleted = changes[1];
-                    } catch (Exception e) {
-                        log.warn("Failed to calculate line changes: {}", e.getMessage());
-                    }
-                }
-            } else {
-                // First commit in history
-                if (currentBlobHash != null) {
-                    changeType = ChangeType.ADDED;
-                }
-            }
-
-            // Add to history if file was affected
-            if (changeType != null) {
-                history.add(FileHistoryEntry.builder()
-                        .commitId(commitId)
-                        .message(commit.getMessage())
-                        .author(extractAuthor(commit))
-                        .timestamp(commit.getTimestamp())
-                        .branch(commit.getBranch())
-                        .changeType(changeType)
-                        .oldPath(oldPath)
-                        .newPath(filePath)
-                        .blobHash(currentBlobHash)
-                        .linesAdded(linesAdded)
-                        .linesDeleted(linesDeleted)
-                        .createdAt(commit.getCreatedAt())
-                        .build());
-
-                count++;
-            }
-
-            // Continue to parent
-            if (commit.getParentCommitId() != null && !visitedCommits.contains(commit.getParentCommitId())) {
-                queue.add(commit.getParentCommitId());
-                visitedCommits.add(commit.getParentCommitId());
-            }
-
-            previousFiles = currentFiles;
+        List<FileHistoryEntry> history = new ArrayList<>();
+        for (String commitId : commitIds) {
+            FileChangeEntity change = changesByCommit.get(commitId);
+            CommitEntity commit = change.getCommit();
+            history.add(FileHistoryEntry.builder()
+                    .commitId(commit.getCommitId())
+                    .message(commit.getMessage())
+                    .author(extractAuthor(commit))
+                    .timestamp(commit.getTimestamp())
+                    .branch(commit.getBranch())
+                    .changeType(change.getChangeType())
+                    .oldPath(filePath)
+                    .newPath(filePath)
+                    .blobHash(change.getNewBlobHash())
+                    .linesAdded(change.getLinesAdded())
+                    .linesDeleted(change.getLinesDeleted())
+                    .createdAt(commit.getCreatedAt())
+                    .build());
         }
 
         // Check if file exists in HEAD
@@ -152,9 +104,8 @@ public class FileHistoryService {
                 .findByRepositoryAndCommitId(repository, headCommitId)
                 .orElseThrow(() -> new BranchOperationException("HEAD commit not found"));
 
-        Map<String, String> headFiles = parseFilesJson(headCommit.getFilesJson());
-        boolean exists = headFiles.containsKey(filePath);
-        String currentBlobHash = headFiles.get(filePath);
+        String currentBlobHash = commitSnapshotService.findBlobHash(repository, headCommit, filePath);
+        boolean exists = currentBlobHash != null;
 
         return FileHistoryResponse.builder()
                 .filePath(filePath)
@@ -186,8 +137,7 @@ public class FileHistoryService {
                 .orElseThrow(() -> new BranchOperationException("Commit not found: " + commitId));
 
         // Get file content
-        Map<String, String> files = parseFilesJson(commit.getFilesJson());
-        String blobHash = files.get(filePath);
+        String blobHash = commitSnapshotService.findBlobHash(repository, commit, filePath);
 
         if (blobHash == null) {
             throw new BranchOperationException("File not found in commit: " + filePath);
@@ -217,26 +167,41 @@ public class FileHistoryService {
         String fileContent = new String(content, StandardCharsets.UTF_8);
         String[] lines = fileContent.split("\n", -1);
 
+        // Attribute every line to the commit that introduced it
+        Map<String, CommitEntity> commits = new HashMap<>();
+        commits.put(commitId, commit);
+        BlameCache.Origins origins = blame(repository, commit, filePath, blobHash, lines, commits);
+
+        // Load commits only known from cached results
+        Set<String> missing = new HashSet<>(Arrays.asList(origins.commitIds()));
+        missing.removeAll(commits.keySet());
+        if (!missing.isEmpty()) {
+            commitRepository.findByRepositoryAndCommitIdIn(repository, missing)
+                    .forEach(origin -> commits.put(origin.getCommitId(), origin));
+        }
+
         // Build blame information
         List<BlameLine> blameLines = new ArrayList<>();
         Set<String> uniqueCommits = new HashSet<>();
         Set<String> uniqueAuthors = new HashSet<>();
 
-        // For now, simple implementation: all lines attributed to current commit
-        // TODO: Implement proper line-by-line blame tracking through history
         for (int i = 0; i < lines.length; i++) {
+            String originId = origins.commitIds()[i];
+            CommitEntity origin = commits.get(originId);
+            String author = origin != null ? extractAuthor(origin) : "Unknown";
+
             blameLines.add(BlameLine.builder()
                     .lineNumber(i + 1)
-                    .commitId(commitId)
-                    .commitMessage(truncate(commit.getMessage(), 50))
-                    .author(extractAuthor(commit))
-                    .timestamp(commit.getTimestamp())
+                    .commitId(originId)
+                    .commitMessage(origin != null ? truncate(origin.getMessage(), 50) : null)
+                    .author(author)
+                    .timestamp(origin != null ? origin.getTimestamp() : null)
                     .content(lines[i])
-                    .age(0)
+                    .age(origins.ages()[i])
                     .build());
 
-            uniqueCommits.add(commitId);
-            uniqueAuthors.add(extractAuthor(commit));
+            uniqueCommits.add(originId);
+            uniqueAuthors.add(author);
         }
 
         return BlameResponse.builder()
@@ -253,56 +218,130 @@ public class FileHistoryService {
     }
 
     /**
-     * Calculate line changes between two blobs.
-     * Returns [linesAdded, linesDeleted].
+     * Walk the first-parent history of a file backwards, diffing each pair of
+     * consecutive versions and carrying every still unattributed line into the older
+     * version. A line is attributed to the commit whose diff inserted it. The walk
+     * stops as soon as all lines are attributed or it reaches a commit whose blame
+     * is already cached.
+     *
+     * @param commits receives every commit entity loaded during the walk
      */
-    private int[] calculateLineChanges(RepositoryEntity repository, String oldHash, String newHash) {
-        try {
-            BlobEntity oldBlob = blobStorageService.findByHash(repository, oldHash).orElse(null);
-            BlobEntity newBlob = blobStorageService.findByHash(repository, newHash).orElse(null);
-
-            if (oldBlob == null || newBlob == null) {
-                return new int[]{0, 0};
-            }
-
-            if (!isTextFile(oldBlob.getContentType()) || !isTextFile(newBlob.getContentType())) {
-                return new int[]{0, 0};
-            }
+    private BlameCache.Origins blame(RepositoryEntity repository,
+                                     CommitEntity commit,
+                                     String filePath,
+                                     String blobHash,
+                                     String[] lines,
+                                     Map<String, CommitEntity> commits) {
+        BlameCache.Origins cached = blameCache.getResult(repository, commit.getCommitId(), filePath);
+        if (cached != null) {
+            return cached;
+        }
 
-            byte[] oldContent = blobStorageService.loadContent(oldBlob);
-            byte[] newContent = blobStorageService.loadContent(newBlob);
+        int lineCount = lines.length;
+        String[] originIds = new String[lineCount];
+        int[] ages = new int[lineCount];
+        // Index of each final line in the version being walked, -1 once attributed
+        int[] positions = new int[lineCount];
+        for (int i = 0; i < lineCount; i++) {
+            positions[i] = i;
+        }
+        int remaining = lineCount;
+
+        String currentId = commit.getCommitId();
+        String currentBlob = blobHash;
+        String[] currentLines = lines;
+        int step = 0;
+
+        List<String> chain = commitGraphService.getFirstParentChain(repository, currentId, Integer.MAX_VALUE);
+        int next = 1;
+
+        walk:
+        while (remaining > 0 && next < chain.size()) {
+            // 1) Load the next batch of ancestors and the file's blob in each
+            List<String> batch = chain.subList(next, Math.min(next + BLAME_BATCH_SIZE, chain.size()));
+            next += batch.size();
+            List<CommitEntity> batchCommits = commitRepository.findByRepositoryAndCommitIdIn(repository, batch);
+            batchCommits.forEach(entity -> commits.put(entity.getCommitId(), entity));
+            Map<String, String> blobHashes = commitSnapshotService.findBlobHashes(repository, batchCommits, filePath);
+
+            for (String parentId : batch) {
+                String parentBlob = blobHashes.get(parentId);
+                if (parentBlob == null) {
+                    // File did not exist before: the current commit added what is left
+                    break walk;
+                }
 
-            String oldText = new String(oldContent, StandardCharsets.UTF_8);
-            String newText = new String(newContent, StandardCharsets.UTF_8);
+                // 2) Carry lines through the diff unless the file is unchanged
+                if (!parentBlob.equals(currentBlob)) {
+                    int[] match = blameCache.getMatch(repository, parentBlob, currentBlob);
+                    String[] parentLines = null;
+                    if (match == null) {
+                        if (currentLines == null) {
+                            currentLines = loadLines(repository, currentBlob);
+                        }
+                        parentLines = loadLines(repository, parentBlob);
+                        match = diffService.matchLines(parentLines, currentLines, DiffAlgorithm.HISTOGRAM);
+                        blameCache.putMatch(repository, parentBlob, currentBlob, match);
+                    }
 
-            String[] oldLines = oldText.split("\n", -1);
-            String[] newLines = newText.split("\n", -1);
+                    for (int i = 0; i < lineCount; i++) {
+                        if (positions[i] < 0) {
+                            continue;
+                        }
+                        int parentPosition = match[positions[i]];
+                        if (parentPosition < 0) {
+                            originIds[i] = currentId;
+                            ages[i] = step;
+                            remaining--;
+                        }
+                        positions[i] = parentPosition;
+                    }
+                    currentLines = parentLines;
+                }
 
-            int linesAdded = 0;
-            int linesDeleted = 0;
+                currentId = parentId;
+                currentBlob = parentBlob;
+                step++;
 
-            // Simple diff
-            Set<String> oldSet = new HashSet<>(Arrays.asList(oldLines));
-            Set<String> newSet = new HashSet<>(Arrays.asList(newLines));
+                if (remaining == 0) {
+                    break walk;
+                }
 
-            for (String line : newLines) {
-                if (!oldSet.contains(line)) {
-                    linesAdded++;
+                // 3) Reuse an earlier blame of this version
+                BlameCache.Origins parentOrigins = blameCache.getResult(repository, currentId, filePath);
+                if (parentOrigins != null) {
+                    for (int i = 0; i < lineCount; i++) {
+                        if (positions[i] >= 0) {
+                            originIds[i] = parentOrigins.commitIds()[positions[i]];
+                            ages[i] = step + parentOrigins.ages()[positions[i]];
+                            positions[i] = -1;
+                        }
+                    }
+                    remaining = 0;
+                    break walk;
                 }
             }
+        }
 
-            for (String line : oldLines) {
-                if (!newSet.contains(line)) {
-                    linesDeleted++;
-                }
+        // Whatever is left was introduced by the oldest version reached
+        for (int i = 0; i < lineCount; i++) {
+            if (positions[i] >= 0) {
+                originIds[i] = currentId;
+                ages[i] = step;
             }
+        }
 
-            return new int[]{linesAdded, linesDeleted};
+        BlameCache.Origins origins = new BlameCache.Origins(originIds, ages);
+        blameCache.putResult(repository, commit.getCommitId(), filePath, origins);
+        log.debug("Blamed {} ({} lines) at {} walking {} commits",
+                filePath, lineCount, commit.getCommitId(), step);
+        return origins;
+    }
 
-        } catch (Exception e) {
-            log.error("Failed to calculate line changes: {}", e.getMessage());
-            return new int[]{0, 0};
-        }
+    private String[] loadLines(RepositoryEntity repository, String blobHash) {
+        return blobStorageService.findByHash(repository, blobHash)
+                .map(blob -> new String(blobStorageService.loadContent(blob), StandardCharsets.UTF_8).split("\n", -1))
+                .orElse(new String[0]);
     }
 
     /**
@@ -323,18 +362,6 @@ public class FileHistoryService {
         return null;
     }
 
-    /**
-     * Parse filesJson to map.
-     */
-    private Map<String, String> parseFilesJson(String filesJson) {
-        try {
-            return objectMapper.readValue(filesJson, new TypeReference<Map<String, String>>() {});
-        } catch (Exception e) {
-            log.error("Failed to parse filesJson: {}", e.getMessage());
-            return new HashMap<>();
-        }
-    }
-
     /**
      * Extract author from commit (placeholder for now).
      */
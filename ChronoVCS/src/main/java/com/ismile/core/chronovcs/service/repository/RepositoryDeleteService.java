@@ -4,13 +4,18 @@ import com.ismile.core.chronovcs.entity.RepositoryEntity;
 import com.ismile.core.chronovcs.repository.BlobRepository;
 import com.ismile.core.chronovcs.repository.BranchHeadRepository;
 import com.ismile.core.chronovcs.repository.CommitRepository;
+import com.ismile.core.chronovcs.repository.FileChangeRepository;
 import com.ismile.core.chronovcs.repository.RepoPermissionRepository;
 import com.ismile.core.chronovcs.repository.RepositoryRepository;
 import com.ismile.core.chronovcs.repository.RepositorySettingsRepository;
 import com.ismile.core.chronovcs.repository.TokenPermissionRepository;
+import com.ismile.core.chronovcs.repository.TreeRepository;
 import com.ismile.core.chronovcs.repository.PullRequestRepository;
 import com.ismile.core.chronovcs.repository.ReleaseRepository;
 import com.ismile.core.chronovcs.repository.ReleaseTaskRepository;
+import com.ismile.core.chronovcs.service.graph.CommitGraphIndex;
+import com.ismile.core.chronovcs.service.history.BlameCache;
+import com.ismile.core.chronovcs.service.tree.SnapshotCache;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -23,12 +28,17 @@ public class RepositoryDeleteService {
     private final RepositorySettingsRepository settingsRepository;
     private final BranchHeadRepository branchHeadRepository;
     private final CommitRepository commitRepository;
+    private final FileChangeRepository fileChangeRepository;
     private final BlobRepository blobRepository;
+    private final TreeRepository treeRepository;
     private final RepoPermissionRepository repoPermissionRepository;
     private final TokenPermissionRepository tokenPermissionRepository;
     private final ReleaseRepository releaseRepository;
     private final ReleaseTaskRepository releaseTaskRepository;
     private final PullRequestRepository pullRequestRepository;
+    private final CommitGraphIndex commitGraphIndex;
+    private final SnapshotCache snapshotCache;
+    private final BlameCache blameCache;
 
     @Transactional
     public void deleteRepository(String repoKey) {
@@ -44,9 +54,14 @@ public class RepositoryDeleteService {
         repoPermissionRepository.deleteAllByRepository(repository);
         settingsRepository.deleteByRepositoryId(repository.getId());
         branchHeadRepository.deleteAllByRepository(repository);
+        fileChangeRepository.deleteAllByRepository(repository);
         commitRepository.deleteAllByRepository(repository);
+        treeRepository.deleteAllByRepository(repository);
         blobRepository.deleteAllByRepository(repository);
 
         repositoryRepository.delete(repository);
+        commitGraphIndex.evict(repository);
+        snapshotCache.evict(repository);
+        blameCache.evict(repository);
     }
 }
@@ -2,6 +2,13 @@ package com.ismile.core.chronovcs.service.storage;
 
 import com.ismile.core.chronovcs.entity.StorageType;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+
 public interface BlobStorageClient {
 
     /**
@@ -20,8 +27,55 @@ public interface BlobStorageClient {
      */
     String save(String repoKey, String blobHash, byte[] content, String contentType);
 
+    /**
+     * Save blob content read from a stream and return storage-specific path/key.
+     * Exactly {@code contentLength} bytes are consumed from {@code content};
+     * the stream is not closed.
+     *
+     * @param repoKey       logical repository key
+     * @param blobHash      content hash (used to build directory structure)
+     * @param content       stream positioned at the start of the blob bytes
+     * @param contentLength number of bytes to read from the stream
+     * @param contentType   optional content type
+     * @return storagePath to be stored in DB
+     */
+    String save(String repoKey, String blobHash, InputStream content, long contentLength, String contentType);
+
     /**
      * Load blob content by storagePath (as stored in DB).
      */
     byte[] load(String storagePath);
-}
\ No newline at end of file
+
+    /**
+     * Open blob content for reading without buffering it in memory.
+     * The caller must close the returned stream.
+     */
+    InputStream openStream(String storagePath);
+
+    /**
+     * Channel variant of {@link #openStream(String)}.
+     * The caller must close the returned channel.
+     */
+    default ReadableByteChannel openChannel(String storagePath) {
+        return Channels.newChannel(openStream(storagePath));
+    }
+
+    /**
+     * Copy blob content to the given channel and return the number of bytes written.
+     * Implementations backed by files should override this with a zero-copy transfer.
+     */
+    default long transferTo(String storagePath, WritableByteChannel target) throws IOException {
+        try (ReadableByteChannel source = openChannel(storagePath)) {
+            ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+            long total = 0;
+            while (source.read(buffer) >= 0) {
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    total += target.write(buffer);
+                }
+                buffer.clear();
+            }
+            return total;
+        }
+    }
+}
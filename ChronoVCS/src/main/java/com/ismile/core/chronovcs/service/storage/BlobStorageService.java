@@ -3,6 +3,11 @@ package com.ismile.core.chronovcs.service.storage;
 import com.ismile.core.chronovcs.entity.BlobEntity;
 import com.ismile.core.chronovcs.entity.RepositoryEntity;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Collection;
 import java.util.Optional;
 
 public interface BlobStorageService {
@@ -17,6 +22,24 @@ public interface BlobStorageService {
                         byte[] content,
                         String contentType);
 
+    /**
+     * Write streamed blob content to storage without persisting its metadata, so the
+     * caller does not hold a transaction while the stream is read. Returns the unsaved
+     * entity for {@link #saveMetadata}, or empty if the blob is already stored (the
+     * stream is then left untouched).
+     */
+    Optional<BlobEntity> writeContent(RepositoryEntity repository,
+                                      String blobHash,
+                                      InputStream content,
+                                      long contentLength,
+                                      String contentType);
+
+    /**
+     * Persist metadata of blobs written with {@link #writeContent}.
+     * Blobs stored by someone else in the meantime are skipped.
+     */
+    void saveMetadata(RepositoryEntity repository, Collection<BlobEntity> blobs);
+
     /**
      * Lookup blob metadata by repo and hash.
      */
@@ -26,4 +49,22 @@ public interface BlobStorageService {
      * Load blob bytes from underlying storage.
      */
     byte[] loadContent(BlobEntity blob);
-}
\ No newline at end of file
+
+    /**
+     * Open blob content as a stream. The caller must close it.
+     */
+    InputStream openContent(BlobEntity blob);
+
+    /**
+     * Open blob content as a channel. The caller must close it.
+     */
+    ReadableByteChannel openChannel(BlobEntity blob);
+
+    /**
+     * Write blob content to the given output without loading it into memory.
+     * The output stream is flushed but not closed.
+     *
+     * @return number of bytes written
+     */
+    long transferContent(BlobEntity blob, OutputStream out) throws IOException;
+}
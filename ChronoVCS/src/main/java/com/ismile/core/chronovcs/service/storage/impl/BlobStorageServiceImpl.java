@@ -9,11 +9,20 @@ import com.ismile.core.chronovcs.service.storage.BlobStorageService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.EnumMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 @Slf4j
@@ -68,6 +77,64 @@ public class BlobStorageServiceImpl implements BlobStorageService {
         return blobRepository.save(entity);
     }
 
+    @Override
+    public Optional<BlobEntity> writeContent(RepositoryEntity repository,
+                                             String blobHash,
+                                             InputStream content,
+                                             long contentLength,
+                                             String contentType) {
+
+        if (blobRepository.findByRepositoryAndHash(repository, blobHash).isPresent()) {
+            return Optional.empty();
+        }
+
+        return Optional.of(write(repository, blobHash, content, contentLength, contentType));
+    }
+
+    @Override
+    public void saveMetadata(RepositoryEntity repository, Collection<BlobEntity> blobs) {
+        if (blobs.isEmpty()) {
+            return;
+        }
+
+        Set<String> stored = new HashSet<>();
+        List<String> hashes = blobs.stream().map(BlobEntity::getHash).toList();
+        for (BlobEntity blob : blobRepository.findByRepositoryAndHashIn(repository, hashes)) {
+            stored.add(blob.getHash());
+        }
+
+        List<BlobEntity> missing = new ArrayList<>();
+        for (BlobEntity blob : blobs) {
+            // stored.add also drops a hash repeated within the batch
+            if (stored.add(blob.getHash())) {
+                missing.add(blob);
+            }
+        }
+        blobRepository.saveAll(missing);
+    }
+
+    private BlobEntity write(RepositoryEntity repository,
+                             String blobHash,
+                             InputStream content,
+                             long contentLength,
+                             String contentType) {
+
+        StorageType storageType = StorageType.LOCAL;
+        BlobStorageClient client = resolveClient(storageType);
+
+        String storagePath = client.save(repository.getRepoKey(), blobHash, content, contentLength, contentType);
+
+        return BlobEntity.builder()
+                .repository(repository)
+                .hash(blobHash)
+                .storageType(storageType)
+                .storagePath(storagePath)
+                .contentType(contentType)
+                .contentSize(contentLength)
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+
     @Override
     public Optional<BlobEntity> findByHash(RepositoryEntity repository, String hash) {
         return blobRepository.findByRepositoryAndHash(repository, hash);
@@ -79,6 +146,26 @@ public class BlobStorageServiceImpl implements BlobStorageService {
         return client.load(blob.getStoragePath());
     }
 
+    @Override
+    public InputStream openContent(BlobEntity blob) {
+        BlobStorageClient client = resolveClient(blob.getStorageType());
+        return client.openStream(blob.getStoragePath());
+    }
+
+    @Override
+    public ReadableByteChannel openChannel(BlobEntity blob) {
+        BlobStorageClient client = resolveClient(blob.getStorageType());
+        return client.openChannel(blob.getStoragePath());
+    }
+
+    @Override
+    public long transferContent(BlobEntity blob, OutputStream out) throws IOException {
+        BlobStorageClient client = resolveClient(blob.getStorageType());
+        long written = client.transferTo(blob.getStoragePath(), Channels.newChannel(out));
+        out.flush();
+        return written;
+    }
+
     private BlobStorageClient resolveClient(StorageType type) {
         BlobStorageClient client = clients.get(type);
         if (client == null) {
@@ -1,14 +1,15 @@
 package com.ismile.core.chronovcs.service.storage.impl;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.ismile.core.chronovcs.dto.push.CommitSnapshotDto;
 import com.ismile.core.chronovcs.entity.BranchHeadEntity;
 import com.ismile.core.chronovcs.entity.CommitEntity;
 import com.ismile.core.chronovcs.entity.RepositoryEntity;
 import com.ismile.core.chronovcs.repository.BranchHeadRepository;
 import com.ismile.core.chronovcs.repository.CommitRepository;
+import com.ismile.core.chronovcs.service.graph.CommitGraphIndex;
+import com.ismile.core.chronovcs.service.history.FileChangeService;
 import com.ismile.core.chronovcs.service.storage.CommitStorage;
+import com.ismile.core.chronovcs.service.tree.TreeService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
@@ -18,7 +19,9 @@ public class CommitStorageImpl implements CommitStorage {
 
     private final CommitRepository commitRepository;
     private final BranchHeadRepository branchHeadRepository;
-    private final ObjectMapper objectMapper;
+    private final TreeService treeService;
+    private final FileChangeService fileChangeService;
+    private final CommitGraphIndex commitGraphIndex;
 
     @Override
     public void saveCommit(RepositoryEntity repo, String branch, CommitSnapshotDto commit) {
@@ -36,14 +39,10 @@ public class CommitStorageImpl implements CommitStorage {
             return;
         }
 
-        String filesJson;
-        try {
-            filesJson = objectMapper.writeValueAsString(
-                    commit.getFiles() != null ? commit.getFiles() : java.util.Map.of()
-            );
-        } catch (JsonProcessingException e) {
-            throw new RuntimeException("Failed to serialize commit files to JSON", e);
-        }
+        String rootTreeHash = treeService.writeTree(
+                repo,
+                commit.getFiles() != null ? commit.getFiles() : java.util.Map.of()
+        );
 
         CommitEntity entity = CommitEntity.builder()
                 .repository(repo)
@@ -52,10 +51,12 @@ public class CommitStorageImpl implements CommitStorage {
                 .branch(branch)
                 .message(commit.getMessage())
                 .timestamp(commit.getTimestamp())
-                .filesJson(filesJson)
+                .rootTreeHash(rootTreeHash)
                 .build();
 
         commitRepository.save(entity);
+        commitGraphIndex.recordCommit(repo, entity.getCommitId(), entity.getParentCommitId());
+        fileChangeService.recordAfterCommit(repo, entity.getCommitId());
     }
 
     @Override
@@ -1,21 +1,34 @@
 package com.ismile.core.chronovcs.service.storage.impl;
 
 import com.ismile.core.chronovcs.entity.StorageType;
+import com.ismile.core.chronovcs.metrics.CountingInputStream;
+import com.ismile.core.chronovcs.metrics.VcsMetrics;
 import com.ismile.core.chronovcs.service.storage.BlobStorageClient;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
+import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class LocalBlobStorageClient implements BlobStorageClient {
 
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
     private final LocalStorageProperties properties;
+    private final VcsMetrics metrics;
 
     @Override
     public StorageType getType() {
@@ -24,19 +37,16 @@ public class LocalBlobStorageClient implements BlobStorageClient {
 
     @Override
     public String save(String repoKey, String blobHash, byte[] content, String contentType) {
-        try {
-            if (properties.getBasePath() == null || properties.getBasePath().isBlank()) {
-                throw new IllegalStateException("Local blob storage basePath is not configured");
-            }
-
-            String prefix = blobHash.substring(0, 2);
-            String rest = blobHash.substring(2);
-
-            // Store relative path: <repoKey>/<prefix>/<rest>
-            String relativePath = repoKey + "/" + prefix + "/" + rest;
+        String path = metrics.time(VcsMetrics.STORAGE, repoKey,
+                () -> write(repoKey, blobHash, content), "operation", "save");
+        metrics.count(VcsMetrics.STORAGE_BYTES, repoKey, content.length, "direction", "write");
+        return path;
+    }
 
-            Path baseDir = Path.of(properties.getBasePath());
-            Path filePath = baseDir.resolve(relativePath);
+    private String write(String repoKey, String blobHash, byte[] content) {
+        try {
+            String relativePath = buildRelativePath(repoKey, blobHash);
+            Path filePath = resolve(relativePath);
 
             Files.createDirectories(filePath.getParent());
             Files.write(filePath, content);
@@ -51,22 +61,162 @@ public class LocalBlobStorageClient implements BlobStorageClient {
     }
 
     @Override
-    public byte[] load(String storagePath) {
+    public String save(String repoKey, String blobHash, InputStream content, long contentLength, String contentType) {
+        String path = metrics.time(VcsMetrics.STORAGE, repoKey,
+                () -> write(repoKey, blobHash, content, contentLength), "operation", "save");
+        metrics.count(VcsMetrics.STORAGE_BYTES, repoKey, contentLength, "direction", "write");
+        return path;
+    }
+
+    private String write(String repoKey, String blobHash, InputStream content, long contentLength) {
+        Path tempFile = null;
         try {
-            if (properties.getBasePath() == null || properties.getBasePath().isBlank()) {
-                throw new IllegalStateException("Local blob storage basePath is not configured");
+            String relativePath = buildRelativePath(repoKey, blobHash);
+            Path filePath = resolve(relativePath);
+
+            Files.createDirectories(filePath.getParent());
+
+            // Write next to the target so the final move is an atomic rename
+            tempFile = Files.createTempFile(filePath.getParent(), filePath.getFileName().toString(), ".tmp");
+            try (OutputStream out = Files.newOutputStream(tempFile)) {
+                copyExactly(content, out, contentLength);
             }
+            Files.move(tempFile, filePath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            tempFile = null;
 
-            Path baseDir = Path.of(properties.getBasePath());
-            Path filePath = baseDir.resolve(storagePath);
+            log.debug("Streamed {} bytes to local storage: {}", contentLength, filePath);
 
-            if (!Files.exists(filePath)) {
-                throw new IllegalStateException("Blob file not found: " + filePath);
+            return relativePath;
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to save blob to local filesystem", e);
+        } finally {
+            if (tempFile != null) {
+                try {
+                    Files.deleteIfExists(tempFile);
+                } catch (IOException e) {
+                    log.warn("Failed to delete temporary blob file {}", tempFile, e);
+                }
             }
+        }
+    }
 
-            return Files.readAllBytes(filePath);
+    @Override
+    public byte[] load(String storagePath) {
+        String repoKey = repoKey(storagePath);
+        byte[] content = metrics.time(VcsMetrics.STORAGE, repoKey, () -> {
+            try {
+                Path filePath = resolve(storagePath);
+
+                if (!Files.exists(filePath)) {
+                    throw new IllegalStateException("Blob file not found: " + filePath);
+                }
+
+                return Files.readAllBytes(filePath);
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to load blob from local filesystem", e);
+            }
+        }, "operation", "load");
+        metrics.count(VcsMetrics.STORAGE_BYTES, repoKey, content.length, "direction", "read");
+        return content;
+    }
+
+    @Override
+    public InputStream openStream(String storagePath) {
+        try {
+            // Bytes are counted as the caller reads them and recorded on close
+            String repoKey = repoKey(storagePath);
+            return new CountingInputStream(Files.newInputStream(existingFile(storagePath))) {
+                private boolean closed;
+
+                @Override
+                public void close() throws IOException {
+                    super.close();
+                    if (!closed) {
+                        closed = true;
+                        metrics.count(VcsMetrics.STORAGE_BYTES, repoKey, getCount(), "direction", "read");
+                    }
+                }
+            };
         } catch (IOException e) {
-            throw new RuntimeException("Failed to load blob from local filesystem", e);
+            throw new RuntimeException("Failed to open blob from local filesystem", e);
+        }
+    }
+
+    @Override
+    public ReadableByteChannel openChannel(String storagePath) {
+        try {
+            return FileChannel.open(existingFile(storagePath), StandardOpenOption.READ);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to open blob from local filesystem", e);
+        }
+    }
+
+    @Override
+    public long transferTo(String storagePath, WritableByteChannel target) throws IOException {
+        String repoKey = repoKey(storagePath);
+        long transferred = metrics.time(VcsMetrics.STORAGE, repoKey,
+                () -> transfer(storagePath, target), "operation", "transfer");
+        metrics.count(VcsMetrics.STORAGE_BYTES, repoKey, transferred, "direction", "read");
+        return transferred;
+    }
+
+    private long transfer(String storagePath, WritableByteChannel target) throws IOException {
+        try (FileChannel source = FileChannel.open(existingFile(storagePath), StandardOpenOption.READ)) {
+            long size = source.size();
+            long position = 0;
+            // transferTo may move fewer bytes than requested, so loop until done
+            while (position < size) {
+                long transferred = source.transferTo(position, size - position, target);
+                if (transferred <= 0) {
+                    throw new IOException("Blob transfer stalled at " + position + " of " + size + " bytes");
+                }
+                position += transferred;
+            }
+            return position;
+        }
+    }
+
+    private Path existingFile(String storagePath) throws IOException {
+        Path filePath = resolve(storagePath);
+        if (!Files.isRegularFile(filePath)) {
+            throw new FileNotFoundException("Blob file not found: " + filePath);
+        }
+        return filePath;
+    }
+
+    /**
+     * Repository of a stored blob, the first segment of its relative path.
+     */
+    private String repoKey(String storagePath) {
+        int slash = storagePath.indexOf('/');
+        return slash > 0 ? storagePath.substring(0, slash) : null;
+    }
+
+    private String buildRelativePath(String repoKey, String blobHash) {
+        String prefix = blobHash.substring(0, 2);
+        String rest = blobHash.substring(2);
+
+        // Store relative path: <repoKey>/<prefix>/<rest>
+        return repoKey + "/" + prefix + "/" + rest;
+    }
+
+    private Path resolve(String relativePath) {
+        if (properties.getBasePath() == null || properties.getBasePath().isBlank()) {
+            throw new IllegalStateException("Local blob storage basePath is not configured");
+        }
+        return Path.of(properties.getBasePath()).resolve(relativePath);
+    }
+
+    private void copyExactly(InputStream in, OutputStream out, long length) throws IOException {
+        byte[] buffer = new byte[(int) Math.min(COPY_BUFFER_SIZE, Math.max(length, 1))];
+        long remaining = length;
+        while (remaining > 0) {
+            int read = in.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+            if (read < 0) {
+                throw new IOException("Unexpected end of blob stream, " + remaining + " bytes missing");
+            }
+            out.write(buffer, 0, read);
+            remaining -= read;
         }
     }
 }
@@ -0,0 +1,153 @@
+package com.ismile.core.chronovcs.service.tree;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ismile.core.chronovcs.entity.CommitEntity;
+import com.ismile.core.chronovcs.entity.RepositoryEntity;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * File snapshots of commits, read from the root tree or, for commits stored before
+ * trees existed, from the legacy files JSON. Parsed snapshots are shared through
+ * {@link SnapshotCache}.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CommitSnapshotService {
+
+    private final TreeService treeService;
+    private final SnapshotCache snapshotCache;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Immutable snapshot of a commit.
+     */
+    public FileSnapshot getSnapshot(RepositoryEntity repository, CommitEntity commit) {
+        return snapshotCache.get(repository, commit.getCommitId(), () -> load(repository, commit));
+    }
+
+    /**
+     * Read-only path → blob hash map of a commit.
+     */
+    public Map<String, String> getFiles(RepositoryEntity repository, CommitEntity commit) {
+        return getSnapshot(repository, commit).asMap();
+    }
+
+    /**
+     * Blob hash of one file in a commit, or null if the commit has no such file.
+     * Unless the snapshot is already cached, only the directories along the path are read.
+     */
+    public String findBlobHash(RepositoryEntity repository, CommitEntity commit, String path) {
+        FileSnapshot cached = snapshotCache.getIfPresent(repository, commit.getCommitId());
+        if (cached != null) {
+            return cached.get(path);
+        }
+        if (commit.getRootTreeHash() != null) {
+            return treeService.findFile(repository, commit.getRootTreeHash(), path)
+                    .map(TreeEntry::getHash)
+                    .orElse(null);
+        }
+        return getSnapshot(repository, commit).get(path);
+    }
+
+    /**
+     * Blob hash of one file in each of the given commits, keyed by commit id.
+     * Commits without that file are absent from the result.
+     */
+    public Map<String, String> findBlobHashes(RepositoryEntity repository,
+                                              Collection<CommitEntity> commits,
+                                              String path) {
+        Map<String, String> result = new HashMap<>();
+        Map<String, List<String>> commitsByRoot = new HashMap<>();
+
+        for (CommitEntity commit : commits) {
+            FileSnapshot cached = snapshotCache.getIfPresent(repository, commit.getCommitId());
+            String blobHash;
+            if (cached != null) {
+                blobHash = cached.get(path);
+            } else if (commit.getRootTreeHash() != null) {
+                commitsByRoot.computeIfAbsent(commit.getRootTreeHash(), root -> new ArrayList<>())
+                        .add(commit.getCommitId());
+                continue;
+            } else {
+                blobHash = getSnapshot(repository, commit).get(path);
+            }
+            if (blobHash != null) {
+                result.put(commit.getCommitId(), blobHash);
+            }
+        }
+
+        if (!commitsByRoot.isEmpty()) {
+            treeService.findFiles(repository, commitsByRoot.keySet(), path)
+                    .forEach((root, blobHash) -> commitsByRoot.get(root)
+                            .forEach(commitId -> result.put(commitId, blobHash)));
+        }
+        return result;
+    }
+
+    /**
+     * Files changed from {@code base} to {@code head}; a null base is the empty snapshot.
+     * When both commits have trees, unchanged directories are skipped by hash.
+     */
+    public List<TreeChange> diff(RepositoryEntity repository, CommitEntity base, CommitEntity head) {
+        boolean baseHasTree = base == null || base.getRootTreeHash() != null;
+        if (baseHasTree && head.getRootTreeHash() != null) {
+            String baseRoot = base != null ? base.getRootTreeHash() : null;
+            return treeService.diffTrees(repository, baseRoot, head.getRootTreeHash());
+        }
+
+        FileSnapshot baseSnapshot = base != null ? getSnapshot(repository, base) : FileSnapshot.EMPTY;
+        FileSnapshot headSnapshot = getSnapshot(repository, head);
+
+        // Merge the two sorted path arrays
+        List<TreeChange> changes = new ArrayList<>();
+        int i = 0;
+        int j = 0;
+        while (i < baseSnapshot.size() || j < headSnapshot.size()) {
+            int order = i == baseSnapshot.size() ? 1
+                    : j == headSnapshot.size() ? -1
+                    : baseSnapshot.path(i).compareTo(headSnapshot.path(j));
+
+            if (order < 0) {
+                changes.add(new TreeChange(baseSnapshot.path(i), baseSnapshot.hash(i), null));
+                i++;
+            } else if (order > 0) {
+                changes.add(new TreeChange(headSnapshot.path(j), null, headSnapshot.hash(j)));
+                j++;
+            } else {
+                if (!Objects.equals(baseSnapshot.hash(i), headSnapshot.hash(j))) {
+                    changes.add(new TreeChange(headSnapshot.path(j), baseSnapshot.hash(i), headSnapshot.hash(j)));
+                }
+                i++;
+                j++;
+            }
+        }
+        return changes;
+    }
+
+    private FileSnapshot load(RepositoryEntity repository, CommitEntity commit) {
+        if (commit.getRootTreeHash() != null) {
+            return FileSnapshot.of(treeService.readFiles(repository, commit.getRootTreeHash()));
+        }
+        if (commit.getFilesJson() == null) {
+            return FileSnapshot.EMPTY;
+        }
+        try {
+            return FileSnapshot.of(objectMapper.readValue(
+                    commit.getFilesJson(), new TypeReference<Map<String, String>>() {}));
+        } catch (Exception e) {
+            log.error("Failed to parse files JSON for commit {}: {}", commit.getCommitId(), e.getMessage());
+            return FileSnapshot.EMPTY;
+        }
+    }
+}
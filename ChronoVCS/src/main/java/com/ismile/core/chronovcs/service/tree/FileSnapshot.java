@@ -0,0 +1,115 @@
+package com.ismile.core.chronovcs.service.tree;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Immutable path → blob hash snapshot of one commit, stored as two parallel arrays
+ * sorted by path. Lookups are binary searches; {@link #asMap()} is a read-only view
+ * that does not copy.
+ */
+public final class FileSnapshot {
+
+    static final FileSnapshot EMPTY = new FileSnapshot(new String[0], new String[0]);
+
+    private final String[] paths;
+    private final String[] hashes;
+
+    private FileSnapshot(String[] paths, String[] hashes) {
+        this.paths = paths;
+        this.hashes = hashes;
+    }
+
+    /**
+     * Copy of {@code files}; entries with a null path or hash are dropped.
+     */
+    static FileSnapshot of(Map<String, String> files) {
+        String[] paths = files.keySet().stream()
+                .filter(path -> path != null && files.get(path) != null)
+                .sorted()
+                .toArray(String[]::new);
+        String[] hashes = new String[paths.length];
+        for (int i = 0; i < paths.length; i++) {
+            hashes[i] = files.get(paths[i]);
+        }
+        return new FileSnapshot(paths, hashes);
+    }
+
+    public int size() {
+        return paths.length;
+    }
+
+    public String path(int index) {
+        return paths[index];
+    }
+
+    public String hash(int index) {
+        return hashes[index];
+    }
+
+    /**
+     * Blob hash of {@code path}, or null if the snapshot has no such file.
+     */
+    public String get(String path) {
+        if (path == null) {
+            return null;
+        }
+        int index = Arrays.binarySearch(paths, path);
+        return index >= 0 ? hashes[index] : null;
+    }
+
+    public Map<String, String> asMap() {
+        return new AbstractMap<>() {
+            @Override
+            public String get(Object key) {
+                return key instanceof String path ? FileSnapshot.this.get(path) : null;
+            }
+
+            @Override
+            public boolean containsKey(Object key) {
+                return get(key) != null;
+            }
+
+            @Override
+            public int size() {
+                return paths.length;
+            }
+
+            @Override
+            public Set<Entry<String, String>> entrySet() {
+                return new AbstractSet<>() {
+                    @Override
+                    public int size() {
+                        return paths.length;
+                    }
+
+                    @Override
+                    public Iterator<Entry<String, String>> iterator() {
+                        return new Iterator<>() {
+                            private int next;
+
+                            @Override
+                            public boolean hasNext() {
+                                return next < paths.length;
+                            }
+
+                            @Override
+                            public Entry<String, String> next() {
+                                if (next >= paths.length) {
+                                    throw new NoSuchElementException();
+                                }
+                                int index = next++;
+                                return new SimpleImmutableEntry<>(paths[index], hashes[index]);
+                            }
+                        };
+                    }
+                };
+            }
+        };
+    }
+}
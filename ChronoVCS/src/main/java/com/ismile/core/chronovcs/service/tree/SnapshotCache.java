@@ -0,0 +1,151 @@
+package com.ismile.core.chronovcs.service.tree;
+
+import com.ismile.core.chronovcs.entity.RepositoryEntity;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Shared LRU cache of parsed commit snapshots keyed by (repository id, commit id).
+ *
+ * Commits never change once stored, so entries are only dropped by eviction or when
+ * their repository is deleted. The cache is bounded by the total number of file
+ * entries across all snapshots rather than by snapshot count, so a few huge commits
+ * cannot crowd out memory.
+ *
+ * The counters are published as {@code chronovcs.snapshot.cache.*} meters.
+ */
+@Component
+public class SnapshotCache implements MeterBinder {
+
+    private record Key(Long repositoryId, String commitId) {
+    }
+
+    /**
+     * Point-in-time cache counters.
+     */
+    public record Stats(long hits, long misses, long evictions, int snapshots, long weight) {
+    }
+
+    /**
+     * Maximum total number of file entries held; 0 disables caching.
+     */
+    @Value("${chronovcs.snapshot-cache.max-entries:500000}")
+    private long maxWeight;
+
+    private final LinkedHashMap<Key, FileSnapshot> snapshots = new LinkedHashMap<>(256, 0.75f, true);
+    private long weight;
+    private long hits;
+    private long misses;
+    private long evictions;
+    // Bumped by evict, so a load that started before it does not re-insert its result
+    private long generation;
+
+    /**
+     * Cached snapshot of a commit, or null.
+     */
+    public synchronized FileSnapshot getIfPresent(RepositoryEntity repository, String commitId) {
+        FileSnapshot snapshot = snapshots.get(new Key(repository.getId(), commitId));
+        if (snapshot != null) {
+            hits++;
+        } else {
+            misses++;
+        }
+        return snapshot;
+    }
+
+    /**
+     * Cached snapshot of a commit, loading and caching it on a miss. The loader runs
+     * outside the cache lock, so concurrent misses for one commit may load it twice.
+     * A load overlapping an {@link #evict} is returned but not cached.
+     */
+    public FileSnapshot get(RepositoryEntity repository, String commitId, Supplier<FileSnapshot> loader) {
+        Key key = new Key(repository.getId(), commitId);
+        long loadGeneration;
+        synchronized (this) {
+            FileSnapshot cached = snapshots.get(key);
+            if (cached != null) {
+                hits++;
+                return cached;
+            }
+            misses++;
+            loadGeneration = generation;
+        }
+
+        FileSnapshot loaded = loader.get();
+        put(key, loaded, loadGeneration);
+        return loaded;
+    }
+
+    /**
+     * Drop every snapshot of a repository.
+     */
+    public synchronized void evict(RepositoryEntity repository) {
+        generation++;
+        Iterator<Map.Entry<Key, FileSnapshot>> it = snapshots.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Key, FileSnapshot> entry = it.next();
+            if (entry.getKey().repositoryId().equals(repository.getId())) {
+                weight -= weightOf(entry.getValue());
+                it.remove();
+            }
+        }
+    }
+
+    public synchronized Stats stats() {
+        return new Stats(hits, misses, evictions, snapshots.size(), weight);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("chronovcs.snapshot.cache.hits", this, cache -> cache.stats().hits())
+                .description("Snapshot lookups served from the cache")
+                .register(registry);
+        FunctionCounter.builder("chronovcs.snapshot.cache.misses", this, cache -> cache.stats().misses())
+                .description("Snapshot lookups that had to load the commit")
+                .register(registry);
+        FunctionCounter.builder("chronovcs.snapshot.cache.evictions", this, cache -> cache.stats().evictions())
+                .description("Snapshots evicted to stay under the size bound")
+                .register(registry);
+        Gauge.builder("chronovcs.snapshot.cache.weight", this, cache -> cache.stats().weight())
+                .description("File entries held across all cached snapshots")
+                .register(registry);
+        Gauge.builder("chronovcs.snapshot.cache.snapshots", this, cache -> cache.stats().snapshots())
+                .description("Cached snapshots")
+                .register(registry);
+    }
+
+    private synchronized void put(Key key, FileSnapshot snapshot, long loadGeneration) {
+        long snapshotWeight = weightOf(snapshot);
+        if (snapshotWeight > maxWeight || loadGeneration != generation) {
+            return;
+        }
+
+        FileSnapshot previous = snapshots.put(key, snapshot);
+        if (previous != null) {
+            weight -= weightOf(previous);
+        }
+        weight += snapshotWeight;
+
+        // Evict least recently used snapshots until back under the bound
+        Iterator<FileSnapshot> it = snapshots.values().iterator();
+        while (weight > maxWeight && it.hasNext()) {
+            FileSnapshot eldest = it.next();
+            weight -= weightOf(eldest);
+            it.remove();
+            evictions++;
+        }
+    }
+
+    private static long weightOf(FileSnapshot snapshot) {
+        return Math.max(1, snapshot.size());
+    }
+}
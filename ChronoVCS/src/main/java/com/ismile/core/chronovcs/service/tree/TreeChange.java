@@ -0,0 +1,14 @@
+package com.ismile.core.chronovcs.service.tree;
+
+import lombok.Value;
+
+/**
+ * A file whose blob differs between two snapshots. {@code oldHash} is null for
+ * added files, {@code newHash} for deleted ones.
+ */
+@Value
+public class TreeChange {
+    String path;
+    String oldHash;
+    String newHash;
+}
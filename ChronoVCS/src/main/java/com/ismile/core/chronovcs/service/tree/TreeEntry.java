@@ -0,0 +1,21 @@
+package com.ismile.core.chronovcs.service.tree;
+
+import lombok.Value;
+
+/**
+ * One child of a stored directory tree: a blob or a subtree.
+ */
+@Value
+public class TreeEntry {
+
+    public static final String TYPE_FILE = "F";
+    public static final String TYPE_TREE = "D";
+
+    String type;
+    String hash;
+    String name;
+
+    public boolean isTree() {
+        return TYPE_TREE.equals(type);
+    }
+}
@@ -0,0 +1,412 @@
+package com.ismile.core.chronovcs.service.tree;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ismile.core.chronovcs.entity.RepositoryEntity;
+import com.ismile.core.chronovcs.entity.TreeEntity;
+import com.ismile.core.chronovcs.repository.TreeRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Content-addressed directory trees.
+ *
+ * A snapshot is stored as one tree per directory, hashed over its sorted entries,
+ * so directories that did not change between commits resolve to the same tree row
+ * and only new trees are written. Trees are read level by level with one query per
+ * directory depth, and diffs never descend into subtrees whose hashes are equal.
+ *
+ * New trees are inserted in their own transaction, so a row written concurrently by
+ * another push only fails that insert, which is then retried without the rows that
+ * exist by now. Trees of a push that is rolled back afterwards stay; they are
+ * addressed by content and reused by the next push that needs them.
+ */
+@Service
+@Slf4j
+public class TreeService {
+
+    private static final int QUERY_CHUNK_SIZE = 1000;
+    private static final int MAX_INSERT_ATTEMPTS = 3;
+
+    private final TreeRepository treeRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate insertTransaction;
+
+    public TreeService(TreeRepository treeRepository,
+                       ObjectMapper objectMapper,
+                       PlatformTransactionManager transactionManager) {
+        this.treeRepository = treeRepository;
+        this.objectMapper = objectMapper;
+        this.insertTransaction = new TransactionTemplate(transactionManager);
+        this.insertTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    private record PendingTree(String prefix, String hash) {
+    }
+
+    private record PendingPair(String prefix, String oldHash, String newHash) {
+    }
+
+    private static final class DirectoryNode {
+        private final TreeMap<String, DirectoryNode> directories = new TreeMap<>();
+        private final TreeMap<String, String> files = new TreeMap<>();
+    }
+
+    /**
+     * Store the trees of a path → blob hash snapshot and return the root tree hash.
+     * Trees the repository already has are not written again.
+     */
+    public String writeTree(RepositoryEntity repository, Map<String, String> files) {
+        // 1) Directory hierarchy
+        DirectoryNode root = new DirectoryNode();
+        for (Map.Entry<String, String> entry : files.entrySet()) {
+            if (entry.getKey() == null || entry.getValue() == null) {
+                continue;
+            }
+            String[] segments = entry.getKey().split("/", -1);
+            DirectoryNode node = root;
+            for (int i = 0; i < segments.length - 1; i++) {
+                node = node.directories.computeIfAbsent(segments[i], name -> new DirectoryNode());
+            }
+            node.files.put(segments[segments.length - 1], entry.getValue());
+        }
+
+        // 2) Hash bottom-up
+        Map<String, String> trees = new LinkedHashMap<>();
+        String rootHash = hashDirectory(root, trees);
+
+        // 3) Store unknown trees
+        storeMissing(repository, trees);
+        return rootHash;
+    }
+
+    /**
+     * Flatten a tree into a path → blob hash map.
+     */
+    public Map<String, String> readFiles(RepositoryEntity repository, String rootHash) {
+        Map<String, String> files = new HashMap<>();
+        Map<String, List<TreeEntry>> loaded = new HashMap<>();
+
+        List<PendingTree> level = List.of(new PendingTree("", rootHash));
+        while (!level.isEmpty()) {
+            Set<String> hashes = new HashSet<>();
+            level.forEach(tree -> hashes.add(tree.hash()));
+            loadTrees(repository, hashes, loaded);
+
+            List<PendingTree> next = new ArrayList<>();
+            for (PendingTree tree : level) {
+                for (TreeEntry entry : loaded.get(tree.hash())) {
+                    if (entry.isTree()) {
+                        next.add(new PendingTree(tree.prefix() + entry.getName() + "/", entry.getHash()));
+                    } else {
+                        files.put(tree.prefix() + entry.getName(), entry.getHash());
+                    }
+                }
+            }
+            level = next;
+        }
+        return files;
+    }
+
+    /**
+     * Files that differ between two trees. Either root may be null (empty snapshot).
+     * Subtrees with the same hash on both sides are skipped without being loaded.
+     */
+    public List<TreeChange> diffTrees(RepositoryEntity repository, String oldRootHash, String newRootHash) {
+        List<TreeChange> changes = new ArrayList<>();
+        if (Objects.equals(oldRootHash, newRootHash)) {
+            return changes;
+        }
+
+        Map<String, List<TreeEntry>> loaded = new HashMap<>();
+        List<PendingPair> level = List.of(new PendingPair("", oldRootHash, newRootHash));
+
+        while (!level.isEmpty()) {
+            Set<String> hashes = new HashSet<>();
+            for (PendingPair pair : level) {
+                if (pair.oldHash() != null) {
+                    hashes.add(pair.oldHash());
+                }
+                if (pair.newHash() != null) {
+                    hashes.add(pair.newHash());
+                }
+            }
+            loadTrees(repository, hashes, loaded);
+
+            List<PendingPair> next = new ArrayList<>();
+            for (PendingPair pair : level) {
+                Map<String, String> oldFiles = new HashMap<>();
+                Map<String, String> oldTrees = new HashMap<>();
+                Map<String, String> newFiles = new HashMap<>();
+                Map<String, String> newTrees = new HashMap<>();
+                split(entriesOf(pair.oldHash(), loaded), oldFiles, oldTrees);
+                split(entriesOf(pair.newHash(), loaded), newFiles, newTrees);
+
+                Set<String> fileNames = new TreeSet<>(oldFiles.keySet());
+                fileNames.addAll(newFiles.keySet());
+                for (String name : fileNames) {
+                    String oldHash = oldFiles.get(name);
+                    String newHash = newFiles.get(name);
+                    if (!Objects.equals(oldHash, newHash)) {
+                        changes.add(new TreeChange(pair.prefix() + name, oldHash, newHash));
+                    }
+                }
+
+                Set<String> treeNames = new TreeSet<>(oldTrees.keySet());
+                treeNames.addAll(newTrees.keySet());
+                for (String name : treeNames) {
+                    String oldHash = oldTrees.get(name);
+                    String newHash = newTrees.get(name);
+                    if (!Objects.equals(oldHash, newHash)) {
+                        next.add(new PendingPair(pair.prefix() + name + "/", oldHash, newHash));
+                    }
+                }
+            }
+            level = next;
+        }
+        return changes;
+    }
+
+    /**
+     * Entries of the directory at {@code path} ("" for the root), or empty if there is
+     * no such directory.
+     */
+    public Optional<List<TreeEntry>> findDirectory(RepositoryEntity repository, String rootHash, String path) {
+        String[] segments = path == null || path.isEmpty() ? new String[0] : path.split("/", -1);
+        return walk(repository, rootHash, segments, segments.length);
+    }
+
+    /**
+     * The file entry at {@code path}, or empty if there is no such file.
+     * Only the trees along the path are loaded.
+     */
+    public Optional<TreeEntry> findFile(RepositoryEntity repository, String rootHash, String path) {
+        if (path == null || path.isEmpty()) {
+            return Optional.empty();
+        }
+        String[] segments = path.split("/", -1);
+        String name = segments[segments.length - 1];
+        return walk(repository, rootHash, segments, segments.length - 1)
+                .flatMap(entries -> findEntry(entries, name, false));
+    }
+
+    /**
+     * Blob hash of {@code path} under each of the given root trees, keyed by root hash.
+     * Roots without that file are absent from the result. Trees are loaded one
+     * directory level at a time for all roots together.
+     */
+    public Map<String, String> findFiles(RepositoryEntity repository, Collection<String> rootHashes, String path) {
+        Map<String, String> result = new HashMap<>();
+        if (path == null || path.isEmpty()) {
+            return result;
+        }
+        String[] segments = path.split("/", -1);
+        String name = segments[segments.length - 1];
+
+        // Root hash -> hash of the directory reached so far
+        Map<String, String> reached = new HashMap<>();
+        rootHashes.forEach(root -> reached.put(root, root));
+        Map<String, List<TreeEntry>> loaded = new HashMap<>();
+
+        for (int i = 0; i < segments.length && !reached.isEmpty(); i++) {
+            loadTrees(repository, new HashSet<>(reached.values()), loaded);
+            boolean last = i == segments.length - 1;
+
+            Iterator<Map.Entry<String, String>> it = reached.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<String, String> entry = it.next();
+                Optional<TreeEntry> child = findEntry(loaded.get(entry.getValue()), last ? name : segments[i], !last);
+                if (child.isEmpty()) {
+                    it.remove();
+                } else if (last) {
+                    result.put(entry.getKey(), child.get().getHash());
+                } else {
+                    entry.setValue(child.get().getHash());
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Entries of the directory reached by the first {@code depth} path segments.
+     */
+    private Optional<List<TreeEntry>> walk(RepositoryEntity repository,
+                                           String rootHash,
+                                           String[] segments,
+                                           int depth) {
+        Map<String, List<TreeEntry>> loaded = new HashMap<>();
+        String hash = rootHash;
+
+        for (int i = 0; i < depth; i++) {
+            loadTrees(repository, List.of(hash), loaded);
+            Optional<TreeEntry> directory = findEntry(loaded.get(hash), segments[i], true);
+            if (directory.isEmpty()) {
+                return Optional.empty();
+            }
+            hash = directory.get().getHash();
+        }
+
+        loadTrees(repository, List.of(hash), loaded);
+        return Optional.of(loaded.get(hash));
+    }
+
+    private String hashDirectory(DirectoryNode node, Map<String, String> trees) {
+        // Entries sorted by name, files before subtrees of the same name
+        TreeSet<String> names = new TreeSet<>(node.files.keySet());
+        names.addAll(node.directories.keySet());
+
+        List<String[]> entries = new ArrayList<>(names.size());
+        for (String name : names) {
+            String fileHash = node.files.get(name);
+            if (fileHash != null) {
+                entries.add(new String[]{TreeEntry.TYPE_FILE, fileHash, name});
+            }
+            DirectoryNode directory = node.directories.get(name);
+            if (directory != null) {
+                entries.add(new String[]{TreeEntry.TYPE_TREE, hashDirectory(directory, trees), name});
+            }
+        }
+
+        String entriesJson;
+        try {
+            entriesJson = objectMapper.writeValueAsString(entries);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize tree entries", e);
+        }
+
+        String hash = sha256(entriesJson);
+        trees.putIfAbsent(hash, entriesJson);
+        return hash;
+    }
+
+    private void storeMissing(RepositoryEntity repository, Map<String, String> trees) {
+        Set<String> pending = new LinkedHashSet<>(trees.keySet());
+        for (int attempt = 1; ; attempt++) {
+            removeExisting(repository, pending);
+            if (pending.isEmpty()) {
+                return;
+            }
+
+            List<TreeEntity> missing = new ArrayList<>(pending.size());
+            for (String hash : pending) {
+                missing.add(TreeEntity.builder()
+                        .repository(repository)
+                        .hash(hash)
+                        .entriesJson(trees.get(hash))
+                        .build());
+            }
+            try {
+                insertTransaction.executeWithoutResult(status -> treeRepository.saveAll(missing));
+                log.debug("Stored {} new of {} trees for repository {}",
+                        missing.size(), trees.size(), repository.getRepoKey());
+                return;
+            } catch (DataIntegrityViolationException e) {
+                if (attempt == MAX_INSERT_ATTEMPTS) {
+                    throw e;
+                }
+                log.debug("Trees of repository {} were stored concurrently, retrying", repository.getRepoKey());
+            }
+        }
+    }
+
+    private void removeExisting(RepositoryEntity repository, Set<String> hashes) {
+        List<String> list = new ArrayList<>(hashes);
+        for (int start = 0; start < list.size(); start += QUERY_CHUNK_SIZE) {
+            List<String> chunk = list.subList(start, Math.min(start + QUERY_CHUNK_SIZE, list.size()));
+            treeRepository.findExistingHashes(repository, chunk).forEach(hashes::remove);
+        }
+    }
+
+    /**
+     * Load the given trees into {@code loaded}, skipping ones already there.
+     */
+    private void loadTrees(RepositoryEntity repository,
+                           Collection<String> hashes,
+                           Map<String, List<TreeEntry>> loaded) {
+        List<String> missing = new ArrayList<>();
+        for (String hash : hashes) {
+            if (!loaded.containsKey(hash)) {
+                missing.add(hash);
+            }
+        }
+
+        for (int start = 0; start < missing.size(); start += QUERY_CHUNK_SIZE) {
+            List<String> chunk = missing.subList(start, Math.min(start + QUERY_CHUNK_SIZE, missing.size()));
+            for (TreeEntity tree : treeRepository.findByRepositoryAndHashIn(repository, chunk)) {
+                loaded.put(tree.getHash(), parseEntries(tree));
+            }
+        }
+
+        for (String hash : missing) {
+            if (!loaded.containsKey(hash)) {
+                throw new IllegalStateException(
+                        "Tree " + hash + " is missing in repository " + repository.getRepoKey());
+            }
+        }
+    }
+
+    private List<TreeEntry> parseEntries(TreeEntity tree) {
+        try {
+            String[][] rows = objectMapper.readValue(tree.getEntriesJson(), String[][].class);
+            List<TreeEntry> entries = new ArrayList<>(rows.length);
+            for (String[] row : rows) {
+                entries.add(new TreeEntry(row[0], row[1], row[2]));
+            }
+            return entries;
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to parse tree " + tree.getHash(), e);
+        }
+    }
+
+    private static List<TreeEntry> entriesOf(String hash, Map<String, List<TreeEntry>> loaded) {
+        return hash != null ? loaded.get(hash) : List.of();
+    }
+
+    private static void split(List<TreeEntry> entries, Map<String, String> files, Map<String, String> trees) {
+        for (TreeEntry entry : entries) {
+            (entry.isTree() ? trees : files).put(entry.getName(), entry.getHash());
+        }
+    }
+
+    private static Optional<TreeEntry> findEntry(List<TreeEntry> entries, String name, boolean tree) {
+        for (TreeEntry entry : entries) {
+            if (entry.isTree() == tree && entry.getName().equals(name)) {
+                return Optional.of(entry);
+            }
+        }
+        return Optional.empty();
+    }
+
+    private static String sha256(String content) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(content.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
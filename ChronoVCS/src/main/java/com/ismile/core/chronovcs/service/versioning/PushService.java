@@ -1,16 +1,24 @@
 package com.ismile.core.chronovcs.service.versioning;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.ismile.core.chronovcs.dto.push.PushRequestDto;
 import com.ismile.core.chronovcs.dto.push.PushResultDto;
 import com.ismile.core.chronovcs.entity.RepositoryEntity;
+import com.ismile.core.chronovcs.metrics.CountingInputStream;
+import com.ismile.core.chronovcs.metrics.VcsMetrics;
 import com.ismile.core.chronovcs.service.auth.AuthenticatedUser;
 import com.ismile.core.chronovcs.service.permission.PermissionService;
 import com.ismile.core.chronovcs.service.repository.RepositoryService;
 import com.ismile.core.chronovcs.service.repository.RepositorySettingsService;
+import com.ismile.core.chronovcs.service.versioning.pack.PushPackReader;
 import com.ismile.core.chronovcs.exception.PermissionDeniedException;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
 
 @Service
 @RequiredArgsConstructor
@@ -20,6 +28,9 @@ public class PushService {
     private final PermissionService permissionService;
     private final VersioningPushStrategyRegistry strategyRegistry;
     private final RepositorySettingsService repositorySettingsService;
+    private final ObjectMapper objectMapper;
+    private final VcsMetrics metrics;
+    private final TransactionTemplate transactionTemplate;
 
     @Transactional
     public PushResultDto push(
@@ -27,6 +38,15 @@ public class PushService {
             String repoKey,
             PushRequestDto request
     ) {
+        try {
+            return metrics.time(VcsMetrics.PUSH, repoKey,
+                    () -> doPush(user, repoKey, request), "format", "json");
+        } finally {
+            metrics.count(VcsMetrics.PUSH_BYTES, repoKey, blobBytes(request), "format", "json");
+        }
+    }
+
+    private PushResultDto doPush(AuthenticatedUser user, String repoKey, PushRequestDto request) {
         // 1) Resolve repo
         RepositoryEntity repo = repositoryService
                 .getByKeyOrThrow(repoKey);
@@ -34,6 +54,85 @@ public class PushService {
         // 2) Permission check
         permissionService.assertCanPush(user, repo.getRepoKey());
 
+        assertBranchWritable(repo, request);
+
+        // 3) Resolve strategy by versioning_mode
+        VersioningPushStrategy strategy =
+                strategyRegistry.getStrategy(repo.getVersioningMode());
+
+        // 4) Delegate to strategy
+        return strategy.handlePush(user, repo, request);
+    }
+
+    /**
+     * Push using the binary pack format. Commit metadata is read from the
+     * pack header, blobs are streamed frame by frame into storage.
+     *
+     * Not transactional: reading the body can take minutes, so only the checks
+     * before it and the metadata written after it run in (short) transactions.
+     */
+    public PushResultDto pushPack(
+            AuthenticatedUser user,
+            String repoKey,
+            InputStream packStream
+    ) {
+        CountingInputStream counted = new CountingInputStream(packStream);
+        try {
+            return metrics.time(VcsMetrics.PUSH, repoKey,
+                    () -> doPushPack(user, repoKey, counted), "format", "pack");
+        } finally {
+            metrics.count(VcsMetrics.PUSH_BYTES, repoKey, counted.getCount(), "format", "pack");
+        }
+    }
+
+    private PushResultDto doPushPack(AuthenticatedUser user, String repoKey, InputStream packStream) {
+        // 1-2) Resolve repo and check permission (before reading any of the body)
+        RepositoryEntity repo = transactionTemplate.execute(status -> {
+            RepositoryEntity resolved = repositoryService.getByKeyOrThrow(repoKey);
+            permissionService.assertCanPush(user, resolved.getRepoKey());
+            return resolved;
+        });
+
+        // 3) Read commit metadata
+        PushPackReader pack = new PushPackReader(packStream, objectMapper);
+        PushRequestDto request = readHeader(pack);
+
+        transactionTemplate.executeWithoutResult(status -> assertBranchWritable(repo, request));
+
+        // 4) Resolve strategy and delegate; it streams the blobs and opens its own transaction
+        //    for the metadata
+        VersioningPushStrategy strategy =
+                strategyRegistry.getStrategy(repo.getVersioningMode());
+
+        return strategy.handlePackPush(user, repo, request, pack);
+    }
+
+    private PushRequestDto readHeader(PushPackReader pack) {
+        try {
+            return pack.readHeader();
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Invalid push pack header: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Decoded size of the Base64 blobs of a JSON push.
+     */
+    private long blobBytes(PushRequestDto request) {
+        if (request.getBlobs() == null) {
+            return 0;
+        }
+        long bytes = 0;
+        for (String blob : request.getBlobs().values()) {
+            if (blob != null) {
+                int padding = blob.endsWith("==") ? 2 : blob.endsWith("=") ? 1 : 0;
+                bytes += blob.length() / 4L * 3 - padding;
+            }
+        }
+        return bytes;
+    }
+
+    private void assertBranchWritable(RepositoryEntity repo, PushRequestDto request) {
         var settings = repositorySettingsService.getOrCreateSettings(repo);
         if (Boolean.TRUE.equals(settings.getReleaseEnabled())
                 && request.getBranch() != null
@@ -42,12 +141,5 @@ public class PushService {
                     "Default branch is protected while release mode is enabled"
             );
         }
-
-        // 3) Resolve strategy by versioning_mode
-        VersioningPushStrategy strategy =
-                strategyRegistry.getStrategy(repo.getVersioningMode());
-
-        // 4) Delegate to strategy
-        return strategy.handlePush(user, repo, request);
     }
 }
@@ -5,6 +5,7 @@ import com.ismile.core.chronovcs.dto.push.PushResultDto;
 import com.ismile.core.chronovcs.entity.RepositoryEntity;
 import com.ismile.core.chronovcs.entity.VersioningMode;
 import com.ismile.core.chronovcs.service.auth.AuthenticatedUser;
+import com.ismile.core.chronovcs.service.versioning.pack.PushPackReader;
 
 public interface VersioningPushStrategy {
     VersioningMode getSupportedMode();
@@ -13,4 +14,15 @@ public interface VersioningPushStrategy {
             RepositoryEntity repository,
             PushRequestDto request
     );
+
+    /**
+     * Same as {@link #handlePush} but blobs are streamed from a binary pack
+     * whose header has already been read into {@code request}.
+     */
+    PushResultDto handlePackPush(
+            AuthenticatedUser user,
+            RepositoryEntity repository,
+            PushRequestDto request,
+            PushPackReader pack
+    );
 }
@@ -6,6 +6,7 @@ import com.ismile.core.chronovcs.entity.RepositoryEntity;
 import com.ismile.core.chronovcs.entity.VersioningMode;
 import com.ismile.core.chronovcs.service.auth.AuthenticatedUser;
 import com.ismile.core.chronovcs.service.versioning.VersioningPushStrategy;
+import com.ismile.core.chronovcs.service.versioning.pack.PushPackReader;
 import org.springframework.stereotype.Component;
 
 @Component
@@ -28,4 +29,14 @@ public class ObjectVersioningPushStrategy implements VersioningPushStrategy {
         //  - or reuse PROJECT logic via composition
         throw new UnsupportedOperationException("OBJECT versioning mode is not implemented yet");
     }
+
+    @Override
+    public PushResultDto handlePackPush(
+            AuthenticatedUser user,
+            RepositoryEntity repository,
+            PushRequestDto request,
+            PushPackReader pack
+    ) {
+        throw new UnsupportedOperationException("OBJECT versioning mode is not implemented yet");
+    }
 }
\ No newline at end of file
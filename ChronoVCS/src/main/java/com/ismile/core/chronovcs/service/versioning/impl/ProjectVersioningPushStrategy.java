@@ -3,26 +3,34 @@ package com.ismile.core.chronovcs.service.versioning.impl;
 import com.ismile.core.chronovcs.dto.push.CommitSnapshotDto;
 import com.ismile.core.chronovcs.dto.push.PushRequestDto;
 import com.ismile.core.chronovcs.dto.push.PushResultDto;
+import com.ismile.core.chronovcs.entity.BlobEntity;
 import com.ismile.core.chronovcs.entity.RepositoryEntity;
 import com.ismile.core.chronovcs.entity.VersioningMode;
 import com.ismile.core.chronovcs.service.auth.AuthenticatedUser;
 import com.ismile.core.chronovcs.service.storage.BlobStorageService;
 import com.ismile.core.chronovcs.service.storage.CommitStorage;
 import com.ismile.core.chronovcs.service.versioning.VersioningPushStrategy;
+import com.ismile.core.chronovcs.service.versioning.pack.PushPackReader;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.Base64;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 @Component
 @RequiredArgsConstructor
 public class ProjectVersioningPushStrategy implements VersioningPushStrategy {
 
+    private static final String BLOB_CONTENT_TYPE = "application/octet-stream";
+
     private final BlobStorageService blobStorageService;
     private final CommitStorage commitStorage;
+    private final TransactionTemplate transactionTemplate;
 
     @Override
     public VersioningMode getSupportedMode() {
@@ -36,29 +44,13 @@ public class ProjectVersioningPushStrategy implements VersioningPushStrategy {
             PushRequestDto request
     ) {
         // 1) Validate input
-        if (request.getBranch() == null || request.getBranch().isBlank()) {
-            throw new IllegalArgumentException("Branch is required for push");
-        }
-
-        CommitSnapshotDto newCommit = request.getNewCommit();
-        if (newCommit == null) {
-            throw new IllegalArgumentException("newCommit is required for push");
-        }
-        if (newCommit.getId() == null || newCommit.getId().isBlank()) {
-            throw new IllegalArgumentException("newCommit.id is required");
-        }
+        validate(request);
 
         String branch = request.getBranch();
 
         // 2) Existing HEAD
         String currentHead = commitStorage.getBranchHead(repo, branch);
-
-        boolean fastForward;
-        if (request.getBaseCommitId() == null || request.getBaseCommitId().isBlank()) {
-            fastForward = (currentHead == null || currentHead.isBlank());
-        } else {
-            fastForward = request.getBaseCommitId().equals(currentHead);
-        }
+        boolean fastForward = isFastForward(request, currentHead);
 
         // 3) Save blobs (hash → base64 content)
         if (request.getBlobs() != null && !request.getBlobs().isEmpty()) {
@@ -81,11 +73,84 @@ public class ProjectVersioningPushStrategy implements VersioningPushStrategy {
                         repo,
                         blobHash,
                         contentBytes,
-                        "application/octet-stream"
+                        BLOB_CONTENT_TYPE
                 );
             }
         }
 
+        // 4-7) Commit metadata, HEAD and result
+        return completePush(repo, branch, request.getNewCommit(), currentHead, fastForward);
+    }
+
+    @Override
+    public PushResultDto handlePackPush(
+            AuthenticatedUser user,
+            RepositoryEntity repo,
+            PushRequestDto request,
+            PushPackReader pack
+    ) {
+        // 1) Validate input
+        validate(request);
+
+        String branch = request.getBranch();
+
+        // 2) Stream blob frames straight into storage. No transaction is open here: the
+        //    upload is paced by the client and would hold a pooled connection throughout.
+        Map<String, BlobEntity> written = new LinkedHashMap<>();
+        try {
+            PushPackReader.PackBlob blob;
+            while ((blob = pack.nextBlob()) != null) {
+                if (written.containsKey(blob.getHash())) {
+                    continue;
+                }
+                blobStorageService.writeContent(
+                        repo,
+                        blob.getHash(),
+                        blob.getContent(),
+                        blob.getSize(),
+                        BLOB_CONTENT_TYPE
+                ).ifPresent(entity -> written.put(entity.getHash(), entity));
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read push pack: " + e.getMessage(), e);
+        }
+
+        // 3-7) Blob and commit metadata, HEAD and result in one short transaction
+        return transactionTemplate.execute(status -> {
+            blobStorageService.saveMetadata(repo, written.values());
+
+            String currentHead = commitStorage.getBranchHead(repo, branch);
+            boolean fastForward = isFastForward(request, currentHead);
+            return completePush(repo, branch, request.getNewCommit(), currentHead, fastForward);
+        });
+    }
+
+    private void validate(PushRequestDto request) {
+        if (request.getBranch() == null || request.getBranch().isBlank()) {
+            throw new IllegalArgumentException("Branch is required for push");
+        }
+
+        CommitSnapshotDto newCommit = request.getNewCommit();
+        if (newCommit == null) {
+            throw new IllegalArgumentException("newCommit is required for push");
+        }
+        if (newCommit.getId() == null || newCommit.getId().isBlank()) {
+            throw new IllegalArgumentException("newCommit.id is required");
+        }
+    }
+
+    private boolean isFastForward(PushRequestDto request, String currentHead) {
+        if (request.getBaseCommitId() == null || request.getBaseCommitId().isBlank()) {
+            return currentHead == null || currentHead.isBlank();
+        }
+        return request.getBaseCommitId().equals(currentHead);
+    }
+
+    private PushResultDto completePush(RepositoryEntity repo,
+                                       String branch,
+                                       CommitSnapshotDto newCommit,
+                                       String currentHead,
+                                       boolean fastForward) {
         // 4) Ensure timestamp
         if (newCommit.getTimestamp() == null || newCommit.getTimestamp().isBlank()) {
             newCommit.setTimestamp(Instant.now().toString());
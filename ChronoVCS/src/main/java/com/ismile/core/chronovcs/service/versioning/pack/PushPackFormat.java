@@ -0,0 +1,34 @@
+package com.ismile.core.chronovcs.service.versioning.pack;
+
+/**
+ * Wire format of the binary push pack.
+ *
+ * <pre>
+ * magic    4 bytes  "CVPK"
+ * version  int32
+ * header   int32 length + UTF-8 JSON of PushRequestDto (blobs omitted)
+ * frames   repeated:
+ *            byte FRAME_BLOB, UTF hash, int64 length, raw bytes
+ *          terminated by byte FRAME_END
+ * </pre>
+ *
+ * All numbers are big-endian (java.io.DataOutputStream encoding).
+ */
+public final class PushPackFormat {
+
+    public static final String MEDIA_TYPE = "application/x-chronovcs-pack";
+
+    public static final byte[] MAGIC = {'C', 'V', 'P', 'K'};
+    public static final int VERSION = 1;
+
+    public static final byte FRAME_END = 0;
+    public static final byte FRAME_BLOB = 1;
+
+    /**
+     * Upper bound for the JSON header (commit metadata incl. file map).
+     */
+    public static final int MAX_HEADER_BYTES = 64 * 1024 * 1024;
+
+    private PushPackFormat() {
+    }
+}
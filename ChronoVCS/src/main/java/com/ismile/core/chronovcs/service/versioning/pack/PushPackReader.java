@@ -0,0 +1,186 @@
+package com.ismile.core.chronovcs.service.versioning.pack;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ismile.core.chronovcs.dto.push.PushRequestDto;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.regex.Pattern;
+
+/**
+ * Sequential reader for a binary push pack (see {@link PushPackFormat}).
+ * Blob frames are exposed as bounded streams over the request body, so
+ * a blob is never materialised in memory by the reader itself.
+ */
+public class PushPackReader {
+
+    private static final Pattern HASH_PATTERN = Pattern.compile("^[0-9a-fA-F]{4,128}$");
+
+    private final DataInputStream in;
+    private final ObjectMapper objectMapper;
+
+    private boolean headerRead;
+    private boolean finished;
+    private PackBlob current;
+
+    public PushPackReader(InputStream in, ObjectMapper objectMapper) {
+        this.in = new DataInputStream(new BufferedInputStream(in, 64 * 1024));
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Read and validate the pack preamble and commit metadata.
+     * Must be called exactly once, before {@link #nextBlob()}.
+     */
+    public PushRequestDto readHeader() throws IOException {
+        if (headerRead) {
+            throw new IllegalStateException("Push pack header already read");
+        }
+        headerRead = true;
+
+        byte[] magic = new byte[PushPackFormat.MAGIC.length];
+        in.readFully(magic);
+        if (!Arrays.equals(magic, PushPackFormat.MAGIC)) {
+            throw new IllegalArgumentException("Invalid push pack: bad magic");
+        }
+
+        int version = in.readInt();
+        if (version != PushPackFormat.VERSION) {
+            throw new IllegalArgumentException("Unsupported push pack version: " + version);
+        }
+
+        int headerLength = in.readInt();
+        if (headerLength <= 0 || headerLength > PushPackFormat.MAX_HEADER_BYTES) {
+            throw new IllegalArgumentException("Invalid push pack header length: " + headerLength);
+        }
+
+        byte[] header = new byte[headerLength];
+        in.readFully(header);
+        return objectMapper.readValue(header, PushRequestDto.class);
+    }
+
+    /**
+     * Advance to the next blob frame. Any unread bytes of the previous blob
+     * are skipped first.
+     *
+     * @return next blob, or {@code null} once the end frame is reached
+     */
+    public PackBlob nextBlob() throws IOException {
+        if (!headerRead) {
+            throw new IllegalStateException("Push pack header must be read first");
+        }
+        if (finished) {
+            return null;
+        }
+        if (current != null) {
+            current.content.drain();
+            current = null;
+        }
+
+        byte frameType = in.readByte();
+        if (frameType == PushPackFormat.FRAME_END) {
+            finished = true;
+            return null;
+        }
+        if (frameType != PushPackFormat.FRAME_BLOB) {
+            throw new IllegalArgumentException("Invalid push pack frame type: " + frameType);
+        }
+
+        String hash = in.readUTF();
+        if (!HASH_PATTERN.matcher(hash).matches()) {
+            throw new IllegalArgumentException("Invalid blob hash in push pack: " + hash);
+        }
+
+        long size = in.readLong();
+        if (size < 0) {
+            throw new IllegalArgumentException("Invalid blob size in push pack: " + size);
+        }
+
+        current = new PackBlob(hash, size, new FrameInputStream(in, size));
+        return current;
+    }
+
+    public static class PackBlob {
+        private final String hash;
+        private final long size;
+        private final FrameInputStream content;
+
+        private PackBlob(String hash, long size, FrameInputStream content) {
+            this.hash = hash;
+            this.size = size;
+            this.content = content;
+        }
+
+        public String getHash() {
+            return hash;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        /**
+         * Stream over exactly {@link #getSize()} bytes. Closing it does not
+         * close the underlying pack.
+         */
+        public InputStream getContent() {
+            return content;
+        }
+    }
+
+    private static class FrameInputStream extends InputStream {
+        private final InputStream source;
+        private long remaining;
+
+        private FrameInputStream(InputStream source, long remaining) {
+            this.source = source;
+            this.remaining = remaining;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int b = source.read();
+            if (b < 0) {
+                throw new IOException("Unexpected end of push pack");
+            }
+            remaining--;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int read = source.read(b, off, (int) Math.min(len, remaining));
+            if (read < 0) {
+                throw new IOException("Unexpected end of push pack");
+            }
+            remaining -= read;
+            return read;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return (int) Math.min(source.available(), remaining);
+        }
+
+        @Override
+        public void close() {
+            // the pack owns the underlying stream
+        }
+
+        private void drain() throws IOException {
+            if (remaining > 0) {
+                source.skipNBytes(remaining);
+                remaining = 0;
+            }
+        }
+    }
+}
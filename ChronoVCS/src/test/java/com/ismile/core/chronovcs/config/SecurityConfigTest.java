@@ -0,0 +1,30 @@
+package com.ismile.core.chronovcs.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SecurityConfigTest {
+
+    @Test
+    void actuatorIsOnlyOpenOnTheManagementPort() {
+        RequestMatcher matcher = SecurityConfig.onManagementPort(8080, 8091);
+
+        assertTrue(matcher.matches(request(8091)));
+        assertFalse(matcher.matches(request(8080)));
+    }
+
+    @Test
+    void actuatorStaysDeniedWhenItSharesTheMainPort() {
+        assertFalse(SecurityConfig.onManagementPort(8080, 8080).matches(request(8080)));
+        assertFalse(SecurityConfig.onManagementPort(8080, -1).matches(request(8080)));
+    }
+
+    private static MockHttpServletRequest request(int localPort) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/actuator/prometheus");
+        request.setLocalPort(localPort);
+        return request;
+    }
+}
@@ -0,0 +1,211 @@
+package com.ismile.core.chronovcs.security;
+
+import com.ismile.core.chronovcs.config.security.ChronoUserPrincipal;
+import com.ismile.core.chronovcs.entity.UserEntity;
+import com.ismile.core.chronovcs.entity.UserTokenEntity;
+import com.ismile.core.chronovcs.repository.UserRepository;
+import com.ismile.core.chronovcs.repository.UserTokenRepository;
+import com.ismile.core.chronovcs.security.provider.PatTokenProvider;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PatAuthenticationProviderTest {
+
+    private static final String EMAIL = "dev@example.com";
+
+    private UserRepository userRepository;
+    private UserTokenRepository userTokenRepository;
+    private PasswordEncoder passwordEncoder;
+    private PatUsageRecorder usageRecorder;
+    private PatTokenProvider patTokenProvider;
+    private PatAuthenticationProvider provider;
+
+    private UserEntity user;
+    private String rawToken;
+    private String digest;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = Mockito.mock(UserRepository.class);
+        userTokenRepository = Mockito.mock(UserTokenRepository.class);
+        passwordEncoder = Mockito.mock(PasswordEncoder.class);
+        usageRecorder = Mockito.mock(PatUsageRecorder.class);
+        patTokenProvider = new PatTokenProvider("test-digest-key", "");
+
+        provider = new PatAuthenticationProvider(userRepository, userTokenRepository, passwordEncoder,
+                patTokenProvider, new PatVerificationCache(60, 100), usageRecorder);
+
+        user = UserEntity.builder().id(1L).userUid("user-1").email(EMAIL).build();
+        rawToken = patTokenProvider.generate().getFullToken();
+        digest = patTokenProvider.digest(rawToken);
+
+        when(userRepository.findByEmailAndActiveTrue(EMAIL)).thenReturn(Optional.of(user));
+        when(userTokenRepository.findByTokenDigestAndRevokedFalse(anyString())).thenReturn(Optional.empty());
+        when(userTokenRepository.findStaleDigestCandidates(anyString(), anyString()))
+                .thenReturn(List.of());
+        when(userTokenRepository.save(any(UserTokenEntity.class))).thenAnswer(i -> i.getArgument(0));
+    }
+
+    @Test
+    void nonPatCredentialsAreLeftToOtherProviders() {
+        assertNull(provider.authenticate(login(EMAIL, "plain-password")));
+
+        verify(userRepository, never()).findByEmailAndActiveTrue(anyString());
+    }
+
+    @Test
+    void tokenIsFoundByDigestWithoutBcrypt() {
+        UserTokenEntity token = token(10L, user, digest);
+        when(userTokenRepository.findByTokenDigestAndRevokedFalse(digest)).thenReturn(Optional.of(token));
+
+        Authentication result = provider.authenticate(login(EMAIL, rawToken));
+
+        ChronoUserPrincipal principal = (ChronoUserPrincipal) result.getPrincipal();
+        assertEquals(1L, principal.getUser().getUserId());
+        assertEquals(10L, principal.getUser().getTokenId());
+        verify(passwordEncoder, never()).matches(anyString(), anyString());
+        verify(userTokenRepository, never()).findStaleDigestCandidates(anyString(), anyString());
+        verify(usageRecorder).record(10L);
+    }
+
+    @Test
+    void repeatedAuthenticationIsServedFromCache() {
+        UserTokenEntity token = token(10L, user, digest);
+        when(userTokenRepository.findByTokenDigestAndRevokedFalse(digest)).thenReturn(Optional.of(token));
+
+        provider.authenticate(login(EMAIL, rawToken));
+        Authentication second = provider.authenticate(login(EMAIL, rawToken));
+
+        assertEquals(10L, ((ChronoUserPrincipal) second.getPrincipal()).getUser().getTokenId());
+        verify(userRepository, times(1)).findByEmailAndActiveTrue(EMAIL);
+        verify(userTokenRepository, times(1)).findByTokenDigestAndRevokedFalse(digest);
+        verify(usageRecorder, times(2)).record(10L);
+    }
+
+    @Test
+    void legacyTokenIsMatchedWithBcryptAndUpgraded() {
+        UserEntity otherUser = UserEntity.builder().id(2L).userUid("user-2").email("other@example.com").build();
+        UserTokenEntity foreign = token(11L, otherUser, null);
+        UserTokenEntity legacy = token(12L, user, null);
+        when(userTokenRepository.findStaleDigestCandidates(
+                patTokenProvider.extractPrefix(rawToken), patTokenProvider.digestKeyId()))
+                .thenReturn(List.of(foreign, legacy));
+        when(passwordEncoder.matches(rawToken, legacy.getTokenHash())).thenReturn(true);
+
+        Authentication result = provider.authenticate(login(EMAIL, rawToken));
+
+        assertEquals(12L, ((ChronoUserPrincipal) result.getPrincipal()).getUser().getTokenId());
+        assertEquals(digest, legacy.getTokenDigest());
+        assertEquals(patTokenProvider.digestKeyId(), legacy.getTokenDigestKeyId());
+        verify(userTokenRepository).save(legacy);
+        // the other user's candidate is never BCrypt-checked
+        verify(passwordEncoder, never()).matches(rawToken, foreign.getTokenHash());
+    }
+
+    @Test
+    void upgradedTokenUsesDigestLookupNextTime() {
+        UserTokenEntity legacy = token(12L, user, null);
+        when(userTokenRepository.findStaleDigestCandidates(anyString(), anyString()))
+                .thenReturn(List.of(legacy));
+        when(passwordEncoder.matches(rawToken, legacy.getTokenHash())).thenReturn(true);
+        provider.authenticate(login(EMAIL, rawToken));
+
+        // fresh provider, so the cache does not answer
+        when(userTokenRepository.findByTokenDigestAndRevokedFalse(digest)).thenReturn(Optional.of(legacy));
+        PatAuthenticationProvider restarted = new PatAuthenticationProvider(userRepository, userTokenRepository,
+                passwordEncoder, patTokenProvider, new PatVerificationCache(60, 100), usageRecorder);
+        restarted.authenticate(login(EMAIL, rawToken));
+
+        verify(passwordEncoder, times(1)).matches(anyString(), anyString());
+    }
+
+    @Test
+    void tokenDigestedBeforeJwtSecretRotationIsMatchedWithBcryptAndRestamped() {
+        PatTokenProvider beforeRotation = new PatTokenProvider("", "old-jwt-secret");
+        PatTokenProvider afterRotation = new PatTokenProvider("", "new-jwt-secret");
+        UserTokenEntity stale = token(12L, user, beforeRotation.digest(rawToken));
+        stale.setTokenDigestKeyId(beforeRotation.digestKeyId());
+        assertNotEquals(beforeRotation.digestKeyId(), afterRotation.digestKeyId());
+        when(userTokenRepository.findStaleDigestCandidates(
+                afterRotation.extractPrefix(rawToken), afterRotation.digestKeyId())).thenReturn(List.of(stale));
+        when(passwordEncoder.matches(rawToken, stale.getTokenHash())).thenReturn(true);
+
+        PatAuthenticationProvider rotated = new PatAuthenticationProvider(userRepository, userTokenRepository,
+                passwordEncoder, afterRotation, new PatVerificationCache(60, 100), usageRecorder);
+        Authentication result = rotated.authenticate(login(EMAIL, rawToken));
+
+        assertEquals(12L, ((ChronoUserPrincipal) result.getPrincipal()).getUser().getTokenId());
+        assertEquals(afterRotation.digest(rawToken), stale.getTokenDigest());
+        assertEquals(afterRotation.digestKeyId(), stale.getTokenDigestKeyId());
+        verify(userTokenRepository).save(stale);
+    }
+
+    @Test
+    void wrongTokenIsRejected() {
+        UserTokenEntity legacy = token(12L, user, null);
+        when(userTokenRepository.findStaleDigestCandidates(anyString(), anyString()))
+                .thenReturn(List.of(legacy));
+        when(passwordEncoder.matches(anyString(), anyString())).thenReturn(false);
+
+        assertThrows(BadCredentialsException.class, () -> provider.authenticate(login(EMAIL, rawToken)));
+        verify(userTokenRepository, never()).save(any());
+        verify(usageRecorder, never()).record(any());
+    }
+
+    @Test
+    void tokenOfAnotherUserIsRejected() {
+        UserEntity otherUser = UserEntity.builder().id(2L).userUid("user-2").email("other@example.com").build();
+        when(userTokenRepository.findByTokenDigestAndRevokedFalse(digest))
+                .thenReturn(Optional.of(token(10L, otherUser, digest)));
+
+        assertThrows(BadCredentialsException.class, () -> provider.authenticate(login(EMAIL, rawToken)));
+    }
+
+    @Test
+    void expiredTokenIsRejected() {
+        UserTokenEntity token = token(10L, user, digest);
+        token.setExpiresAt(LocalDateTime.now().minusDays(1));
+        when(userTokenRepository.findByTokenDigestAndRevokedFalse(digest)).thenReturn(Optional.of(token));
+
+        assertThrows(BadCredentialsException.class, () -> provider.authenticate(login(EMAIL, rawToken)));
+    }
+
+    @Test
+    void unknownUserIsRejected() {
+        when(userRepository.findByEmailAndActiveTrue(EMAIL)).thenReturn(Optional.empty());
+
+        assertThrows(BadCredentialsException.class, () -> provider.authenticate(login(EMAIL, rawToken)));
+    }
+
+    private static UsernamePasswordAuthenticationToken login(String email, String password) {
+        return new UsernamePasswordAuthenticationToken(email, password);
+    }
+
+    private static UserTokenEntity token(Long id, UserEntity owner, String digest) {
+        return UserTokenEntity.builder()
+                .id(id)
+                .user(owner)
+                .tokenName("token-" + id)
+                .tokenHash("bcrypt-" + id)
+                .tokenPrefix("cvcs_")
+                .tokenDigest(digest)
+                .build();
+    }
+}
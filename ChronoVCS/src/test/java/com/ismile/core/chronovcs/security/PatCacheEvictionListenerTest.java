@@ -0,0 +1,98 @@
+package com.ismile.core.chronovcs.security;
+
+import com.ismile.core.chronovcs.entity.UserEntity;
+import com.ismile.core.chronovcs.entity.UserTokenEntity;
+import com.ismile.core.chronovcs.service.auth.AuthenticatedUser;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.ObjectProvider;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+class PatCacheEvictionListenerTest {
+
+    private final PatVerificationCache cache = new PatVerificationCache(60, 100);
+    private PatCacheEvictionListener listener;
+
+    private UserEntity user;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        ObjectProvider<PatVerificationCache> provider = Mockito.mock(ObjectProvider.class);
+        when(provider.getObject()).thenReturn(cache);
+        listener = new PatCacheEvictionListener(provider);
+
+        user = UserEntity.builder().id(1L).userUid("user-1").email("dev@example.com").active(true).build();
+        cache.put("d10", cached(1L, 10L), null);
+        cache.put("d11", cached(1L, 11L), null);
+        cache.put("d20", cached(2L, 20L), null);
+    }
+
+    @Test
+    void deactivatedUserIsEvicted() {
+        user.setActive(false);
+
+        listener.onUpdate(user);
+
+        assertNull(cache.get("d10", "dev@example.com"));
+        assertNull(cache.get("d11", "dev@example.com"));
+        assertNotNull(cache.get("d20", "dev@example.com"));
+    }
+
+    @Test
+    void otherUserUpdatesKeepTheCache() {
+        listener.onUpdate(user);
+
+        assertNotNull(cache.get("d10", "dev@example.com"));
+    }
+
+    @Test
+    void revokedTokenIsEvicted() {
+        UserTokenEntity token = token(10L);
+        token.setRevoked(true);
+
+        listener.onUpdate(token);
+
+        assertNull(cache.get("d10", "dev@example.com"));
+        assertNotNull(cache.get("d11", "dev@example.com"));
+    }
+
+    @Test
+    void tokenUsageUpdateKeepsTheCache() {
+        listener.onUpdate(token(10L));
+
+        assertNotNull(cache.get("d10", "dev@example.com"));
+    }
+
+    @Test
+    void removedTokenAndUserAreEvicted() {
+        listener.onRemove(token(20L));
+        assertNull(cache.get("d20", "dev@example.com"));
+
+        listener.onRemove(user);
+        assertNull(cache.get("d10", "dev@example.com"));
+        assertNull(cache.get("d11", "dev@example.com"));
+    }
+
+    private UserTokenEntity token(Long id) {
+        return UserTokenEntity.builder()
+                .id(id)
+                .user(user)
+                .tokenName("token-" + id)
+                .tokenHash("bcrypt-" + id)
+                .tokenPrefix("cvcs_")
+                .build();
+    }
+
+    private static AuthenticatedUser cached(Long userId, Long tokenId) {
+        return AuthenticatedUser.builder()
+                .userId(userId)
+                .userUid("user-" + userId)
+                .email("dev@example.com")
+                .tokenId(tokenId)
+                .build();
+    }
+}
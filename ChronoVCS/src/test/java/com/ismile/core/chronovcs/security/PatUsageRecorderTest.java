@@ -0,0 +1,112 @@
+package com.ismile.core.chronovcs.security;
+
+import com.ismile.core.chronovcs.repository.UserTokenRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PatUsageRecorderTest {
+
+    private UserTokenRepository userTokenRepository;
+    private PatUsageRecorder recorder;
+
+    @BeforeEach
+    void setUp() {
+        userTokenRepository = Mockito.mock(UserTokenRepository.class);
+        when(userTokenRepository.updateLastUsedAt(anyCollection(), any()))
+                .thenAnswer(i -> ((Collection<?>) i.getArgument(0)).size());
+        recorder = new PatUsageRecorder(userTokenRepository);
+    }
+
+    @Test
+    void flushWithoutUsesDoesNothing() {
+        recorder.flush();
+
+        verify(userTokenRepository, never()).updateLastUsedAt(anyCollection(), any());
+    }
+
+    @Test
+    void usesAreCoalescedIntoBulkUpdates() {
+        LocalDateTime before = LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES);
+        for (int i = 0; i < 50; i++) {
+            recorder.record(1L);
+            recorder.record(2L);
+        }
+        recorder.record(3L);
+
+        recorder.flush();
+
+        List<Long> ids = new ArrayList<>();
+        List<LocalDateTime> times = new ArrayList<>();
+        captureUpdates(ids, times);
+        // one row update per token, at most one statement per minute boundary crossed
+        assertEquals(Set.of(1L, 2L, 3L), new HashSet<>(ids));
+        assertEquals(3, ids.size());
+        assertTrue(times.size() <= 2);
+        for (LocalDateTime usedAt : times) {
+            assertEquals(usedAt.truncatedTo(ChronoUnit.MINUTES), usedAt);
+            assertFalse(usedAt.isBefore(before));
+        }
+    }
+
+    @Test
+    void flushedUsesAreNotWrittenAgain() {
+        recorder.record(1L);
+        recorder.flush();
+        recorder.flush();
+
+        verify(userTokenRepository, times(1)).updateLastUsedAt(anyCollection(), any());
+    }
+
+    @Test
+    void failedFlushIsRetried() {
+        when(userTokenRepository.updateLastUsedAt(anyCollection(), any()))
+                .thenThrow(new RuntimeException("database unavailable"))
+                .thenReturn(1);
+        recorder.record(1L);
+
+        recorder.flush();
+        recorder.flush();
+
+        List<Long> ids = new ArrayList<>();
+        captureUpdates(ids, new ArrayList<>());
+        assertEquals(List.of(1L, 1L), ids);
+    }
+
+    @Test
+    void flushOnShutdownWritesPendingUses() {
+        recorder.record(7L);
+
+        recorder.flushOnShutdown();
+
+        List<Long> ids = new ArrayList<>();
+        captureUpdates(ids, new ArrayList<>());
+        assertEquals(List.of(7L), ids);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void captureUpdates(List<Long> ids, List<LocalDateTime> times) {
+        ArgumentCaptor<Collection<Long>> idCaptor = ArgumentCaptor.forClass(Collection.class);
+        ArgumentCaptor<LocalDateTime> timeCaptor = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(userTokenRepository, Mockito.atLeastOnce()).updateLastUsedAt(idCaptor.capture(), timeCaptor.capture());
+        idCaptor.getAllValues().forEach(ids::addAll);
+        times.addAll(timeCaptor.getAllValues());
+    }
+}
@@ -0,0 +1,115 @@
+package com.ismile.core.chronovcs.security;
+
+import com.ismile.core.chronovcs.service.auth.AuthenticatedUser;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PatVerificationCacheTest {
+
+    private final PatVerificationCache cache = new PatVerificationCache(60, 100);
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void hitReturnsCopyOfCachedUser() {
+        cache.put("d1", user(10L, "dev@example.com"), null);
+
+        AuthenticatedUser hit = cache.get("d1", "dev@example.com");
+        hit.setTokenId(99L);
+
+        assertEquals(10L, cache.get("d1", "dev@example.com").getTokenId());
+    }
+
+    @Test
+    void otherEmailMisses() {
+        cache.put("d1", user(10L, "dev@example.com"), null);
+
+        assertNull(cache.get("d1", "other@example.com"));
+    }
+
+    @Test
+    void expiredTokenIsNotCached() {
+        cache.put("d1", user(10L, "dev@example.com"), LocalDateTime.now().minusSeconds(1));
+
+        assertNull(cache.get("d1", "dev@example.com"));
+    }
+
+    @Test
+    void zeroTtlDisablesCache() {
+        PatVerificationCache disabled = new PatVerificationCache(0, 100);
+        disabled.put("d1", user(10L, "dev@example.com"), null);
+
+        assertNull(disabled.get("d1", "dev@example.com"));
+    }
+
+    @Test
+    void fullCacheIsCleared() {
+        PatVerificationCache small = new PatVerificationCache(60, 2);
+        small.put("d1", user(1L, "a@example.com"), null);
+        small.put("d2", user(2L, "b@example.com"), null);
+        small.put("d3", user(3L, "c@example.com"), null);
+
+        assertNull(small.get("d1", "a@example.com"));
+        assertNotNull(small.get("d3", "c@example.com"));
+    }
+
+    @Test
+    void invalidateEvictsOnlyThatToken() {
+        cache.put("d1", user(10L, "dev@example.com"), null);
+        cache.put("d2", user(11L, "dev@example.com"), null);
+
+        cache.invalidate(10L);
+
+        assertNull(cache.get("d1", "dev@example.com"));
+        assertNotNull(cache.get("d2", "dev@example.com"));
+    }
+
+    @Test
+    void invalidateAfterCommitEvictsAgainOnCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        cache.put("d1", user(10L, "dev@example.com"), null);
+
+        cache.invalidateAfterCommit(10L);
+        assertNull(cache.get("d1", "dev@example.com"));
+
+        // a concurrent request re-caches the token from the not yet committed row
+        cache.put("d1", user(10L, "dev@example.com"), null);
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+        assertNull(cache.get("d1", "dev@example.com"));
+    }
+
+    @Test
+    void invalidateUserEvictsAllTokensOfThatUser() {
+        cache.put("d1", user(10L, "dev@example.com"), null);
+        cache.put("d2", user(11L, "dev@example.com"), null);
+        cache.put("d3", AuthenticatedUser.builder()
+                .userId(2L).userUid("user-2").email("other@example.com").tokenId(12L).build(), null);
+
+        cache.invalidateUser(1L);
+
+        assertNull(cache.get("d1", "dev@example.com"));
+        assertNull(cache.get("d2", "dev@example.com"));
+        assertNotNull(cache.get("d3", "other@example.com"));
+    }
+
+    private static AuthenticatedUser user(Long tokenId, String email) {
+        return AuthenticatedUser.builder()
+                .userId(1L)
+                .userUid("user-1")
+                .email(email)
+                .tokenId(tokenId)
+                .build();
+    }
+}
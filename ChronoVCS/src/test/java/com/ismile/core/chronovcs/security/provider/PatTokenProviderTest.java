@@ -0,0 +1,48 @@
+package com.ismile.core.chronovcs.security.provider;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PatTokenProviderTest {
+
+    private static final String JWT_SECRET = "VGVzdCBKV1Qgc2VjcmV0IGZvciBQQVQgZGlnZXN0cw==";
+
+    @Test
+    void digestIsStablePerKey() {
+        PatTokenProvider provider = new PatTokenProvider("key-1", JWT_SECRET);
+        String token = provider.generate().getFullToken();
+
+        assertEquals(provider.digest(token), new PatTokenProvider("key-1", "").digest(token));
+        assertEquals(64, provider.digest(token).length());
+        assertNotEquals(provider.digest(token), new PatTokenProvider("key-2", JWT_SECRET).digest(token));
+    }
+
+    @Test
+    void missingDigestKeyIsDerivedFromJwtSecret() {
+        PatTokenProvider derived = new PatTokenProvider("", JWT_SECRET);
+        String token = derived.generate().getFullToken();
+
+        assertEquals(derived.digest(token), new PatTokenProvider(null, JWT_SECRET).digest(token));
+        assertNotEquals(derived.digest(token), new PatTokenProvider("", "another secret").digest(token));
+        // the derived key is not the secret itself
+        assertNotEquals(derived.digest(token), new PatTokenProvider(JWT_SECRET, "").digest(token));
+    }
+
+    @Test
+    void startupFailsWithoutAnyKey() {
+        assertThrows(IllegalStateException.class, () -> new PatTokenProvider("", ""));
+        assertThrows(IllegalStateException.class, () -> new PatTokenProvider(null, null));
+    }
+
+    @Test
+    void generatedTokensAreRecognised() {
+        PatTokenProvider provider = new PatTokenProvider("key-1", "");
+        PatTokenProvider.TokenPair pair = provider.generate();
+
+        assertTrue(provider.isPatToken(pair.getFullToken()));
+        assertFalse(provider.isPatToken("password"));
+        assertEquals(pair.getPrefix(), provider.extractPrefix(pair.getFullToken()));
+        assertNotEquals(pair.getFullToken(), provider.generate().getFullToken());
+    }
+}
@@ -0,0 +1,84 @@
+package com.ismile.core.chronovcs.service.auth;
+
+import com.ismile.core.chronovcs.entity.UserEntity;
+import com.ismile.core.chronovcs.entity.UserTokenEntity;
+import com.ismile.core.chronovcs.repository.UserTokenRepository;
+import com.ismile.core.chronovcs.security.PatVerificationCache;
+import com.ismile.core.chronovcs.security.provider.PatTokenProvider;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TokenServiceTest {
+
+    private UserTokenRepository userTokenRepository;
+    private PatVerificationCache verificationCache;
+    private TokenService tokenService;
+
+    private UserEntity user;
+
+    @BeforeEach
+    void setUp() {
+        userTokenRepository = Mockito.mock(UserTokenRepository.class);
+        verificationCache = new PatVerificationCache(60, 100);
+        tokenService = new TokenService(userTokenRepository, new PatTokenProvider("test-digest-key", ""),
+                Mockito.mock(PasswordEncoder.class), verificationCache);
+
+        user = UserEntity.builder().id(1L).userUid("user-1").email("dev@example.com").build();
+    }
+
+    @Test
+    void revokeEvictsCachedVerification() {
+        UserTokenEntity token = token(10L, user);
+        when(userTokenRepository.findById(10L)).thenReturn(Optional.of(token));
+        verificationCache.put("d10", cached(10L), null);
+        verificationCache.put("d11", cached(11L), null);
+
+        tokenService.revokeToken(1L, 10L);
+
+        assertTrue(token.isRevoked());
+        verify(userTokenRepository).save(token);
+        assertNull(verificationCache.get("d10", "dev@example.com"));
+        assertNotNull(verificationCache.get("d11", "dev@example.com"));
+    }
+
+    @Test
+    void revokeOfAnotherUsersTokenIsRefused() {
+        UserEntity otherUser = UserEntity.builder().id(2L).userUid("user-2").email("other@example.com").build();
+        when(userTokenRepository.findById(10L)).thenReturn(Optional.of(token(10L, otherUser)));
+        verificationCache.put("d10", cached(10L), null);
+
+        assertThrows(IllegalArgumentException.class, () -> tokenService.revokeToken(1L, 10L));
+
+        verify(userTokenRepository, never()).save(any());
+        assertNotNull(verificationCache.get("d10", "dev@example.com"));
+    }
+
+    private static UserTokenEntity token(Long id, UserEntity owner) {
+        return UserTokenEntity.builder()
+                .id(id)
+                .user(owner)
+                .tokenName("token-" + id)
+                .tokenHash("bcrypt-" + id)
+                .tokenPrefix("cvcs_")
+                .build();
+    }
+
+    private static AuthenticatedUser cached(Long tokenId) {
+        return AuthenticatedUser.builder()
+                .userId(1L)
+                .userUid("user-1")
+                .email("dev@example.com")
+                .tokenId(tokenId)
+                .build();
+    }
+}
@@ -0,0 +1,169 @@
+package com.ismile.core.chronovcs.service.clone;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ismile.core.chronovcs.dto.clone.BatchObjectDto;
+import com.ismile.core.chronovcs.entity.BlobEntity;
+import com.ismile.core.chronovcs.entity.RepositoryEntity;
+import com.ismile.core.chronovcs.metrics.VcsMetrics;
+import com.ismile.core.chronovcs.repository.BlobRepository;
+import com.ismile.core.chronovcs.repository.BranchHeadRepository;
+import com.ismile.core.chronovcs.repository.CommitRepository;
+import com.ismile.core.chronovcs.repository.RepositoryRepository;
+import com.ismile.core.chronovcs.service.storage.BlobStorageService;
+import com.ismile.core.chronovcs.service.tree.CommitSnapshotService;
+import com.ismile.core.chronovcs.service.tree.TreeService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CloneServiceBatchObjectsTest {
+
+    private static final int READ_CONCURRENCY = 4;
+
+    private final RepositoryEntity repository = RepositoryEntity.builder().id(1L).repoKey("repo").build();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private BlobRepository blobRepository;
+    private BlobStorageService blobStorageService;
+    private CloneService cloneService;
+
+    // Stored blobs by hash; loads of "broken" fail
+    private final Map<String, String> stored = new HashMap<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        RepositoryRepository repositoryRepository = Mockito.mock(RepositoryRepository.class);
+        when(repositoryRepository.findByRepoKey("repo")).thenReturn(Optional.of(repository));
+
+        blobRepository = Mockito.mock(BlobRepository.class);
+        when(blobRepository.findByRepositoryAndHashIn(eq(repository), any())).thenAnswer(invocation -> {
+            Collection<String> hashes = invocation.getArgument(1);
+            return hashes.stream()
+                    .filter(stored::containsKey)
+                    .map(hash -> BlobEntity.builder().hash(hash).build())
+                    .toList();
+        });
+
+        blobStorageService = Mockito.mock(BlobStorageService.class);
+        when(blobStorageService.loadContent(any(BlobEntity.class))).thenAnswer(invocation -> {
+            int current = inFlight.incrementAndGet();
+            maxInFlight.accumulateAndGet(current, Math::max);
+            try {
+                Thread.sleep(5);
+                String hash = invocation.<BlobEntity>getArgument(0).getHash();
+                if (hash.equals("broken")) {
+                    throw new IllegalStateException("storage read failed");
+                }
+                return stored.get(hash).getBytes(StandardCharsets.UTF_8);
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        });
+
+        cloneService = new CloneService(
+                repositoryRepository,
+                Mockito.mock(BranchHeadRepository.class),
+                Mockito.mock(CommitRepository.class),
+                blobRepository,
+                blobStorageService,
+                objectMapper,
+                Mockito.mock(CommitSnapshotService.class),
+                Mockito.mock(TreeService.class),
+                new VcsMetrics(new SimpleMeterRegistry(), false));
+        ReflectionTestUtils.setField(cloneService, "readConcurrency", READ_CONCURRENCY);
+    }
+
+    @Test
+    void blobsAreLookedUpInChunksWithoutDuplicatesOrUnknownHashes() {
+        List<String> requested = new ArrayList<>();
+        for (int i = 0; i < 2500; i++) {
+            String hash = "h" + i;
+            if (i % 10 != 0) {
+                stored.put(hash, "content " + i);
+            }
+            requested.add(hash);
+        }
+        requested.addAll(List.copyOf(requested.subList(0, 100)));
+
+        List<BlobEntity> blobs = cloneService.findBlobs("repo", requested);
+
+        assertEquals(2250, blobs.size());
+        assertEquals(2250, blobs.stream().map(BlobEntity::getHash).distinct().count());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<String>> chunks = ArgumentCaptor.forClass(Collection.class);
+        verify(blobRepository, times(3)).findByRepositoryAndHashIn(eq(repository), chunks.capture());
+        assertEquals(List.of(1000, 1000, 500), chunks.getAllValues().stream().map(Collection::size).toList());
+    }
+
+    @Test
+    void batchLoadsEveryBlobWithBoundedConcurrency() {
+        List<String> requested = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            stored.put("h" + i, "content " + i);
+            requested.add("h" + i);
+        }
+
+        Map<String, String> objects = cloneService.getBatchObjects("repo", requested).getObjects();
+
+        assertEquals(40, objects.size());
+        for (int i = 0; i < 40; i++) {
+            assertEquals("content " + i, new String(Base64.getDecoder().decode(objects.get("h" + i)),
+                    StandardCharsets.UTF_8));
+        }
+        assertTrue(maxInFlight.get() <= READ_CONCURRENCY, "max in flight " + maxInFlight.get());
+        assertTrue(maxInFlight.get() > 1, "blobs were loaded one at a time");
+    }
+
+    @Test
+    void blobThatFailsToLoadIsSkipped() {
+        stored.put("h1", "one");
+        stored.put("broken", "unreadable");
+        stored.put("h2", "two");
+
+        Map<String, String> objects = cloneService.getBatchObjects("repo", List.of("h1", "broken", "h2")).getObjects();
+
+        assertEquals(List.of("h1", "h2"), objects.keySet().stream().sorted().toList());
+    }
+
+    @Test
+    void streamWritesOneJsonLinePerLoadedBlob() throws Exception {
+        stored.put("h1", "one");
+        stored.put("h2", "two");
+        stored.put("h3", "three");
+        List<BlobEntity> blobs = cloneService.findBlobs("repo", List.of("h1", "h2", "h3"));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        cloneService.writeBatchObjects("repo", blobs, out);
+
+        Map<String, String> received = new HashMap<>();
+        for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+            BatchObjectDto object = objectMapper.readValue(line, BatchObjectDto.class);
+            received.put(object.getHash(), new String(object.getContent(), StandardCharsets.UTF_8));
+        }
+        assertEquals(Map.of("h1", "one", "h2", "two", "h3", "three"), received);
+    }
+}
@@ -0,0 +1,134 @@
+package com.ismile.core.chronovcs.service.clone;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ismile.core.chronovcs.dto.clone.ObjectSetResponseDto;
+import com.ismile.core.chronovcs.entity.BlobEntity;
+import com.ismile.core.chronovcs.entity.CommitEntity;
+import com.ismile.core.chronovcs.entity.RepositoryEntity;
+import com.ismile.core.chronovcs.metrics.VcsMetrics;
+import com.ismile.core.chronovcs.repository.BlobRepository;
+import com.ismile.core.chronovcs.repository.BranchHeadRepository;
+import com.ismile.core.chronovcs.repository.CommitRepository;
+import com.ismile.core.chronovcs.repository.RepositoryRepository;
+import com.ismile.core.chronovcs.service.storage.BlobStorageService;
+import com.ismile.core.chronovcs.service.tree.CommitSnapshotService;
+import com.ismile.core.chronovcs.service.tree.TreeService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+class CloneServiceTest {
+
+    private final RepositoryEntity repository = RepositoryEntity.builder().id(1L).repoKey("repo").build();
+
+    private CommitRepository commitRepository;
+    private CommitSnapshotService commitSnapshotService;
+    private CloneService cloneService;
+
+    @BeforeEach
+    void setUp() {
+        RepositoryRepository repositoryRepository = Mockito.mock(RepositoryRepository.class);
+        when(repositoryRepository.findByRepoKey("repo")).thenReturn(Optional.of(repository));
+        commitRepository = Mockito.mock(CommitRepository.class);
+        when(commitRepository.findByRepositoryAndCommitId(eq(repository), anyString())).thenReturn(Optional.empty());
+        commitSnapshotService = Mockito.mock(CommitSnapshotService.class);
+
+        // Every requested blob exists, one byte per blob
+        BlobRepository blobRepository = Mockito.mock(BlobRepository.class);
+        when(blobRepository.findByRepositoryAndHashIn(eq(repository), any())).thenAnswer(invocation -> {
+            Collection<String> hashes = invocation.getArgument(1);
+            return hashes.stream()
+                    .map(hash -> BlobEntity.builder().hash(hash).contentSize(1L).build())
+                    .toList();
+        });
+
+        cloneService = new CloneService(
+                repositoryRepository,
+                Mockito.mock(BranchHeadRepository.class),
+                commitRepository,
+                blobRepository,
+                Mockito.mock(BlobStorageService.class),
+                new ObjectMapper(),
+                commitSnapshotService,
+                Mockito.mock(TreeService.class),
+                new VcsMetrics(new SimpleMeterRegistry(), false));
+        ReflectionTestUtils.setField(cloneService, "maxDepth", 2);
+
+        // c3 -> c2 -> c1 (root), each commit changes a.txt and keeps b.txt
+        commit("c1", null, Map.of("a.txt", "a1", "b.txt", "b1"));
+        commit("c2", "c1", Map.of("a.txt", "a2", "b.txt", "b1"));
+        commit("c3", "c2", Map.of("a.txt", "a3", "b.txt", "b1"));
+    }
+
+    @Test
+    void depthSelectsNewestCommits() {
+        ObjectSetResponseDto objectSet = cloneService.getObjectSet("repo", null, 1, "c3");
+
+        assertEquals(Set.of("a3", "b1"), Set.copyOf(objectSet.getHashes()));
+        assertEquals(2, objectSet.getTotalSize());
+        assertEquals(1, objectSet.getCommitCount());
+        assertTrue(objectSet.isHasMore());
+    }
+
+    @Test
+    void depthIsCappedAtTheServerMaximum() {
+        ObjectSetResponseDto objectSet = cloneService.getObjectSet("repo", null, 100, "c3");
+
+        assertEquals(Set.of("a3", "a2", "b1"), Set.copyOf(objectSet.getHashes()));
+        assertEquals(2, objectSet.getCommitCount());
+        assertTrue(objectSet.isHasMore());
+    }
+
+    @Test
+    void missingDepthUsesTheServerMaximum() {
+        ObjectSetResponseDto objectSet = cloneService.getObjectSet("repo", null, null, "c3");
+
+        assertEquals(2, objectSet.getCommitCount());
+        assertTrue(objectSet.isHasMore());
+    }
+
+    @Test
+    void hasMoreIsFalseWhenTheRootIsReached() {
+        ObjectSetResponseDto objectSet = cloneService.getObjectSet("repo", null, 2, "c2");
+
+        assertEquals(Set.of("a2", "a1", "b1"), Set.copyOf(objectSet.getHashes()));
+        assertEquals(2, objectSet.getCommitCount());
+        assertFalse(objectSet.isHasMore());
+    }
+
+    @Test
+    void depthBelowOneIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> cloneService.getObjectSet("repo", null, 0, "c3"));
+        assertThrows(IllegalArgumentException.class, () -> cloneService.getObjectSet("repo", null, -5, "c3"));
+    }
+
+    @Test
+    void historyHasMoreOnlyBeforeTheRoot() {
+        assertTrue(cloneService.getCommitHistory("repo", null, 2, "c3").isHasMore());
+        assertFalse(cloneService.getCommitHistory("repo", null, 3, "c3").isHasMore());
+    }
+
+    private void commit(String id, String parent, Map<String, String> files) {
+        CommitEntity commit = CommitEntity.builder()
+                .repository(repository)
+                .commitId(id)
+                .parentCommitId(parent)
+                .branch("main")
+                .build();
+        when(commitRepository.findByRepositoryAndCommitId(repository, id)).thenReturn(Optional.of(commit));
+        when(commitSnapshotService.getFiles(repository, commit)).thenReturn(files);
+    }
+}
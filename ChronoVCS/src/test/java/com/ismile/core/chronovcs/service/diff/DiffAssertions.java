@@ -0,0 +1,127 @@
+package com.ismile.core.chronovcs.service.diff;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks shared by the diff algorithm tests.
+ */
+final class DiffAssertions {
+
+    private DiffAssertions() {
+    }
+
+    /**
+     * Apply the edit script to the old side and check it yields the new side.
+     * Kept lines must pair up in order, so this also validates the common subsequence.
+     */
+    static void assertReconstructs(int[] oldIds, int[] newIds, LineChanges changes) {
+        assertEquals(oldIds.length, changes.deleted.length);
+        assertEquals(newIds.length, changes.inserted.length);
+
+        List<Integer> result = new ArrayList<>();
+        int x = 0;
+        int y = 0;
+        while (x < oldIds.length || y < newIds.length) {
+            if (x < oldIds.length && changes.deleted[x]) {
+                x++;
+            } else if (y < newIds.length && changes.inserted[y]) {
+                result.add(newIds[y++]);
+            } else {
+                assertEquals(oldIds[x], newIds[y], "Kept lines must be equal: old " + x + ", new " + y);
+                result.add(oldIds[x++]);
+                y++;
+            }
+        }
+        assertArrayEquals(newIds, result.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    /**
+     * Number of lines the diff kept, i.e. the length of its common subsequence.
+     */
+    static int common(LineChanges changes) {
+        int kept = 0;
+        for (boolean deleted : changes.deleted) {
+            if (!deleted) {
+                kept++;
+            }
+        }
+        return kept;
+    }
+
+    /**
+     * Longest common subsequence length by dynamic programming, as the reference.
+     */
+    static int lcs(int[] a, int[] b) {
+        int[] previous = new int[b.length + 1];
+        int[] current = new int[b.length + 1];
+        for (int i = 1; i <= a.length; i++) {
+            for (int j = 1; j <= b.length; j++) {
+                current[j] = a[i - 1] == b[j - 1]
+                        ? previous[j - 1] + 1
+                        : Math.max(previous[j], current[j - 1]);
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length];
+    }
+
+    /**
+     * Intern lines to dense ids like DiffService does; both sides share one id space.
+     */
+    static int[][] ids(String[] oldLines, String[] newLines) {
+        Map<String, Integer> ids = new HashMap<>();
+        return new int[][]{intern(oldLines, ids), intern(newLines, ids), {ids.size()}};
+    }
+
+    static int[] random(Random random, int length, int alphabet) {
+        int[] ids = new int[length];
+        for (int i = 0; i < length; i++) {
+            ids[i] = random.nextInt(alphabet);
+        }
+        return ids;
+    }
+
+    /**
+     * Copy of {@code ids} with a few random lines replaced, inserted or removed.
+     */
+    static int[] mutate(Random random, int[] ids, int edits, int alphabet) {
+        List<Integer> result = new ArrayList<>();
+        for (int id : ids) {
+            result.add(id);
+        }
+        for (int i = 0; i < edits; i++) {
+            int position = random.nextInt(result.size() + 1);
+            switch (random.nextInt(3)) {
+                case 0 -> result.add(position, random.nextInt(alphabet));
+                case 1 -> {
+                    if (position < result.size()) {
+                        result.remove(position);
+                    }
+                }
+                default -> {
+                    if (position < result.size()) {
+                        result.set(position, random.nextInt(alphabet));
+                    }
+                }
+            }
+        }
+        return result.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static int[] intern(String[] lines, Map<String, Integer> ids) {
+        int[] result = new int[lines.length];
+        for (int i = 0; i < lines.length; i++) {
+            result[i] = ids.computeIfAbsent(lines[i], key -> ids.size());
+        }
+        return result;
+    }
+}
@@ -0,0 +1,164 @@
+package com.ismile.core.chronovcs.service.diff;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static com.ismile.core.chronovcs.service.diff.DiffAssertions.assertReconstructs;
+import static com.ismile.core.chronovcs.service.diff.DiffAssertions.common;
+import static com.ismile.core.chronovcs.service.diff.DiffAssertions.ids;
+import static com.ismile.core.chronovcs.service.diff.DiffAssertions.lcs;
+import static com.ismile.core.chronovcs.service.diff.DiffAssertions.mutate;
+import static com.ismile.core.chronovcs.service.diff.DiffAssertions.random;
+import static org.junit.jupiter.api.Assertions.*;
+
+class HistogramDiffTest {
+
+    private static final int NO_CUTOFF = 0;
+
+    @Test
+    void emptyInputs() {
+        LineChanges changes = HistogramDiff.diff(new int[0], new int[0], 0, NO_CUTOFF);
+
+        assertEquals(0, changes.deleted.length);
+        assertEquals(0, changes.inserted.length);
+    }
+
+    @Test
+    void emptySides() {
+        int[] ids = {0, 1, 2};
+
+        LineChanges inserted = HistogramDiff.diff(new int[0], ids, 3, NO_CUTOFF);
+        LineChanges deleted = HistogramDiff.diff(ids, new int[0], 3, NO_CUTOFF);
+
+        assertArrayEquals(new boolean[]{true, true, true}, inserted.inserted);
+        assertArrayEquals(new boolean[]{true, true, true}, deleted.deleted);
+    }
+
+    @Test
+    void allEqualInputHasNoChanges() {
+        int[] ids = {0, 1, 2, 1, 0};
+
+        LineChanges changes = HistogramDiff.diff(ids, ids.clone(), 3, NO_CUTOFF);
+
+        assertArrayEquals(new boolean[5], changes.deleted);
+        assertArrayEquals(new boolean[5], changes.inserted);
+    }
+
+    @Test
+    void allDifferentInputReplacesEverything() {
+        int[] oldIds = {0, 1, 2};
+        int[] newIds = {3, 4, 5, 6};
+
+        LineChanges changes = HistogramDiff.diff(oldIds, newIds, 7, NO_CUTOFF);
+
+        assertEquals(0, common(changes));
+        assertReconstructs(oldIds, newIds, changes);
+    }
+
+    @Test
+    void editedFunctionIsAlignedOnItsSignature() {
+        String[] oldLines = {
+                "int a() {", "    return 1;", "}", "",
+                "int b() {", "    return 2;", "}", ""
+        };
+        String[] newLines = {
+                "int a() {", "    return 1;", "}", "",
+                "int c() {", "    return 3;", "}", "",
+                "int b() {", "    return 2;", "}", ""
+        };
+        int[][] ids = ids(oldLines, newLines);
+
+        LineChanges changes = HistogramDiff.diff(ids[0], ids[1], ids[2][0], NO_CUTOFF);
+
+        assertReconstructs(ids[0], ids[1], changes);
+        // The whole of c() is inserted as one block, b() is kept
+        for (int y = 0; y < newLines.length; y++) {
+            assertEquals(y >= 4 && y < 8, changes.inserted[y], "New line " + y);
+        }
+        assertEquals(oldLines.length, common(changes));
+    }
+
+    @Test
+    void anchorsOnTheRarestLineRatherThanTheLongestRun() {
+        // "x" is unique on both sides; the "a" run is longer but common
+        String[] oldLines = {"x", "a", "a", "a", "a", "y"};
+        String[] newLines = {"a", "a", "a", "a", "x", "y"};
+        int[][] ids = ids(oldLines, newLines);
+
+        LineChanges changes = HistogramDiff.diff(ids[0], ids[1], ids[2][0], NO_CUTOFF);
+
+        assertReconstructs(ids[0], ids[1], changes);
+        assertFalse(changes.deleted[0], "Unique line should be kept");
+        assertFalse(changes.inserted[4], "Unique line should be kept");
+    }
+
+    @Test
+    void fallsBackToMyersWithoutUsableAnchor() {
+        // Every line occurs more often than the chain limit: no anchor, plain Myers
+        int[] oldIds = new int[200];
+        int[] newIds = new int[200];
+        for (int i = 0; i < 200; i++) {
+            oldIds[i] = i % 2;
+            newIds[i] = (i + 1) % 2;
+        }
+
+        LineChanges changes = HistogramDiff.diff(oldIds, newIds, 2, NO_CUTOFF);
+
+        assertReconstructs(oldIds, newIds, changes);
+        assertEquals(lcs(oldIds, newIds), common(changes));
+    }
+
+    @Test
+    void randomInputsProduceValidScripts() {
+        Random random = new Random(42);
+        for (int i = 0; i < 500; i++) {
+            int alphabet = 2 + random.nextInt(30);
+            int[] oldIds = random(random, random.nextInt(80), alphabet);
+            int[] newIds = random.nextBoolean()
+                    ? random(random, random.nextInt(80), alphabet)
+                    : mutate(random, oldIds, random.nextInt(8), alphabet);
+
+            LineChanges changes = HistogramDiff.diff(oldIds, newIds, alphabet, NO_CUTOFF);
+
+            assertReconstructs(oldIds, newIds, changes);
+            assertTrue(common(changes) <= lcs(oldIds, newIds));
+        }
+    }
+
+    @Test
+    void smallEditsOfUniqueLinesAreMinimal() {
+        // With all-unique lines, every kept line is an anchor and the result is an LCS
+        Random random = new Random(5);
+        for (int i = 0; i < 100; i++) {
+            int[] oldIds = new int[300];
+            for (int j = 0; j < oldIds.length; j++) {
+                oldIds[j] = j;
+            }
+            int[] newIds = oldIds.clone();
+            for (int edit = 0; edit < 5; edit++) {
+                newIds[random.nextInt(newIds.length)] = 300 + edit;
+            }
+
+            LineChanges changes = HistogramDiff.diff(oldIds, newIds, 305, NO_CUTOFF);
+
+            assertReconstructs(oldIds, newIds, changes);
+            assertEquals(lcs(oldIds, newIds), common(changes), "Case " + i);
+        }
+    }
+
+    @Test
+    void costCutoffStillProducesAValidScript() {
+        Random random = new Random(3);
+        for (int maxCost = 1; maxCost <= 16; maxCost *= 2) {
+            // Small alphabet: every line exceeds the chain limit, so the Myers fallback does the work
+            int[] oldIds = random(random, 1500, 4);
+            int[] newIds = random(random, 1500, 4);
+
+            LineChanges changes = HistogramDiff.diff(oldIds, newIds, 4, maxCost);
+
+            assertReconstructs(oldIds, newIds, changes);
+            assertTrue(common(changes) <= lcs(oldIds, newIds));
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.ismile.core.chronovcs.service.diff;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static com.ismile.core.chronovcs.service.diff.DiffAssertions.assertReconstructs;
+import static com.ismile.core.chronovcs.service.diff.DiffAssertions.common;
+import static com.ismile.core.chronovcs.service.diff.DiffAssertions.lcs;
+import static com.ismile.core.chronovcs.service.diff.DiffAssertions.mutate;
+import static com.ismile.core.chronovcs.service.diff.DiffAssertions.random;
+import static org.junit.jupiter.api.Assertions.*;
+
+class MyersDiffTest {
+
+    private static final int NO_CUTOFF = 0;
+
+    @Test
+    void emptyInputs() {
+        LineChanges changes = MyersDiff.diff(new int[0], new int[0], NO_CUTOFF);
+
+        assertEquals(0, changes.deleted.length);
+        assertEquals(0, changes.inserted.length);
+    }
+
+    @Test
+    void emptyOldSideInsertsEverything() {
+        int[] newIds = {0, 1, 2};
+
+        LineChanges changes = MyersDiff.diff(new int[0], newIds, NO_CUTOFF);
+
+        assertArrayEquals(new boolean[]{true, true, true}, changes.inserted);
+        assertReconstructs(new int[0], newIds, changes);
+    }
+
+    @Test
+    void emptyNewSideDeletesEverything() {
+        int[] oldIds = {0, 1, 2};
+
+        LineChanges changes = MyersDiff.diff(oldIds, new int[0], NO_CUTOFF);
+
+        assertArrayEquals(new boolean[]{true, true, true}, changes.deleted);
+        assertReconstructs(oldIds, new int[0], changes);
+    }
+
+    @Test
+    void allEqualInputHasNoChanges() {
+        int[] ids = {0, 1, 2, 1, 0};
+
+        LineChanges changes = MyersDiff.diff(ids, ids.clone(), NO_CUTOFF);
+
+        assertArrayEquals(new boolean[5], changes.deleted);
+        assertArrayEquals(new boolean[5], changes.inserted);
+    }
+
+    @Test
+    void allDifferentInputReplacesEverything() {
+        int[] oldIds = {0, 1, 2};
+        int[] newIds = {3, 4, 5, 6};
+
+        LineChanges changes = MyersDiff.diff(oldIds, newIds, NO_CUTOFF);
+
+        assertEquals(0, common(changes));
+        assertArrayEquals(new boolean[]{true, true, true}, changes.deleted);
+        assertArrayEquals(new boolean[]{true, true, true, true}, changes.inserted);
+        assertReconstructs(oldIds, newIds, changes);
+    }
+
+    @Test
+    void paperExampleIsMinimal() {
+        // ABCABBA -> CBABAC from Myers' paper: LCS 4, edit distance 5
+        int[] oldIds = {0, 1, 2, 0, 1, 1, 0};
+        int[] newIds = {2, 1, 0, 1, 0, 2};
+
+        LineChanges changes = MyersDiff.diff(oldIds, newIds, NO_CUTOFF);
+
+        assertReconstructs(oldIds, newIds, changes);
+        assertEquals(4, common(changes));
+    }
+
+    @Test
+    void randomInputsAreMinimalWithoutCutoff() {
+        Random random = new Random(42);
+        for (int i = 0; i < 500; i++) {
+            int[] oldIds = random(random, random.nextInt(40), 4);
+            int[] newIds = random(random, random.nextInt(40), 4);
+
+            LineChanges changes = MyersDiff.diff(oldIds, newIds, NO_CUTOFF);
+
+            assertReconstructs(oldIds, newIds, changes);
+            assertEquals(lcs(oldIds, newIds), common(changes), "Case " + i);
+        }
+    }
+
+    @Test
+    void smallEditsAreMinimalUnderTheCostCutoff() {
+        Random random = new Random(7);
+        for (int i = 0; i < 200; i++) {
+            int[] oldIds = random(random, 200, 20);
+            int[] newIds = mutate(random, oldIds, 1 + random.nextInt(10), 20);
+
+            // Ten edits cost at most 20, well under the cutoff
+            LineChanges changes = MyersDiff.diff(oldIds, newIds, 64);
+
+            assertReconstructs(oldIds, newIds, changes);
+            assertEquals(lcs(oldIds, newIds), common(changes), "Case " + i);
+        }
+    }
+
+    @Test
+    void costCutoffStillProducesAValidScript() {
+        Random random = new Random(3);
+        for (int maxCost = 1; maxCost <= 16; maxCost *= 2) {
+            int[] oldIds = random(random, 1500, 8);
+            int[] newIds = random(random, 1500, 8);
+
+            LineChanges changes = MyersDiff.diff(oldIds, newIds, maxCost);
+
+            assertReconstructs(oldIds, newIds, changes);
+            assertTrue(common(changes) <= lcs(oldIds, newIds));
+        }
+    }
+
+    @Test
+    void costCutoffKeepsUnchangedRegions() {
+        // Two identical halves around a completely rewritten middle
+        Random random = new Random(11);
+        int[] head = random(random, 300, 1000);
+        int[] tail = random(random, 300, 1000);
+        int[] oldIds = concat(head, random(random, 500, 10), tail);
+        int[] newIds = concat(head, random(random, 500, 10), tail);
+
+        LineChanges changes = MyersDiff.diff(oldIds, newIds, 4);
+
+        assertReconstructs(oldIds, newIds, changes);
+        assertTrue(common(changes) >= head.length + tail.length);
+    }
+
+    private static int[] concat(int[]... parts) {
+        int length = 0;
+        for (int[] part : parts) {
+            length += part.length;
+        }
+        int[] result = new int[length];
+        int position = 0;
+        for (int[] part : parts) {
+            System.arraycopy(part, 0, result, position, part.length);
+            position += part.length;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,141 @@
+package com.ismile.core.chronovcs.service.diff;
+
+import com.ismile.core.chronovcs.entity.BlobEntity;
+import com.ismile.core.chronovcs.entity.RepositoryEntity;
+import com.ismile.core.chronovcs.metrics.VcsMetrics;
+import com.ismile.core.chronovcs.repository.BranchHeadRepository;
+import com.ismile.core.chronovcs.repository.CommitRepository;
+import com.ismile.core.chronovcs.service.repository.RepositoryService;
+import com.ismile.core.chronovcs.service.storage.BlobStorageService;
+import com.ismile.core.chronovcs.service.tree.CommitSnapshotService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+class NumstatTest {
+
+    private final RepositoryEntity repository = RepositoryEntity.builder().id(1L).repoKey("repo").build();
+
+    private BlobStorageService blobStorageService;
+    private DiffService diffService;
+
+    @BeforeEach
+    void setUp() {
+        blobStorageService = Mockito.mock(BlobStorageService.class);
+        when(blobStorageService.findByHash(Mockito.eq(repository), anyString())).thenReturn(Optional.empty());
+
+        diffService = new DiffService(
+                Mockito.mock(CommitRepository.class),
+                Mockito.mock(BranchHeadRepository.class),
+                Mockito.mock(RepositoryService.class),
+                blobStorageService,
+                Mockito.mock(CommitSnapshotService.class),
+                new VcsMetrics(new SimpleMeterRegistry(), false));
+    }
+
+    @Test
+    void countsAddedAndDeletedLines() {
+        blob("old", "text/plain", "a\nb\nc\nd\n");
+        blob("new", "text/plain", "a\nB\nc\nd\ne\n");
+
+        assertArrayEquals(new int[]{2, 1}, diffService.numstat(repository, "file.txt", "old", "new"));
+    }
+
+    @Test
+    void trailingNewlineIsNotAnExtraLine() {
+        blob("new", "text/plain", "a\nb\n");
+
+        assertArrayEquals(new int[]{2, 0}, diffService.numstat(repository, "file.txt", null, "new"));
+    }
+
+    @Test
+    void addingTheFinalNewlineChangesTheLastLine() {
+        // git: -b / +b, with "\ No newline at end of file" on the old side
+        blob("old", "text/plain", "a\nb");
+        blob("new", "text/plain", "a\nb\n");
+
+        assertArrayEquals(new int[]{1, 1}, diffService.numstat(repository, "file.txt", "old", "new"));
+    }
+
+    @Test
+    void emptyLinesAreCounted() {
+        blob("new", "text/plain", "\n\n");
+
+        assertArrayEquals(new int[]{2, 0}, diffService.numstat(repository, "file.txt", null, "new"));
+    }
+
+    @Test
+    void countsAreExactPastTheEditCostCutoff() {
+        ReflectionTestUtils.setField(diffService, "maxEditCost", 2);
+        StringBuilder oldText = new StringBuilder();
+        StringBuilder newText = new StringBuilder();
+        for (int i = 0; i < 50; i++) {
+            oldText.append("line ").append(i).append('\n');
+            newText.append(i % 5 == 0 ? "changed " : "line ").append(i).append('\n');
+        }
+        blob("old", "text/plain", oldText.toString());
+        blob("new", "text/plain", newText.toString());
+
+        assertArrayEquals(new int[]{10, 10}, diffService.numstat(repository, "file.txt", "old", "new"));
+    }
+
+    @Test
+    void lineEndingsDoNotCountAsChanges() {
+        blob("old", "text/plain", "a\r\nb\r\n");
+        blob("new", "text/plain", "a\nb\n");
+
+        assertArrayEquals(new int[]{0, 0}, diffService.numstat(repository, "file.txt", "old", "new"));
+    }
+
+    @Test
+    void addedFileCountsEveryLine() {
+        blob("new", "text/plain", "a\nb\nc");
+
+        assertArrayEquals(new int[]{3, 0}, diffService.numstat(repository, "file.txt", null, "new"));
+    }
+
+    @Test
+    void deletedFileCountsEveryLine() {
+        blob("old", "text/plain", "a\nb");
+
+        assertArrayEquals(new int[]{0, 2}, diffService.numstat(repository, "file.txt", "old", null));
+    }
+
+    @Test
+    void textExtensionCountsWithoutTextContentType() {
+        blob("old", "application/octet-stream", "a");
+        blob("new", "application/octet-stream", "b");
+
+        assertArrayEquals(new int[]{1, 1}, diffService.numstat(repository, "Main.java", "old", "new"));
+    }
+
+    @Test
+    void binaryFileHasNoCounts() {
+        blob("old", "image/png", "a");
+        blob("new", "image/png", "b");
+
+        assertNull(diffService.numstat(repository, "logo.png", "old", "new"));
+    }
+
+    @Test
+    void missingBlobHasNoCounts() {
+        blob("new", "text/plain", "a");
+
+        assertNull(diffService.numstat(repository, "file.txt", "gone", "new"));
+    }
+
+    private void blob(String hash, String contentType, String content) {
+        BlobEntity blob = BlobEntity.builder().hash(hash).contentType(contentType).build();
+        when(blobStorageService.findByHash(repository, hash)).thenReturn(Optional.of(blob));
+        when(blobStorageService.loadContent(blob)).thenReturn(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,118 @@
+package com.ismile.core.chronovcs.service.graph;
+
+import com.ismile.core.chronovcs.entity.RepositoryEntity;
+import com.ismile.core.chronovcs.repository.CommitRepository;
+import com.ismile.core.chronovcs.repository.CommitRepository.CommitParentView;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.ismile.core.chronovcs.service.graph.CommitGraphTest.fixture;
+import static com.ismile.core.chronovcs.service.graph.CommitGraphTest.row;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CommitGraphIndexTest {
+
+    private CommitRepository commitRepository;
+    private CommitGraphIndex index;
+    private RepositoryEntity repository;
+    private List<CommitParentView> stored;
+
+    @BeforeEach
+    void setUp() {
+        commitRepository = Mockito.mock(CommitRepository.class);
+        index = new CommitGraphIndex(commitRepository);
+        repository = RepositoryEntity.builder().id(1L).repoKey("repo").build();
+
+        stored = new ArrayList<>(fixture());
+        when(commitRepository.findParentLinksByRepository(repository)).thenAnswer(i -> List.copyOf(stored));
+        when(commitRepository.existsByRepositoryAndCommitId(eq(repository), anyString()))
+                .thenAnswer(i -> stored.stream().anyMatch(r -> r.getCommitId().equals(i.getArgument(1))));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void graphIsLoadedOnceAndKeptUpToDate() {
+        CommitGraph graph = index.getGraph(repository, "D");
+
+        stored.add(row("H", "D"));
+        index.recordCommit(repository, "H", "D");
+
+        assertSame(graph, index.getGraph(repository, "H"));
+        assertTrue(graph.isAncestor("D", "H"));
+        verify(commitRepository, times(1)).findParentLinksByRepository(repository);
+    }
+
+    @Test
+    void unknownCommitDoesNotReload() {
+        CommitGraph graph = index.getGraph(repository, "D");
+
+        assertSame(graph, index.getGraph(repository, "nope"));
+        verify(commitRepository, times(1)).findParentLinksByRepository(repository);
+    }
+
+    @Test
+    void commitSavedElsewhereTriggersReload() {
+        index.getGraph(repository, "D");
+        // saved by another instance, never recorded here
+        stored.add(row("H", "D"));
+
+        CommitGraph graph = index.getGraph(repository, "H");
+
+        assertTrue(graph.contains("H"));
+        verify(commitRepository, times(2)).findParentLinksByRepository(repository);
+    }
+
+    @Test
+    void missingParentArrivingMakesGraphReload() {
+        CommitGraph stale = index.getGraph(repository, "Y");
+        assertFalse(stale.isAncestor("A", "Y"));
+
+        stored.add(row("missing", "A"));
+        index.recordCommit(repository, "missing", "A");
+        CommitGraph reloaded = index.getGraph(repository, "Y");
+
+        assertNotSame(stale, reloaded);
+        assertTrue(reloaded.isAncestor("A", "Y"));
+        assertEquals(3, reloaded.generation("X"));
+        verify(commitRepository, times(2)).findParentLinksByRepository(repository);
+    }
+
+    @Test
+    void commitIsRecordedOnlyAfterTransactionCommits() {
+        CommitGraph graph = index.getGraph(repository, "D");
+        TransactionSynchronizationManager.initSynchronization();
+
+        index.recordCommit(repository, "H", "D");
+        assertFalse(graph.contains("H"));
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertTrue(graph.contains("H"));
+    }
+
+    @Test
+    void evictDropsTheGraph() {
+        CommitGraph graph = index.getGraph(repository, "D");
+
+        index.evict(repository);
+
+        assertNotSame(graph, index.getGraph(repository, "D"));
+    }
+}
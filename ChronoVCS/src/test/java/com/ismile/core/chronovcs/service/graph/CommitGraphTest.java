@@ -0,0 +1,189 @@
+package com.ismile.core.chronovcs.service.graph;
+
+import com.ismile.core.chronovcs.repository.CommitRepository.CommitParentView;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CommitGraphTest {
+
+    /**
+     * A <- B <- C <- D        (main)
+     *       \
+     *        E <- F           (feature)
+     * A <- G                  (other)
+     * (missing) <- X <- Y     (parent of X never stored)
+     */
+    static List<CommitParentView> fixture() {
+        List<CommitParentView> rows = new ArrayList<>(List.of(
+                row("A", null),
+                row("B", "A"),
+                row("C", "B"),
+                row("D", "C"),
+                row("E", "B"),
+                row("F", "E"),
+                row("G", "A"),
+                row("X", "missing"),
+                row("Y", "X")));
+        // the query returns rows in no particular order
+        Collections.shuffle(rows, new Random(42));
+        return rows;
+    }
+
+    private CommitGraph graph;
+
+    @BeforeEach
+    void setUp() {
+        graph = CommitGraph.build(fixture());
+    }
+
+    @Test
+    void generationNumbers() {
+        assertEquals(1, graph.generation("A"));
+        assertEquals(2, graph.generation("B"));
+        assertEquals(4, graph.generation("D"));
+        assertEquals(3, graph.generation("E"));
+        assertEquals(2, graph.generation("G"));
+        // a missing parent makes its child a root
+        assertEquals(1, graph.generation("X"));
+        assertEquals(2, graph.generation("Y"));
+        assertEquals(0, graph.generation("missing"));
+        assertEquals(9, graph.size());
+    }
+
+    @Test
+    void mergeBase() {
+        assertEquals("B", graph.mergeBase("D", "F"));
+        assertEquals("B", graph.mergeBase("F", "D"));
+        assertEquals("A", graph.mergeBase("D", "G"));
+        assertEquals("C", graph.mergeBase("D", "C"));
+        assertEquals("D", graph.mergeBase("D", "D"));
+    }
+
+    @Test
+    void mergeBaseOfUnrelatedOrUnknownCommits() {
+        assertNull(graph.mergeBase("D", "Y"));
+        assertNull(graph.mergeBase("D", "missing"));
+        assertNull(graph.mergeBase("unknown", "D"));
+    }
+
+    @Test
+    void aheadBehind() {
+        assertArrayEquals(new int[]{2, 2}, graph.aheadBehind("D", "F"));
+        assertArrayEquals(new int[]{2, 0}, graph.aheadBehind("B", "D"));
+        assertArrayEquals(new int[]{0, 2}, graph.aheadBehind("D", "B"));
+        assertArrayEquals(new int[]{1, 3}, graph.aheadBehind("D", "G"));
+        assertArrayEquals(new int[]{0, 0}, graph.aheadBehind("D", "D"));
+        assertNull(graph.aheadBehind("D", "unknown"));
+    }
+
+    @Test
+    void aheadBehindOfUnrelatedHistoriesCountsEverything() {
+        assertArrayEquals(new int[]{2, 4}, graph.aheadBehind("D", "Y"));
+    }
+
+    @Test
+    void isAncestor() {
+        assertTrue(graph.isAncestor("B", "D"));
+        assertTrue(graph.isAncestor("A", "F"));
+        assertTrue(graph.isAncestor("X", "Y"));
+
+        assertFalse(graph.isAncestor("D", "B"));
+        assertFalse(graph.isAncestor("E", "D"));
+        assertFalse(graph.isAncestor("C", "F"));
+        assertFalse(graph.isAncestor("A", "Y"));
+        assertFalse(graph.isAncestor("D", "D"));
+        assertFalse(graph.isAncestor("missing", "Y"));
+    }
+
+    @Test
+    void ancestorsAndFirstParentChain() {
+        assertEquals(Set.of("E", "B", "A"), graph.ancestors("F"));
+        assertEquals(Set.of(), graph.ancestors("A"));
+        assertEquals(Set.of(), graph.ancestors("unknown"));
+
+        assertEquals(List.of("D", "C", "B"), graph.firstParentChain("D", 3));
+        assertEquals(List.of("Y", "X"), graph.firstParentChain("Y", 10));
+        assertEquals(List.of(), graph.firstParentChain("unknown", 10));
+    }
+
+    @Test
+    void firstParentMatchesKeepsChainOrderAndLimit() {
+        assertEquals(List.of("D", "B", "A"), graph.firstParentMatches("D", Set.of("A", "B", "D", "F", "G"), 10));
+        assertEquals(List.of("D", "B"), graph.firstParentMatches("D", Set.of("A", "B", "D"), 2));
+        // F and G are not on D's first-parent history
+        assertEquals(List.of(), graph.firstParentMatches("D", Set.of("F", "G", "unknown"), 10));
+        assertEquals(List.of(), graph.firstParentMatches("unknown", Set.of("A"), 10));
+        assertEquals(List.of(), graph.firstParentMatches("D", Set.of(), 10));
+    }
+
+    @Test
+    void appendedCommitGetsItsGeneration() {
+        assertTrue(graph.add("H", "D"));
+
+        assertEquals(5, graph.generation("H"));
+        assertTrue(graph.isAncestor("B", "H"));
+        assertEquals("B", graph.mergeBase("H", "F"));
+        // appending a known commit again is a no-op
+        assertTrue(graph.add("H", "A"));
+        assertEquals(5, graph.generation("H"));
+    }
+
+    @Test
+    void arrivalOfMissingParentMakesGraphStale() {
+        assertFalse(graph.isStale());
+
+        assertFalse(graph.add("missing", "A"));
+
+        assertTrue(graph.isStale());
+        assertFalse(graph.contains("missing"));
+        assertFalse(graph.add("H", "D"));
+    }
+
+    @Test
+    void rebuiltGraphLinksFormerlyMissingParent() {
+        List<CommitParentView> rows = new ArrayList<>(fixture());
+        rows.add(row("missing", "A"));
+
+        CommitGraph rebuilt = CommitGraph.build(rows);
+
+        assertEquals(3, rebuilt.generation("X"));
+        assertEquals("A", rebuilt.mergeBase("Y", "D"));
+        assertTrue(rebuilt.isAncestor("A", "Y"));
+    }
+
+    @Test
+    void cyclesAndDuplicatesDoNotBreakTheBuild() {
+        CommitGraph cyclic = CommitGraph.build(List.of(
+                row("P", "Q"),
+                row("Q", "P"),
+                row("Q", "R"),
+                row("R", null)));
+
+        assertEquals(3, cyclic.size());
+        assertTrue(cyclic.generation("P") > 0);
+        assertTrue(cyclic.generation("Q") > 0);
+        assertFalse(cyclic.isAncestor("P", "P"));
+    }
+
+    static CommitParentView row(String commitId, String parentCommitId) {
+        return new CommitParentView() {
+            @Override
+            public String getCommitId() {
+                return commitId;
+            }
+
+            @Override
+            public String getParentCommitId() {
+                return parentCommitId;
+            }
+        };
+    }
+}
@@ -0,0 +1,68 @@
+package com.ismile.core.chronovcs.service.history;
+
+import com.ismile.core.chronovcs.repository.CommitRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class FileChangeBackfillJobTest {
+
+    private CommitRepository commitRepository;
+    private FileChangeService fileChangeService;
+    private FileChangeBackfillJob job;
+
+    @BeforeEach
+    void setUp() {
+        commitRepository = Mockito.mock(CommitRepository.class);
+        fileChangeService = Mockito.mock(FileChangeService.class);
+        job = new FileChangeBackfillJob(commitRepository, fileChangeService, 2);
+
+        when(commitRepository.findUnindexedIds(anyLong(), any(Pageable.class))).thenReturn(List.of());
+        when(fileChangeService.backfill(anyLong())).thenReturn(true);
+    }
+
+    @Test
+    void walksAllPendingCommitsInPages() {
+        when(commitRepository.findUnindexedIds(eq(0L), any(Pageable.class))).thenReturn(List.of(1L, 2L));
+        when(commitRepository.findUnindexedIds(eq(2L), any(Pageable.class))).thenReturn(List.of(5L));
+
+        job.run();
+
+        verify(fileChangeService).backfill(1L);
+        verify(fileChangeService).backfill(2L);
+        verify(fileChangeService).backfill(5L);
+        verify(commitRepository, never()).findUnindexedIds(eq(5L), any(Pageable.class));
+    }
+
+    @Test
+    void laterRunsPickUpCommitsLeftUnrecorded() {
+        job.run();
+        when(commitRepository.findUnindexedIds(eq(0L), any(Pageable.class))).thenReturn(List.of(7L));
+        job.run();
+
+        verify(fileChangeService).backfill(7L);
+    }
+
+    @Test
+    void failedCommitIsRetriedOnTheNextRun() {
+        when(commitRepository.findUnindexedIds(eq(0L), any(Pageable.class))).thenReturn(List.of(1L, 2L));
+        when(fileChangeService.backfill(1L)).thenThrow(new IllegalStateException("blob missing"));
+
+        job.run();
+        job.run();
+
+        verify(fileChangeService, times(2)).backfill(1L);
+        verify(fileChangeService, times(2)).backfill(2L);
+    }
+}
@@ -0,0 +1,198 @@
+package com.ismile.core.chronovcs.service.history;
+
+import com.ismile.core.chronovcs.dto.diff.ChangeType;
+import com.ismile.core.chronovcs.entity.CommitEntity;
+import com.ismile.core.chronovcs.entity.FileChangeEntity;
+import com.ismile.core.chronovcs.entity.RepositoryEntity;
+import com.ismile.core.chronovcs.repository.CommitRepository;
+import com.ismile.core.chronovcs.repository.FileChangeRepository;
+import com.ismile.core.chronovcs.service.diff.DiffService;
+import com.ismile.core.chronovcs.service.tree.CommitSnapshotService;
+import com.ismile.core.chronovcs.service.tree.TreeChange;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mockito;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class FileChangeServiceTest {
+
+    private CommitRepository commitRepository;
+    private FileChangeRepository fileChangeRepository;
+    private CommitSnapshotService commitSnapshotService;
+    private DiffService diffService;
+    private PlatformTransactionManager transactionManager;
+    private FileChangeService service;
+
+    private RepositoryEntity repository;
+    private CommitEntity parent;
+    private CommitEntity commit;
+
+    @BeforeEach
+    void setUp() {
+        commitRepository = Mockito.mock(CommitRepository.class);
+        fileChangeRepository = Mockito.mock(FileChangeRepository.class);
+        commitSnapshotService = Mockito.mock(CommitSnapshotService.class);
+        diffService = Mockito.mock(DiffService.class);
+        transactionManager = Mockito.mock(PlatformTransactionManager.class);
+        service = new FileChangeService(commitRepository, fileChangeRepository, commitSnapshotService, diffService,
+                transactionManager);
+
+        repository = RepositoryEntity.builder().id(1L).repoKey("repo").build();
+        parent = CommitEntity.builder().id(10L).repository(repository).commitId("c1").build();
+        commit = CommitEntity.builder().id(11L).repository(repository).commitId("c2").parentCommitId("c1").build();
+
+        when(commitRepository.findByRepositoryAndCommitId(repository, "c1")).thenReturn(Optional.of(parent));
+        when(commitRepository.findByRepositoryAndCommitId(repository, "c2")).thenReturn(Optional.of(commit));
+        when(commitRepository.findWithRepositoryById(11L)).thenReturn(Optional.of(commit));
+        when(commitSnapshotService.diff(repository, parent, commit)).thenReturn(List.of(
+                new TreeChange("added.txt", null, "h1"),
+                new TreeChange("changed.txt", "h2", "h3"),
+                new TreeChange("removed.txt", "h4", null),
+                new TreeChange("logo.png", "h5", "h6")));
+        when(diffService.numstat(repository, "added.txt", null, "h1")).thenReturn(new int[]{3, 0});
+        when(diffService.numstat(repository, "changed.txt", "h2", "h3")).thenReturn(new int[]{2, 1});
+        when(diffService.numstat(repository, "removed.txt", "h4", null)).thenReturn(new int[]{0, 5});
+        when(diffService.numstat(repository, "logo.png", "h5", "h6")).thenReturn(null);
+    }
+
+    @Test
+    void recordChangesStoresOneRowPerChangedFile() {
+        service.recordChanges(repository, commit);
+
+        Map<String, FileChangeEntity> rows = savedRows();
+        assertEquals(4, rows.size());
+        assertRow(rows.get("added.txt"), ChangeType.ADDED, null, "h1", 3, 0);
+        assertRow(rows.get("changed.txt"), ChangeType.MODIFIED, "h2", "h3", 2, 1);
+        assertRow(rows.get("removed.txt"), ChangeType.DELETED, "h4", null, 0, 5);
+        assertRow(rows.get("logo.png"), ChangeType.MODIFIED, "h5", "h6", null, null);
+        rows.values().forEach(row -> assertSame(commit, row.getCommit()));
+
+        assertTrue(commit.getChangesIndexed());
+        verify(commitRepository).save(commit);
+    }
+
+    @Test
+    void failedLineCountStillRecordsTheChange() {
+        when(diffService.numstat(repository, "changed.txt", "h2", "h3")).thenThrow(new IllegalStateException("io"));
+
+        service.recordChanges(repository, commit);
+
+        assertRow(savedRows().get("changed.txt"), ChangeType.MODIFIED, "h2", "h3", null, null);
+    }
+
+    @Test
+    void missingParentIsAnEmptySnapshot() {
+        when(commitRepository.findByRepositoryAndCommitId(repository, "c1")).thenReturn(Optional.empty());
+        when(commitSnapshotService.diff(repository, null, commit))
+                .thenReturn(List.of(new TreeChange("added.txt", null, "h1")));
+
+        service.recordChanges(repository, commit);
+
+        assertRow(savedRows().get("added.txt"), ChangeType.ADDED, null, "h1", 3, 0);
+    }
+
+    @Test
+    void recordComputesChangesBeforeClaimingInAShortTransaction() {
+        when(commitRepository.claimForIndexing(11L)).thenReturn(1);
+
+        assertTrue(service.record(repository, "c2"));
+
+        assertEquals(4, savedRows().size());
+        InOrder order = Mockito.inOrder(diffService, transactionManager, commitRepository, fileChangeRepository);
+        order.verify(diffService).numstat(repository, "logo.png", "h5", "h6");
+        order.verify(transactionManager).getTransaction(any());
+        order.verify(commitRepository).claimForIndexing(11L);
+        order.verify(fileChangeRepository).saveAll(anyList());
+        order.verify(transactionManager).commit(any());
+        // The claim already marked the commit
+        verify(commitRepository, never()).save(any(CommitEntity.class));
+    }
+
+    @Test
+    void recordSkipsACommitClaimedElsewhere() {
+        when(commitRepository.claimForIndexing(11L)).thenReturn(0);
+
+        assertFalse(service.record(repository, "c2"));
+
+        verify(fileChangeRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    void recordSkipsARecordedCommit() {
+        commit.setChangesIndexed(true);
+
+        assertFalse(service.record(repository, "c2"));
+
+        verify(commitSnapshotService, never()).diff(any(), any(), any());
+        verify(transactionManager, never()).getTransaction(any());
+    }
+
+    @Test
+    void recordAfterCommitRunsRightAwayWithoutATransaction() {
+        when(commitRepository.claimForIndexing(11L)).thenReturn(1);
+
+        service.recordAfterCommit(repository, "c2");
+
+        assertEquals(4, savedRows().size());
+    }
+
+    @Test
+    void recordAfterCommitLeavesFailuresToTheBackfill() {
+        when(commitSnapshotService.diff(repository, parent, commit)).thenThrow(new IllegalStateException("tree missing"));
+
+        assertDoesNotThrow(() -> service.recordAfterCommit(repository, "c2"));
+
+        verify(commitRepository, never()).claimForIndexing(11L);
+    }
+
+    @Test
+    void backfillRecordsAClaimedCommit() {
+        when(commitRepository.claimForIndexing(11L)).thenReturn(1);
+
+        assertTrue(service.backfill(11L));
+
+        assertEquals(4, savedRows().size());
+    }
+
+    @Test
+    void backfillSkipsACommitClaimedElsewhere() {
+        when(commitRepository.claimForIndexing(11L)).thenReturn(0);
+
+        assertFalse(service.backfill(11L));
+
+        verify(fileChangeRepository, never()).saveAll(anyList());
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, FileChangeEntity> savedRows() {
+        ArgumentCaptor<List<FileChangeEntity>> captor = ArgumentCaptor.forClass(List.class);
+        verify(fileChangeRepository).saveAll(captor.capture());
+        return captor.getValue().stream()
+                .collect(Collectors.toMap(FileChangeEntity::getPath, Function.identity()));
+    }
+
+    private static void assertRow(FileChangeEntity row, ChangeType changeType, String oldHash, String newHash,
+                                  Integer linesAdded, Integer linesDeleted) {
+        assertNotNull(row);
+        assertEquals(changeType, row.getChangeType());
+        assertEquals(oldHash, row.getOldBlobHash());
+        assertEquals(newHash, row.getNewBlobHash());
+        assertEquals(linesAdded, row.getLinesAdded());
+        assertEquals(linesDeleted, row.getLinesDeleted());
+    }
+}
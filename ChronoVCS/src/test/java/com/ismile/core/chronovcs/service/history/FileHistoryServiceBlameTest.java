@@ -0,0 +1,248 @@
+package com.ismile.core.chronovcs.service.history;
+
+import com.ismile.core.chronovcs.dto.diff.DiffAlgorithm;
+import com.ismile.core.chronovcs.dto.history.BlameLine;
+import com.ismile.core.chronovcs.dto.history.BlameResponse;
+import com.ismile.core.chronovcs.entity.BlobEntity;
+import com.ismile.core.chronovcs.entity.CommitEntity;
+import com.ismile.core.chronovcs.entity.RepositoryEntity;
+import com.ismile.core.chronovcs.metrics.VcsMetrics;
+import com.ismile.core.chronovcs.repository.BranchHeadRepository;
+import com.ismile.core.chronovcs.repository.CommitRepository;
+import com.ismile.core.chronovcs.repository.FileChangeRepository;
+import com.ismile.core.chronovcs.service.diff.DiffService;
+import com.ismile.core.chronovcs.service.graph.CommitGraphService;
+import com.ismile.core.chronovcs.service.repository.RepositoryService;
+import com.ismile.core.chronovcs.service.storage.BlobStorageService;
+import com.ismile.core.chronovcs.service.tree.CommitSnapshotService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class FileHistoryServiceBlameTest {
+
+    private final RepositoryEntity repository = RepositoryEntity.builder().id(1L).repoKey("repo").build();
+
+    // Linear history: commit id -> entity and (path -> content) snapshot
+    private final Map<String, CommitEntity> commits = new HashMap<>();
+    private final Map<String, Map<String, String>> snapshots = new HashMap<>();
+    private final Map<String, String> blobs = new HashMap<>();
+
+    private CommitRepository commitRepository;
+    private BlobStorageService blobStorageService;
+    private DiffService diffService;
+    private BlameCache blameCache;
+    private FileHistoryService service;
+
+    @BeforeEach
+    void setUp() {
+        commitRepository = Mockito.mock(CommitRepository.class);
+        RepositoryService repositoryService = Mockito.mock(RepositoryService.class);
+        blobStorageService = Mockito.mock(BlobStorageService.class);
+        CommitSnapshotService commitSnapshotService = Mockito.mock(CommitSnapshotService.class);
+        CommitGraphService commitGraphService = Mockito.mock(CommitGraphService.class);
+        diffService = Mockito.spy(new DiffService(
+                commitRepository,
+                Mockito.mock(BranchHeadRepository.class),
+                repositoryService,
+                blobStorageService,
+                commitSnapshotService,
+                new VcsMetrics(new SimpleMeterRegistry(), false)));
+        blameCache = new BlameCache();
+        ReflectionTestUtils.setField(blameCache, "maxLines", 1000L);
+
+        service = new FileHistoryService(commitRepository, Mockito.mock(BranchHeadRepository.class),
+                repositoryService, blobStorageService, commitSnapshotService, commitGraphService,
+                diffService, blameCache, Mockito.mock(FileChangeRepository.class));
+
+        when(repositoryService.getByKeyOrThrow("repo")).thenReturn(repository);
+        when(commitRepository.existsByRepositoryAndCommitId(eq(repository), anyString()))
+                .thenAnswer(invocation -> commits.containsKey(invocation.<String>getArgument(1)));
+        when(commitRepository.findByRepositoryAndCommitId(eq(repository), anyString()))
+                .thenAnswer(invocation -> Optional.ofNullable(commits.get(invocation.<String>getArgument(1))));
+        when(commitRepository.findByRepositoryAndCommitIdIn(eq(repository), anyCollection()))
+                .thenAnswer(invocation -> {
+                    Collection<String> ids = invocation.getArgument(1);
+                    return ids.stream().map(commits::get).toList();
+                });
+        when(commitGraphService.getFirstParentChain(eq(repository), anyString(), anyInt()))
+                .thenAnswer(invocation -> {
+                    List<String> chain = new ArrayList<>();
+                    for (String id = invocation.getArgument(1); id != null; id = commits.get(id).getParentCommitId()) {
+                        chain.add(id);
+                    }
+                    return chain;
+                });
+        when(commitSnapshotService.findBlobHash(eq(repository), any(CommitEntity.class), anyString()))
+                .thenAnswer(invocation -> blobHash(invocation.<CommitEntity>getArgument(1).getCommitId(),
+                        invocation.getArgument(2)));
+        when(commitSnapshotService.findBlobHashes(eq(repository), anyCollection(), anyString()))
+                .thenAnswer(invocation -> {
+                    Collection<CommitEntity> batch = invocation.getArgument(1);
+                    Map<String, String> hashes = new HashMap<>();
+                    for (CommitEntity commit : batch) {
+                        String hash = blobHash(commit.getCommitId(), invocation.getArgument(2));
+                        if (hash != null) {
+                            hashes.put(commit.getCommitId(), hash);
+                        }
+                    }
+                    return hashes;
+                });
+        when(blobStorageService.findByHash(eq(repository), anyString()))
+                .thenAnswer(invocation -> Optional.ofNullable(blobs.containsKey(invocation.<String>getArgument(1))
+                        ? BlobEntity.builder().hash(invocation.getArgument(1)).contentType("text/plain").build()
+                        : null));
+        when(blobStorageService.loadContent(any(BlobEntity.class)))
+                .thenAnswer(invocation -> blobs.get(invocation.<BlobEntity>getArgument(0).getHash())
+                        .getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void everyLineIsAttributedToTheCommitThatIntroducedIt() {
+        commit("c1", null, Map.of("a.txt", "a\nb\nc"));
+        commit("c2", "c1", Map.of("a.txt", "a\nB\nc\nd"));
+        commit("c3", "c2", Map.of("a.txt", "x\na\nB\nc\nd"));
+
+        BlameResponse blame = service.getBlame("repo", "a.txt", "c3");
+
+        assertEquals(List.of("c3", "c1", "c2", "c1", "c2"), origins(blame));
+        assertEquals(List.of(0, 2, 1, 2, 1), ages(blame));
+        assertEquals(List.of("x", "a", "B", "c", "d"), blame.getLines().stream().map(BlameLine::getContent).toList());
+        assertEquals(3, blame.getUniqueCommits());
+    }
+
+    @Test
+    void commitsThatDidNotTouchTheFileAreWalkedThrough() {
+        commit("c1", null, Map.of("a.txt", "a"));
+        commit("c2", "c1", Map.of("a.txt", "a", "other.txt", "o"));
+        commit("c3", "c2", Map.of("a.txt", "a\nb"));
+
+        BlameResponse blame = service.getBlame("repo", "a.txt", "c3");
+
+        assertEquals(List.of("c1", "c3"), origins(blame));
+        assertEquals(List.of(2, 0), ages(blame));
+        // Only c3 against c2; c2 and c1 share the blob
+        verify(diffService, times(1)).matchLines(any(), any(), eq(DiffAlgorithm.HISTOGRAM));
+    }
+
+    @Test
+    void fileDeletedInTheChainIsAttributedToItsReAddition() {
+        commit("c1", null, Map.of("a.txt", "a\nb"));
+        commit("c2", "c1", Map.of("other.txt", "o"));
+        commit("c3", "c2", Map.of("a.txt", "a\nb\nc"));
+
+        BlameResponse blame = service.getBlame("repo", "a.txt", "c3");
+
+        assertEquals(List.of("c3", "c3", "c3"), origins(blame));
+        assertEquals(List.of(0, 0, 0), ages(blame));
+    }
+
+    @Test
+    void renamedFileStartsItsHistoryAtTheRename() {
+        // Blame follows a path; renames are not tracked
+        commit("c1", null, Map.of("old.txt", "a\nb"));
+        commit("c2", "c1", Map.of("new.txt", "a\nb"));
+        commit("c3", "c2", Map.of("new.txt", "a\nb\nc"));
+
+        BlameResponse blame = service.getBlame("repo", "new.txt", "c3");
+
+        assertEquals(List.of("c2", "c2", "c3"), origins(blame));
+        assertEquals(List.of(1, 1, 0), ages(blame));
+    }
+
+    @Test
+    void repeatedBlameIsServedFromTheCache() {
+        linearHistory();
+
+        BlameResponse first = service.getBlame("repo", "a.txt", "c3");
+        BlameResponse second = service.getBlame("repo", "a.txt", "c3");
+
+        assertEquals(origins(first), origins(second));
+        assertEquals(ages(first), ages(second));
+        verify(diffService, times(2)).matchLines(any(), any(), eq(DiffAlgorithm.HISTOGRAM));
+    }
+
+    @Test
+    void blameOfADescendantReusesTheAncestorsBlame() {
+        linearHistory();
+
+        service.getBlame("repo", "a.txt", "c2");
+        BlameResponse blame = service.getBlame("repo", "a.txt", "c3");
+
+        assertEquals(List.of("c3", "c1", "c2", "c1", "c2"), origins(blame));
+        assertEquals(List.of(0, 2, 1, 2, 1), ages(blame));
+        // c2 against c1 once, then only c3 against c2
+        verify(diffService, times(2)).matchLines(any(), any(), eq(DiffAlgorithm.HISTOGRAM));
+    }
+
+    @Test
+    void evictionDropsTheRepositorysCachedBlame() {
+        linearHistory();
+        service.getBlame("repo", "a.txt", "c3");
+
+        blameCache.evict(RepositoryEntity.builder().id(2L).repoKey("other").build());
+        service.getBlame("repo", "a.txt", "c3");
+        verify(diffService, times(2)).matchLines(any(), any(), eq(DiffAlgorithm.HISTOGRAM));
+
+        blameCache.evict(repository);
+        BlameResponse blame = service.getBlame("repo", "a.txt", "c3");
+
+        assertEquals(List.of("c3", "c1", "c2", "c1", "c2"), origins(blame));
+        verify(diffService, times(4)).matchLines(any(), any(), eq(DiffAlgorithm.HISTOGRAM));
+    }
+
+    private void linearHistory() {
+        commit("c1", null, Map.of("a.txt", "a\nb\nc"));
+        commit("c2", "c1", Map.of("a.txt", "a\nB\nc\nd"));
+        commit("c3", "c2", Map.of("a.txt", "x\na\nB\nc\nd"));
+    }
+
+    private void commit(String id, String parentId, Map<String, String> files) {
+        commits.put(id, CommitEntity.builder()
+                .repository(repository)
+                .commitId(id)
+                .parentCommitId(parentId)
+                .branch("main")
+                .message("commit " + id)
+                .build());
+        snapshots.put(id, files);
+        files.values().forEach(content -> blobs.put(hash(content), content));
+    }
+
+    private String blobHash(String commitId, String path) {
+        String content = snapshots.get(commitId).get(path);
+        return content != null ? hash(content) : null;
+    }
+
+    private static String hash(String content) {
+        return "blob-" + Integer.toHexString(content.hashCode());
+    }
+
+    private static List<String> origins(BlameResponse blame) {
+        return blame.getLines().stream().map(BlameLine::getCommitId).toList();
+    }
+
+    private static List<Integer> ages(BlameResponse blame) {
+        return blame.getLines().stream().map(BlameLine::getAge).toList();
+    }
+}
@@ -0,0 +1,92 @@
+package com.ismile.core.chronovcs.service.tree;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ismile.core.chronovcs.entity.CommitEntity;
+import com.ismile.core.chronovcs.entity.RepositoryEntity;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CommitSnapshotServiceTest {
+
+    private final RepositoryEntity repository = RepositoryEntity.builder().id(1L).repoKey("repo").build();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private InMemoryTrees trees;
+    private TreeService treeService;
+    private CommitSnapshotService snapshotService;
+
+    @BeforeEach
+    void setUp() {
+        trees = new InMemoryTrees();
+        treeService = new TreeService(trees.repository, objectMapper, Mockito.mock(PlatformTransactionManager.class));
+        SnapshotCache cache = new SnapshotCache();
+        ReflectionTestUtils.setField(cache, "maxWeight", 1000L);
+        snapshotService = new CommitSnapshotService(treeService, cache, objectMapper);
+    }
+
+    @Test
+    void commitsOnlyStoreTheTreesTheyChange() {
+        CommitEntity c1 = treeCommit("c1", Map.of("lib/a.txt", "h1", "lib/util/b.txt", "h2", "app/c.txt", "h3"));
+        int stored = trees.rows.size();
+        CommitEntity c2 = treeCommit("c2", Map.of("lib/a.txt", "h1", "lib/util/b.txt", "h2", "app/c.txt", "h4"));
+
+        // New root and app/, lib/ and lib/util/ are shared
+        assertEquals(stored + 2, trees.rows.size());
+        assertEquals("h4", snapshotService.getFiles(repository, c2).get("app/c.txt"));
+        assertEquals("h3", snapshotService.getFiles(repository, c1).get("app/c.txt"));
+    }
+
+    @Test
+    void commitsWithTheSameSnapshotShareTheRootTree() {
+        CommitEntity c1 = treeCommit("c1", Map.of("a.txt", "h1"));
+        int stored = trees.rows.size();
+        CommitEntity c2 = treeCommit("c2", Map.of("a.txt", "h1"));
+
+        assertEquals(c1.getRootTreeHash(), c2.getRootTreeHash());
+        assertEquals(stored, trees.rows.size());
+        // One lookup per directory level for both commits together
+        trees.loads.clear();
+        assertEquals(Map.of("c1", "h1", "c2", "h1"),
+                snapshotService.findBlobHashes(repository, List.of(c1, c2), "a.txt"));
+        assertEquals(1, trees.loads.size());
+    }
+
+    @Test
+    void diffBetweenTreeCommitsSkipsSharedDirectories() {
+        CommitEntity c1 = treeCommit("c1", Map.of("lib/a.txt", "h1", "app/c.txt", "h3"));
+        CommitEntity c2 = treeCommit("c2", Map.of("lib/a.txt", "h1", "app/c.txt", "h4", "app/d.txt", "h5"));
+
+        List<TreeChange> changes = snapshotService.diff(repository, c1, c2);
+
+        assertEquals(List.of(new TreeChange("app/c.txt", "h3", "h4"), new TreeChange("app/d.txt", null, "h5")),
+                changes);
+    }
+
+    @Test
+    void diffAgainstLegacyCommitUsesSnapshots() throws Exception {
+        CommitEntity legacy = CommitEntity.builder()
+                .repository(repository)
+                .commitId("c1")
+                .filesJson(objectMapper.writeValueAsString(Map.of("lib/a.txt", "h1", "app/c.txt", "h3")))
+                .build();
+        CommitEntity c2 = treeCommit("c2", Map.of("lib/a.txt", "h1", "app/c.txt", "h4"));
+
+        assertEquals(List.of(new TreeChange("app/c.txt", "h3", "h4")), snapshotService.diff(repository, legacy, c2));
+    }
+
+    private CommitEntity treeCommit(String id, Map<String, String> files) {
+        return CommitEntity.builder()
+                .repository(repository)
+                .commitId(id)
+                .rootTreeHash(treeService.writeTree(repository, files))
+                .build();
+    }
+}
@@ -0,0 +1,47 @@
+package com.ismile.core.chronovcs.service.tree;
+
+import com.ismile.core.chronovcs.entity.TreeEntity;
+import com.ismile.core.chronovcs.repository.TreeRepository;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.when;
+
+/**
+ * Mocked {@link TreeRepository} backed by a map, with the unique (repository, hash) key
+ * of the real table left to the tests.
+ */
+class InMemoryTrees {
+
+    final Map<String, TreeEntity> rows = new LinkedHashMap<>();
+    final List<List<String>> inserts = new ArrayList<>();
+    final List<Collection<String>> loads = new ArrayList<>();
+    final TreeRepository repository = Mockito.mock(TreeRepository.class);
+
+    @SuppressWarnings("unchecked")
+    InMemoryTrees() {
+        when(repository.findExistingHashes(any(), anyCollection())).thenAnswer(invocation -> {
+            Collection<String> hashes = invocation.getArgument(1);
+            return hashes.stream().filter(rows::containsKey).toList();
+        });
+        when(repository.findByRepositoryAndHashIn(any(), anyCollection())).thenAnswer(invocation -> {
+            Collection<String> hashes = invocation.getArgument(1);
+            loads.add(List.copyOf(hashes));
+            return hashes.stream().filter(rows::containsKey).map(rows::get).toList();
+        });
+        when(repository.saveAll(any())).thenAnswer(invocation -> {
+            List<TreeEntity> trees = new ArrayList<>();
+            ((Iterable<TreeEntity>) invocation.getArgument(0)).forEach(trees::add);
+            inserts.add(trees.stream().map(TreeEntity::getHash).toList());
+            trees.forEach(tree -> rows.put(tree.getHash(), tree));
+            return trees;
+        });
+    }
+}
@@ -0,0 +1,116 @@
+package com.ismile.core.chronovcs.service.tree;
+
+import com.ismile.core.chronovcs.entity.RepositoryEntity;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnapshotCacheTest {
+
+    private SnapshotCache cache;
+    private SimpleMeterRegistry registry;
+    private RepositoryEntity repository;
+
+    @BeforeEach
+    void setUp() {
+        cache = new SnapshotCache();
+        ReflectionTestUtils.setField(cache, "maxWeight", 4L);
+        registry = new SimpleMeterRegistry();
+        cache.bindTo(registry);
+
+        repository = RepositoryEntity.builder().id(1L).build();
+    }
+
+    @Test
+    void missLoadsAndHitServesFromCache() {
+        FileSnapshot loaded = cache.get(repository, "c1", () -> snapshot(2));
+
+        assertSame(loaded, cache.get(repository, "c1", () -> fail("loaded twice")));
+        assertSame(loaded, cache.getIfPresent(repository, "c1"));
+        assertEquals(new SnapshotCache.Stats(2, 1, 0, 1, 2), cache.stats());
+    }
+
+    @Test
+    void lookupMissIsCounted() {
+        assertNull(cache.getIfPresent(repository, "c1"));
+        cache.get(repository, "c1", () -> snapshot(1));
+
+        assertEquals(new SnapshotCache.Stats(0, 2, 0, 1, 1), cache.stats());
+    }
+
+    @Test
+    void loadOverlappingAnEvictIsNotCached() {
+        FileSnapshot loaded = cache.get(repository, "c1", () -> {
+            // Repository deleted while the commit was being loaded
+            cache.evict(repository);
+            return snapshot(1);
+        });
+
+        assertNotNull(loaded);
+        assertNull(cache.getIfPresent(repository, "c1"));
+        assertEquals(new SnapshotCache.Stats(0, 2, 0, 0, 0), cache.stats());
+
+        cache.get(repository, "c1", () -> snapshot(1));
+        assertNotNull(cache.getIfPresent(repository, "c1"));
+    }
+
+    @Test
+    void leastRecentlyUsedIsEvictedOverWeight() {
+        cache.get(repository, "c1", () -> snapshot(2));
+        cache.get(repository, "c2", () -> snapshot(2));
+        cache.getIfPresent(repository, "c1");
+        cache.get(repository, "c3", () -> snapshot(1));
+
+        assertNull(cache.getIfPresent(repository, "c2"));
+        assertNotNull(cache.getIfPresent(repository, "c1"));
+        assertEquals(new SnapshotCache.Stats(2, 4, 1, 2, 3), cache.stats());
+    }
+
+    @Test
+    void snapshotOverTheBoundIsNotCached() {
+        cache.get(repository, "big", () -> snapshot(5));
+
+        assertNull(cache.getIfPresent(repository, "big"));
+        assertEquals(new SnapshotCache.Stats(0, 2, 0, 0, 0), cache.stats());
+    }
+
+    @Test
+    void evictDropsOnlyThatRepository() {
+        RepositoryEntity other = RepositoryEntity.builder().id(2L).build();
+        cache.get(repository, "c1", () -> snapshot(1));
+        cache.get(other, "c1", () -> snapshot(2));
+
+        cache.evict(repository);
+
+        assertNull(cache.getIfPresent(repository, "c1"));
+        assertNotNull(cache.getIfPresent(other, "c1"));
+        assertEquals(2, cache.stats().weight());
+    }
+
+    @Test
+    void statsArePublishedAsMeters() {
+        cache.get(repository, "c1", () -> snapshot(3));
+        cache.get(repository, "c1", () -> snapshot(3));
+        cache.get(repository, "c2", () -> snapshot(2));
+
+        assertEquals(1.0, registry.get("chronovcs.snapshot.cache.hits").functionCounter().count());
+        assertEquals(2.0, registry.get("chronovcs.snapshot.cache.misses").functionCounter().count());
+        assertEquals(1.0, registry.get("chronovcs.snapshot.cache.evictions").functionCounter().count());
+        assertEquals(2.0, registry.get("chronovcs.snapshot.cache.weight").gauge().value());
+        assertEquals(1.0, registry.get("chronovcs.snapshot.cache.snapshots").gauge().value());
+    }
+
+    private static FileSnapshot snapshot(int files) {
+        Map<String, String> entries = new HashMap<>();
+        for (int i = 0; i < files; i++) {
+            entries.put("file" + i, "hash" + i);
+        }
+        return FileSnapshot.of(entries);
+    }
+}
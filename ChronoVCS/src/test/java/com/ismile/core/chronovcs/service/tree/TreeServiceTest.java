@@ -0,0 +1,123 @@
+package com.ismile.core.chronovcs.service.tree;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ismile.core.chronovcs.entity.RepositoryEntity;
+import com.ismile.core.chronovcs.entity.TreeEntity;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class TreeServiceTest {
+
+    private final RepositoryEntity repository = RepositoryEntity.builder().id(1L).repoKey("repo").build();
+
+    private InMemoryTrees trees;
+    private PlatformTransactionManager transactionManager;
+    private TreeService treeService;
+
+    @BeforeEach
+    void setUp() {
+        trees = new InMemoryTrees();
+        transactionManager = Mockito.mock(PlatformTransactionManager.class);
+        treeService = new TreeService(trees.repository, new ObjectMapper(), transactionManager);
+    }
+
+    @Test
+    void identicalDirectoriesShareOneTree() {
+        String root = treeService.writeTree(repository, Map.of(
+                "a/x.txt", "h1",
+                "b/x.txt", "h1",
+                "c/x.txt", "h2"));
+
+        // root, a == b, c
+        assertEquals(1, trees.inserts.size());
+        assertEquals(3, trees.inserts.get(0).size());
+        assertEquals(Map.of("a/x.txt", "h1", "b/x.txt", "h1", "c/x.txt", "h2"),
+                treeService.readFiles(repository, root));
+    }
+
+    @Test
+    void existingTreesAreReused() {
+        String first = treeService.writeTree(repository, Map.of("src/a.txt", "h1", "docs/b.txt", "h2"));
+        String second = treeService.writeTree(repository, Map.of("src/a.txt", "h1", "docs/b.txt", "h3"));
+        String again = treeService.writeTree(repository, Map.of("src/a.txt", "h1", "docs/b.txt", "h3"));
+
+        assertNotEquals(first, second);
+        assertEquals(second, again);
+        // The second snapshot only adds its root and docs/; the third adds nothing
+        assertEquals(2, trees.inserts.size());
+        assertEquals(2, trees.inserts.get(1).size());
+        assertFalse(trees.inserts.get(1).contains(first));
+    }
+
+    @Test
+    void concurrentInsertIsRetriedWithoutTheRowsStoredMeanwhile() {
+        Map<String, String> files = Map.of("src/a.txt", "h1", "b.txt", "h2");
+        // Another push stores the same src/ tree first; our insert hits the unique key once
+        List<List<String>> attempts = new ArrayList<>();
+        doAnswer(invocation -> {
+            Iterable<TreeEntity> batch = invocation.getArgument(0);
+            List<String> hashes = new ArrayList<>();
+            batch.forEach(tree -> hashes.add(tree.getHash()));
+            attempts.add(hashes);
+            if (attempts.size() == 1) {
+                batch.forEach(tree -> {
+                    if (tree.getEntriesJson().contains("a.txt")) {
+                        trees.rows.put(tree.getHash(), tree);
+                    }
+                });
+                throw new DataIntegrityViolationException("duplicate key value violates unique constraint \"uk_tree_repo_hash\"");
+            }
+            batch.forEach(tree -> trees.rows.put(tree.getHash(), tree));
+            return batch;
+        }).when(trees.repository).saveAll(any());
+
+        String root = treeService.writeTree(repository, files);
+
+        assertEquals(2, attempts.size());
+        assertEquals(2, attempts.get(0).size());
+        assertEquals(List.of(root), attempts.get(1));
+        assertEquals(files, treeService.readFiles(repository, root));
+        // Each attempt runs in a transaction of its own
+        verify(transactionManager, times(2)).getTransaction(any());
+        verify(transactionManager, times(1)).rollback(any());
+    }
+
+    @Test
+    void persistentConflictIsRethrown() {
+        doAnswer(invocation -> {
+            throw new DataIntegrityViolationException("duplicate key");
+        }).when(trees.repository).saveAll(any());
+
+        assertThrows(DataIntegrityViolationException.class,
+                () -> treeService.writeTree(repository, Map.of("a.txt", "h1")));
+    }
+
+    @Test
+    void diffSkipsEqualSubtrees() {
+        String oldRoot = treeService.writeTree(repository, Map.of("lib/a.txt", "h1", "app/b.txt", "h2"));
+        String newRoot = treeService.writeTree(repository, Map.of("lib/a.txt", "h1", "app/b.txt", "h3"));
+        String lib = treeService.findDirectory(repository, oldRoot, "").orElseThrow().stream()
+                .filter(entry -> entry.getName().equals("lib"))
+                .findFirst().orElseThrow().getHash();
+        trees.loads.clear();
+
+        List<TreeChange> changes = treeService.diffTrees(repository, oldRoot, newRoot);
+
+        assertEquals(1, changes.size());
+        assertEquals("app/b.txt", changes.get(0).getPath());
+        assertTrue(trees.loads.stream().noneMatch(load -> load.contains(lib)));
+    }
+}
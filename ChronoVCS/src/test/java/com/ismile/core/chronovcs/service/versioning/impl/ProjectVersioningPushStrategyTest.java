@@ -0,0 +1,197 @@
+package com.ismile.core.chronovcs.service.versioning.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ismile.core.chronovcs.dto.push.CommitSnapshotDto;
+import com.ismile.core.chronovcs.dto.push.PushRequestDto;
+import com.ismile.core.chronovcs.dto.push.PushResultDto;
+import com.ismile.core.chronovcs.entity.BlobEntity;
+import com.ismile.core.chronovcs.entity.RepositoryEntity;
+import com.ismile.core.chronovcs.service.storage.BlobStorageService;
+import com.ismile.core.chronovcs.service.storage.CommitStorage;
+import com.ismile.core.chronovcs.service.versioning.pack.PushPackFormat;
+import com.ismile.core.chronovcs.service.versioning.pack.PushPackReader;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mockito;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ProjectVersioningPushStrategyTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final RepositoryEntity repo = RepositoryEntity.builder().id(1L).repoKey("repo").build();
+
+    private BlobStorageService blobStorageService;
+    private CommitStorage commitStorage;
+    private PlatformTransactionManager transactionManager;
+    private ProjectVersioningPushStrategy strategy;
+
+    private Map<String, String> written;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        blobStorageService = Mockito.mock(BlobStorageService.class);
+        commitStorage = Mockito.mock(CommitStorage.class);
+        transactionManager = Mockito.mock(PlatformTransactionManager.class);
+        strategy = new ProjectVersioningPushStrategy(
+                blobStorageService, commitStorage, new TransactionTemplate(transactionManager));
+
+        // Stores what each blob stream delivered; "stored" is already in the repository
+        written = new LinkedHashMap<>();
+        when(blobStorageService.writeContent(eq(repo), anyString(), any(InputStream.class), anyLong(), anyString()))
+                .thenAnswer(invocation -> {
+                    String hash = invocation.getArgument(1);
+                    if (hash.equals("5704ed")) {
+                        return Optional.empty();
+                    }
+                    InputStream content = invocation.getArgument(2);
+                    written.put(hash, new String(content.readAllBytes(), StandardCharsets.UTF_8));
+                    return Optional.of(BlobEntity.builder().repository(repo).hash(hash).build());
+                });
+    }
+
+    @Test
+    void packBlobsAreWrittenBeforeTheMetadataTransaction() throws IOException {
+        PushPackReader pack = pack(request(null), blob("aa01", "one"), blob("bb02", "two"));
+
+        PushResultDto result = strategy.handlePackPush(null, repo, header(pack), pack);
+
+        assertEquals(Map.of("aa01", "one", "bb02", "two"), written);
+        assertEquals("c2", result.getNewHeadCommitId());
+        assertTrue(result.isFastForward());
+
+        InOrder order = Mockito.inOrder(blobStorageService, transactionManager, commitStorage);
+        order.verify(blobStorageService).writeContent(eq(repo), eq("bb02"), any(), anyLong(), anyString());
+        order.verify(transactionManager).getTransaction(any());
+        order.verify(blobStorageService).saveMetadata(eq(repo), anyCollection());
+        order.verify(commitStorage).saveCommit(eq(repo), eq("main"), any(CommitSnapshotDto.class));
+        order.verify(commitStorage).updateBranchHead(repo, "main", "c2");
+        order.verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void storedAndRepeatedBlobsAreSkipped() throws IOException {
+        PushPackReader pack = pack(request(null),
+                blob("5704ed", "already there"), blob("aa01", "one"), blob("aa01", "one"), blob("bb02", "two"));
+
+        strategy.handlePackPush(null, repo, header(pack), pack);
+
+        // The skipped frames are drained, so the following blobs still read correctly
+        assertEquals(Map.of("aa01", "one", "bb02", "two"), written);
+        assertEquals(List.of("aa01", "bb02"), savedMetadataHashes());
+    }
+
+    @Test
+    void truncatedPackStoresNoMetadata() throws IOException {
+        byte[] full = packBytes(request(null), blob("aa01", "one"), blob("bb02", "two"));
+        byte[] truncated = Arrays.copyOf(full, full.length - 3);
+        PushPackReader pack = new PushPackReader(new ByteArrayInputStream(truncated), objectMapper);
+
+        assertThrows(RuntimeException.class, () -> strategy.handlePackPush(null, repo, header(pack), pack));
+
+        verify(transactionManager, never()).getTransaction(any());
+        verify(blobStorageService, never()).saveMetadata(any(), anyCollection());
+        verify(commitStorage, never()).saveCommit(any(), anyString(), any());
+    }
+
+    @Test
+    void movedBranchKeepsItsHead() throws IOException {
+        when(commitStorage.getBranchHead(repo, "main")).thenReturn("c9");
+        PushPackReader pack = pack(request("c1"), blob("aa01", "one"));
+
+        PushResultDto result = strategy.handlePackPush(null, repo, header(pack), pack);
+
+        assertFalse(result.isFastForward());
+        assertEquals("c9", result.getNewHeadCommitId());
+        verify(commitStorage).saveCommit(eq(repo), eq("main"), any(CommitSnapshotDto.class));
+        verify(commitStorage, never()).updateBranchHead(any(), anyString(), anyString());
+    }
+
+    @Test
+    void packWithoutBranchIsRejectedBeforeReadingBlobs() throws IOException {
+        PushRequestDto request = request(null);
+        request.setBranch(null);
+        PushPackReader pack = pack(request, blob("aa01", "one"));
+
+        assertThrows(IllegalArgumentException.class, () -> strategy.handlePackPush(null, repo, header(pack), pack));
+
+        assertTrue(written.isEmpty());
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<String> savedMetadataHashes() {
+        ArgumentCaptor<Collection<BlobEntity>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(blobStorageService).saveMetadata(eq(repo), captor.capture());
+        return captor.getValue().stream().map(BlobEntity::getHash).toList();
+    }
+
+    private PushRequestDto request(String baseCommitId) {
+        CommitSnapshotDto commit = new CommitSnapshotDto();
+        commit.setId("c2");
+        commit.setParent(baseCommitId);
+        commit.setFiles(Map.of("a.txt", "aa01"));
+
+        PushRequestDto request = new PushRequestDto();
+        request.setBranch("main");
+        request.setBaseCommitId(baseCommitId);
+        request.setNewCommit(commit);
+        return request;
+    }
+
+    private PushRequestDto header(PushPackReader pack) throws IOException {
+        return pack.readHeader();
+    }
+
+    private PushPackReader pack(PushRequestDto request, String[]... blobs) throws IOException {
+        return new PushPackReader(new ByteArrayInputStream(packBytes(request, blobs)), objectMapper);
+    }
+
+    private byte[] packBytes(PushRequestDto request, String[]... blobs) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        byte[] header = objectMapper.writeValueAsBytes(request);
+        out.write(PushPackFormat.MAGIC);
+        out.writeInt(PushPackFormat.VERSION);
+        out.writeInt(header.length);
+        out.write(header);
+        for (String[] blob : blobs) {
+            byte[] content = blob[1].getBytes(StandardCharsets.UTF_8);
+            out.writeByte(PushPackFormat.FRAME_BLOB);
+            out.writeUTF(blob[0]);
+            out.writeLong(content.length);
+            out.write(content);
+        }
+        out.writeByte(PushPackFormat.FRAME_END);
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private static String[] blob(String hash, String content) {
+        return new String[]{hash, content};
+    }
+}
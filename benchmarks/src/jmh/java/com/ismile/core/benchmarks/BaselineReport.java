@@ -0,0 +1,130 @@
+package com.ismile.core.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.StringJoiner;
+
+/**
+ * Compares a JMH JSON result file with a recorded baseline.
+ *
+ * Usage: {@code BaselineReport <baseline.json> <results.json> <report.md> [thresholdPercent]}
+ *
+ * Prints a table of both scores and the change, writes it as Markdown to the report
+ * file, and exits with 1 if any benchmark got slower by more than the threshold.
+ */
+public final class BaselineReport {
+
+    private static final double DEFAULT_THRESHOLD = 10.0;
+
+    private BaselineReport() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.err.println("Usage: BaselineReport <baseline.json> <results.json> <report.md> [thresholdPercent]");
+            System.exit(2);
+        }
+        Path baselineFile = Path.of(args[0]);
+        Path resultsFile = Path.of(args[1]);
+        Path reportFile = Path.of(args[2]);
+        double threshold = args.length > 3 ? Double.parseDouble(args[3]) : DEFAULT_THRESHOLD;
+
+        if (!Files.exists(resultsFile)) {
+            System.err.println("No JMH results at " + resultsFile + " - run the jmh task first.");
+            System.exit(2);
+        }
+        if (!Files.exists(baselineFile)) {
+            System.err.println("No baseline at " + baselineFile + " - record one with the jmhBaseline task.");
+            System.exit(2);
+        }
+
+        ObjectMapper mapper = new ObjectMapper();
+        Map<String, Score> baseline = read(mapper, baselineFile);
+        Map<String, Score> current = read(mapper, resultsFile);
+
+        StringBuilder report = new StringBuilder()
+                .append("| Benchmark | Baseline | Current | Unit | Change |\n")
+                .append("|---|---:|---:|---|---:|\n");
+        int regressions = 0;
+        for (Map.Entry<String, Score> entry : current.entrySet()) {
+            Score now = entry.getValue();
+            Score before = baseline.get(entry.getKey());
+            if (before == null || !before.unit().equals(now.unit())) {
+                report.append(row(entry.getKey(), "-", format(now), now.unit(), "new"));
+                continue;
+            }
+
+            // Positive change means slower, whatever the mode
+            double change = (now.score() - before.score()) / before.score() * 100;
+            if (now.higherIsBetter()) {
+                change = -change;
+            }
+            // Differences within the combined error bars are noise, not regressions
+            boolean significant = Math.abs(now.score() - before.score()) > now.error() + before.error();
+            boolean regression = significant && change > threshold;
+            if (regression) {
+                regressions++;
+            }
+            String marker = regression ? " REGRESSION" : (significant && change < -threshold ? " faster" : "");
+            report.append(row(entry.getKey(), format(before), format(now), now.unit(),
+                    String.format("%+.1f%%%s", change, marker)));
+        }
+        for (String removed : baseline.keySet()) {
+            if (!current.containsKey(removed)) {
+                report.append(row(removed, format(baseline.get(removed)), "-", baseline.get(removed).unit(), "removed"));
+            }
+        }
+
+        System.out.print(report);
+        Files.createDirectories(reportFile.toAbsolutePath().getParent());
+        Files.writeString(reportFile, "# JMH comparison\n\nRegression threshold: " + threshold + "%\n\n" + report);
+        System.out.println("\nReport written to " + reportFile);
+
+        if (regressions > 0) {
+            System.err.println(regressions + " benchmark(s) regressed by more than " + threshold + "%");
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Benchmark name with its parameters -> primary score.
+     */
+    private static Map<String, Score> read(ObjectMapper mapper, Path file) throws IOException {
+        Map<String, Score> scores = new LinkedHashMap<>();
+        for (JsonNode run : mapper.readTree(file.toFile())) {
+            String name = run.path("benchmark").asText();
+            name = name.substring(name.lastIndexOf('.', name.lastIndexOf('.') - 1) + 1);
+
+            StringJoiner params = new StringJoiner(", ", " (", ")").setEmptyValue("");
+            for (Map.Entry<String, JsonNode> param : run.path("params").properties()) {
+                params.add(param.getKey() + "=" + param.getValue().asText());
+            }
+
+            JsonNode metric = run.path("primaryMetric");
+            double error = metric.path("scoreError").asDouble(0);
+            scores.put(name + params, new Score(
+                    metric.path("score").asDouble(),
+                    Double.isNaN(error) ? 0 : error,
+                    metric.path("scoreUnit").asText(),
+                    "thrpt".equals(run.path("mode").asText())));
+        }
+        return scores;
+    }
+
+    private static String row(String name, String baseline, String current, String unit, String change) {
+        return "| " + name + " | " + baseline + " | " + current + " | " + unit + " | " + change + " |\n";
+    }
+
+    private static String format(Score score) {
+        return String.format("%.3f +- %.3f", score.score(), score.error());
+    }
+
+    private record Score(double score, double error, String unit, boolean higherIsBetter) {
+    }
+}
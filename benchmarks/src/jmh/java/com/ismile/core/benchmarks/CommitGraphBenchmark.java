@@ -0,0 +1,96 @@
+package com.ismile.core.benchmarks;
+
+import com.ismile.core.chronovcs.entity.RepositoryEntity;
+import com.ismile.core.chronovcs.repository.CommitRepository;
+import com.ismile.core.chronovcs.service.graph.CommitGraphIndex;
+import com.ismile.core.chronovcs.service.graph.CommitGraphService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link CommitGraphService#findCommonAncestor} over a generated history, with the
+ * in-memory graph already loaded (warm) and loaded from the repository on each call (cold).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CommitGraphBenchmark {
+
+    @Param({"1000", "100000"})
+    int commits;
+
+    private RepositoryEntity repository;
+    private CommitGraphIndex commitGraphIndex;
+    private CommitGraphService commitGraphService;
+    private String trunkTip;
+    private String oldBranchTip;
+    private String newBranchTip;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        // Side branches of 20 commits every 50 trunk commits
+        SyntheticData.History history = SyntheticData.history(commits, 50, 20);
+        trunkTip = history.trunkTip();
+        oldBranchTip = history.branchTips().get(0);
+        newBranchTip = history.branchTips().get(history.branchTips().size() - 1);
+
+        repository = RepositoryEntity.builder().id(1L).repoKey("bench").build();
+        CommitRepository commitRepository = commitRepository(history.links());
+        commitGraphIndex = new CommitGraphIndex(commitRepository);
+        commitGraphService = new CommitGraphService(commitRepository, commitGraphIndex, null, null, null);
+    }
+
+    /**
+     * Merge base of the trunk and a branch forked near the root: walks the whole trunk.
+     */
+    @Benchmark
+    public String deepMergeBase() {
+        return commitGraphService.findCommonAncestor(repository, trunkTip, oldBranchTip);
+    }
+
+    /**
+     * Merge base of the trunk and a branch forked near the tip.
+     */
+    @Benchmark
+    public String shallowMergeBase() {
+        return commitGraphService.findCommonAncestor(repository, trunkTip, newBranchTip);
+    }
+
+    /**
+     * Deep merge base including loading the graph, as after a restart or eviction.
+     */
+    @Benchmark
+    public String coldMergeBase() {
+        commitGraphIndex.evict(repository);
+        return commitGraphService.findCommonAncestor(repository, trunkTip, oldBranchTip);
+    }
+
+    /**
+     * The two queries the graph needs, answered from the generated links; nothing else is called.
+     */
+    private static CommitRepository commitRepository(List<SyntheticData.Link> links) {
+        List<CommitRepository.CommitParentView> rows = List.copyOf(links);
+        return (CommitRepository) Proxy.newProxyInstance(
+                CommitRepository.class.getClassLoader(),
+                new Class<?>[]{CommitRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "findParentLinksByRepository" -> rows;
+                    case "existsByRepositoryAndCommitId" -> false;
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "CommitRepository(benchmark)";
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
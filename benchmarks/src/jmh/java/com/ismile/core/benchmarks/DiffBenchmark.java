@@ -0,0 +1,55 @@
+package com.ismile.core.benchmarks;
+
+import com.ismile.core.chronovcs.dto.diff.DiffAlgorithm;
+import com.ismile.core.chronovcs.service.diff.DiffService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Line matching of the server {@link DiffService}, the core of patches and line statistics.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DiffBenchmark {
+
+    @Param({"1000", "10000"})
+    int lines;
+
+    @Param({"MYERS", "HISTOGRAM"})
+    DiffAlgorithm algorithm;
+
+    private DiffService diffService;
+    private String[] base;
+    private String[] changed;
+
+    @Setup
+    public void setup() {
+        diffService = newDiffService();
+        base = SyntheticData.lines(lines, SyntheticData.SEED);
+        changed = SyntheticData.edit(base, 0.05, SyntheticData.SEED + 1);
+    }
+
+    @Benchmark
+    public int[] matchLines() {
+        return diffService.matchLines(base, changed, algorithm);
+    }
+
+    /**
+     * Only the pure diff code is measured, so the repositories are never touched.
+     * The edit cost cutoff is set to the configured default.
+     */
+    static DiffService newDiffService() {
+        DiffService diffService = new DiffService(null, null, null, null, null, null);
+        diffService.setMaxEditCost(1024);
+        return diffService;
+    }
+}
@@ -0,0 +1,49 @@
+package com.ismile.core.benchmarks;
+
+import com.ismile.core.chronovcscli.core.hash.impl.Sha256HashEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link Sha256HashEngine#hashFile} on files of different sizes (page cache warm).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class HashBenchmark {
+
+    @Param({"4", "1024", "65536"})
+    int sizeKb;
+
+    private final Sha256HashEngine hashEngine = new Sha256HashEngine();
+    private Path file;
+
+    @Setup
+    public void setup() throws IOException {
+        file = Files.createTempFile("chronovcs-hash-", ".bin");
+        Files.write(file, SyntheticData.bytes(sizeKb * 1024, SyntheticData.SEED));
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public String hashFile() {
+        return hashEngine.hashFile(new File(file.toString()));
+    }
+}
@@ -0,0 +1,60 @@
+package com.ismile.core.benchmarks;
+
+import com.ismile.core.chronovcscli.core.ignore.IgnoreParser;
+import com.ismile.core.chronovcscli.core.ignore.impl.IgnoreEngineImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link IgnoreEngineImpl#isIgnored} over a mix of tracked, ignored and negated paths.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class IgnoreBenchmark {
+
+    private static final int PROBES = 1000;
+
+    private final IgnoreEngineImpl ignoreEngine = new IgnoreEngineImpl(new IgnoreParser());
+    private Path root;
+    private File rootFile;
+    private File[] probes;
+
+    @Setup
+    public void setup() throws IOException {
+        root = Files.createTempDirectory("chronovcs-ignore-");
+        SyntheticData.workingTree(root, 100, SyntheticData.SEED);
+        rootFile = root.toFile();
+        List<String> paths = SyntheticData.ignoreProbes(PROBES, SyntheticData.SEED);
+        probes = paths.stream().map(path -> new File(rootFile, path)).toArray(File[]::new);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Trees.delete(root);
+    }
+
+    /**
+     * Time for {@value #PROBES} lookups.
+     */
+    @Benchmark
+    public void isIgnored(Blackhole blackhole) {
+        for (File probe : probes) {
+            blackhole.consume(ignoreEngine.isIgnored(rootFile, probe));
+        }
+    }
+}
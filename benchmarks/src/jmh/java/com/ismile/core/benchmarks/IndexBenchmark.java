@@ -0,0 +1,78 @@
+package com.ismile.core.benchmarks;
+
+import com.ismile.core.chronovcscli.core.index.IndexEntry;
+import com.ismile.core.chronovcscli.core.index.impl.IndexEngineImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading and writing {@code .vcs/index} with {@link IndexEngineImpl}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class IndexBenchmark {
+
+    @Param({"1000", "100000"})
+    int entries;
+
+    private Path root;
+    private File rootFile;
+    private IndexEngineImpl indexEngine;
+
+    @Setup
+    public void setup() throws IOException {
+        root = Files.createTempDirectory("chronovcs-index-");
+        Files.createDirectories(root.resolve(".vcs"));
+        rootFile = root.toFile();
+
+        Random random = new Random(SyntheticData.SEED);
+        indexEngine = new IndexEngineImpl();
+        for (int i = 0; i < entries; i++) {
+            String path = "src/module" + (i % 50) + "/pkg" + (i % 13) + "/File" + i + ".java";
+            indexEngine.updateFile(IndexEntry.withoutStat(path, hash(random)));
+        }
+        indexEngine.saveIndex(rootFile);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Trees.delete(root);
+    }
+
+    @Benchmark
+    public IndexEngineImpl load() throws IOException {
+        IndexEngineImpl engine = new IndexEngineImpl();
+        engine.loadIndex(rootFile);
+        return engine;
+    }
+
+    @Benchmark
+    public void save() throws IOException {
+        indexEngine.saveIndex(rootFile);
+    }
+
+    private static String hash(Random random) {
+        byte[] bytes = new byte[32];
+        random.nextBytes(bytes);
+        StringBuilder hex = new StringBuilder(64);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+}
@@ -0,0 +1,45 @@
+package com.ismile.core.benchmarks;
+
+import com.ismile.core.chronovcs.service.diff.DiffService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Three-way {@link DiffService#merge} of a file changed on both sides.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MergeBenchmark {
+
+    @Param({"1000", "10000"})
+    int lines;
+
+    private DiffService diffService;
+    private byte[] baseContent;
+    private byte[] localContent;
+    private byte[] remoteContent;
+
+    @Setup
+    public void setup() {
+        diffService = DiffBenchmark.newDiffService();
+        String[] base = SyntheticData.lines(lines, SyntheticData.SEED);
+        // Local and remote edit disjoint halves of the file
+        baseContent = SyntheticData.join(base);
+        localContent = SyntheticData.join(SyntheticData.edit(base, 0.05, SyntheticData.SEED + 2, 0, lines / 2));
+        remoteContent = SyntheticData.join(SyntheticData.edit(base, 0.05, SyntheticData.SEED + 3, lines / 2, lines));
+    }
+
+    @Benchmark
+    public DiffService.MergeAttempt merge() {
+        return diffService.merge(baseContent, localContent, remoteContent);
+    }
+}
@@ -0,0 +1,82 @@
+package com.ismile.core.benchmarks;
+
+import com.ismile.core.chronovcscli.core.add.impl.AddEngineImpl;
+import com.ismile.core.chronovcscli.core.hash.impl.Sha256HashEngine;
+import com.ismile.core.chronovcscli.core.ignore.IgnoreParser;
+import com.ismile.core.chronovcscli.core.ignore.impl.IgnoreEngineImpl;
+import com.ismile.core.chronovcscli.core.index.impl.IndexEngineImpl;
+import com.ismile.core.chronovcscli.core.objectsStore.impl.ObjectStoreImpl;
+import com.ismile.core.chronovcscli.core.status.StatusResult;
+import com.ismile.core.chronovcscli.core.status.impl.StatusEngineImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link StatusEngineImpl#getStatus} on a generated working tree, after {@code add .},
+ * with a share of the files modified since.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class StatusBenchmark {
+
+    @Param({"10000"})
+    int files;
+
+    @Param({"0", "10"})
+    int modifiedPercent;
+
+    @Param({"1", "4"})
+    int jobs;
+
+    private Path root;
+    private File rootFile;
+    private StatusEngineImpl statusEngine;
+
+    @Setup
+    public void setup() throws IOException {
+        root = Files.createTempDirectory("chronovcs-status-");
+        rootFile = root.toFile();
+        List<String> tracked = SyntheticData.workingTree(root, files, SyntheticData.SEED);
+
+        Sha256HashEngine hashEngine = new Sha256HashEngine();
+        IgnoreEngineImpl ignoreEngine = new IgnoreEngineImpl(new IgnoreParser());
+        ObjectStoreImpl objectStore = new ObjectStoreImpl(hashEngine, ignoreEngine);
+        IndexEngineImpl indexEngine = new IndexEngineImpl();
+        new AddEngineImpl(indexEngine, ignoreEngine, objectStore).add(rootFile, ".", jobs);
+
+        Random random = new Random(SyntheticData.SEED);
+        for (String path : tracked) {
+            if (random.nextInt(100) < modifiedPercent) {
+                Files.writeString(root.resolve(path), "\n// edited", StandardOpenOption.APPEND);
+            }
+        }
+        statusEngine = new StatusEngineImpl(ignoreEngine, hashEngine, objectStore, indexEngine);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Trees.delete(root);
+    }
+
+    @Benchmark
+    public StatusResult status() throws IOException {
+        return statusEngine.getStatus(rootFile, jobs);
+    }
+}
@@ -0,0 +1,202 @@
+package com.ismile.core.benchmarks;
+
+import com.ismile.core.chronovcs.repository.CommitRepository;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic inputs for the benchmarks. Everything is derived from a fixed seed,
+ * so two runs (and a run against the baseline) measure exactly the same data.
+ */
+final class SyntheticData {
+
+    static final long SEED = 42;
+
+    private static final String[] KEYWORDS = {
+            "if", "for", "return", "final", "int", "String", "List", "Map", "new", "null", "this", "while"
+    };
+
+    private SyntheticData() {
+    }
+
+    /**
+     * Code-like lines: indentation, a few tokens and a closing brace every so often,
+     * so both unique and frequently repeated lines occur as in real sources.
+     */
+    static String[] lines(int count, long seed) {
+        Random random = new Random(seed);
+        String[] lines = new String[count];
+        for (int i = 0; i < count; i++) {
+            int roll = random.nextInt(10);
+            if (roll == 0) {
+                lines[i] = "    }";
+            } else if (roll == 1) {
+                lines[i] = "";
+            } else {
+                StringBuilder line = new StringBuilder("        ");
+                int tokens = 2 + random.nextInt(6);
+                for (int t = 0; t < tokens; t++) {
+                    line.append(KEYWORDS[random.nextInt(KEYWORDS.length)]).append(' ');
+                }
+                line.append("v").append(random.nextInt(count)).append(';');
+                lines[i] = line.toString();
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * Edit about {@code fraction} of the lines: replace, insert or delete, in equal parts.
+     */
+    static String[] edit(String[] lines, double fraction, long seed) {
+        return edit(lines, fraction, seed, 0, lines.length);
+    }
+
+    /**
+     * Same as {@link #edit(String[], double, long)}, restricted to lines {@code [from, to)},
+     * so two edits of the same base can be made to touch disjoint regions.
+     */
+    static String[] edit(String[] lines, double fraction, long seed, int from, int to) {
+        Random random = new Random(seed);
+        List<String> result = new ArrayList<>(lines.length + lines.length / 10);
+        for (int i = 0; i < lines.length; i++) {
+            if (i < from || i >= to || random.nextDouble() >= fraction) {
+                result.add(lines[i]);
+                continue;
+            }
+            switch (random.nextInt(3)) {
+                case 0 -> result.add(lines[i] + " // changed " + random.nextInt(1000));
+                case 1 -> {
+                    result.add("        inserted(" + random.nextInt(1000) + ");");
+                    result.add(lines[i]);
+                }
+                default -> {
+                    // deleted
+                }
+            }
+        }
+        return result.toArray(String[]::new);
+    }
+
+    static byte[] join(String[] lines) {
+        return (String.join("\n", lines) + "\n").getBytes(StandardCharsets.UTF_8);
+    }
+
+    static byte[] bytes(int size, long seed) {
+        byte[] data = new byte[size];
+        new Random(seed).nextBytes(data);
+        return data;
+    }
+
+    /**
+     * Working tree of {@code files} small source files spread over nested directories,
+     * with a {@code .chronoignore} and some ignored build output next to them.
+     *
+     * @return relative paths of the tracked (non-ignored) files
+     */
+    static List<String> workingTree(Path root, int files, long seed) throws IOException {
+        Random random = new Random(seed);
+        Files.createDirectories(root.resolve(".vcs"));
+        Files.writeString(root.resolve(".chronoignore"), String.join("\n",
+                "# generated",
+                "build/",
+                "*.log",
+                "*.class",
+                "tmp-*",
+                "!important.log",
+                "docs/**/draft-*.md",
+                ""));
+
+        List<String> tracked = new ArrayList<>(files);
+        for (int i = 0; i < files; i++) {
+            String dir = "src/module" + (i % 20) + "/pkg" + (i % 7) + "/sub" + (i % 3);
+            String path = dir + "/File" + i + ".java";
+            write(root, path, String.join("\n", lines(20 + random.nextInt(40), seed + i)));
+            tracked.add(path);
+        }
+        for (int i = 0; i < files / 10; i++) {
+            write(root, "build/classes/module" + (i % 20) + "/File" + i + ".class", "compiled " + i);
+            write(root, "logs/run" + i + ".log", "log " + i);
+        }
+        return tracked;
+    }
+
+    /**
+     * Paths to probe the ignore rules with: tracked sources, ignored output and negated entries.
+     */
+    static List<String> ignoreProbes(int count, long seed) {
+        Random random = new Random(seed);
+        List<String> paths = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int n = random.nextInt(1000);
+            paths.add(switch (random.nextInt(6)) {
+                case 0 -> "build/classes/module" + (n % 20) + "/File" + n + ".class";
+                case 1 -> "logs/run" + n + ".log";
+                case 2 -> "logs/important.log";
+                case 3 -> "docs/guide/v" + (n % 5) + "/draft-" + n + ".md";
+                case 4 -> "src/module" + (n % 20) + "/tmp-" + n + ".txt";
+                default -> "src/module" + (n % 20) + "/pkg" + (n % 7) + "/sub" + (n % 3) + "/File" + n + ".java";
+            });
+        }
+        return paths;
+    }
+
+    /**
+     * Commit history as parent links: a trunk of {@code commits} commits, with a side
+     * branch of {@code branchLength} commits forking off every {@code branchEvery} commits.
+     */
+    static History history(int commits, int branchEvery, int branchLength) {
+        List<Link> links = new ArrayList<>();
+        List<String> branchTips = new ArrayList<>();
+
+        String parent = null;
+        for (int i = 0; i < commits; i++) {
+            String id = commitId("t", i);
+            links.add(new Link(id, parent));
+            parent = id;
+
+            if (i > 0 && i % branchEvery == 0) {
+                String branchParent = id;
+                for (int b = 0; b < branchLength; b++) {
+                    String branchId = commitId("b" + i + "-", b);
+                    links.add(new Link(branchId, branchParent));
+                    branchParent = branchId;
+                }
+                branchTips.add(branchParent);
+            }
+        }
+        return new History(links, parent, branchTips);
+    }
+
+    private static String commitId(String prefix, int n) {
+        // 64 hex-ish characters like a real commit id
+        return String.format("%64s", prefix + n).replace(' ', '0');
+    }
+
+    private static void write(Path root, String path, String content) throws IOException {
+        Path file = root.resolve(path);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, content);
+    }
+
+    record Link(String commitId, String parentCommitId) implements CommitRepository.CommitParentView {
+        @Override
+        public String getCommitId() {
+            return commitId;
+        }
+
+        @Override
+        public String getParentCommitId() {
+            return parentCommitId;
+        }
+    }
+
+    record History(List<Link> links, String trunkTip, List<String> branchTips) {
+    }
+}